@@ -10,6 +10,11 @@ import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
 // Placeholder for the functionality that could be shared across Create/Read/Update/Delete/List Handlers
 
 public abstract class BaseHandlerStd extends BaseHandler<CallbackContext> {
+  // Runs during the init phase of the container, so that the first request does not pay for loading the SDK and Translator
+  static {
+    Priming.primeOnInit();
+  }
+
   @Override
   public final ProgressEvent<ResourceModel,CallbackContext> handleRequest(
           final AmazonWebServicesClientProxy proxy,
@@ -20,7 +25,7 @@ public abstract class BaseHandlerStd extends BaseHandler<CallbackContext> {
             proxy,
             request,
             callbackContext != null ? callbackContext : new software.amazon.events.apidestination.CallbackContext(),
-            proxy.newProxy(ClientBuilder::getClient),
+            RateLimiter.limit(proxy.newProxy(ClientBuilder::getClient)),
             logger
     );
   }
@@ -21,7 +21,7 @@ public class ListHandler extends BaseHandlerStd {
             final Logger logger) {
 
         final ListApiDestinationsRequest awsRequest = Translator.translateToListRequest(request.getNextToken());
-        ListApiDestinationsResponse awsResponse = proxy.injectCredentialsAndInvokeV2(awsRequest, proxyClient.client()::listApiDestinations);
+        ListApiDestinationsResponse awsResponse = proxyClient.injectCredentialsAndInvokeV2(awsRequest, proxyClient.client()::listApiDestinations);
 
         String nextToken = awsResponse.nextToken();
         return ProgressEvent.<ResourceModel, CallbackContext>builder()
@@ -0,0 +1,375 @@
+package software.amazon.events.apidestination;
+
+import software.amazon.awssdk.awscore.exception.AwsErrorDetails;
+import software.amazon.awssdk.awscore.exception.AwsServiceException;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.services.eventbridge.EventBridgeClient;
+import software.amazon.awssdk.services.eventbridge.model.ApiDestination;
+import software.amazon.awssdk.services.eventbridge.model.ApiDestinationState;
+import software.amazon.awssdk.services.eventbridge.model.CreateApiDestinationRequest;
+import software.amazon.awssdk.services.eventbridge.model.CreateApiDestinationResponse;
+import software.amazon.awssdk.services.eventbridge.model.DeleteApiDestinationRequest;
+import software.amazon.awssdk.services.eventbridge.model.DeleteApiDestinationResponse;
+import software.amazon.awssdk.services.eventbridge.model.DescribeApiDestinationRequest;
+import software.amazon.awssdk.services.eventbridge.model.DescribeApiDestinationResponse;
+import software.amazon.awssdk.services.eventbridge.model.EventBridgeException;
+import software.amazon.awssdk.services.eventbridge.model.LimitExceededException;
+import software.amazon.awssdk.services.eventbridge.model.ListApiDestinationsRequest;
+import software.amazon.awssdk.services.eventbridge.model.ListApiDestinationsResponse;
+import software.amazon.awssdk.services.eventbridge.model.ResourceAlreadyExistsException;
+import software.amazon.awssdk.services.eventbridge.model.ResourceNotFoundException;
+import software.amazon.awssdk.services.eventbridge.model.UpdateApiDestinationRequest;
+import software.amazon.awssdk.services.eventbridge.model.UpdateApiDestinationResponse;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * A stateful, in-memory stand-in for the EventBridge API destination APIs, so that the handlers can be run end to
+ * end, at high concurrency, without a network.
+ *
+ * API destinations must have unique names and refer to one of the connections the fake was built with. The number of
+ * API destinations and their invocation rate are limited, and List calls are paginated. Every call can be slowed down
+ * by a fixed latency and throttled at a given rate. Writes are visible to reads immediately, because the handlers read
+ * the API destination right after writing it and don't wait for it to stabilize.
+ */
+class FakeEventBridgeClient implements EventBridgeClient {
+    static final int MAX_PAGE_SIZE = 100;
+    static final int MAX_INVOCATION_RATE_LIMIT_PER_SECOND = 300;
+
+    // The default quota of API destinations per account
+    static final int DEFAULT_MAX_API_DESTINATIONS = 3000;
+
+    private static final String ARN_PREFIX = "arn:aws:events:us-west-2:123456789123:api-destination/";
+
+    private final Duration latency;
+    private final double throttleRate;
+    private final int maxApiDestinations;
+    private final Set<String> connectionArns;
+
+    // Keyed by API destination name; guarded by this
+    private final Map<String, StoredApiDestination> apiDestinations = new TreeMap<>();
+
+    private final Map<String, AtomicInteger> callCounts = new ConcurrentHashMap<>();
+
+    private FakeEventBridgeClient(final Builder builder) {
+        this.latency = builder.latency;
+        this.throttleRate = builder.throttleRate;
+        this.maxApiDestinations = builder.maxApiDestinations;
+        this.connectionArns = new HashSet<>(builder.connectionArns);
+    }
+
+    static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @param operation The name of an operation, e.g. "DescribeApiDestination"
+     * @return How often the operation has been called, including throttled calls
+     */
+    int callCount(final String operation) {
+        final AtomicInteger count = callCounts.get(operation);
+        return count == null ? 0 : count.get();
+    }
+
+    /**
+     * @return The number of API destinations that exist
+     */
+    synchronized int apiDestinationCount() {
+        return apiDestinations.size();
+    }
+
+    @Override
+    public String serviceName() {
+        return SERVICE_NAME;
+    }
+
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public CreateApiDestinationResponse createApiDestination(final CreateApiDestinationRequest request) {
+        beforeCall("CreateApiDestination");
+
+        validate(request.connectionArn(), request.invocationRateLimitPerSecond());
+
+        synchronized (this) {
+            if (apiDestinations.containsKey(request.name())) {
+                throw (ResourceAlreadyExistsException) serviceException(ResourceAlreadyExistsException.builder(), "ResourceAlreadyExistsException",
+                        String.format("An api-destination '%s' already exists.", request.name()));
+            }
+            if (apiDestinations.size() >= maxApiDestinations) {
+                throw (LimitExceededException) serviceException(LimitExceededException.builder(), "LimitExceededException",
+                        String.format("The requested resource exceeds the maximum number allowed. An account can have at most %s api-destinations.", maxApiDestinations));
+            }
+
+            final StoredApiDestination apiDestination = new StoredApiDestination(request);
+            apiDestinations.put(request.name(), apiDestination);
+
+            return CreateApiDestinationResponse.builder()
+                    .apiDestinationArn(apiDestination.arn)
+                    .apiDestinationState(ApiDestinationState.ACTIVE)
+                    .creationTime(apiDestination.creationTime)
+                    .lastModifiedTime(apiDestination.lastModifiedTime)
+                    .build();
+        }
+    }
+
+    @Override
+    public DescribeApiDestinationResponse describeApiDestination(final DescribeApiDestinationRequest request) {
+        beforeCall("DescribeApiDestination");
+
+        synchronized (this) {
+            final StoredApiDestination apiDestination = existingApiDestination(request.name());
+
+            return DescribeApiDestinationResponse.builder()
+                    .name(apiDestination.name)
+                    .apiDestinationArn(apiDestination.arn)
+                    .apiDestinationState(ApiDestinationState.ACTIVE)
+                    .description(apiDestination.description)
+                    .connectionArn(apiDestination.connectionArn)
+                    .invocationEndpoint(apiDestination.invocationEndpoint)
+                    .httpMethod(apiDestination.httpMethod)
+                    .invocationRateLimitPerSecond(apiDestination.invocationRateLimitPerSecond)
+                    .creationTime(apiDestination.creationTime)
+                    .lastModifiedTime(apiDestination.lastModifiedTime)
+                    .build();
+        }
+    }
+
+    @Override
+    public UpdateApiDestinationResponse updateApiDestination(final UpdateApiDestinationRequest request) {
+        beforeCall("UpdateApiDestination");
+
+        validate(request.connectionArn(), request.invocationRateLimitPerSecond());
+
+        synchronized (this) {
+            final StoredApiDestination apiDestination = existingApiDestination(request.name());
+            apiDestination.update(request);
+
+            return UpdateApiDestinationResponse.builder()
+                    .apiDestinationArn(apiDestination.arn)
+                    .apiDestinationState(ApiDestinationState.ACTIVE)
+                    .creationTime(apiDestination.creationTime)
+                    .lastModifiedTime(apiDestination.lastModifiedTime)
+                    .build();
+        }
+    }
+
+    @Override
+    public DeleteApiDestinationResponse deleteApiDestination(final DeleteApiDestinationRequest request) {
+        beforeCall("DeleteApiDestination");
+
+        synchronized (this) {
+            existingApiDestination(request.name());
+            apiDestinations.remove(request.name());
+
+            return DeleteApiDestinationResponse.builder().build();
+        }
+    }
+
+    @Override
+    public ListApiDestinationsResponse listApiDestinations(final ListApiDestinationsRequest request) {
+        beforeCall("ListApiDestinations");
+
+        synchronized (this) {
+            final List<StoredApiDestination> matching = apiDestinations.values().stream()
+                    .filter(apiDestination -> request.namePrefix() == null || apiDestination.name.startsWith(request.namePrefix()))
+                    .filter(apiDestination -> request.connectionArn() == null || apiDestination.connectionArn.equals(request.connectionArn()))
+                    .collect(Collectors.toList());
+
+            final int pageSize = request.limit() == null ? MAX_PAGE_SIZE : Math.min(request.limit(), MAX_PAGE_SIZE);
+            final int offset;
+            try {
+                offset = request.nextToken() == null ? 0 : Integer.parseInt(request.nextToken());
+            } catch (NumberFormatException e) {
+                throw validationException("The nextToken is not valid.");
+            }
+            final int end = Math.min(matching.size(), offset + pageSize);
+
+            return ListApiDestinationsResponse.builder()
+                    .apiDestinations(matching.subList(Math.min(offset, end), end).stream()
+                            .map(apiDestination -> ApiDestination.builder()
+                                    .name(apiDestination.name)
+                                    .apiDestinationArn(apiDestination.arn)
+                                    .apiDestinationState(ApiDestinationState.ACTIVE)
+                                    .connectionArn(apiDestination.connectionArn)
+                                    .invocationEndpoint(apiDestination.invocationEndpoint)
+                                    .httpMethod(apiDestination.httpMethod)
+                                    .invocationRateLimitPerSecond(apiDestination.invocationRateLimitPerSecond)
+                                    .creationTime(apiDestination.creationTime)
+                                    .lastModifiedTime(apiDestination.lastModifiedTime)
+                                    .build())
+                            .collect(Collectors.toList()))
+                    .nextToken(end < matching.size() ? String.valueOf(end) : null)
+                    .build();
+        }
+    }
+
+    /**
+     * Counts the call, waits for the configured latency and throttles the call at the configured rate. The latency is
+     * spent outside of the lock, so that concurrent calls overlap as they would against the service.
+     */
+    private void beforeCall(final String operation) {
+        callCounts.computeIfAbsent(operation, key -> new AtomicInteger()).incrementAndGet();
+
+        if (!latency.isZero()) {
+            try {
+                Thread.sleep(latency.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw SdkClientException.builder().message("Interrupted while calling " + operation).cause(e).build();
+            }
+        }
+
+        if (throttleRate > 0 && ThreadLocalRandom.current().nextDouble() < throttleRate) {
+            throw serviceException(EventBridgeException.builder(), "ThrottlingException", "Rate exceeded");
+        }
+    }
+
+    private void validate(final String connectionArn, final Integer invocationRateLimitPerSecond) {
+        if (invocationRateLimitPerSecond != null
+                && (invocationRateLimitPerSecond < 1 || invocationRateLimitPerSecond > MAX_INVOCATION_RATE_LIMIT_PER_SECOND)) {
+            throw validationException(String.format("Value at 'invocationRateLimitPerSecond' failed to satisfy constraint: Member must have value between 1 and %s",
+                    MAX_INVOCATION_RATE_LIMIT_PER_SECOND));
+        }
+        if (connectionArn != null && !connectionArns.contains(connectionArn)) {
+            throw (ResourceNotFoundException) serviceException(ResourceNotFoundException.builder(), "ResourceNotFoundException",
+                    String.format("Connection '%s' does not exist.", connectionArn));
+        }
+    }
+
+    private StoredApiDestination existingApiDestination(final String name) {
+        final StoredApiDestination apiDestination = apiDestinations.get(name);
+
+        if (apiDestination == null) {
+            throw (ResourceNotFoundException) serviceException(ResourceNotFoundException.builder(), "ResourceNotFoundException",
+                    String.format("Failed to describe the api-destination(s). An api-destination '%s' does not exist.", name));
+        }
+        return apiDestination;
+    }
+
+    private static EventBridgeException validationException(final String message) {
+        return (EventBridgeException) serviceException(EventBridgeException.builder(), "ValidationException", message);
+    }
+
+    private static AwsServiceException serviceException(final AwsServiceException.Builder builder, final String errorCode, final String message) {
+        return builder
+                .message(message)
+                .statusCode(400)
+                .awsErrorDetails(AwsErrorDetails.builder()
+                        .errorCode(errorCode)
+                        .errorMessage(message)
+                        .serviceName("EventBridge")
+                        .build())
+                .build();
+    }
+
+    /**
+     * An API destination as it is stored by the service.
+     */
+    private static final class StoredApiDestination {
+        private final String name;
+        private final String arn;
+        private final Instant creationTime;
+        private Instant lastModifiedTime;
+        private String description;
+        private String connectionArn;
+        private String invocationEndpoint;
+        private String httpMethod;
+        private Integer invocationRateLimitPerSecond;
+
+        private StoredApiDestination(final CreateApiDestinationRequest request) {
+            this.name = request.name();
+            this.arn = ARN_PREFIX + request.name() + "/" + UUID.randomUUID();
+            this.creationTime = Instant.now();
+            this.lastModifiedTime = creationTime;
+            this.description = request.description();
+            this.connectionArn = request.connectionArn();
+            this.invocationEndpoint = request.invocationEndpoint();
+            this.httpMethod = request.httpMethodAsString();
+            this.invocationRateLimitPerSecond = request.invocationRateLimitPerSecond() == null
+                    ? MAX_INVOCATION_RATE_LIMIT_PER_SECOND
+                    : request.invocationRateLimitPerSecond();
+        }
+
+        /**
+         * Applies the parts of an update that are set; everything else keeps its current value, as in the service.
+         */
+        private void update(final UpdateApiDestinationRequest request) {
+            if (request.description() != null) {
+                description = request.description();
+            }
+            if (request.connectionArn() != null) {
+                connectionArn = request.connectionArn();
+            }
+            if (request.invocationEndpoint() != null) {
+                invocationEndpoint = request.invocationEndpoint();
+            }
+            if (request.httpMethod() != null) {
+                httpMethod = request.httpMethodAsString();
+            }
+            if (request.invocationRateLimitPerSecond() != null) {
+                invocationRateLimitPerSecond = request.invocationRateLimitPerSecond();
+            }
+            lastModifiedTime = Instant.now();
+        }
+    }
+
+    static final class Builder {
+        private Duration latency = Duration.ZERO;
+        private double throttleRate;
+        private int maxApiDestinations = DEFAULT_MAX_API_DESTINATIONS;
+        private final Set<String> connectionArns = new HashSet<>();
+
+        private Builder() {
+        }
+
+        /**
+         * @param latency How long every call takes
+         */
+        Builder latency(final Duration latency) {
+            this.latency = latency;
+            return this;
+        }
+
+        /**
+         * @param throttleRate The fraction of calls, from 0 to 1, that fail with a ThrottlingException
+         */
+        Builder throttleRate(final double throttleRate) {
+            this.throttleRate = throttleRate;
+            return this;
+        }
+
+        /**
+         * @param maxApiDestinations How many API destinations can exist at once
+         */
+        Builder maxApiDestinations(final int maxApiDestinations) {
+            this.maxApiDestinations = maxApiDestinations;
+            return this;
+        }
+
+        /**
+         * @param connectionArn A connection that API destinations can refer to
+         */
+        Builder connection(final String connectionArn) {
+            this.connectionArns.add(connectionArn);
+            return this;
+        }
+
+        FakeEventBridgeClient build() {
+            return new FakeEventBridgeClient(this);
+        }
+    }
+}
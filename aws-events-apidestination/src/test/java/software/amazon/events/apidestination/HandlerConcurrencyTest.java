@@ -0,0 +1,215 @@
+package software.amazon.events.apidestination;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import software.amazon.awssdk.services.eventbridge.EventBridgeClient;
+import software.amazon.cloudformation.exceptions.CfnAlreadyExistsException;
+import software.amazon.cloudformation.exceptions.CfnGeneralServiceException;
+import software.amazon.cloudformation.exceptions.CfnNotFoundException;
+import software.amazon.cloudformation.exceptions.CfnServiceLimitExceededException;
+import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
+import software.amazon.cloudformation.proxy.OperationStatus;
+import software.amazon.cloudformation.proxy.ProgressEvent;
+import software.amazon.cloudformation.proxy.ProxyClient;
+import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import static software.amazon.events.apidestination.TestConstants.API_DESTINATION_NAME;
+import static software.amazon.events.apidestination.TestConstants.CONNECTION_ARN;
+import static software.amazon.events.apidestination.TestConstants.ENDPOINT;
+import static software.amazon.events.apidestination.TestConstants.INVOCATION_RATE_LIMIT;
+import static software.amazon.events.apidestination.TestConstants.NOT_EXISTING_CONNECTION_ARN;
+
+/**
+ * Runs the handlers end to end against FakeEventBridgeClient, many API destinations at a time.
+ */
+public class HandlerConcurrencyTest extends AbstractTestBase {
+
+    private static final int API_DESTINATION_COUNT = 250;
+    private static final int THREAD_COUNT = 32;
+
+    private ExecutorService executor;
+
+    @BeforeEach
+    public void setup() {
+        executor = Executors.newFixedThreadPool(THREAD_COUNT);
+    }
+
+    @AfterEach
+    public void tear_down() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void handleRequest_ConcurrentLifecycle() throws Exception {
+        final FakeEventBridgeClient eventBridgeClient = FakeEventBridgeClient.builder()
+                .latency(Duration.ofMillis(1))
+                .connection(CONNECTION_ARN)
+                .build();
+
+        // MODEL
+
+        final List<ResourceModel> models = new ArrayList<>();
+        final List<ResourceModel> updatedModels = new ArrayList<>();
+        for (int i = 0; i < API_DESTINATION_COUNT; i++) {
+            models.add(buildModel(i, "GET", INVOCATION_RATE_LIMIT));
+            updatedModels.add(buildModel(i, "POST", INVOCATION_RATE_LIMIT * 2));
+        }
+
+        // RUN + ASSERT [create]
+
+        assertAllSucceed(runAll(models, CreateHandler::new, eventBridgeClient));
+        assertThat(eventBridgeClient.apiDestinationCount()).isEqualTo(API_DESTINATION_COUNT);
+
+        // RUN + ASSERT [update]
+
+        assertAllSucceed(runAll(updatedModels, UpdateHandler::new, eventBridgeClient));
+
+        // RUN + ASSERT [read]
+
+        final List<ProgressEvent<ResourceModel, CallbackContext>> readResponses = runAll(updatedModels, ReadHandler::new, eventBridgeClient);
+        assertAllSucceed(readResponses);
+
+        for (ProgressEvent<ResourceModel, CallbackContext> response : readResponses) {
+            assertThat(response.getResourceModel().getHttpMethod()).isEqualTo("POST");
+            assertThat(response.getResourceModel().getInvocationRateLimitPerSecond()).isEqualTo(INVOCATION_RATE_LIMIT * 2);
+            assertThat(response.getResourceModel().getConnectionArn()).isEqualTo(CONNECTION_ARN);
+        }
+
+        // RUN + ASSERT [list, page by page]
+
+        final List<ResourceModel> listedModels = new ArrayList<>();
+        String nextToken = null;
+        do {
+            final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                    .nextToken(nextToken)
+                    .build();
+
+            final ProgressEvent<ResourceModel, CallbackContext> response = run(new ListHandler(), request, eventBridgeClient);
+            assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+
+            listedModels.addAll(response.getResourceModels());
+            nextToken = response.getNextToken();
+        } while (nextToken != null);
+
+        assertThat(listedModels)
+                .extracting(ResourceModel::getName)
+                .containsExactlyInAnyOrderElementsOf(models.stream().map(ResourceModel::getName).collect(Collectors.toList()));
+        assertThat(eventBridgeClient.callCount("ListApiDestinations")).isEqualTo(3);
+
+        // RUN + ASSERT [delete]
+
+        assertAllSucceed(runAll(updatedModels, DeleteHandler::new, eventBridgeClient));
+        assertThat(eventBridgeClient.apiDestinationCount()).isZero();
+    }
+
+    @Test
+    public void handleRequest_AlreadyExists() {
+        final FakeEventBridgeClient eventBridgeClient = FakeEventBridgeClient.builder()
+                .connection(CONNECTION_ARN)
+                .build();
+
+        run(new CreateHandler(), buildModel(0, "GET", INVOCATION_RATE_LIMIT), eventBridgeClient);
+
+        assertThrows(CfnAlreadyExistsException.class, () -> run(new CreateHandler(), buildModel(0, "GET", INVOCATION_RATE_LIMIT), eventBridgeClient));
+    }
+
+    @Test
+    public void handleRequest_ConnectionNotFound() {
+        final FakeEventBridgeClient eventBridgeClient = FakeEventBridgeClient.builder()
+                .connection(CONNECTION_ARN)
+                .build();
+
+        final ResourceModel model = ResourceModel.builder()
+                .name(API_DESTINATION_NAME)
+                .connectionArn(NOT_EXISTING_CONNECTION_ARN)
+                .httpMethod("GET")
+                .invocationEndpoint(ENDPOINT)
+                .build();
+
+        assertThrows(CfnNotFoundException.class, () -> run(new CreateHandler(), model, eventBridgeClient));
+        assertThat(eventBridgeClient.apiDestinationCount()).isZero();
+    }
+
+    @Test
+    public void handleRequest_LimitExceeded() {
+        final FakeEventBridgeClient eventBridgeClient = FakeEventBridgeClient.builder()
+                .connection(CONNECTION_ARN)
+                .maxApiDestinations(1)
+                .build();
+
+        run(new CreateHandler(), buildModel(0, "GET", INVOCATION_RATE_LIMIT), eventBridgeClient);
+
+        assertThrows(CfnServiceLimitExceededException.class, () -> run(new CreateHandler(), buildModel(1, "GET", INVOCATION_RATE_LIMIT), eventBridgeClient));
+    }
+
+    @Test
+    public void handleRequest_Throttled() {
+        final FakeEventBridgeClient eventBridgeClient = FakeEventBridgeClient.builder()
+                .throttleRate(1)
+                .build();
+
+        assertThrows(CfnGeneralServiceException.class, () -> run(new ReadHandler(), buildModel(0, "GET", INVOCATION_RATE_LIMIT), eventBridgeClient));
+        assertThat(eventBridgeClient.callCount("DescribeApiDestination")).isEqualTo(1);
+    }
+
+    private List<ProgressEvent<ResourceModel, CallbackContext>> runAll(final List<ResourceModel> models, final Supplier<BaseHandlerStd> handlers, final EventBridgeClient eventBridgeClient) throws Exception {
+        final List<Callable<ProgressEvent<ResourceModel, CallbackContext>>> calls = models.stream()
+                .map(model -> (Callable<ProgressEvent<ResourceModel, CallbackContext>>) () -> run(handlers.get(), model, eventBridgeClient))
+                .collect(Collectors.toList());
+
+        final List<ProgressEvent<ResourceModel, CallbackContext>> responses = new ArrayList<>();
+        for (Future<ProgressEvent<ResourceModel, CallbackContext>> future : executor.invokeAll(calls)) {
+            responses.add(future.get());
+        }
+        return responses;
+    }
+
+    private static ProgressEvent<ResourceModel, CallbackContext> run(final BaseHandlerStd handler, final ResourceModel model, final EventBridgeClient eventBridgeClient) {
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(model)
+                .build();
+
+        return run(handler, request, eventBridgeClient);
+    }
+
+    /**
+     * Invokes a handler with a new proxy, as in a Lambda container.
+     */
+    private static ProgressEvent<ResourceModel, CallbackContext> run(final BaseHandlerStd handler, final ResourceHandlerRequest<ResourceModel> request, final EventBridgeClient eventBridgeClient) {
+        final AmazonWebServicesClientProxy proxy = new AmazonWebServicesClientProxy(logger, MOCK_CREDENTIALS, () -> Duration.ofSeconds(600).toMillis());
+        final ProxyClient<EventBridgeClient> proxyClient = MOCK_PROXY(proxy, eventBridgeClient);
+
+        return handler.handleRequest(proxy, request, new CallbackContext(), proxyClient, logger);
+    }
+
+    private static void assertAllSucceed(final List<ProgressEvent<ResourceModel, CallbackContext>> responses) {
+        assertThat(responses)
+                .extracting(ProgressEvent::getStatus)
+                .containsOnly(OperationStatus.SUCCESS);
+    }
+
+    private static ResourceModel buildModel(final int i, final String httpMethod, final int invocationRateLimitPerSecond) {
+        return ResourceModel.builder()
+                .name(API_DESTINATION_NAME + i)
+                .connectionArn(CONNECTION_ARN)
+                .httpMethod(httpMethod)
+                .invocationRateLimitPerSecond(invocationRateLimitPerSecond)
+                .invocationEndpoint(ENDPOINT)
+                .build();
+    }
+}
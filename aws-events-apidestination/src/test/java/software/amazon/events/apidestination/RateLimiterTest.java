@@ -0,0 +1,70 @@
+package software.amazon.events.apidestination;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class RateLimiterTest {
+
+    private AtomicLong clock;
+    private RateLimiter rateLimiter;
+
+    @BeforeEach
+    public void setup() {
+        clock = new AtomicLong();
+        rateLimiter = new RateLimiter(10, 10, clock::get);
+    }
+
+    @Test
+    public void reserve_BurstThenPaced() {
+        for (int i = 0; i < 10; i++) {
+            assertThat(rateLimiter.reserve()).isZero();
+        }
+
+        // Calls beyond the burst wait in turn, one tenth of a second apart
+        assertThat(rateLimiter.reserve()).isEqualTo(TimeUnit.MILLISECONDS.toNanos(100));
+        assertThat(rateLimiter.reserve()).isEqualTo(TimeUnit.MILLISECONDS.toNanos(200));
+        assertThat(rateLimiter.reserve()).isEqualTo(TimeUnit.MILLISECONDS.toNanos(300));
+    }
+
+    @Test
+    public void reserve_Refills() {
+        for (int i = 0; i < 10; i++) {
+            rateLimiter.reserve();
+        }
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(500));
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(rateLimiter.reserve()).isZero();
+        }
+        assertThat(rateLimiter.reserve()).isEqualTo(TimeUnit.MILLISECONDS.toNanos(100));
+    }
+
+    @Test
+    public void reserve_RefillsUpToBurst() {
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(60));
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(rateLimiter.reserve()).isZero();
+        }
+        assertThat(rateLimiter.reserve()).isPositive();
+    }
+
+    @Test
+    public void forOperation_OneLimiterPerApi() {
+        assertThat(RateLimiter.forOperation("CreateApiDestination")).isSameAs(RateLimiter.forOperation("CreateApiDestination"));
+        assertThat(RateLimiter.forOperation("CreateApiDestination")).isNotSameAs(RateLimiter.forOperation("DescribeApiDestination"));
+    }
+
+    @Test
+    public void invalidRateLimit() {
+        assertThatThrownBy(() -> new RateLimiter(0, 10, clock::get)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new RateLimiter(10, 0, clock::get)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
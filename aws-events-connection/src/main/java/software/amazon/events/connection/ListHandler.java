@@ -22,7 +22,7 @@ public class ListHandler extends BaseHandlerStd {
 
 
         final ListConnectionsRequest awsRequest = Translator.translateToListRequest(request.getNextToken());
-        ListConnectionsResponse awsResponse = proxy.injectCredentialsAndInvokeV2(awsRequest, proxyClient.client()::listConnections);
+        ListConnectionsResponse awsResponse = proxyClient.injectCredentialsAndInvokeV2(awsRequest, proxyClient.client()::listConnections);
 
         return ProgressEvent.<ResourceModel, CallbackContext>builder()
                 .resourceModels(Translator.translateFromListRequest(awsResponse))
@@ -0,0 +1,297 @@
+package software.amazon.events.connection;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.http.AbortableInputStream;
+import software.amazon.awssdk.http.ExecutableHttpRequest;
+import software.amazon.awssdk.http.HttpExecuteRequest;
+import software.amazon.awssdk.http.HttpExecuteResponse;
+import software.amazon.awssdk.http.SdkHttpClient;
+import software.amazon.awssdk.http.SdkHttpResponse;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.eventbridge.EventBridgeClient;
+import software.amazon.awssdk.services.eventbridge.model.ConnectionAuthResponseParameters;
+import software.amazon.awssdk.services.eventbridge.model.ConnectionBasicAuthResponseParameters;
+import software.amazon.awssdk.services.eventbridge.model.ConnectionOAuthClientResponseParameters;
+import software.amazon.awssdk.services.eventbridge.model.ConnectionOAuthResponseParameters;
+import software.amazon.awssdk.services.eventbridge.model.CreateConnectionRequest;
+import software.amazon.awssdk.services.eventbridge.model.DescribeConnectionResponse;
+import software.amazon.cloudformation.resource.IdentifierUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Loads and links what the first request of a container would otherwise load lazily: the SDK marshallers and
+ * unmarshallers of every operation, the Translator paths in both directions, and Jackson. Priming runs once, when
+ * BaseHandlerStd is initialized, i.e. during the init phase of the container rather than within the first request,
+ * and again before a snapshot is taken when the runtime supports snapshot and restore through org.crac.
+ *
+ * Every request is sent through a client of its own whose HTTP client answers in-process, so priming never leaves the
+ * container and needs no credentials. Priming on init is best effort: whatever fails to load is loaded by the first
+ * request instead.
+ */
+final class Priming {
+
+    // Set to false, as a system property or as the PRIMING environment variable, to leave everything to the first request
+    static final String PRIMING_PROPERTY = "software.amazon.events.priming";
+    static final String PRIMING_VARIABLE = "PRIMING";
+
+    private static final byte[] EMPTY_RESPONSE = "{}".getBytes(StandardCharsets.UTF_8);
+
+    private static boolean primed;
+
+    private static final AtomicInteger PRIME_STEPS_COMPLETED = new AtomicInteger();
+
+    // The runtime only holds on to registered resources weakly
+    private static Object checkpointHook;
+
+    private Priming() {
+    }
+
+    /**
+     * Primes the container and registers the snapshot hook, unless priming is turned off. Failures are left to the first
+     * request, which loads whatever priming could not.
+     */
+    static void primeOnInit() {
+        if (!isEnabled()) {
+            return;
+        }
+
+        if (checkpointHook == null) {
+            registerCheckpointHook();
+        }
+
+        try {
+            prime();
+        } catch (RuntimeException | LinkageError e) {
+            // Left to the first request
+        }
+    }
+
+    /**
+     * Primes the container. Only the first call that succeeds does any work.
+     */
+    static synchronized void prime() {
+        if (primed) {
+            return;
+        }
+
+        primeSteps();
+        primed = true;
+    }
+
+    /**
+     * Primes the container again before a snapshot is taken, whether or not it was primed on init, so that the snapshot
+     * holds everything priming loads. Failures are left to the first request after restore.
+     */
+    static synchronized void primeBeforeCheckpoint() {
+        try {
+            primeSteps();
+            primed = true;
+        } catch (RuntimeException | LinkageError e) {
+            // Left to the first request
+        }
+    }
+
+    /**
+     * Runs every priming step. Unlike primeOnInit, it throws the failure of any step.
+     */
+    static void primeSteps() {
+        final ResourceModel model = buildModel();
+
+        Utils.verifyAuthorizationTypeParameterMapping(model);
+        IdentifierUtils.generateResourceIdentifier("PrimingConnection", "PrimingToken", 64);
+
+        final CreateConnectionRequest createRequest = Translator.translateToCreateRequest(model);
+
+        primeTranslator(createRequest);
+        primeObjectMapper(model);
+        primeClient(model, createRequest);
+
+        PRIME_STEPS_COMPLETED.incrementAndGet();
+    }
+
+    /**
+     * @return The number of times every priming step has completed
+     */
+    static int primeStepsCompleted() {
+        return PRIME_STEPS_COMPLETED.get();
+    }
+
+    private static boolean isEnabled() {
+        String enabled = System.getProperty(PRIMING_PROPERTY, System.getenv(PRIMING_VARIABLE));
+        return !"false".equalsIgnoreCase(enabled);
+    }
+
+    private static void primeTranslator(final CreateConnectionRequest createRequest) {
+        // The connection as DescribeConnection returns it, without its secrets
+        final DescribeConnectionResponse describeResponse = DescribeConnectionResponse.builder()
+                .name(createRequest.name())
+                .connectionArn("arn:aws:events:us-east-1:123456789012:connection/PrimingConnection/id")
+                .description(createRequest.description())
+                .authorizationType(createRequest.authorizationType())
+                .secretArn("arn:aws:secretsmanager:us-east-1:123456789012:secret:events!connection/PrimingConnection/id")
+                .authParameters(ConnectionAuthResponseParameters.builder()
+                        .basicAuthParameters(ConnectionBasicAuthResponseParameters.builder()
+                                .username(createRequest.authParameters().basicAuthParameters().username())
+                                .build())
+                        .oAuthParameters(ConnectionOAuthResponseParameters.builder()
+                                .authorizationEndpoint(createRequest.authParameters().oAuthParameters().authorizationEndpoint())
+                                .httpMethod(createRequest.authParameters().oAuthParameters().httpMethod())
+                                .clientParameters(ConnectionOAuthClientResponseParameters.builder()
+                                        .clientID(createRequest.authParameters().oAuthParameters().clientParameters().clientID())
+                                        .build())
+                                .oAuthHttpParameters(createRequest.authParameters().oAuthParameters().oAuthHttpParameters())
+                                .build())
+                        .invocationHttpParameters(createRequest.authParameters().invocationHttpParameters())
+                        .build())
+                .build();
+
+        Translator.translateFromReadResponse(describeResponse);
+    }
+
+    private static void primeObjectMapper(final ResourceModel model) {
+        // The model as it arrives in, and leaves with, every request
+        final ObjectMapper mapper = new ObjectMapper();
+
+        try {
+            mapper.readValue(mapper.writeValueAsString(model), ResourceModel.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void primeClient(final ResourceModel model, final CreateConnectionRequest createRequest) {
+        try (EventBridgeClient client = EventBridgeClient.builder()
+                .httpClient(new EmptyResponseHttpClient())
+                .region(Region.US_EAST_1)
+                .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create("priming", "priming")))
+                .build()) {
+            client.createConnection(createRequest);
+            Translator.translateFromReadResponse(client.describeConnection(Translator.translateToReadRequest(model)));
+            client.updateConnection(Translator.translateToUpdateRequest(model));
+            Translator.translateFromListRequest(client.listConnections(Translator.translateToListRequest(null)));
+            client.deleteConnection(Translator.translateToDeleteRequest(model));
+        }
+    }
+
+    /**
+     * Registers the snapshot hook with the runtime, if it supports snapshot and restore through org.crac.
+     * @return Whether the hook is registered
+     */
+    static boolean registerCheckpointHook() {
+        try {
+            final Class<?> resourceClass = Class.forName("org.crac.Resource");
+            final Object context = Class.forName("org.crac.Core").getMethod("getGlobalContext").invoke(null);
+            final Object hook = newCheckpointHook(resourceClass);
+
+            Class.forName("org.crac.Context").getMethod("register", resourceClass).invoke(context, hook);
+            checkpointHook = hook;
+            return true;
+        } catch (ReflectiveOperationException | LinkageError e) {
+            // The runtime does not support snapshot and restore
+            return false;
+        }
+    }
+
+    /**
+     * Builds the snapshot hook, which primes the container before a snapshot is taken.
+     * @param resourceClass The interface the runtime calls the hook through, org.crac.Resource
+     * @return A new hook implementing resourceClass
+     */
+    static Object newCheckpointHook(final Class<?> resourceClass) {
+        return Proxy.newProxyInstance(Priming.class.getClassLoader(), new Class<?>[] {resourceClass}, Priming::onCheckpointEvent);
+    }
+
+    private static Object onCheckpointEvent(final Object hook, final Method method, final Object[] args) {
+        switch (method.getName()) {
+            case "beforeCheckpoint":
+                primeBeforeCheckpoint();
+                return null;
+            case "hashCode":
+                return System.identityHashCode(hook);
+            case "equals":
+                return hook == args[0];
+            case "toString":
+                return Priming.class.getName();
+            default:
+                // afterRestore: nothing primed depends on the container it was primed in
+                return null;
+        }
+    }
+
+    // Every kind of auth parameter is set, so that every Translator and marshaller path is taken
+    private static ResourceModel buildModel() {
+        final ConnectionHttpParameters httpParameters = ConnectionHttpParameters.builder()
+                .headerParameters(Collections.singletonList(Parameter.builder().key("HEADER_KEY").value("HEADER_VALUE").isValueSecret(true).build()))
+                .queryStringParameters(Collections.singletonList(Parameter.builder().key("QUERY_STRING_KEY").value("QUERY_STRING_VALUE").build()))
+                .bodyParameters(Collections.singletonList(Parameter.builder().key("BODY_KEY").value("BODY_VALUE").isValueSecret(false).build()))
+                .build();
+
+        return ResourceModel.builder()
+                .name("PrimingConnection")
+                .description("PrimingDescription")
+                .authorizationType("BASIC")
+                .authParameters(AuthParameters.builder()
+                        .basicAuthParameters(BasicAuthParameters.builder()
+                                .username("USERNAME")
+                                .password("PASSWORD")
+                                .build())
+                        .apiKeyAuthParameters(ApiKeyAuthParameters.builder()
+                                .apiKeyName("API_KEY_NAME")
+                                .apiKeyValue("API_KEY_VALUE")
+                                .build())
+                        .oAuthParameters(OAuthParameters.builder()
+                                .authorizationEndpoint("https://example.com/oauth")
+                                .httpMethod("POST")
+                                .clientParameters(ClientParameters.builder()
+                                        .clientID("CLIENT_ID")
+                                        .clientSecret("CLIENT_SECRET")
+                                        .build())
+                                .oAuthHttpParameters(httpParameters)
+                                .build())
+                        .invocationHttpParameters(httpParameters)
+                        .build())
+                .build();
+    }
+
+    /**
+     * Answers every request with an empty JSON object and status 200, without any I/O.
+     */
+    private static final class EmptyResponseHttpClient implements SdkHttpClient {
+
+        @Override
+        public ExecutableHttpRequest prepareRequest(final HttpExecuteRequest request) {
+            return new ExecutableHttpRequest() {
+                @Override
+                public HttpExecuteResponse call() {
+                    return HttpExecuteResponse.builder()
+                            .response(SdkHttpResponse.builder().statusCode(200).build())
+                            .responseBody(AbortableInputStream.create(new ByteArrayInputStream(EMPTY_RESPONSE)))
+                            .build();
+                }
+
+                @Override
+                public void abort() {
+                }
+            };
+        }
+
+        @Override
+        public String clientName() {
+            return "Priming";
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,495 @@
+package software.amazon.events.connection;
+
+import software.amazon.awssdk.awscore.exception.AwsErrorDetails;
+import software.amazon.awssdk.awscore.exception.AwsServiceException;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.services.eventbridge.EventBridgeClient;
+import software.amazon.awssdk.services.eventbridge.model.ConcurrentModificationException;
+import software.amazon.awssdk.services.eventbridge.model.Connection;
+import software.amazon.awssdk.services.eventbridge.model.ConnectionApiKeyAuthResponseParameters;
+import software.amazon.awssdk.services.eventbridge.model.ConnectionAuthResponseParameters;
+import software.amazon.awssdk.services.eventbridge.model.ConnectionBasicAuthResponseParameters;
+import software.amazon.awssdk.services.eventbridge.model.ConnectionBodyParameter;
+import software.amazon.awssdk.services.eventbridge.model.ConnectionHeaderParameter;
+import software.amazon.awssdk.services.eventbridge.model.ConnectionHttpParameters;
+import software.amazon.awssdk.services.eventbridge.model.ConnectionOAuthClientResponseParameters;
+import software.amazon.awssdk.services.eventbridge.model.ConnectionOAuthResponseParameters;
+import software.amazon.awssdk.services.eventbridge.model.ConnectionQueryStringParameter;
+import software.amazon.awssdk.services.eventbridge.model.ConnectionState;
+import software.amazon.awssdk.services.eventbridge.model.CreateConnectionAuthRequestParameters;
+import software.amazon.awssdk.services.eventbridge.model.CreateConnectionRequest;
+import software.amazon.awssdk.services.eventbridge.model.CreateConnectionResponse;
+import software.amazon.awssdk.services.eventbridge.model.DeleteConnectionRequest;
+import software.amazon.awssdk.services.eventbridge.model.DeleteConnectionResponse;
+import software.amazon.awssdk.services.eventbridge.model.DescribeConnectionRequest;
+import software.amazon.awssdk.services.eventbridge.model.DescribeConnectionResponse;
+import software.amazon.awssdk.services.eventbridge.model.EventBridgeException;
+import software.amazon.awssdk.services.eventbridge.model.LimitExceededException;
+import software.amazon.awssdk.services.eventbridge.model.ListConnectionsRequest;
+import software.amazon.awssdk.services.eventbridge.model.ListConnectionsResponse;
+import software.amazon.awssdk.services.eventbridge.model.ResourceAlreadyExistsException;
+import software.amazon.awssdk.services.eventbridge.model.ResourceNotFoundException;
+import software.amazon.awssdk.services.eventbridge.model.UpdateConnectionAuthRequestParameters;
+import software.amazon.awssdk.services.eventbridge.model.UpdateConnectionRequest;
+import software.amazon.awssdk.services.eventbridge.model.UpdateConnectionResponse;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * A stateful, in-memory stand-in for the EventBridge connection APIs, so that the handlers can be run end to end, at
+ * high concurrency, without a network.
+ *
+ * Connections go through the states the service reports: CreateConnection and UpdateConnection leave a connection
+ * CREATING or UPDATING (AUTHORIZING for OAuth) and DeleteConnection leaves it DELETING, until the transition time has
+ * passed. Connections can't be updated or deleted while in transition, names must be unique, the number of
+ * connections is limited and List calls are paginated. Secrets are never returned. Every call can be slowed down by a
+ * fixed latency and throttled at a given rate.
+ *
+ * The transition time defaults to zero, because the handlers wait BACK_OFF_DELAY in-process for every describe that
+ * does not find the connection stable.
+ */
+class FakeEventBridgeClient implements EventBridgeClient {
+    static final int MAX_PAGE_SIZE = 100;
+
+    // The default quota of connections per account
+    static final int DEFAULT_MAX_CONNECTIONS = 50;
+
+    private static final String ARN_PREFIX = "arn:aws:events:us-west-2:123456789123:connection/";
+    private static final String SECRET_ARN_PREFIX = "arn:aws:secretsmanager:us-west-2:123456789123:secret:events!connection/";
+
+    private final Duration latency;
+    private final double throttleRate;
+    private final int maxConnections;
+    private final Duration transitionTime;
+
+    // Keyed by connection name; guarded by this
+    private final Map<String, StoredConnection> connections = new TreeMap<>();
+
+    private final Map<String, AtomicInteger> callCounts = new ConcurrentHashMap<>();
+
+    private FakeEventBridgeClient(final Builder builder) {
+        this.latency = builder.latency;
+        this.throttleRate = builder.throttleRate;
+        this.maxConnections = builder.maxConnections;
+        this.transitionTime = builder.transitionTime;
+    }
+
+    static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @param operation The name of an operation, e.g. "DescribeConnection"
+     * @return How often the operation has been called, including throttled calls
+     */
+    int callCount(final String operation) {
+        final AtomicInteger count = callCounts.get(operation);
+        return count == null ? 0 : count.get();
+    }
+
+    /**
+     * @return The number of connections that exist, including connections that are being deleted
+     */
+    synchronized int connectionCount() {
+        removeDeleted();
+        return connections.size();
+    }
+
+    @Override
+    public String serviceName() {
+        return SERVICE_NAME;
+    }
+
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public CreateConnectionResponse createConnection(final CreateConnectionRequest request) {
+        beforeCall("CreateConnection");
+
+        synchronized (this) {
+            removeDeleted();
+
+            if (connections.containsKey(request.name())) {
+                throw (ResourceAlreadyExistsException) serviceException(ResourceAlreadyExistsException.builder(), "ResourceAlreadyExistsException",
+                        String.format("Connection %s already exists.", request.name()));
+            }
+            if (connections.size() >= maxConnections) {
+                throw (LimitExceededException) serviceException(LimitExceededException.builder(), "LimitExceededException",
+                        String.format("The requested resource exceeds the maximum number allowed. An account can have at most %s connections.", maxConnections));
+            }
+
+            final StoredConnection connection = new StoredConnection(request);
+            connection.transition(isOAuth(connection) ? ConnectionState.AUTHORIZING : ConnectionState.CREATING, transitionTime);
+            connections.put(request.name(), connection);
+
+            return CreateConnectionResponse.builder()
+                    .connectionArn(connection.arn)
+                    .connectionState(connection.state())
+                    .creationTime(connection.creationTime)
+                    .lastModifiedTime(connection.lastModifiedTime)
+                    .build();
+        }
+    }
+
+    @Override
+    public DescribeConnectionResponse describeConnection(final DescribeConnectionRequest request) {
+        beforeCall("DescribeConnection");
+
+        synchronized (this) {
+            final StoredConnection connection = existingConnection(request.name());
+
+            return DescribeConnectionResponse.builder()
+                    .name(connection.name)
+                    .connectionArn(connection.arn)
+                    .description(connection.description)
+                    .connectionState(connection.state())
+                    .authorizationType(connection.authorizationType)
+                    .authParameters(connection.authParameters)
+                    .secretArn(connection.secretArn)
+                    .creationTime(connection.creationTime)
+                    .lastModifiedTime(connection.lastModifiedTime)
+                    .lastAuthorizedTime(connection.lastModifiedTime)
+                    .build();
+        }
+    }
+
+    @Override
+    public UpdateConnectionResponse updateConnection(final UpdateConnectionRequest request) {
+        beforeCall("UpdateConnection");
+
+        synchronized (this) {
+            final StoredConnection connection = settledConnection(request.name());
+
+            connection.update(request);
+            connection.transition(isOAuth(connection) ? ConnectionState.AUTHORIZING : ConnectionState.UPDATING, transitionTime);
+
+            return UpdateConnectionResponse.builder()
+                    .connectionArn(connection.arn)
+                    .connectionState(connection.state())
+                    .creationTime(connection.creationTime)
+                    .lastModifiedTime(connection.lastModifiedTime)
+                    .lastAuthorizedTime(connection.lastModifiedTime)
+                    .build();
+        }
+    }
+
+    @Override
+    public DeleteConnectionResponse deleteConnection(final DeleteConnectionRequest request) {
+        beforeCall("DeleteConnection");
+
+        synchronized (this) {
+            final StoredConnection connection = settledConnection(request.name());
+
+            connection.transition(ConnectionState.DELETING, transitionTime);
+            removeDeleted();
+
+            return DeleteConnectionResponse.builder()
+                    .connectionArn(connection.arn)
+                    .connectionState(ConnectionState.DELETING)
+                    .creationTime(connection.creationTime)
+                    .lastModifiedTime(connection.lastModifiedTime)
+                    .lastAuthorizedTime(connection.lastModifiedTime)
+                    .build();
+        }
+    }
+
+    @Override
+    public ListConnectionsResponse listConnections(final ListConnectionsRequest request) {
+        beforeCall("ListConnections");
+
+        synchronized (this) {
+            removeDeleted();
+
+            final List<StoredConnection> matching = connections.values().stream()
+                    .filter(connection -> request.namePrefix() == null || connection.name.startsWith(request.namePrefix()))
+                    .filter(connection -> request.connectionState() == null || connection.state() == request.connectionState())
+                    .collect(Collectors.toList());
+
+            final int pageSize = request.limit() == null ? MAX_PAGE_SIZE : Math.min(request.limit(), MAX_PAGE_SIZE);
+            final int offset;
+            try {
+                offset = request.nextToken() == null ? 0 : Integer.parseInt(request.nextToken());
+            } catch (NumberFormatException e) {
+                throw serviceException(EventBridgeException.builder(), "ValidationException", "The nextToken is not valid.");
+            }
+            final int end = Math.min(matching.size(), offset + pageSize);
+
+            return ListConnectionsResponse.builder()
+                    .connections(matching.subList(Math.min(offset, end), end).stream()
+                            .map(connection -> Connection.builder()
+                                    .name(connection.name)
+                                    .connectionArn(connection.arn)
+                                    .connectionState(connection.state())
+                                    .authorizationType(connection.authorizationType)
+                                    .creationTime(connection.creationTime)
+                                    .lastModifiedTime(connection.lastModifiedTime)
+                                    .lastAuthorizedTime(connection.lastModifiedTime)
+                                    .build())
+                            .collect(Collectors.toList()))
+                    .nextToken(end < matching.size() ? String.valueOf(end) : null)
+                    .build();
+        }
+    }
+
+    /**
+     * Counts the call, waits for the configured latency and throttles the call at the configured rate. The latency is
+     * spent outside of the lock, so that concurrent calls overlap as they would against the service.
+     */
+    private void beforeCall(final String operation) {
+        callCounts.computeIfAbsent(operation, key -> new AtomicInteger()).incrementAndGet();
+
+        if (!latency.isZero()) {
+            try {
+                Thread.sleep(latency.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw SdkClientException.builder().message("Interrupted while calling " + operation).cause(e).build();
+            }
+        }
+
+        if (throttleRate > 0 && ThreadLocalRandom.current().nextDouble() < throttleRate) {
+            throw serviceException(EventBridgeException.builder(), "ThrottlingException", "Rate exceeded");
+        }
+    }
+
+    private void removeDeleted() {
+        connections.values().removeIf(connection -> connection.state() == null);
+    }
+
+    private StoredConnection existingConnection(final String name) {
+        removeDeleted();
+
+        final StoredConnection connection = connections.get(name);
+        if (connection == null) {
+            throw (ResourceNotFoundException) serviceException(ResourceNotFoundException.builder(), "ResourceNotFoundException",
+                    String.format("Failed to describe the connection(s). Connection '%s' does not exist.", name));
+        }
+        return connection;
+    }
+
+    private StoredConnection settledConnection(final String name) {
+        final StoredConnection connection = existingConnection(name);
+
+        if (connection.state() != ConnectionState.AUTHORIZED) {
+            throw (ConcurrentModificationException) serviceException(ConcurrentModificationException.builder(), "ConcurrentModificationException",
+                    String.format("Connection '%s' is in state %s and can't be modified.", name, connection.state()));
+        }
+        return connection;
+    }
+
+    private static boolean isOAuth(final StoredConnection connection) {
+        return "OAUTH_CLIENT_CREDENTIALS".equals(connection.authorizationType);
+    }
+
+    private static AwsServiceException serviceException(final AwsServiceException.Builder builder, final String errorCode, final String message) {
+        return builder
+                .message(message)
+                .statusCode(400)
+                .awsErrorDetails(AwsErrorDetails.builder()
+                        .errorCode(errorCode)
+                        .errorMessage(message)
+                        .serviceName("EventBridge")
+                        .build())
+                .build();
+    }
+
+    private static ConnectionAuthResponseParameters toResponse(final CreateConnectionAuthRequestParameters parameters) {
+        if (parameters == null) {
+            return null;
+        }
+
+        return ConnectionAuthResponseParameters.builder()
+                .basicAuthParameters(parameters.basicAuthParameters() == null ? null : ConnectionBasicAuthResponseParameters.builder()
+                        .username(parameters.basicAuthParameters().username())
+                        .build())
+                .apiKeyAuthParameters(parameters.apiKeyAuthParameters() == null ? null : ConnectionApiKeyAuthResponseParameters.builder()
+                        .apiKeyName(parameters.apiKeyAuthParameters().apiKeyName())
+                        .build())
+                .oAuthParameters(parameters.oAuthParameters() == null ? null : ConnectionOAuthResponseParameters.builder()
+                        .authorizationEndpoint(parameters.oAuthParameters().authorizationEndpoint())
+                        .httpMethod(parameters.oAuthParameters().httpMethodAsString())
+                        .clientParameters(parameters.oAuthParameters().clientParameters() == null ? null : ConnectionOAuthClientResponseParameters.builder()
+                                .clientID(parameters.oAuthParameters().clientParameters().clientID())
+                                .build())
+                        .oAuthHttpParameters(withoutSecrets(parameters.oAuthParameters().oAuthHttpParameters()))
+                        .build())
+                .invocationHttpParameters(withoutSecrets(parameters.invocationHttpParameters()))
+                .build();
+    }
+
+    /**
+     * Applies the parts of an update that are set; everything else keeps its current value, as in the service.
+     */
+    private static ConnectionAuthResponseParameters merge(final ConnectionAuthResponseParameters current, final UpdateConnectionAuthRequestParameters update) {
+        if (update == null) {
+            return current;
+        }
+
+        final ConnectionAuthResponseParameters.Builder builder = current == null ? ConnectionAuthResponseParameters.builder() : current.toBuilder();
+
+        if (update.basicAuthParameters() != null && update.basicAuthParameters().username() != null) {
+            builder.basicAuthParameters(ConnectionBasicAuthResponseParameters.builder()
+                    .username(update.basicAuthParameters().username())
+                    .build());
+        }
+        if (update.apiKeyAuthParameters() != null && update.apiKeyAuthParameters().apiKeyName() != null) {
+            builder.apiKeyAuthParameters(ConnectionApiKeyAuthResponseParameters.builder()
+                    .apiKeyName(update.apiKeyAuthParameters().apiKeyName())
+                    .build());
+        }
+        if (update.oAuthParameters() != null) {
+            final ConnectionOAuthResponseParameters.Builder oAuthBuilder = current == null || current.oAuthParameters() == null
+                    ? ConnectionOAuthResponseParameters.builder()
+                    : current.oAuthParameters().toBuilder();
+
+            if (update.oAuthParameters().authorizationEndpoint() != null) {
+                oAuthBuilder.authorizationEndpoint(update.oAuthParameters().authorizationEndpoint());
+            }
+            if (update.oAuthParameters().httpMethod() != null) {
+                oAuthBuilder.httpMethod(update.oAuthParameters().httpMethodAsString());
+            }
+            if (update.oAuthParameters().clientParameters() != null && update.oAuthParameters().clientParameters().clientID() != null) {
+                oAuthBuilder.clientParameters(ConnectionOAuthClientResponseParameters.builder()
+                        .clientID(update.oAuthParameters().clientParameters().clientID())
+                        .build());
+            }
+            if (update.oAuthParameters().oAuthHttpParameters() != null) {
+                oAuthBuilder.oAuthHttpParameters(withoutSecrets(update.oAuthParameters().oAuthHttpParameters()));
+            }
+            builder.oAuthParameters(oAuthBuilder.build());
+        }
+        if (update.invocationHttpParameters() != null) {
+            builder.invocationHttpParameters(withoutSecrets(update.invocationHttpParameters()));
+        }
+
+        return builder.build();
+    }
+
+    private static ConnectionHttpParameters withoutSecrets(final ConnectionHttpParameters parameters) {
+        if (parameters == null) {
+            return null;
+        }
+
+        return ConnectionHttpParameters.builder()
+                .headerParameters(parameters.headerParameters().stream()
+                        .map(parameter -> Boolean.TRUE.equals(parameter.isValueSecret()) ? parameter.toBuilder().value(null).build() : parameter)
+                        .collect(Collectors.<ConnectionHeaderParameter>toList()))
+                .bodyParameters(parameters.bodyParameters().stream()
+                        .map(parameter -> Boolean.TRUE.equals(parameter.isValueSecret()) ? parameter.toBuilder().value(null).build() : parameter)
+                        .collect(Collectors.<ConnectionBodyParameter>toList()))
+                .queryStringParameters(parameters.queryStringParameters().stream()
+                        .map(parameter -> Boolean.TRUE.equals(parameter.isValueSecret()) ? parameter.toBuilder().value(null).build() : parameter)
+                        .collect(Collectors.<ConnectionQueryStringParameter>toList()))
+                .build();
+    }
+
+    /**
+     * A connection as it is stored by the service. The state is the transitional state of the last write until its
+     * transition time has passed; then it is AUTHORIZED, or null once a deleted connection is gone.
+     */
+    private static final class StoredConnection {
+        private final String name;
+        private final String arn;
+        private final String secretArn;
+        private final Instant creationTime;
+        private Instant lastModifiedTime;
+        private String description;
+        private String authorizationType;
+        private ConnectionAuthResponseParameters authParameters;
+        private ConnectionState transitionalState;
+        private long settledAtNanos;
+
+        private StoredConnection(final CreateConnectionRequest request) {
+            final String id = UUID.randomUUID().toString();
+
+            this.name = request.name();
+            this.arn = ARN_PREFIX + request.name() + "/" + id;
+            this.secretArn = SECRET_ARN_PREFIX + request.name() + "/" + id;
+            this.creationTime = Instant.now();
+            this.lastModifiedTime = creationTime;
+            this.description = request.description();
+            this.authorizationType = request.authorizationTypeAsString();
+            this.authParameters = toResponse(request.authParameters());
+        }
+
+        private void update(final UpdateConnectionRequest request) {
+            if (request.description() != null) {
+                description = request.description();
+            }
+            if (request.authorizationType() != null) {
+                authorizationType = request.authorizationTypeAsString();
+            }
+            authParameters = merge(authParameters, request.authParameters());
+            lastModifiedTime = Instant.now();
+        }
+
+        private void transition(final ConnectionState state, final Duration transitionTime) {
+            transitionalState = state;
+            settledAtNanos = System.nanoTime() + transitionTime.toNanos();
+        }
+
+        private ConnectionState state() {
+            if (System.nanoTime() - settledAtNanos < 0) {
+                return transitionalState;
+            }
+            return transitionalState == ConnectionState.DELETING ? null : ConnectionState.AUTHORIZED;
+        }
+    }
+
+    static final class Builder {
+        private Duration latency = Duration.ZERO;
+        private double throttleRate;
+        private int maxConnections = DEFAULT_MAX_CONNECTIONS;
+        private Duration transitionTime = Duration.ZERO;
+
+        private Builder() {
+        }
+
+        /**
+         * @param latency How long every call takes
+         */
+        Builder latency(final Duration latency) {
+            this.latency = latency;
+            return this;
+        }
+
+        /**
+         * @param throttleRate The fraction of calls, from 0 to 1, that fail with a ThrottlingException
+         */
+        Builder throttleRate(final double throttleRate) {
+            this.throttleRate = throttleRate;
+            return this;
+        }
+
+        /**
+         * @param maxConnections How many connections can exist at once, e.g. to model a raised quota
+         */
+        Builder maxConnections(final int maxConnections) {
+            this.maxConnections = maxConnections;
+            return this;
+        }
+
+        /**
+         * @param transitionTime How long a connection stays CREATING, UPDATING, AUTHORIZING or DELETING
+         */
+        Builder transitionTime(final Duration transitionTime) {
+            this.transitionTime = transitionTime;
+            return this;
+        }
+
+        FakeEventBridgeClient build() {
+            return new FakeEventBridgeClient(this);
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package software.amazon.events.connection;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import software.amazon.awssdk.services.eventbridge.EventBridgeClient;
+import software.amazon.awssdk.services.eventbridge.model.ConnectionAuthorizationType;
+import software.amazon.cloudformation.exceptions.CfnAlreadyExistsException;
+import software.amazon.cloudformation.exceptions.CfnGeneralServiceException;
+import software.amazon.cloudformation.exceptions.CfnResourceConflictException;
+import software.amazon.cloudformation.exceptions.CfnServiceLimitExceededException;
+import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
+import software.amazon.cloudformation.proxy.OperationStatus;
+import software.amazon.cloudformation.proxy.ProgressEvent;
+import software.amazon.cloudformation.proxy.ProxyClient;
+import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import static software.amazon.events.connection.TestConstants.API_KEY_NAME;
+import static software.amazon.events.connection.TestConstants.AUTH_CLIENT_ID;
+import static software.amazon.events.connection.TestConstants.CONNECTION_NAME;
+import static software.amazon.events.connection.TestConstants.USER_NAME;
+
+/**
+ * Runs the handlers end to end against FakeEventBridgeClient, many connections at a time.
+ */
+public class HandlerConcurrencyTest extends AbstractTestBase {
+
+    private static final int CONNECTION_COUNT = 200;
+    private static final int THREAD_COUNT = 32;
+
+    private ExecutorService executor;
+
+    @BeforeEach
+    public void setup() {
+        executor = Executors.newFixedThreadPool(THREAD_COUNT);
+    }
+
+    @AfterEach
+    public void tear_down() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void handleRequest_ConcurrentLifecycle() throws Exception {
+        final FakeEventBridgeClient eventBridgeClient = FakeEventBridgeClient.builder()
+                .latency(Duration.ofMillis(1))
+                .maxConnections(CONNECTION_COUNT)
+                .build();
+
+        // MODEL
+
+        final List<ResourceModel> models = new ArrayList<>();
+        final List<ResourceModel> updatedModels = new ArrayList<>();
+        for (int i = 0; i < CONNECTION_COUNT; i++) {
+            models.add(buildModel(i, "TestDescription"));
+            updatedModels.add(buildModel(i, "UpdatedDescription"));
+        }
+
+        // RUN + ASSERT [create]
+
+        assertAllSucceed(runAll(models, CreateHandler::new, eventBridgeClient));
+        assertThat(eventBridgeClient.connectionCount()).isEqualTo(CONNECTION_COUNT);
+
+        // RUN + ASSERT [update]
+
+        assertAllSucceed(runAll(updatedModels, UpdateHandler::new, eventBridgeClient));
+
+        // RUN + ASSERT [read]
+
+        final List<ProgressEvent<ResourceModel, CallbackContext>> readResponses = runAll(updatedModels, ReadHandler::new, eventBridgeClient);
+        assertAllSucceed(readResponses);
+
+        for (ProgressEvent<ResourceModel, CallbackContext> response : readResponses) {
+            final ResourceModel model = response.getResourceModel();
+            assertThat(model.getDescription()).isEqualTo("UpdatedDescription");
+            assertThat(model.getArn()).startsWith("arn:aws:events:");
+
+            switch (ConnectionAuthorizationType.fromValue(model.getAuthorizationType())) {
+                case BASIC:
+                    assertThat(model.getAuthParameters().getBasicAuthParameters().getUsername()).isEqualTo(USER_NAME);
+                    assertThat(model.getAuthParameters().getBasicAuthParameters().getPassword()).isNull();
+                    break;
+                case API_KEY:
+                    assertThat(model.getAuthParameters().getApiKeyAuthParameters().getApiKeyName()).isEqualTo(API_KEY_NAME);
+                    assertThat(model.getAuthParameters().getApiKeyAuthParameters().getApiKeyValue()).isNull();
+                    break;
+                default:
+                    assertThat(model.getAuthParameters().getOAuthParameters().getClientParameters().getClientID()).isEqualTo(AUTH_CLIENT_ID);
+                    assertThat(model.getAuthParameters().getOAuthParameters().getClientParameters().getClientSecret()).isNull();
+            }
+        }
+
+        // RUN + ASSERT [list, page by page]
+
+        final List<ResourceModel> listedModels = new ArrayList<>();
+        String nextToken = null;
+        do {
+            final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                    .nextToken(nextToken)
+                    .build();
+
+            final ProgressEvent<ResourceModel, CallbackContext> response = run(new ListHandler(), request, eventBridgeClient);
+            assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+
+            listedModels.addAll(response.getResourceModels());
+            nextToken = response.getNextToken();
+        } while (nextToken != null);
+
+        assertThat(listedModels)
+                .extracting(ResourceModel::getName)
+                .containsExactlyInAnyOrderElementsOf(models.stream().map(ResourceModel::getName).collect(Collectors.toList()));
+        assertThat(eventBridgeClient.callCount("ListConnections")).isEqualTo(CONNECTION_COUNT / 50);
+
+        // RUN + ASSERT [delete]
+
+        final List<ProgressEvent<ResourceModel, CallbackContext>> deleteResponses = runAll(updatedModels, DeleteHandler::new, eventBridgeClient);
+        assertAllSucceed(deleteResponses);
+        assertThat(deleteResponses).extracting(ProgressEvent::getResourceModel).containsOnlyNulls();
+        assertThat(eventBridgeClient.connectionCount()).isZero();
+    }
+
+    @Test
+    public void handleRequest_AlreadyExists() {
+        final FakeEventBridgeClient eventBridgeClient = FakeEventBridgeClient.builder().build();
+        final ResourceModel model = buildModel(0, "TestDescription");
+
+        run(new CreateHandler(), model, eventBridgeClient);
+
+        assertThrows(CfnAlreadyExistsException.class, () -> run(new CreateHandler(), buildModel(0, "TestDescription"), eventBridgeClient));
+    }
+
+    @Test
+    public void handleRequest_LimitExceeded() {
+        final FakeEventBridgeClient eventBridgeClient = FakeEventBridgeClient.builder()
+                .maxConnections(1)
+                .build();
+
+        run(new CreateHandler(), buildModel(0, "TestDescription"), eventBridgeClient);
+
+        assertThrows(CfnServiceLimitExceededException.class, () -> run(new CreateHandler(), buildModel(1, "TestDescription"), eventBridgeClient));
+    }
+
+    @Test
+    public void handleRequest_UpdateWhileCreating() {
+        final FakeEventBridgeClient eventBridgeClient = FakeEventBridgeClient.builder()
+                .transitionTime(Duration.ofMinutes(1))
+                .build();
+
+        final ResourceModel model = buildModel(0, "TestDescription");
+        eventBridgeClient.createConnection(Translator.translateToCreateRequest(model));
+
+        assertThrows(CfnResourceConflictException.class, () -> run(new UpdateHandler(), buildModel(0, "UpdatedDescription"), eventBridgeClient));
+        assertThrows(CfnResourceConflictException.class, () -> run(new DeleteHandler(), model, eventBridgeClient));
+    }
+
+    @Test
+    public void handleRequest_Throttled() {
+        final FakeEventBridgeClient eventBridgeClient = FakeEventBridgeClient.builder()
+                .throttleRate(1)
+                .build();
+
+        assertThrows(CfnGeneralServiceException.class, () -> run(new ReadHandler(), buildModel(0, "TestDescription"), eventBridgeClient));
+        assertThat(eventBridgeClient.callCount("DescribeConnection")).isEqualTo(1);
+    }
+
+    private List<ProgressEvent<ResourceModel, CallbackContext>> runAll(final List<ResourceModel> models, final Supplier<BaseHandlerStd> handlers, final EventBridgeClient eventBridgeClient) throws Exception {
+        final List<Callable<ProgressEvent<ResourceModel, CallbackContext>>> calls = models.stream()
+                .map(model -> (Callable<ProgressEvent<ResourceModel, CallbackContext>>) () -> run(handlers.get(), model, eventBridgeClient))
+                .collect(Collectors.toList());
+
+        final List<ProgressEvent<ResourceModel, CallbackContext>> responses = new ArrayList<>();
+        for (Future<ProgressEvent<ResourceModel, CallbackContext>> future : executor.invokeAll(calls)) {
+            responses.add(future.get());
+        }
+        return responses;
+    }
+
+    private static ProgressEvent<ResourceModel, CallbackContext> run(final BaseHandlerStd handler, final ResourceModel model, final EventBridgeClient eventBridgeClient) {
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(model)
+                .build();
+
+        return run(handler, request, eventBridgeClient);
+    }
+
+    /**
+     * Invokes a handler with a new proxy, as in a Lambda container. Connections settle immediately in the fake, so
+     * every handler finishes within one invocation.
+     */
+    private static ProgressEvent<ResourceModel, CallbackContext> run(final BaseHandlerStd handler, final ResourceHandlerRequest<ResourceModel> request, final EventBridgeClient eventBridgeClient) {
+        final AmazonWebServicesClientProxy proxy = new AmazonWebServicesClientProxy(logger, MOCK_CREDENTIALS, () -> Duration.ofSeconds(600).toMillis());
+        final ProxyClient<EventBridgeClient> proxyClient = MOCK_PROXY(proxy, eventBridgeClient);
+
+        return handler.handleRequest(proxy, request, new CallbackContext(), proxyClient, logger);
+    }
+
+    private static void assertAllSucceed(final List<ProgressEvent<ResourceModel, CallbackContext>> responses) {
+        assertThat(responses)
+                .extracting(ProgressEvent::getStatus)
+                .containsOnly(OperationStatus.SUCCESS);
+    }
+
+    /**
+     * Builds a connection that uses BASIC, API_KEY or OAUTH_CLIENT_CREDENTIALS authorization, depending on i.
+     */
+    private static ResourceModel buildModel(final int i, final String description) {
+        final ResourceModel.ResourceModelBuilder builder = ResourceModel.builder()
+                .name(CONNECTION_NAME + i)
+                .description(description);
+
+        switch (i % 3) {
+            case 0:
+                return builder
+                        .authorizationType(ConnectionAuthorizationType.BASIC.toString())
+                        .authParameters(TestConstants.authParametersBasicType)
+                        .build();
+            case 1:
+                return builder
+                        .authorizationType(ConnectionAuthorizationType.API_KEY.toString())
+                        .authParameters(TestConstants.authParametersApiKeyType)
+                        .build();
+            default:
+                return builder
+                        .authorizationType(ConnectionAuthorizationType.OAUTH_CLIENT_CREDENTIALS.toString())
+                        .authParameters(TestConstants.authParametersOAuthType)
+                        .build();
+        }
+    }
+}
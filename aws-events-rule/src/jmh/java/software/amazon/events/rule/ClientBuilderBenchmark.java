@@ -0,0 +1,69 @@
+package software.amazon.events.rule;
+
+import software.amazon.awssdk.services.cloudwatchevents.CloudWatchEventsClient;
+import software.amazon.awssdk.services.cloudwatchevents.model.ListRulesResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares listing rules page by page with a new client for every page, as ListHandler used to through
+ * ClientBuilder.buildClient, with one client shared by every page, as it does through ClientBuilder.getClient. Both
+ * clients answer in-process, so only the time spent building the client and in the SDK is measured.
+ * Run with `mvn -P benchmark verify -Djmh.includes=ClientBuilderBenchmark`; the gc profiler reports the allocation rate.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ClientBuilderBenchmark {
+
+    @Param({"1", "10"})
+    public int pages;
+
+    private CloudWatchEventsClient sharedClient;
+
+    @Setup
+    public void setup() {
+        sharedClient = Priming.buildOfflineClient();
+    }
+
+    @TearDown
+    public void tearDown() {
+        sharedClient.close();
+    }
+
+    @Benchmark
+    public void clientPerPage(final Blackhole blackhole) {
+        for (int page = 0; page < pages; page++) {
+            try (CloudWatchEventsClient client = Priming.buildOfflineClient()) {
+                blackhole.consume(listRules(client, page));
+            }
+        }
+    }
+
+    @Benchmark
+    public void sharedClient(final Blackhole blackhole) {
+        for (int page = 0; page < pages; page++) {
+            blackhole.consume(listRules(sharedClient, page));
+        }
+    }
+
+    private static ListRulesResponse listRules(final CloudWatchEventsClient client, final int page) {
+        return client.listRules(Translator.translateToListRulesRequest("BenchmarkEventBus", page == 0 ? null : "NextToken" + page));
+    }
+}
@@ -0,0 +1,79 @@
+package software.amazon.events.rule;
+
+import software.amazon.awssdk.services.cloudwatchevents.CloudWatchEventsClient;
+import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
+import software.amazon.cloudformation.proxy.Credentials;
+import software.amazon.cloudformation.proxy.LoggerProxy;
+import software.amazon.cloudformation.proxy.ProgressEvent;
+import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the time to the first response of a container: building the client and the handler, and the first READ,
+ * against a client that answers in-process so that only the time spent in the JVM is measured. Every measurement runs
+ * in a fresh fork, i.e. a cold container; when primed, the setup primes it as the init phase of the container would.
+ * Run with `mvn -P benchmark verify -Djmh.includes=ColdStartBenchmark`.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(20)
+@State(Scope.Benchmark)
+public class ColdStartBenchmark {
+
+    @Param({"true", "false"})
+    public boolean primed;
+
+    private CloudWatchEventsClient client;
+
+    @Setup
+    public void setup() {
+        // BaseHandlerStd is not initialized yet, so this decides whether its initialization primes the container
+        System.setProperty(Priming.PRIMING_PROPERTY, String.valueOf(primed));
+
+        if (primed) {
+            Priming.prime();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        if (client != null) {
+            client.close();
+        }
+    }
+
+    @Benchmark
+    public ProgressEvent<ResourceModel, CallbackContext> firstResponse() {
+        client = Priming.buildOfflineClient();
+
+        final LoggerProxy logger = new LoggerProxy();
+        final AmazonWebServicesClientProxy proxy = new AmazonWebServicesClientProxy(logger, new Credentials("accessKey", "secretKey", "token"), () -> Long.MAX_VALUE);
+
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                .awsAccountId("123456789012")
+                .region("us-east-1")
+                .stackId("arn:aws:cloudformation:us-east-1:123456789012:stack/BenchmarkStack/id")
+                .desiredResourceState(ResourceModel.builder()
+                        .name("BenchmarkRule")
+                        .eventBusName("BenchmarkEventBus")
+                        .build())
+                .build();
+
+        return new ReadHandler(client).handleRequest(proxy, request, null, logger);
+    }
+}
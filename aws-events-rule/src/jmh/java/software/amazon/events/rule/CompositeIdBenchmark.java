@@ -0,0 +1,70 @@
+package software.amazon.events.rule;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares identifying a rule by its ARN through String.split, as CompositeId used to for every Translator call, with
+ * parsing the ARN once and with looking up the shared CompositeId.
+ * Run with `mvn -P benchmark verify -Djmh.includes=CompositeIdBenchmark`; the gc profiler reports the allocation rate.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CompositeIdBenchmark {
+
+    @Param({
+            "arn:aws:events:us-west-2:123456789123:rule/BenchmarkRule",
+            "arn:aws:events:us-west-2:123456789123:rule/BenchmarkEventBus/BenchmarkRule"
+    })
+    public String arn;
+
+    private ResourceModel model;
+
+    @Setup
+    public void setup() {
+        model = ResourceModel.builder()
+                .arn(arn)
+                .build();
+    }
+
+    @Benchmark
+    public CompositeId split() {
+        String ruleName;
+        String eventBusName = null;
+        String[] splitArn = model.getArn().split("/", 0);
+
+        if (splitArn.length == 2) {
+            ruleName = splitArn[1];
+        } else {
+            ruleName = splitArn[2];
+            eventBusName = splitArn[1];
+        }
+
+        return new CompositeId(ruleName, eventBusName);
+    }
+
+    @Benchmark
+    public CompositeId parseArn() {
+        return CompositeId.parseArn(model.getArn());
+    }
+
+    @Benchmark
+    public CompositeId of() {
+        return CompositeId.of(model);
+    }
+}
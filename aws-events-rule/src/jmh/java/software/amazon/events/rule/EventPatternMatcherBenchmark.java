@@ -0,0 +1,121 @@
+package software.amazon.events.rule;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how many events per second the EventPatternMatcher evaluates against a set of rules that mixes exact
+ * values, prefixes, numeric ranges, exists filters and $or. Events are parsed up front, so only matching is measured.
+ * Run with `mvn -P benchmark verify -Djmh.includes=EventPatternMatcherBenchmark`.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EventPatternMatcherBenchmark {
+
+    private static final int EVENT_COUNT = 256;
+
+    @Param({"1000"})
+    public int ruleCount;
+
+    private EventPatternMatcher matcher;
+    private JsonNode[] events;
+    private int next;
+
+    @Setup
+    public void setup() throws JsonProcessingException {
+        EventPatternMatcher.Builder builder = EventPatternMatcher.builder();
+        for (int i = 0; i < ruleCount; i++) {
+            builder.rule("BenchmarkRule" + i, buildEventPattern(i));
+        }
+        matcher = builder.build();
+
+        ObjectMapper mapper = new ObjectMapper();
+        events = new JsonNode[EVENT_COUNT];
+        for (int i = 0; i < EVENT_COUNT; i++) {
+            events[i] = mapper.readTree(buildEvent(i * ruleCount / EVENT_COUNT));
+        }
+    }
+
+    @Benchmark
+    public Set<String> matchingRules() {
+        next = (next + 1) % EVENT_COUNT;
+        return matcher.matchingRules(events[next]);
+    }
+
+    private static Map<String, Object> buildEventPattern(int i) {
+        Map<String, Object> bucket = new HashMap<>();
+        bucket.put("name", Collections.singletonList("benchmark-bucket-" + i));
+
+        Map<String, Object> detail = new HashMap<>();
+        detail.put("bucket", bucket);
+        detail.put("error", Collections.singletonList(Collections.singletonMap("exists", false)));
+
+        Map<String, Object> eventPattern = new HashMap<>();
+        eventPattern.put("detail", detail);
+
+        switch (i % 4) {
+            case 0:
+                eventPattern.put("source", Collections.singletonList("aws.s3"));
+                break;
+            case 1:
+                eventPattern.put("source", Collections.singletonList(Collections.singletonMap("prefix", "aws.")));
+                eventPattern.put("detail-type", Arrays.asList("Object Created", "Object Deleted"));
+                break;
+            case 2:
+                Map<String, Object> object = new HashMap<>();
+                object.put("size", Collections.singletonList(Collections.singletonMap("numeric", Arrays.asList(">", i, "<=", i * 10))));
+                detail.put("object", object);
+                break;
+            default:
+                Map<String, Object> created = new HashMap<>();
+                created.put("detail-type", Collections.singletonList("Object Created"));
+                Map<String, Object> custom = new HashMap<>();
+                custom.put("source", Collections.singletonList("custom." + i));
+                eventPattern.put("$or", Arrays.asList(created, custom));
+        }
+
+        return eventPattern;
+    }
+
+    private static String buildEvent(int i) {
+        return "{"
+                + "\"version\":\"0\","
+                + "\"id\":\"6a7e8feb-b491-4cf7-a9f1-bf3703467718\","
+                + "\"detail-type\":\"Object Created\","
+                + "\"source\":\"aws.s3\","
+                + "\"account\":\"123456789123\","
+                + "\"time\":\"2021-01-01T00:00:00Z\","
+                + "\"region\":\"us-west-2\","
+                + "\"resources\":[\"arn:aws:s3:::benchmark-bucket-" + i + "\"],"
+                + "\"detail\":{"
+                + "\"bucket\":{\"name\":\"benchmark-bucket-" + i + "\"},"
+                + "\"object\":{\"key\":\"photos/" + i + ".png\",\"size\":" + (i * 5) + ",\"etag\":\"b1946ac92492d2347c6235b4d2611184\"},"
+                + "\"request-id\":\"57H08PA84AB1JZW0\","
+                + "\"requester\":\"123456789123\","
+                + "\"source-ip-address\":\"10.0.0.7\""
+                + "}}";
+    }
+}
@@ -0,0 +1,238 @@
+package software.amazon.events.rule;
+
+import software.amazon.awssdk.services.cloudwatchevents.model.DescribeRuleResponse;
+import software.amazon.awssdk.services.cloudwatchevents.model.ListTargetsByRuleResponse;
+import software.amazon.awssdk.services.cloudwatchevents.model.PutRuleRequest;
+import software.amazon.awssdk.services.cloudwatchevents.model.PutTargetsRequest;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the Translator paths that every handler run goes through, with every Target parameter type populated, and
+ * drift detection of a read model through deep equals against a fingerprint kept from the desired model.
+ * Run with `mvn -P benchmark verify`; the gc profiler reports the allocation rate next to the throughput.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TranslatorBenchmark {
+
+    @Param({"1", "10", "100"})
+    public int targetCount;
+
+    private ResourceModel model;
+    private ListTargetsByRuleResponse listTargetsByRuleResponse;
+
+    // The model as ReadHandler would read it back, and the fingerprint of the desired model as a drift sweep keeps it
+    private ResourceModel readModel;
+    private ModelFingerprint modelFingerprint;
+
+    @Setup
+    public void setup() {
+        Set<Target> targets = new HashSet<>();
+        for (int i = 0; i < targetCount; i++) {
+            targets.add(buildTarget(i));
+        }
+
+        model = ResourceModel.builder()
+                .name("BenchmarkRule")
+                .eventBusName("BenchmarkEventBus")
+                .description("BenchmarkDescription")
+                .eventPattern(buildEventPattern())
+                .roleArn("arn:aws:iam::123456789123:role/BenchmarkRole")
+                .state("ENABLED")
+                .targets(targets)
+                .build();
+
+        listTargetsByRuleResponse = ListTargetsByRuleResponse.builder()
+                .targets(Translator.translateToPutTargetsRequest(model).targets())
+                .build();
+
+        readModel = ResourceModel.builder()
+                .name(model.getName())
+                .eventBusName(model.getEventBusName())
+                .description(model.getDescription())
+                .eventPattern(buildEventPattern())
+                .roleArn(model.getRoleArn())
+                .state(model.getState())
+                .targets(Translator.translateFromListTargetsByRuleResponse(listTargetsByRuleResponse))
+                .build();
+        modelFingerprint = ModelFingerprint.of(model);
+    }
+
+    @Benchmark
+    public PutTargetsRequest translateToPutTargetsRequest() {
+        return Translator.translateToPutTargetsRequest(model);
+    }
+
+    @Benchmark
+    public Set<Target> translateFromListTargetsByRuleResponse() {
+        return Translator.translateFromListTargetsByRuleResponse(listTargetsByRuleResponse);
+    }
+
+    @Benchmark
+    public ResourceModel translateRuleRoundTrip() {
+        PutRuleRequest putRuleRequest = Translator.translateToPutRuleRequest(model, Collections.emptyMap());
+
+        DescribeRuleResponse describeRuleResponse = DescribeRuleResponse.builder()
+                .name(putRuleRequest.name())
+                .eventBusName(putRuleRequest.eventBusName())
+                .description(putRuleRequest.description())
+                .eventPattern(putRuleRequest.eventPattern())
+                .roleArn(putRuleRequest.roleArn())
+                .state(putRuleRequest.stateAsString())
+                .build();
+
+        return Translator.translateFromDescribeRuleResponse(describeRuleResponse).build();
+    }
+
+    @Benchmark
+    public boolean driftByEquals() {
+        return !model.equals(readModel);
+    }
+
+    @Benchmark
+    public boolean driftByModelFingerprint() {
+        return !modelFingerprint.matches(ModelFingerprint.of(readModel));
+    }
+
+    private static Map<String, Object> buildEventPattern() {
+        List<String> buckets = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            buckets.add("benchmark-bucket-" + i);
+        }
+
+        Map<String, Object> bucket = new HashMap<>();
+        bucket.put("name", buckets);
+
+        Map<String, Object> detail = new HashMap<>();
+        detail.put("bucket", bucket);
+
+        Map<String, Object> eventPattern = new HashMap<>();
+        eventPattern.put("source", Collections.singletonList("aws.s3"));
+        eventPattern.put("detail-type", Collections.singletonList("Object Created"));
+        eventPattern.put("detail", detail);
+        return eventPattern;
+    }
+
+    private static Target buildTarget(int i) {
+        Map<String, String> headerParameters = new HashMap<>();
+        headerParameters.put("HEADER_PARAMETER_KEY", "HEADER_PARAMETER_VALUE");
+
+        Map<String, String> queryStringParameters = new HashMap<>();
+        queryStringParameters.put("QUERY_STRING_PARAMETER_KEY", "QUERY_STRING_PARAMETER_VALUE");
+
+        Map<String, String> inputPathsMap = new HashMap<>();
+        inputPathsMap.put("INPUT_PATH_KEY", "INPUT_PATH_VALUE");
+
+        return Target.builder()
+                .id("BenchmarkTargetId" + i)
+                .arn("arn:aws:lambda:us-west-2:123456789123:function:BenchmarkTargetId" + i)
+                .roleArn("arn:aws:iam::123456789123:role/BenchmarkTargetRole")
+                .batchParameters(BatchParameters.builder()
+                        .jobDefinition("JOB_DEFINITION")
+                        .jobName("JOB_NAME")
+                        .arrayProperties(BatchArrayProperties.builder()
+                                .size(1)
+                                .build())
+                        .retryStrategy(BatchRetryStrategy.builder()
+                                .attempts(1)
+                                .build())
+                        .build())
+                .deadLetterConfig(DeadLetterConfig.builder()
+                        .arn("ARN")
+                        .build())
+                .ecsParameters(EcsParameters.builder()
+                        .networkConfiguration(NetworkConfiguration.builder()
+                                .awsVpcConfiguration(AwsVpcConfiguration.builder()
+                                        .assignPublicIp("ENABLED")
+                                        .securityGroups(Collections.singleton("SECURITY_GROUP"))
+                                        .subnets(Collections.singleton("SUBNET"))
+                                        .build())
+                                .build())
+                        .group("GROUP")
+                        .launchType("FARGATE")
+                        .platformVersion("PLATFORM_VERSION")
+                        .taskCount(1)
+                        .taskDefinitionArn("TASK_DEFINITION_ARN")
+                        .tagList(Collections.singleton(Tag.builder()
+                                .key("TAG_KEY")
+                                .value("TAG_VALUE")
+                                .build()))
+                        .placementStrategies(Collections.singleton(PlacementStrategy.builder()
+                                .field("PLACEMENT_STRATEGY_FIELD")
+                                .type("spread")
+                                .build()))
+                        .placementConstraints(Collections.singleton(PlacementConstraint.builder()
+                                .expression("PLACEMENT_CONSTRAINT_EXPRESSION")
+                                .type("memberOf")
+                                .build()))
+                        .capacityProviderStrategy(Collections.singleton(CapacityProviderStrategyItem.builder()
+                                .base(1)
+                                .capacityProvider("CAPACITY_PROVIDER")
+                                .weight(1)
+                                .build()))
+                        .build())
+                .httpParameters(HttpParameters.builder()
+                        .headerParameters(headerParameters)
+                        .pathParameterValues(Collections.singleton("PATH_PARAMETER_VALUE"))
+                        .queryStringParameters(queryStringParameters)
+                        .build())
+                .inputTransformer(InputTransformer.builder()
+                        .inputPathsMap(inputPathsMap)
+                        .inputTemplate("INPUT_TEMPLATE")
+                        .build())
+                .kinesisParameters(KinesisParameters.builder()
+                        .partitionKeyPath("PARTITION_KEY_PATH")
+                        .build())
+                .redshiftDataParameters(RedshiftDataParameters.builder()
+                        .database("DATABASE")
+                        .dbUser("DB_USER")
+                        .secretManagerArn("SECRET_MANAGER_ARN")
+                        .sql("SQL")
+                        .statementName("STATEMENT_NAME")
+                        .withEvent(true)
+                        .build())
+                .retryPolicy(RetryPolicy.builder()
+                        .maximumEventAgeInSeconds(60)
+                        .maximumRetryAttempts(1)
+                        .build())
+                .runCommandParameters(RunCommandParameters.builder()
+                        .runCommandTargets(Collections.singleton(RunCommandTarget.builder()
+                                .key("RUN_COMMAND_TARGET_KEY")
+                                .values(Collections.singleton("RUN_COMMAND_TARGET_VALUE"))
+                                .build()))
+                        .build())
+                .sqsParameters(SqsParameters.builder()
+                        .messageGroupId("MESSAGE_GROUP_ID")
+                        .build())
+                .sageMakerPipelineParameters(SageMakerPipelineParameters.builder()
+                        .pipelineParameterList(Collections.singleton(SageMakerPipelineParameter.builder()
+                                .name("SAGEMAKER_PIPELINE_PARAMETER_NAME")
+                                .value("SAGEMAKER_PIPELINE_PARAMETER_VALUE")
+                                .build()))
+                        .build())
+                .build();
+    }
+}
@@ -2,20 +2,10 @@ package software.amazon.events.rule;
 
 import static java.util.Objects.requireNonNull;
 
-import software.amazon.awssdk.awscore.exception.AwsErrorDetails;
-import software.amazon.awssdk.awscore.exception.AwsServiceException;
 import software.amazon.awssdk.services.cloudwatchevents.CloudWatchEventsClient;
 import software.amazon.awssdk.services.cloudwatchevents.model.*;
 
-import software.amazon.awssdk.services.cloudwatchevents.model.Target;
-import software.amazon.cloudformation.exceptions.BaseHandlerException;
-import software.amazon.cloudformation.exceptions.CfnGeneralServiceException;
-import software.amazon.cloudformation.exceptions.CfnNotFoundException;
-import software.amazon.cloudformation.exceptions.CfnAlreadyExistsException;
 import software.amazon.cloudformation.exceptions.CfnInvalidRequestException;
-import software.amazon.cloudformation.exceptions.CfnInternalFailureException;
-import software.amazon.cloudformation.exceptions.CfnResourceConflictException;
-import software.amazon.cloudformation.exceptions.CfnServiceLimitExceededException;
 import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
 import software.amazon.cloudformation.proxy.Logger;
 import software.amazon.cloudformation.proxy.ProgressEvent;
@@ -26,188 +16,247 @@ import software.amazon.cloudformation.proxy.HandlerErrorCode;
 import java.io.PrintWriter;
 import java.io.StringWriter;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 // Placeholder for the functionality that could be shared across Create/Read/Update/Delete/List Handlers
 
 
 public abstract class BaseHandlerStd extends BaseHandler<CallbackContext> {
-    public static final int MAX_RETRIES_ON_PUT_TARGETS = 5;
-    public static final int MAX_RETRIES_ON_REMOVE_TARGETS = 5;
+    // Runs during the init phase of the container, so that the first request does not pay for loading the SDK and Translator
+    static {
+        Priming.primeOnInit();
+    }
+
     protected Logger logger;
 
   private final CloudWatchEventsClient cloudWatchEventsClient;
+  protected final StabilizationScheduler stabilizationScheduler;
+  protected final FailedEntryRetryPolicy failedEntryRetryPolicy;
 
   protected BaseHandlerStd() {
     this(ClientBuilder.getClient());
   }
 
+  protected BaseHandlerStd(StabilizationScheduler stabilizationScheduler) {
+    this(ClientBuilder.getClient(), stabilizationScheduler);
+  }
+
+  protected BaseHandlerStd(StabilizationScheduler stabilizationScheduler, FailedEntryRetryPolicy failedEntryRetryPolicy) {
+    this(ClientBuilder.getClient(), stabilizationScheduler, failedEntryRetryPolicy);
+  }
+
   protected BaseHandlerStd(CloudWatchEventsClient cloudWatchEventsClient) {
+    this(cloudWatchEventsClient, new ExponentialBackoffScheduler());
+  }
+
+  protected BaseHandlerStd(CloudWatchEventsClient cloudWatchEventsClient, StabilizationScheduler stabilizationScheduler) {
+    this(cloudWatchEventsClient, stabilizationScheduler, new FailedEntryRetryPolicy());
+  }
+
+  protected BaseHandlerStd(CloudWatchEventsClient cloudWatchEventsClient, StabilizationScheduler stabilizationScheduler, FailedEntryRetryPolicy failedEntryRetryPolicy) {
     this.cloudWatchEventsClient = requireNonNull(cloudWatchEventsClient);
+    this.stabilizationScheduler = requireNonNull(stabilizationScheduler);
+    this.failedEntryRetryPolicy = requireNonNull(failedEntryRetryPolicy);
   }
 
     /**
-     * Checks for failed target puts and retries. Returns true iff a retry was not required and performed.
-     * @param awsRequest The request to be retried
-     * @param proxyClient The client to execute the request
-     * @param callbackContext The CallbackContext containing the number of retries attempted and the response from the last attempt
+     * Records which targets PutTargets failed to put, and sends them again once the delay chosen by the retry policy
+     * has passed. While targets have failed with retryable error codes, the handler is called back after that delay,
+     * and the callback makes the retry. Fails as soon as a target fails with a terminal error code, or once the retry
+     * policy runs out of retries.
+     * @param progress The ProgressEvent object
+     * @param awsResponse The response from the first call to PutTargets
+     * @param proxyClient The client used to retry
+     * @param retryPolicy The policy that classifies the failed entries and chooses the delay between retries
      * @param logger The logger
-     * @return Whether it is safe to move on to stabilization
+     * @param stackId The stack id (used for logging)
+     * @return A ProgressEvent with a callback delay while a retry is scheduled, a failed ProgressEvent if the targets
+     * cannot be put, and a normal ProgressEvent once no target has failed.
      */
-    static boolean mitigateFailedPutTargets(PutTargetsRequest awsRequest, ProxyClient<CloudWatchEventsClient> proxyClient, CallbackContext callbackContext, Logger logger) {
-        boolean hasFailedEntries = callbackContext.getPutTargetsResponse().hasFailedEntries() && callbackContext.getPutTargetsResponse().failedEntries().size() > 0;
+    static ProgressEvent<ResourceModel, CallbackContext> retryFailedPutTargets(ProgressEvent<ResourceModel, CallbackContext> progress, PutTargetsResponse awsResponse, ProxyClient<CloudWatchEventsClient> proxyClient, FailedEntryRetryPolicy retryPolicy, Logger logger, String stackId) {
+        CallbackContext callbackContext = progress.getCallbackContext();
+        ResourceModel model = progress.getResourceModel();
+
+        if (model.getTargets() == null) {
+            return ProgressEvent.progress(model, callbackContext);
+        }
 
-        if (hasFailedEntries) {
-            if (callbackContext.getRetryAttemptsForPutTargets() < MAX_RETRIES_ON_PUT_TARGETS) {
-                logger.log(String.format("PutTargets has %s failed entries. Retrying...", callbackContext.getPutTargetsResponse().failedEntryCount()));
+        String targetsFingerprint = Translator.translateToTargetsFingerprint(model);
+        PutTargetsResponse lastResponse = null;
+
+        if (callbackContext.getFailedTargetIdsToPut() == null) {
+            lastResponse = awsResponse;
+            callbackContext.setFailedTargetIdsToPut(failedPutTargetIds(awsResponse, logger, stackId));
+            callbackContext.setTargetsFingerprint(targetsFingerprint);
+        } else if (!targetsFingerprint.equals(callbackContext.getTargetsFingerprint())) {
+            // The failed ids were recorded for a different set of targets, so put every target again
+            logger.log(String.format("StackId: %s: %s have changed since they were put. Retrying all...", stackId, "AWS::Events::Target"));
+            callbackContext.setFailedTargetIdsToPut(model.getTargets().stream()
+                    .map(software.amazon.events.rule.Target::getId)
+                    .collect(Collectors.toCollection(ArrayList::new)));
+            callbackContext.setTargetsFingerprint(targetsFingerprint);
+            callbackContext.setPutTargetsRetryDue(true);
+        }
 
-                // Build a new request from failed entries
-                HashMap<String, Target> targetMap = new HashMap<>();
-                for (Target target : awsRequest.targets()) {
-                    targetMap.put(target.id(), target);
-                }
+        if (callbackContext.isPutTargetsRetryDue()) {
+            logger.log(String.format("StackId: %s: PutTargets has %s failed entries. Retrying...", stackId, callbackContext.getFailedTargetIdsToPut().size()));
 
-                ArrayList<Target> targetsToPut = new ArrayList<>();
-                for (PutTargetsResultEntry failedEntry : callbackContext.getPutTargetsResponse().failedEntries()) {
-                    logger.log(failedEntry.errorMessage());
-                    targetsToPut.add(targetMap.get(failedEntry.targetId()));
-                }
+            callbackContext.setPutTargetsRetryDue(false);
+            lastResponse = putTargetsInBatches(Translator.translateToPutTargetsRequest(model, callbackContext.getFailedTargetIdsToPut()), proxyClient);
+            callbackContext.setFailedTargetIdsToPut(failedPutTargetIds(lastResponse, logger, stackId));
+        }
 
-                PutTargetsRequest putTargetsRequest = PutTargetsRequest.builder()
-                        .targets(targetsToPut)
-                        .build();
-
-                // Retry request
-                callbackContext.setRetryAttemptsForPutTargets(callbackContext.getRetryAttemptsForPutTargets() + 1);
-                callbackContext.setPutTargetsResponse(proxyClient.injectCredentialsAndInvokeV2(putTargetsRequest, proxyClient.client()::putTargets));
-            } else {
-                throw AwsServiceException.builder()
-                        .awsErrorDetails(AwsErrorDetails.builder().errorCode("FailedEntries (put)").build())
-                        .build();
-            }
+        if (callbackContext.getFailedTargetIdsToPut().isEmpty()) {
+            return ProgressEvent.progress(model, callbackContext);
+        }
+
+        boolean terminal = lastResponse != null && lastResponse.hasFailedEntries() && lastResponse.failedEntries().stream()
+                .anyMatch(failedEntry -> !retryPolicy.isRetryable(failedEntry.errorCode()));
+
+        if (terminal || callbackContext.getRetryAttemptsForPutTargets() >= retryPolicy.getMaxRetries()) {
+            logger.log(String.format("StackId: %s: %s %s failed to be put after %s retries.", stackId, "AWS::Events::Target",
+                    callbackContext.getFailedTargetIdsToPut(), callbackContext.getRetryAttemptsForPutTargets()));
+            return ProgressEvent.failed(model, callbackContext, HandlerErrorCode.InternalFailure, "Target(s) failed to create/update");
         }
 
-        return !hasFailedEntries;
+        int callbackDelaySeconds = retryPolicy.nextDelaySeconds(callbackContext.getRetryAttemptsForPutTargets());
+        logger.log(String.format("StackId: %s: PutTargets has %s failed entries. Retrying in %s seconds...", stackId,
+                callbackContext.getFailedTargetIdsToPut().size(), callbackDelaySeconds));
+
+        callbackContext.setRetryAttemptsForPutTargets(callbackContext.getRetryAttemptsForPutTargets() + 1);
+        callbackContext.setPutTargetsRetryDue(true);
+        return ProgressEvent.defaultInProgressHandler(callbackContext, callbackDelaySeconds, model);
     }
 
     /**
-     * Checks for failed target removals and retries. Returns true iff a retry was not required and performed.
-     * @param proxyClient The client to execute the request
-     * @param callbackContext The CallbackContext containing the number of retries attempted and the response from the last attempt
+     * Records which targets RemoveTargets failed to remove, and sends them again once the delay chosen by the retry
+     * policy has passed, in the same way as retryFailedPutTargets.
+     * @param progress The ProgressEvent object
+     * @param awsResponse The response from the first call to RemoveTargets
+     * @param proxyClient The client used to retry
+     * @param retryPolicy The policy that classifies the failed entries and chooses the delay between retries
      * @param logger The logger
-     * @return Whether it is safe to move on to stabilization
+     * @param stackId The stack id (used for logging)
+     * @return A ProgressEvent with a callback delay while a retry is scheduled, a failed ProgressEvent if the targets
+     * cannot be removed, and a normal ProgressEvent once no target has failed.
      */
-    static boolean mitigateFailedRemoveTargets(ProxyClient<CloudWatchEventsClient> proxyClient, ResourceModel model, CallbackContext callbackContext, Logger logger) {
-      boolean hasFailedEntries = callbackContext.getRemoveTargetsResponse().hasFailedEntries() && callbackContext.getRemoveTargetsResponse().failedEntries().size() > 0;
-
-      if (hasFailedEntries) {
-          if (callbackContext.getRetryAttemptsForRemoveTargets() < MAX_RETRIES_ON_REMOVE_TARGETS) {
-              logger.log(String.format("RemoveTTargets has %s failed entries. Retrying...", callbackContext.getRemoveTargetsResponse().failedEntryCount()));
-
-              // Build a new request from failed entries
-              ArrayList<String> failedEntryIds = new ArrayList<>();
-              for (RemoveTargetsResultEntry failedEntry : callbackContext.getRemoveTargetsResponse().failedEntries()) {
-                  failedEntryIds.add(failedEntry.targetId());
-                  logger.log(failedEntry.errorMessage());
-              }
-
-              RemoveTargetsRequest removeTargetsRequest = Translator.translateToRemoveTargetsRequest(model, failedEntryIds);
-
-              // Retry request
-              callbackContext.setRetryAttemptsForRemoveTargets(callbackContext.getRetryAttemptsForRemoveTargets() + 1);
-              callbackContext.setRemoveTargetsResponse(proxyClient.injectCredentialsAndInvokeV2(removeTargetsRequest, proxyClient.client()::removeTargets));
-          } else {
-              logger.log("Failed to remove Targets.");
-              throw AwsServiceException.builder()
-                      .awsErrorDetails(AwsErrorDetails.builder().errorCode("FailedEntries (remove)").build())
-                      .build();
-          }
-      }
-
-      return !hasFailedEntries;
-  }
+    static ProgressEvent<ResourceModel, CallbackContext> retryFailedRemoveTargets(ProgressEvent<ResourceModel, CallbackContext> progress, RemoveTargetsResponse awsResponse, ProxyClient<CloudWatchEventsClient> proxyClient, FailedEntryRetryPolicy retryPolicy, Logger logger, String stackId) {
+        CallbackContext callbackContext = progress.getCallbackContext();
+        ResourceModel model = progress.getResourceModel();
+        RemoveTargetsResponse lastResponse = null;
+
+        if (callbackContext.getFailedTargetIdsToRemove() == null) {
+            lastResponse = awsResponse;
+            callbackContext.setFailedTargetIdsToRemove(failedRemoveTargetIds(awsResponse, logger, stackId));
+        }
 
-    /**
-     * Determines whether PutRule has stabilized.
-     * @param proxyClient The client used to read the resource
-     * @param model The model used to generate a read request
-     * @param logger The logger
-     * @param stackId The stack id (sued for logging
-     * @return Whether the request has stabilized
-     */
-    static boolean stabilizePutRule(ProxyClient<CloudWatchEventsClient> proxyClient, ResourceModel model, Logger logger, String stackId) {
-        boolean stabilized;
+        if (callbackContext.isRemoveTargetsRetryDue()) {
+            logger.log(String.format("StackId: %s: RemoveTargets has %s failed entries. Retrying...", stackId, callbackContext.getFailedTargetIdsToRemove().size()));
 
-        try {
-            proxyClient.injectCredentialsAndInvokeV2(
-                    Translator.translateToDescribeRuleRequest(model),
-                    proxyClient.client()::describeRule);
+            callbackContext.setRemoveTargetsRetryDue(false);
+            lastResponse = removeTargetsInBatches(Translator.translateToRemoveTargetsRequest(model, callbackContext.getFailedTargetIdsToRemove()), proxyClient);
+            callbackContext.setFailedTargetIdsToRemove(failedRemoveTargetIds(lastResponse, logger, stackId));
+        }
 
-            stabilized = true;
+        if (callbackContext.getFailedTargetIdsToRemove().isEmpty()) {
+            return ProgressEvent.progress(model, callbackContext);
         }
-        catch (ResourceNotFoundException e) {
-            stabilized = false;
+
+        boolean terminal = lastResponse != null && lastResponse.hasFailedEntries() && lastResponse.failedEntries().stream()
+                .anyMatch(failedEntry -> !retryPolicy.isRetryable(failedEntry.errorCode()));
+
+        if (terminal || callbackContext.getRetryAttemptsForRemoveTargets() >= retryPolicy.getMaxRetries()) {
+            logger.log(String.format("StackId: %s: %s %s failed to be removed after %s retries.", stackId, "AWS::Events::Target",
+                    callbackContext.getFailedTargetIdsToRemove(), callbackContext.getRetryAttemptsForRemoveTargets()));
+            return ProgressEvent.failed(model, callbackContext, HandlerErrorCode.InternalFailure, "Target(s) failed to be removed");
         }
 
-        logger.log(String.format("StackId: %s: %s [%s] has been stabilized: %s", stackId, ResourceModel.TYPE_NAME, model.getName(), stabilized));
-        return stabilized;
+        int callbackDelaySeconds = retryPolicy.nextDelaySeconds(callbackContext.getRetryAttemptsForRemoveTargets());
+        logger.log(String.format("StackId: %s: RemoveTargets has %s failed entries. Retrying in %s seconds...", stackId,
+                callbackContext.getFailedTargetIdsToRemove().size(), callbackDelaySeconds));
+
+        callbackContext.setRetryAttemptsForRemoveTargets(callbackContext.getRetryAttemptsForRemoveTargets() + 1);
+        callbackContext.setRemoveTargetsRetryDue(true);
+        return ProgressEvent.defaultInProgressHandler(callbackContext, callbackDelaySeconds, model);
     }
 
     /**
-     * Determines whether PutTargets has stabilized.
-     * @param awsResponse The response from the first call to PutTargets
-     * @param proxyClient The client used to read the resource and retry if necessary
-     * @param model The model used to generate a read request
-     * @param callbackContext The CallbackContext containing the number of retries attempted and the response from the last attempt
+     * Collects the ids of the targets that PutTargets failed to put, and logs why in one summary line.
+     * @param awsResponse The PutTargetsResponse, or null if no request was made
      * @param logger The logger
      * @param stackId The stack id (used for logging)
-     * @return Whether the request has stabilized
+     * @return The ids of the failed targets
      */
-    static boolean stabilizePutTargets(PutTargetsResponse awsResponse, ProxyClient<CloudWatchEventsClient> proxyClient, ResourceModel model, CallbackContext callbackContext, Logger logger, String stackId) {
-        boolean stabilized = true;
+    static ArrayList<String> failedPutTargetIds(PutTargetsResponse awsResponse, Logger logger, String stackId) {
+        ArrayList<String> failedTargetIds = new ArrayList<>();
 
-        if (model.getTargets() != null) {
-            PutTargetsRequest putTargetsRequest = Translator.translateToPutTargetsRequest(model);
-
-            if (callbackContext.getPutTargetsResponse() == null) {
-                callbackContext.setPutTargetsResponse(awsResponse);
+        if (awsResponse != null && awsResponse.hasFailedEntries()) {
+            for (PutTargetsResultEntry failedEntry : awsResponse.failedEntries()) {
+                failedTargetIds.add(failedEntry.targetId());
             }
+            HandlerLogger.of(logger).failedEntries(stackId, "PutTargets", awsResponse.failedEntries(),
+                    PutTargetsResultEntry::targetId, PutTargetsResultEntry::errorCode, PutTargetsResultEntry::errorMessage);
+        }
+
+        return failedTargetIds;
+    }
 
-            stabilized = mitigateFailedPutTargets(putTargetsRequest, proxyClient, callbackContext, logger);
+    /**
+     * Collects the ids of the targets that RemoveTargets failed to remove, and logs why in one summary line.
+     * @param awsResponse The RemoveTargetsResponse, or null if no request was made
+     * @param logger The logger
+     * @param stackId The stack id (used for logging)
+     * @return The ids of the failed targets
+     */
+    static ArrayList<String> failedRemoveTargetIds(RemoveTargetsResponse awsResponse, Logger logger, String stackId) {
+        ArrayList<String> failedTargetIds = new ArrayList<>();
 
-            logger.log(String.format("StackId: %s: %s [%s] have been stabilized: %s", stackId, "AWS::Events::Target", model.getTargets().size(), stabilized));
+        if (awsResponse != null && awsResponse.hasFailedEntries()) {
+            for (RemoveTargetsResultEntry failedEntry : awsResponse.failedEntries()) {
+                failedTargetIds.add(failedEntry.targetId());
+            }
+            HandlerLogger.of(logger).failedEntries(stackId, "RemoveTargets", awsResponse.failedEntries(),
+                    RemoveTargetsResultEntry::targetId, RemoveTargetsResultEntry::errorCode, RemoveTargetsResultEntry::errorMessage);
         }
 
-        return stabilized;
+        return failedTargetIds;
     }
 
     /**
-     * Determines whether RemoveTargets has stabilized.
-     * @param awsResponse The response from the first call to RemoveTargets
-     * @param proxyClient The client used to read the resource and retry if necessary
+     * Determines whether PutRule has stabilized.
+     * @param proxyClient The client used to read the resource
      * @param model The model used to generate a read request
-     * @param callbackContext The CallbackContext containing the number of retries attempted and the response from the last attempt
      * @param logger The logger
-     * @param stackId The stack id (used for logging)
-     * @param targetIdsToDelete The list of target ids that were to be deleted
+     * @param stackId The stack id (sued for logging
      * @return Whether the request has stabilized
      */
-    static boolean stabilizeRemoveTargets(RemoveTargetsResponse awsResponse, ProxyClient<CloudWatchEventsClient> proxyClient, ResourceModel model, CallbackContext callbackContext, Logger logger, String stackId, List<String> targetIdsToDelete) {
+    static boolean stabilizePutRule(ProxyClient<CloudWatchEventsClient> proxyClient, ResourceModel model, Logger logger, String stackId) {
+        boolean stabilized;
 
-        if (callbackContext.getRemoveTargetsResponse() == null) {
-            callbackContext.setRemoveTargetsResponse(awsResponse);
-        }
+        try {
+            proxyClient.injectCredentialsAndInvokeV2(
+                    Translator.translateToDescribeRuleRequest(model),
+                    proxyClient.client()::describeRule);
 
-        boolean stabilized = targetIdsToDelete.size() == 0 ||
-                mitigateFailedRemoveTargets(proxyClient, model, callbackContext, logger);
+            stabilized = true;
+        }
+        catch (ResourceNotFoundException e) {
+            stabilized = false;
+        }
 
-        logger.log(String.format("StackId: %s: %s [%s] delete has stabilized: %s", stackId, "AWS::Events::Target", targetIdsToDelete, stabilized));
+        HandlerLogger.of(logger).sampled("StabilizePutRule", HandlerLogger.Level.INFO, "StackId: %s: %s [%s] has been stabilized: %s", stackId, ResourceModel.TYPE_NAME, model.getName(), stabilized);
         return stabilized;
     }
 
-
     /**
      * Calls PutRule and returns the result.
      * @param awsRequest The PutRuleRequest
@@ -218,7 +267,7 @@ public abstract class BaseHandlerStd extends BaseHandler<CallbackContext> {
      */
     static PutRuleResponse putRule(PutRuleRequest awsRequest, ProxyClient<CloudWatchEventsClient> proxyClient, Logger logger, String stackId) {
         PutRuleResponse awsResponse = proxyClient.injectCredentialsAndInvokeV2(awsRequest, proxyClient.client()::putRule);
-        logger.log(String.format("StackId: %s: %s [%s] has successfully been updated.", stackId, ResourceModel.TYPE_NAME, awsRequest.name()));
+        HandlerLogger.of(logger).debug("StackId: %s: %s [%s] has successfully been updated.", stackId, ResourceModel.TYPE_NAME, awsRequest.name());
         return awsResponse;
     }
 
@@ -232,7 +281,7 @@ public abstract class BaseHandlerStd extends BaseHandler<CallbackContext> {
      */
     static DeleteRuleResponse deleteRule(DeleteRuleRequest awsRequest, ProxyClient<CloudWatchEventsClient> proxyClient, Logger logger, String stackId) {
         DeleteRuleResponse awsResponse = proxyClient.injectCredentialsAndInvokeV2(awsRequest, proxyClient.client()::deleteRule);
-        logger.log(String.format("StackId: %s: %s [%s] successfully deleted.", stackId, ResourceModel.TYPE_NAME, awsRequest.name()));
+        HandlerLogger.of(logger).debug("StackId: %s: %s [%s] successfully deleted.", stackId, ResourceModel.TYPE_NAME, awsRequest.name());
         return awsResponse;
     }
 
@@ -246,7 +295,7 @@ public abstract class BaseHandlerStd extends BaseHandler<CallbackContext> {
      */
     static DescribeRuleResponse describeRule(DescribeRuleRequest awsRequest, ProxyClient<CloudWatchEventsClient> proxyClient, Logger logger, String stackId) {
         DescribeRuleResponse awsResponse = proxyClient.injectCredentialsAndInvokeV2(awsRequest, proxyClient.client()::describeRule);
-        logger.log(String.format("StackId: %s: %s [%s] has successfully been read.", stackId, ResourceModel.TYPE_NAME, awsRequest.name()));
+        HandlerLogger.of(logger).debug("StackId: %s: %s [%s] has successfully been read.", stackId, ResourceModel.TYPE_NAME, awsRequest.name());
         return awsResponse;
     }
 
@@ -262,13 +311,47 @@ public abstract class BaseHandlerStd extends BaseHandler<CallbackContext> {
         PutTargetsResponse awsResponse = null;
 
         if (awsRequest != null) {
-            awsResponse = proxyClient.injectCredentialsAndInvokeV2(awsRequest, proxyClient.client()::putTargets);
-            logger.log(String.format("StackId: %s: %s [%s] has successfully been updated.", stackId, "AWS::Events::Target", (awsRequest).targets().size()));
+            awsResponse = putTargetsInBatches(awsRequest, proxyClient);
+            HandlerLogger.of(logger).debug("StackId: %s: %s [%s] has successfully been updated.", stackId, "AWS::Events::Target", (awsRequest).targets().size());
         }
 
         return awsResponse;
     }
 
+    /**
+     * Splits a PutTargetsRequest into service-sized batches, sends them concurrently, and merges the results so that
+     * the failed entries of every batch are retried together.
+     * @param awsRequest The PutTargetsRequest, which may contain any number of targets
+     * @param proxyClient The client used to make the requests
+     * @return A PutTargetsResponse containing the failed entries of all batches
+     */
+    static PutTargetsResponse putTargetsInBatches(PutTargetsRequest awsRequest, ProxyClient<CloudWatchEventsClient> proxyClient) {
+        List<PutTargetsResponse> awsResponses = RequestExecutor.invokeAll(
+                Translator.translateToPutTargetsRequests(awsRequest),
+                batch -> proxyClient.injectCredentialsAndInvokeV2(batch, proxyClient.client()::putTargets));
+
+        if (awsResponses.size() == 1) {
+            return awsResponses.get(0);
+        }
+
+        int failedEntryCount = 0;
+        ArrayList<PutTargetsResultEntry> failedEntries = new ArrayList<>();
+
+        for (PutTargetsResponse awsResponse : awsResponses) {
+            if (awsResponse.hasFailedEntries()) {
+                failedEntries.addAll(awsResponse.failedEntries());
+            }
+            if (awsResponse.failedEntryCount() != null) {
+                failedEntryCount += awsResponse.failedEntryCount();
+            }
+        }
+
+        return PutTargetsResponse.builder()
+                .failedEntryCount(failedEntryCount)
+                .failedEntries(failedEntries)
+                .build();
+    }
+
     /**
      * Calls RemoveTargets and returns the result.
      * @param awsRequest The RemoveTargetsRequest
@@ -282,49 +365,327 @@ public abstract class BaseHandlerStd extends BaseHandler<CallbackContext> {
 
         // Delete targets that should not exist after update
         if (targetIdsToDelete.size() > 0) {
-            awsResponse = proxyClient.injectCredentialsAndInvokeV2(awsRequest, proxyClient.client()::removeTargets);
+            awsResponse = removeTargetsInBatches(awsRequest, proxyClient);
         }
 
-        logger.log(String.format("StackId: %s: %s [%s] has successfully been deleted.", stackId, "AWS::Events::Target", targetIdsToDelete));
+        HandlerLogger.of(logger).debug("StackId: %s: %s [%s] has successfully been deleted.", stackId, "AWS::Events::Target", targetIdsToDelete);
         return awsResponse;
     }
 
     /**
-     * Calls ListTargetsByRule and returns the result.
-     * @param awsRequest The ListTargetsByRuleRequest
-     * @param proxyClient The client used to make the request
+     * Splits a RemoveTargetsRequest into service-sized batches, sends them concurrently, and merges the results so
+     * that the failed entries of every batch are retried together.
+     * @param awsRequest The RemoveTargetsRequest, which may contain any number of target ids
+     * @param proxyClient The client used to make the requests
+     * @return A RemoveTargetsResponse containing the failed entries of all batches
+     */
+    static RemoveTargetsResponse removeTargetsInBatches(RemoveTargetsRequest awsRequest, ProxyClient<CloudWatchEventsClient> proxyClient) {
+        List<RemoveTargetsResponse> awsResponses = RequestExecutor.invokeAll(
+                Translator.translateToRemoveTargetsRequests(awsRequest),
+                batch -> proxyClient.injectCredentialsAndInvokeV2(batch, proxyClient.client()::removeTargets));
+
+        if (awsResponses.size() == 1) {
+            return awsResponses.get(0);
+        }
+
+        int failedEntryCount = 0;
+        ArrayList<RemoveTargetsResultEntry> failedEntries = new ArrayList<>();
+
+        for (RemoveTargetsResponse awsResponse : awsResponses) {
+            if (awsResponse.hasFailedEntries()) {
+                failedEntries.addAll(awsResponse.failedEntries());
+            }
+            if (awsResponse.failedEntryCount() != null) {
+                failedEntryCount += awsResponse.failedEntryCount();
+            }
+        }
+
+        return RemoveTargetsResponse.builder()
+                .failedEntryCount(failedEntryCount)
+                .failedEntries(failedEntries)
+                .build();
+    }
+
+    /**
+     * Calls ListTargetsByRule for every page of targets and hands each page to the consumer as soon as it arrives.
+     * Only one page is held in memory at a time.
+     * @param awsRequest The ListTargetsByRuleRequest for the first page
+     * @param proxyClient The client used to make the requests
      * @param logger The logger
      * @param stackId The stack id (used for logging)
-     * @return The ListTargetsByRuleResponse
+     * @param pageConsumer Receives every page that contains targets
+     * @return An empty ListTargetsByRuleResponse; the targets are only passed to the pageConsumer
      */
-    static ListTargetsByRuleResponse listTargets(ListTargetsByRuleRequest awsRequest, ProxyClient<CloudWatchEventsClient> proxyClient, Logger logger, String stackId) {
-        ListTargetsByRuleResponse awsResponse = proxyClient.injectCredentialsAndInvokeV2(awsRequest, proxyClient.client()::listTargetsByRule);
-        logger.log(String.format("StackId: %s: %s [%s] successfully read.", stackId, "AWS::Events::Target", awsResponse.targets().size()));
+    static ListTargetsByRuleResponse listTargets(ListTargetsByRuleRequest awsRequest, ProxyClient<CloudWatchEventsClient> proxyClient, Logger logger, String stackId, Consumer<ListTargetsByRuleResponse> pageConsumer) {
+        int targetCount = 0;
+
+        // Credentials are injected per page: injectCredentialsAndInvokeIterableV2 walks every page itself before
+        // returning, which would request each page twice.
+        ListTargetsByRuleIterable pages = new ListTargetsByRuleIterable(awsRequest,
+                request -> proxyClient.injectCredentialsAndInvokeV2(request, proxyClient.client()::listTargetsByRule));
+
+        for (ListTargetsByRuleResponse page : pages) {
+            if (page.hasTargets()) {
+                targetCount += page.targets().size();
+                pageConsumer.accept(page);
+            }
+        }
+
+        HandlerLogger.of(logger).debug("StackId: %s: %s [%s] successfully read.", stackId, "AWS::Events::Target", targetCount);
+        return ListTargetsByRuleResponse.builder().build();
+    }
+
+    /**
+     * Calls ListTargetsByRule for every page of targets without blocking the caller. Credentials are injected through
+     * injectCredentialsAndInvokeV2Async, and each page is requested on the RequestExecutor pool once the previous page
+     * has arrived.
+     * @param awsRequest The ListTargetsByRuleRequest for the first page
+     * @param proxyClient The client used to make the requests
+     * @param logger The logger
+     * @param stackId The stack id (used for logging)
+     * @return A future that completes with the targets of every page
+     */
+    static CompletableFuture<Set<software.amazon.events.rule.Target>> listTargetsAsync(ListTargetsByRuleRequest awsRequest, ProxyClient<CloudWatchEventsClient> proxyClient, Logger logger, String stackId) {
+        return listTargetsAsync(awsRequest, proxyClient, new HashSet<>())
+                .thenApply(targets -> {
+                    HandlerLogger.of(logger).debug("StackId: %s: %s [%s] successfully read.", stackId, "AWS::Events::Target", targets.size());
+                    return targets;
+                });
+    }
+
+    private static CompletableFuture<Set<software.amazon.events.rule.Target>> listTargetsAsync(ListTargetsByRuleRequest awsRequest, ProxyClient<CloudWatchEventsClient> proxyClient, Set<software.amazon.events.rule.Target> targets) {
+        return proxyClient.injectCredentialsAndInvokeV2Async(awsRequest,
+                        request -> RequestExecutor.supplyAsync(() -> proxyClient.client().listTargetsByRule(request)))
+                .thenCompose(page -> {
+                    targets.addAll(Translator.translateFromListTargetsByRuleResponse(page));
+
+                    if (page.nextToken() == null || page.nextToken().isEmpty()) {
+                        return CompletableFuture.completedFuture(targets);
+                    }
+
+                    return listTargetsAsync(awsRequest.toBuilder().nextToken(page.nextToken()).build(), proxyClient, targets);
+                });
+    }
+
+    /**
+     * Compares the targets of a rule with the targets of the model, one page at a time, and collects which targets have
+     * to be removed and which have to be put because they were added or changed.
+     * @param awsRequest The ListTargetsByRuleRequest for the first page
+     * @param proxyClient The client used to make the requests
+     * @param model The model containing the desired targets
+     * @param targetIdsToPut Receives the ids of the targets that are missing or differ from the model
+     * @param targetIdsToDelete Receives the ids of the targets that are not in the model
+     * @param logger The logger
+     * @param stackId The stack id (used for logging)
+     * @return An empty ListTargetsByRuleResponse, as returned by listTargets
+     */
+    static ListTargetsByRuleResponse diffTargets(ListTargetsByRuleRequest awsRequest, ProxyClient<CloudWatchEventsClient> proxyClient, ResourceModel model, List<String> targetIdsToPut, List<String> targetIdsToDelete, Logger logger, String stackId) {
+        // Fingerprint the Targets that should exist after update
+        HashMap<String, String> modelTargetFingerprints = new HashMap<>();
+        if (model.getTargets() != null) {
+            for (software.amazon.events.rule.Target target : model.getTargets()) {
+                modelTargetFingerprints.put(target.getId(), Translator.translateToFingerprint(target));
+            }
+        }
+
+        // Compare each existing Target with the one that should exist, one page at a time
+        HashSet<String> unchangedTargetIds = new HashSet<>();
+
+        ListTargetsByRuleResponse awsResponse = listTargets(awsRequest, proxyClient, logger, stackId, page -> {
+            for (software.amazon.events.rule.Target target : Translator.translateFromListTargetsByRuleResponse(page)) {
+                String modelTargetFingerprint = modelTargetFingerprints.get(target.getId());
+
+                if (modelTargetFingerprint == null) {
+                    targetIdsToDelete.add(target.getId());
+                } else if (modelTargetFingerprint.equals(Translator.translateToFingerprint(target))) {
+                    unchangedTargetIds.add(target.getId());
+                }
+            }
+        });
+
+        // Only Targets that were added or changed have to be put
+        for (String targetId : modelTargetFingerprints.keySet()) {
+            if (!unchangedTargetIds.contains(targetId)) {
+                targetIdsToPut.add(targetId);
+            }
+        }
+
+        HandlerLogger.of(logger).info("StackId: %s: %s [%s] to put: %s, to delete: %s, unchanged: %s", stackId, "AWS::Events::Target",
+                model.getName(), targetIdsToPut.size(), targetIdsToDelete.size(), unchangedTargetIds.size());
+
         return awsResponse;
     }
 
     /**
-     * Returns a ProgressEvent with a delay that does not result in an infinite loop.
+     * Determines whether the rule properties sent to PutRule can be read back from DescribeRule.
+     * @param proxyClient The client used to read the resource
+     * @param model The model that was sent to PutRule
+     * @param logger The logger
+     * @param stackId The stack id (used for logging)
+     * @return Whether the rule has propagated
+     */
+    static boolean stabilizeRulePropagation(ProxyClient<CloudWatchEventsClient> proxyClient, ResourceModel model, Logger logger, String stackId) {
+        boolean propagated;
+
+        try {
+            DescribeRuleResponse awsResponse = proxyClient.injectCredentialsAndInvokeV2(
+                    Translator.translateToDescribeRuleRequest(model),
+                    proxyClient.client()::describeRule);
+
+            ResourceModel rule = Translator.translateFromDescribeRuleResponse(awsResponse).build();
+            propagated = Translator.translateToRuleFingerprint(rule, model).equals(Translator.translateToRuleFingerprint(model, model));
+        }
+        catch (ResourceNotFoundException e) {
+            propagated = false;
+        }
+
+        HandlerLogger.of(logger).sampled("StabilizeRulePropagation", HandlerLogger.Level.INFO, "StackId: %s: %s [%s] has propagated: %s", stackId, ResourceModel.TYPE_NAME, model.getName(), propagated);
+        return propagated;
+    }
+
+    /**
+     * Determines whether put and removed targets can be read back from ListTargetsByRule.
+     * @param proxyClient The client used to read the targets
+     * @param model The model containing the desired targets
+     * @param targetIdsToPut The ids of the targets that must be listed with their desired configuration
+     * @param targetIdsToDelete The ids of the targets that must no longer be listed
+     * @param logger The logger
+     * @param stackId The stack id (used for logging)
+     * @return Whether the targets have propagated
+     */
+    static boolean stabilizeTargetsPropagation(ProxyClient<CloudWatchEventsClient> proxyClient, ResourceModel model, Collection<String> targetIdsToPut, Collection<String> targetIdsToDelete, Logger logger, String stackId) {
+        return stabilizeTargetsPropagation(proxyClient, model, targetIdsToPut, targetIdsToDelete, new HashSet<>(), logger, stackId);
+    }
+
+    /**
+     * Determines whether put and removed targets can be read back from ListTargetsByRule, and records which of the
+     * removed targets are still listed.
+     * @param proxyClient The client used to read the targets
+     * @param model The model containing the desired targets
+     * @param targetIdsToPut The ids of the targets that must be listed with their desired configuration
+     * @param targetIdsToDelete The ids of the targets that must no longer be listed
+     * @param remainingTargetIds Replaced with the ids of targetIdsToDelete that are still listed
+     * @param logger The logger
+     * @param stackId The stack id (used for logging)
+     * @return Whether the targets have propagated
+     */
+    static boolean stabilizeTargetsPropagation(ProxyClient<CloudWatchEventsClient> proxyClient, ResourceModel model, Collection<String> targetIdsToPut, Collection<String> targetIdsToDelete, Set<String> remainingTargetIds, Logger logger, String stackId) {
+        HashMap<String, String> modelTargetFingerprints = new HashMap<>();
+        if (model.getTargets() != null) {
+            for (software.amazon.events.rule.Target target : model.getTargets()) {
+                if (targetIdsToPut.contains(target.getId())) {
+                    modelTargetFingerprints.put(target.getId(), Translator.translateToFingerprint(target));
+                }
+            }
+        }
+
+        HashSet<String> propagatedTargetIds = new HashSet<>();
+        remainingTargetIds.clear();
+
+        listTargets(Translator.translateToListTargetsByRuleRequest(model), proxyClient, logger, stackId, page -> {
+            for (software.amazon.events.rule.Target target : Translator.translateFromListTargetsByRuleResponse(page)) {
+                if (targetIdsToDelete.contains(target.getId())) {
+                    remainingTargetIds.add(target.getId());
+                } else if (Translator.translateToFingerprint(target).equals(modelTargetFingerprints.get(target.getId()))) {
+                    propagatedTargetIds.add(target.getId());
+                }
+            }
+        });
+
+        boolean propagated = remainingTargetIds.isEmpty() && propagatedTargetIds.size() == modelTargetFingerprints.size();
+
+        HandlerLogger.of(logger).sampled("StabilizeTargetsPropagation", HandlerLogger.Level.INFO, "StackId: %s: %s [%s] have propagated: %s", stackId, "AWS::Events::Target", model.getName(), propagated);
+        return propagated;
+    }
+
+    /**
+     * Drops the memoized request of a completed call graph. If the call graph is replayed, the request is translated
+     * again from the model while the memoized response still prevents a second call, so large target requests do not
+     * have to be carried in every callback.
+     * @param callbackContext The CallbackContext holding the memoized request
+     * @param callGraph The name of the completed call graph
+     */
+    static void evictRequest(CallbackContext callbackContext, String callGraph) {
+        callbackContext.evictRequestRecord(callGraph);
+    }
+
+    /**
+     * Validates the event pattern of the model before any service call is made.
+     * @param progress The ProgressEvent object
+     * @param logger The logger
+     * @param stackId The stack id (used for logging)
+     * @return A failed ProgressEvent if the event pattern is not valid, and the given ProgressEvent otherwise
+     */
+    static ProgressEvent<ResourceModel, CallbackContext> validateEventPattern(ProgressEvent<ResourceModel, CallbackContext> progress, Logger logger, String stackId) {
+        try {
+            EventPatternValidator.validate(progress.getResourceModel().getEventPattern());
+        } catch (CfnInvalidRequestException e) {
+            logger.log(String.format("StackId: %s: %s [%s] has an invalid event pattern: %s", stackId, ResourceModel.TYPE_NAME, progress.getResourceModel().getName(), e.getMessage()));
+            return ProgressEvent.failed(progress.getResourceModel(), progress.getCallbackContext(), e.getErrorCode(), e.getMessage());
+        }
+
+        return progress;
+    }
+
+    /**
+     * Returns a ProgressEvent that waits until a change has propagated, without resulting in an infinite loop.
+     * The change is checked immediately; while it is not visible yet, the handler is called back after the delay chosen
+     * by the scheduler. Once the change is visible, or the scheduler stops waiting, subsequent invocations move on.
      * @param progress The ProgressEvent object
-     * @param callbackDelaySeconds The length of the delay
-     * @param delayCount Which call to delayedProgress this is. For example: if this function is called twice in one
+     * @param stabilizationScheduler The scheduler that chooses the delay between checks
+     * @param delayCount Which call to awaitPropagation this is. For example: if this function is called twice in one
      *                   handler, the delayCount of the first call will be 1, and the delayCount of the second call will
      *                   be 2.
-     * @return A ProgressEvent with a 30 second delay on the first invocation, and a normal ProgressEvent on subsequent
-     * invocations.
+     * @param isPropagated Checks whether the change is visible
+     * @param logger The logger
+     * @param stackId The stack id (used for logging)
+     * @return A ProgressEvent with a callback delay while the change has not propagated, and a normal ProgressEvent
+     * otherwise.
+     */
+    static ProgressEvent<ResourceModel, CallbackContext> awaitPropagation(ProgressEvent<ResourceModel, CallbackContext> progress, StabilizationScheduler stabilizationScheduler, int delayCount, BooleanSupplier isPropagated, Logger logger, String stackId) {
+        return awaitPropagation(progress, stabilizationScheduler, delayCount, isPropagated, Function.identity(), logger, stackId);
+    }
+
+    /**
+     * Like awaitPropagation, but for changes that must have propagated before the handler can go on.
+     * @param progress The ProgressEvent object
+     * @param stabilizationScheduler The scheduler that chooses the delay between checks
+     * @param delayCount Which call to awaitPropagation this is
+     * @param isPropagated Checks whether the change is visible
+     * @param onNotPropagated Builds the ProgressEvent returned when the scheduler stops waiting before the change is
+     *                        visible, e.g. a failed one
+     * @param logger The logger
+     * @param stackId The stack id (used for logging)
+     * @return A ProgressEvent with a callback delay while the change has not propagated, the ProgressEvent built by
+     * onNotPropagated once the scheduler stops waiting, and a normal ProgressEvent otherwise.
      */
-    static ProgressEvent<ResourceModel, CallbackContext> delayedProgress(ProgressEvent<ResourceModel, CallbackContext> progress, int callbackDelaySeconds, int delayCount) {
-        ProgressEvent<ResourceModel, CallbackContext> progressEvent;
+    static ProgressEvent<ResourceModel, CallbackContext> awaitPropagation(ProgressEvent<ResourceModel, CallbackContext> progress, StabilizationScheduler stabilizationScheduler, int delayCount, BooleanSupplier isPropagated,
+                                                                          Function<ProgressEvent<ResourceModel, CallbackContext>, ProgressEvent<ResourceModel, CallbackContext>> onNotPropagated, Logger logger, String stackId) {
+        CallbackContext callbackContext = progress.getCallbackContext();
 
-        if (progress.getCallbackContext().getCompletedPropagationDelays() < delayCount) {
-            progress.getCallbackContext().setCompletedPropagationDelays(delayCount);
-            progressEvent = ProgressEvent.defaultInProgressHandler(progress.getCallbackContext(), callbackDelaySeconds, progress.getResourceModel());
+        if (callbackContext.getCompletedPropagationDelays() >= delayCount) {
+            return ProgressEvent.progress(progress.getResourceModel(), callbackContext);
         }
-        else {
-            progressEvent = ProgressEvent.progress(progress.getResourceModel(), progress.getCallbackContext());
+
+        boolean propagated = isPropagated.getAsBoolean();
+        int callbackDelaySeconds = propagated ? 0 :
+                stabilizationScheduler.nextDelaySeconds(callbackContext.getPropagationAttempts(), callbackContext.getPropagationSecondsWaited());
+
+        if (callbackDelaySeconds > 0) {
+            callbackContext.setPropagationAttempts(callbackContext.getPropagationAttempts() + 1);
+            callbackContext.setPropagationSecondsWaited(callbackContext.getPropagationSecondsWaited() + callbackDelaySeconds);
+            return ProgressEvent.defaultInProgressHandler(callbackContext, callbackDelaySeconds, progress.getResourceModel());
         }
 
-        return progressEvent;
+        logger.log(String.format("StackId: %s: %s [%s] waited %s seconds over %s checks for propagation.", stackId, ResourceModel.TYPE_NAME,
+                progress.getResourceModel().getName(), callbackContext.getPropagationSecondsWaited(), callbackContext.getPropagationAttempts() + 1));
+
+        callbackContext.setCompletedPropagationDelays(delayCount);
+        callbackContext.setPropagationAttempts(0);
+        callbackContext.setPropagationSecondsWaited(0);
+
+        ProgressEvent<ResourceModel, CallbackContext> awaited = ProgressEvent.progress(progress.getResourceModel(), callbackContext);
+        return propagated ? awaited : onNotPropagated.apply(awaited);
     }
 
 
@@ -338,13 +699,50 @@ public abstract class BaseHandlerStd extends BaseHandler<CallbackContext> {
     final ResourceHandlerRequest<ResourceModel> request,
     final CallbackContext callbackContext,
     final Logger logger) {
-    return handleRequest(
-      proxy,
-      request,
-      callbackContext != null ? callbackContext : new CallbackContext(),
-      proxy.newProxy(this::getCloudWatchEventsClient),
-      logger
-    );
+    // One per invocation, so that invocations sharing the handler do not mix their metrics
+    final HandlerMetrics metrics = new HandlerMetrics();
+    final HandlerLogger handlerLogger = new HandlerLogger(logger, samplingScope(request));
+
+    try {
+      return handleRequest(
+        proxy,
+        request,
+        callbackContext != null ? callbackContext : new CallbackContext(),
+        DescribeRuleCoalescer.coalesce(RateLimiter.limit(proxy.newProxy(this::getCloudWatchEventsClient)),
+          DescribeRuleCoalescer.invocationScope(request.getAwsAccountId(), request.getRegion())),
+        metrics,
+        handlerLogger
+      );
+    } finally {
+      handlerLogger.flush(request.getStackId());
+      // Metric records bypass the level and sampling of the HandlerLogger
+      metrics.emit(logger, request.getStackId());
+    }
+  }
+
+  /**
+   * The invocations of one resource operation poll the same stabilization checks, so they sample their log lines
+   * together: the scope is the stack and the logical resource.
+   * @param request The request of the invocation
+   * @return The sampling scope, or null if the request has no stack id
+   */
+  static String samplingScope(final ResourceHandlerRequest<ResourceModel> request) {
+    if (request.getStackId() == null) {
+      return null;
+    }
+    return String.format("%s/%s", request.getStackId(), request.getLogicalResourceIdentifier());
+  }
+
+  /**
+   * Handles a request with metrics of its own, which are not emitted.
+   */
+  protected ProgressEvent<ResourceModel, CallbackContext> handleRequest(
+    final AmazonWebServicesClientProxy proxy,
+    final ResourceHandlerRequest<ResourceModel> request,
+    final CallbackContext callbackContext,
+    final ProxyClient<CloudWatchEventsClient> proxyClient,
+    final Logger logger) {
+    return handleRequest(proxy, request, callbackContext, proxyClient, new HandlerMetrics(), logger);
   }
 
   protected abstract ProgressEvent<ResourceModel, CallbackContext> handleRequest(
@@ -352,47 +750,24 @@ public abstract class BaseHandlerStd extends BaseHandler<CallbackContext> {
     final ResourceHandlerRequest<ResourceModel> request,
     final CallbackContext callbackContext,
     final ProxyClient<CloudWatchEventsClient> proxyClient,
+    final HandlerMetrics metrics,
     final Logger logger);
 
   public ProgressEvent<ResourceModel, CallbackContext> handleError(final CloudWatchEventsRequest request, final Exception e, final ProxyClient<CloudWatchEventsClient> proxyClient, final ResourceModel resourceModel, final CallbackContext callbackContext) {
-    logger.log(String.format("handleError for: %s", e));
+    // Expected failures, e.g. ResourceNotFoundException or throttling, are logged in one line, and unexpected ones
+    // with their stack trace while the budget of the container lasts
+    if (ErrorClassifier.isExpected(e) || e.getStackTrace() == null) {
+      logger.log(String.format("handleError for: %s", e));
+    } else if (ErrorClassifier.tryRenderStackTrace()) {
+      logger.log(String.format("handleError for: %s", e));
 
-    if (e.getStackTrace() != null) {
       StringWriter sw = new StringWriter();
       e.printStackTrace(new PrintWriter(sw));
       logger.log(sw.toString());
+    } else {
+      logger.log(String.format("handleError for: %s (stack trace omitted, more than %s per second)", e, ErrorClassifier.STACK_TRACES_PER_SECOND));
     }
 
-    BaseHandlerException ex;
-    if (e instanceof ConcurrentModificationException) {
-      ex = new CfnResourceConflictException(e);
-    } else if (e instanceof LimitExceededException) {
-      ex = new CfnServiceLimitExceededException(e);
-    } else if (e instanceof InvalidEventPatternException) {
-      ex = new CfnInvalidRequestException(e);
-    } else if (e instanceof InternalException) {
-      ex = new CfnInternalFailureException(e);
-    } else if (e instanceof ResourceNotFoundException) {
-      // READ with an invalid or missing RestApiId or AuthorizerId throws NotFoundException
-      ex = new CfnNotFoundException(e);
-    } else if (e instanceof CfnAlreadyExistsException) {
-      // if you do a CREATE with an existing name, you get BadRequestException
-      return ProgressEvent.defaultFailureHandler(e, HandlerErrorCode.AlreadyExists);
-    } else if (e instanceof AwsServiceException) {
-      if (((AwsServiceException) e).awsErrorDetails().equals("")) { // Do not touch. IDK man...
-        ex = new CfnInternalFailureException(e);
-      } if (((AwsServiceException) e).awsErrorDetails().errorCode().equals("FailedEntries (put)")) {
-        ex = new CfnInternalFailureException(e);
-        return ProgressEvent.failed(resourceModel, callbackContext, ex.getErrorCode(), "Target(s) failed to create/update");
-      } if (((AwsServiceException) e).awsErrorDetails().errorCode().equals("FailedEntries (remove)")) {
-        ex = new CfnInternalFailureException(e);
-        return ProgressEvent.failed(resourceModel, callbackContext, ex.getErrorCode(), "Target(s) failed to be removed");
-      } else {
-        ex = new CfnGeneralServiceException(e);
-      }
-    } else { // InternalException
-      ex = new CfnGeneralServiceException(e);
-    }
-    return ProgressEvent.failed(resourceModel, callbackContext, ex.getErrorCode(), ex.getMessage());
+    return ErrorClassifier.classify(e).failed(e, resourceModel, callbackContext);
   }
 }
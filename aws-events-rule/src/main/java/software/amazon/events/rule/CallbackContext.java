@@ -1,8 +1,5 @@
 package software.amazon.events.rule;
 
-import software.amazon.awssdk.services.cloudwatchevents.model.ListTargetsByRuleResponse;
-import software.amazon.awssdk.services.cloudwatchevents.model.PutTargetsResponse;
-import software.amazon.awssdk.services.cloudwatchevents.model.RemoveTargetsResponse;
 import software.amazon.cloudformation.proxy.StdCallbackContext;
 
 import java.util.ArrayList;
@@ -15,11 +12,16 @@ public class CallbackContext extends StdCallbackContext {
 
     private int retryAttemptsForPutTargets;
     private int retryAttemptsForRemoveTargets;
-    private ListTargetsByRuleResponse listTargetsByRuleResponse;
-    private PutTargetsResponse putTargetsResponse;
-    private RemoveTargetsResponse removeTargetsResponse;
-    private boolean ruleExists;
+    private boolean putTargetsRetryDue;
+    private boolean removeTargetsRetryDue;
+    private ArrayList<String> failedTargetIdsToPut;
+    private ArrayList<String> failedTargetIdsToRemove;
+    private String targetsFingerprint;
+    // Null until the rule has been described by the pre-existence check of Create
+    private Boolean ruleExists;
     private ArrayList<String> targetIdsToDelete;
-    private ResourceModel.ResourceModelBuilder resourceModelBuilder;
+    private ArrayList<String> targetIdsToPut;
     private int completedPropagationDelays;
+    private int propagationAttempts;
+    private int propagationSecondsWaited;
 }
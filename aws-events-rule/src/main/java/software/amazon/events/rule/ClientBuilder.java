@@ -1,20 +1,33 @@
 package software.amazon.events.rule;
 
-// TODO: replace all usage of SdkClient with your service client type, e.g; YourServiceClient
 import software.amazon.awssdk.services.cloudwatchevents.CloudWatchEventsClient;
 import software.amazon.cloudformation.LambdaWrapper;
 
 public class ClientBuilder {
-  /*
-  TODO: uncomment the following, replacing YourServiceClient with your service client name
-  It is recommended to use static HTTP client so less memory is consumed
-  e.g. https://github.com/aws-cloudformation/aws-cloudformation-resource-providers-logs/blob/master/aws-logs-loggroup/src/main/java/software/amazon/logs/loggroup/ClientBuilder.java#L9
-  */
 
+  /**
+   * Returns the client shared by every handler in the container. The client is built on first use and then reused
+   * across warm invocations, so the credential chain, region lookup and marshallers are only set up once. Credentials
+   * are still injected into every request by the proxy.
+   * @return The shared CloudWatchEventsClient
+   */
   public static CloudWatchEventsClient getClient() {
+    return ClientHolder.CLIENT;
+  }
+
+  /**
+   * Builds a new client. Use getClient unless a separate client is really needed.
+   * @return A new CloudWatchEventsClient
+   */
+  static CloudWatchEventsClient buildClient() {
     return CloudWatchEventsClient.builder()
               .httpClient(LambdaWrapper.HTTP_CLIENT)
               .build();
   }
 
+  // Initialized lazily and thread-safely by the class loader
+  private static class ClientHolder {
+    private static final CloudWatchEventsClient CLIENT = buildClient();
+  }
+
 }
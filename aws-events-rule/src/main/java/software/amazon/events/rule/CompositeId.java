@@ -1,27 +1,123 @@
 package software.amazon.events.rule;
 
+import software.amazon.cloudformation.exceptions.CfnInvalidRequestException;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The name and event bus name that identify a rule. A model either carries them, or only its ARN:
+ * arn:[partition]:events:[region]:[account]:rule/[event bus name/]rule name
+ *
+ * Every Translator method identifies the rule of its model, so ARNs are parsed once and the CompositeId is shared by
+ * every later lookup of the same ARN in the container.
+ */
+@lombok.EqualsAndHashCode
 public class CompositeId {
+    // Parsed ARNs are forgotten all at once when there are this many, so that the cache does not grow without bound
+    static final int MAX_CACHED_ARNS = 1000;
+
+    private static final String ARN_PREFIX = "arn:";
+    private static final String RULE_RESOURCE_PREFIX = "rule/";
+
+    // The number of colons before the resource, i.e. after arn, partition, service, region and account
+    private static final int ARN_RESOURCE_FIELD = 5;
+
+    private static final ConcurrentMap<String, CompositeId> BY_ARN = new ConcurrentHashMap<>();
+
     public final String ruleName;
     public final String eventBusName;
 
+    CompositeId(final String ruleName, final String eventBusName) {
+        this.ruleName = ruleName;
+        this.eventBusName = eventBusName;
+    }
+
     public CompositeId(final ResourceModel model) {
+        CompositeId compositeId = of(model);
+
+        this.ruleName = compositeId.ruleName;
+        this.eventBusName = compositeId.eventBusName;
+    }
+
+    /**
+     * Identifies the rule of a model, by its Name and EventBusName if it has a Name, and by its Arn otherwise.
+     * @param model The ResourceModel
+     * @return The CompositeId, which is shared by every model with the same Arn
+     */
+    static CompositeId of(final ResourceModel model) {
         if (model.getName() != null) {
-            this.ruleName = model.getName();
-            this.eventBusName = model.getEventBusName();
-        } else { // if (model.getArn() != null) {
-            String ruleName;
-            String eventBusName = null;
-            String[] splitArn = model.getArn().split("/", 0);
-
-            if (splitArn.length == 2) {
-                ruleName = splitArn[1];
-            } else { // if (splitArn.length == 3
-                ruleName = splitArn[2];
-                eventBusName = splitArn[1];
+            return new CompositeId(model.getName(), model.getEventBusName());
+        }
+
+        return fromArn(model.getArn());
+    }
+
+    /**
+     * Returns the CompositeId of a rule ARN, parsing the ARN only the first time it is seen.
+     * @param arn The rule ARN
+     * @return The CompositeId
+     */
+    static CompositeId fromArn(final String arn) {
+        if (arn == null) {
+            throw new CfnInvalidRequestException("Rule Name or Arn must be specified");
+        }
+
+        CompositeId compositeId = BY_ARN.get(arn);
+
+        if (compositeId == null) {
+            compositeId = parseArn(arn);
+
+            if (BY_ARN.size() >= MAX_CACHED_ARNS) {
+                BY_ARN.clear();
+            }
+            CompositeId cached = BY_ARN.putIfAbsent(arn, compositeId);
+            if (cached != null) {
+                compositeId = cached;
             }
+        }
 
-            this.ruleName = ruleName;
-            this.eventBusName = eventBusName;
+        return compositeId;
+    }
+
+    /**
+     * Parses a rule ARN without regular expressions or intermediate arrays. The rule name is everything after the last
+     * slash, since rule names cannot contain one, and the event bus name is everything between "rule/" and that slash,
+     * so partner event bus names such as aws.partner/example.com/123/bus are kept whole.
+     * @param arn The rule ARN
+     * @return A new CompositeId, whose eventBusName is null for the default event bus
+     */
+    static CompositeId parseArn(final String arn) {
+        if (!arn.startsWith(ARN_PREFIX)) {
+            throw invalidArn(arn);
+        }
+
+        int resourceStart = 0;
+        for (int field = 0; field < ARN_RESOURCE_FIELD; field++) {
+            resourceStart = arn.indexOf(':', resourceStart) + 1;
+            if (resourceStart == 0) {
+                throw invalidArn(arn);
+            }
         }
+
+        if (!arn.startsWith(RULE_RESOURCE_PREFIX, resourceStart)) {
+            throw invalidArn(arn);
+        }
+
+        int eventBusNameStart = resourceStart + RULE_RESOURCE_PREFIX.length();
+        int ruleNameStart = arn.lastIndexOf('/') + 1;
+
+        if (ruleNameStart == arn.length() || ruleNameStart == eventBusNameStart + 1) {
+            // The rule name or the event bus name is empty
+            throw invalidArn(arn);
+        }
+
+        return new CompositeId(
+                arn.substring(ruleNameStart),
+                ruleNameStart > eventBusNameStart ? arn.substring(eventBusNameStart, ruleNameStart - 1) : null);
+    }
+
+    private static CfnInvalidRequestException invalidArn(final String arn) {
+        return new CfnInvalidRequestException(String.format("%s is not a valid rule ARN", arn));
     }
 }
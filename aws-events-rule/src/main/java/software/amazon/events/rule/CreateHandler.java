@@ -9,72 +9,95 @@ import software.amazon.cloudformation.proxy.ProgressEvent;
 import software.amazon.cloudformation.proxy.ProxyClient;
 import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
 
+import java.util.Collections;
+import java.util.stream.Collectors;
+
 public class CreateHandler extends BaseHandlerStd {
 
+    public CreateHandler() {
+        super();
+    }
+
+    CreateHandler(StabilizationScheduler stabilizationScheduler) {
+        super(stabilizationScheduler);
+    }
+
+    CreateHandler(StabilizationScheduler stabilizationScheduler, FailedEntryRetryPolicy failedEntryRetryPolicy) {
+        super(stabilizationScheduler, failedEntryRetryPolicy);
+    }
+
     protected ProgressEvent<ResourceModel, CallbackContext> handleRequest(
         final AmazonWebServicesClientProxy proxy,
         final ResourceHandlerRequest<ResourceModel> request,
         final CallbackContext callbackContext,
         final ProxyClient<CloudWatchEventsClient> proxyClient,
+        final HandlerMetrics metrics,
         final Logger logger) {
 
         this.logger = logger;
 
         return ProgressEvent.progress(request.getDesiredResourceState(), callbackContext)
 
+            // STEP 0 [validate the event pattern before any service call]
+            .then(progress -> validateEventPattern(progress, logger, request.getStackId()))
+
             // STEP 1 [check if resource already exists]
-            .then(progress ->
-                proxy.initiate("AWS-Events-Rule::Create::PreExistenceCheck", proxyClient, progress.getResourceModel(), progress.getCallbackContext())
+            // The rule is described only until it is known whether it exists
+            .then(progress -> callbackContext.getRuleExists() != null ? progress :
+                proxy.initiate("AWS-Events-Rule::Create::PreExistenceCheck", metrics.instrument("AWS-Events-Rule::Create::PreExistenceCheck", proxyClient), progress.getResourceModel(), progress.getCallbackContext())
                 .translateToServiceRequest(Translator::translateToDescribeRuleRequest)
-                .makeServiceCall((awsRequest, client) -> {
-
-                    // Determine whether the rule exists
-                    try {
-                        describeRule(awsRequest, client, logger, request.getStackId());
-                        callbackContext.setRuleExists(true);
-                    }
-                    catch (ResourceNotFoundException e) {
-                        logger.log(String.format("StackId: %s: %s [%s] does not yet exist.", request.getStackId(), ResourceModel.TYPE_NAME, awsRequest.name()));
-                        callbackContext.setRuleExists(false);
+                .makeServiceCall((awsRequest, client) -> describeRule(awsRequest, client, logger, request.getStackId()))
+                .handleError((awsRequest, e, client, model, context) -> {
+                    if (e instanceof ResourceNotFoundException) {
+                        // If the rule does not yet exist, continue
+                        HandlerLogger.of(logger).debug("StackId: %s: %s [%s] does not yet exist.", request.getStackId(), ResourceModel.TYPE_NAME, awsRequest.name());
+                        context.setRuleExists(false);
+                        return ProgressEvent.progress(model, context);
                     }
-
-                    return DescribeRuleResponse.builder().build();
+                    return handleError(awsRequest, e, client, model, context);
                 })
                 .done(awsResponse -> {
-
-                    if (callbackContext.isRuleExists()) {
-                        // If the rule already exists, return failure
-                        return ProgressEvent.failed(progress.getResourceModel(), null, HandlerErrorCode.AlreadyExists,
-                                String.format("%s already exists", progress.getResourceModel().getName()));
-                    } else {
-                        // If the rule does not yet exist, continue
-                        return ProgressEvent.progress(progress.getResourceModel(), progress.getCallbackContext());
-                    }
+                    // If the rule already exists, return failure
+                    callbackContext.setRuleExists(true);
+                    return ProgressEvent.failed(progress.getResourceModel(), null, HandlerErrorCode.AlreadyExists,
+                            String.format("%s already exists", progress.getResourceModel().getName()));
                 })
             )
 
-            // STEP 2 [create/stabilize rule]
+            // STEP 2 [create rule/await propagation]
             .then(progress ->
-                proxy.initiate("AWS-Events-Rule::CreateRule", proxyClient, progress.getResourceModel(), progress.getCallbackContext())
+                proxy.initiate("AWS-Events-Rule::CreateRule", metrics.instrument("AWS-Events-Rule::CreateRule", proxyClient), progress.getResourceModel(), progress.getCallbackContext())
                     .translateToServiceRequest(model -> Translator.translateToPutRuleRequest(model, request.getDesiredResourceTags()))
                     .makeServiceCall((awsRequest, client) -> putRule(awsRequest, client, logger, request.getStackId()))
-                    .stabilize((awsRequest, awsResponse, client, model, context) -> stabilizePutRule(client, model, logger, request.getStackId()))
                     .handleError(this::handleError)
                     .done(awsResponse -> {
                         progress.getResourceModel().setArn(awsResponse.ruleArn());
 
-                        return delayedProgress(progress, 30, 1);
+                        // The rule was described as missing before it was put, so reading it back with the desired
+                        // properties shows both that it exists and that it has propagated
+                        return awaitPropagation(progress, stabilizationScheduler, 1,
+                                () -> metrics.stabilize("AWS-Events-Rule::CreateRule", () -> stabilizeRulePropagation(metrics.instrument("AWS-Events-Rule::CreateRule", proxyClient), progress.getResourceModel(), logger, request.getStackId())),
+                                logger, request.getStackId());
                     })
                 )
 
             // STEP 3 [create/stabilize targets]
             .then(progress -> progress.getResourceModel().getTargets() == null ?
                             progress :
-                            proxy.initiate("AWS-Events-Rule::CreateTargets", proxyClient,progress.getResourceModel(), progress.getCallbackContext())
+                            proxy.initiate("AWS-Events-Rule::CreateTargets", metrics.instrument("AWS-Events-Rule::CreateTargets", proxyClient), progress.getResourceModel(), progress.getCallbackContext())
                     .translateToServiceRequest(Translator::translateToPutTargetsRequest)
                     .makeServiceCall((awsRequest, client) -> putTargets(awsRequest, client, logger, request.getStackId()))
                     .handleError(this::handleError)
-                    .done(awsResponse -> delayedProgress(progress, 30, 2))
+                    .done(awsResponse -> {
+                        evictRequest(callbackContext, "AWS-Events-Rule::CreateTargets");
+
+                        return retryFailedPutTargets(progress, awsResponse, metrics.instrument("AWS-Events-Rule::CreateTargets", proxyClient), failedEntryRetryPolicy, logger, request.getStackId())
+                                .then(retried -> awaitPropagation(progress, stabilizationScheduler, 2,
+                                        () -> metrics.stabilize("AWS-Events-Rule::CreateTargets", () -> stabilizeTargetsPropagation(metrics.instrument("AWS-Events-Rule::CreateTargets", proxyClient), progress.getResourceModel(),
+                                                progress.getResourceModel().getTargets().stream().map(software.amazon.events.rule.Target::getId).collect(Collectors.toSet()),
+                                                Collections.emptySet(), logger, request.getStackId())),
+                                        logger, request.getStackId()));
+                    })
                 )
 
             // STEP 4 [describe call/chain to return the resource model]
@@ -1,52 +1,84 @@
 package software.amazon.events.rule;
 
 import software.amazon.awssdk.services.cloudwatchevents.CloudWatchEventsClient;
+import software.amazon.awssdk.services.cloudwatchevents.model.Target;
 import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
+import software.amazon.cloudformation.proxy.HandlerErrorCode;
 import software.amazon.cloudformation.proxy.Logger;
 import software.amazon.cloudformation.proxy.ProgressEvent;
 import software.amazon.cloudformation.proxy.ProxyClient;
 import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.TreeSet;
+
 public class DeleteHandler extends BaseHandlerStd {
 
+    public DeleteHandler() {
+        super();
+    }
+
+    DeleteHandler(StabilizationScheduler stabilizationScheduler) {
+        super(stabilizationScheduler);
+    }
+
     protected ProgressEvent<ResourceModel, CallbackContext> handleRequest(
         final AmazonWebServicesClientProxy proxy,
         final ResourceHandlerRequest<ResourceModel> request,
         final CallbackContext callbackContext,
         final ProxyClient<CloudWatchEventsClient> proxyClient,
+        final HandlerMetrics metrics,
         final Logger logger) {
 
         this.logger = logger;
 
+        final Set<String> remainingTargetIds = new HashSet<>();
+
         return ProgressEvent.progress(request.getDesiredResourceState(), callbackContext)
 
             // STEP 1 [list targets]
             .then(progress ->
-                proxy.initiate("AWS-Events-Rule::ListTargets", proxyClient, progress.getResourceModel(), progress.getCallbackContext())
+                proxy.initiate("AWS-Events-Rule::ListTargets", metrics.instrument("AWS-Events-Rule::ListTargets", proxyClient), progress.getResourceModel(), progress.getCallbackContext())
                     .translateToServiceRequest(Translator::translateToListTargetsByRuleRequest)
-                    .makeServiceCall((awsRequest, client) -> listTargets(awsRequest, client, logger, request.getStackId()))
-                    .handleError(this::handleError)
-                    .done(awsResponse -> {
-                        // Record the list of Targets
-                        callbackContext.setListTargetsByRuleResponse(awsResponse);
-                        return ProgressEvent.progress(request.getDesiredResourceState(), callbackContext);
+                    .makeServiceCall((awsRequest, client) -> {
+                        // Record the ids of the Targets
+                        callbackContext.setTargetIdsToDelete(new ArrayList<>());
+                        return listTargets(awsRequest, client, logger, request.getStackId(), page -> {
+                            for (Target target : page.targets()) {
+                                callbackContext.getTargetIdsToDelete().add(target.id());
+                            }
+                        });
                     })
+                    .handleError(this::handleError)
+                    .progress()
             )
 
-            // STEP 2 [delete targets]
-            .then(progress -> !callbackContext.getListTargetsByRuleResponse().hasTargets() || callbackContext.getListTargetsByRuleResponse().targets().isEmpty() ?
+            // STEP 2 [delete targets in batches/await their removal]
+            .then(progress -> callbackContext.getTargetIdsToDelete().isEmpty() ?
                         progress :
-                        proxy.initiate("AWS-Events-Rule::DeleteTargets", proxyClient, progress.getResourceModel(), progress.getCallbackContext())
-                    .translateToServiceRequest(model -> Translator.translateToRemoveTargetsRequest(model, callbackContext.getListTargetsByRuleResponse()))
+                        proxy.initiate("AWS-Events-Rule::DeleteTargets", metrics.instrument("AWS-Events-Rule::DeleteTargets", proxyClient), progress.getResourceModel(), progress.getCallbackContext())
+                    .translateToServiceRequest(model -> Translator.translateToRemoveTargetsRequest(model, callbackContext.getTargetIdsToDelete()))
                     .makeServiceCall((awsRequest, client) -> removeTargets(awsRequest, client, logger, request.getStackId(), awsRequest.ids()))
-                    .stabilize((awsRequest, awsResponse, client, model, context) -> stabilizeRemoveTargets(awsResponse, client, model, callbackContext, logger, request.getStackId(), awsRequest.ids()))
                     .handleError(this::handleError)
-                    .progress() // TODO 30
+                    .done(awsResponse -> {
+                        evictRequest(callbackContext, "AWS-Events-Rule::DeleteTargets");
+                        return retryFailedRemoveTargets(progress, awsResponse, metrics.instrument("AWS-Events-Rule::DeleteTargets", proxyClient), failedEntryRetryPolicy, logger, request.getStackId())
+                                // DeleteRule fails while the rule still lists targets, so it is only sent once none is listed
+                                .then(retried -> awaitPropagation(progress, stabilizationScheduler, 1,
+                                        () -> metrics.stabilize("AWS-Events-Rule::DeleteTargets", () -> stabilizeTargetsPropagation(metrics.instrument("AWS-Events-Rule::DeleteTargets", proxyClient), progress.getResourceModel(),
+                                                Collections.emptySet(), callbackContext.getTargetIdsToDelete(), remainingTargetIds, logger, request.getStackId())),
+                                        awaited -> ProgressEvent.failed(awaited.getResourceModel(), awaited.getCallbackContext(), HandlerErrorCode.NotStabilized,
+                                                String.format("Rule %s still lists targets %s after they were removed, so it was not deleted", awaited.getResourceModel().getName(), new TreeSet<>(remainingTargetIds))),
+                                        logger, request.getStackId()));
+                    })
             )
 
             // STEP 3 [delete rule]
             .then(progress ->
-                proxy.initiate("AWS-Events-Rule::DeleteRule", proxyClient, progress.getResourceModel(), progress.getCallbackContext())
+                proxy.initiate("AWS-Events-Rule::DeleteRule", metrics.instrument("AWS-Events-Rule::DeleteRule", proxyClient), progress.getResourceModel(), progress.getCallbackContext())
                     .translateToServiceRequest(Translator::translateToDeleteRuleRequest)
                     .makeServiceCall((awsRequest, client) -> deleteRule(awsRequest, client, logger, request.getStackId()))
                     .handleError(this::handleError)
@@ -0,0 +1,262 @@
+package software.amazon.events.rule;
+
+import software.amazon.awssdk.awscore.AwsRequest;
+import software.amazon.awssdk.awscore.AwsResponse;
+import software.amazon.awssdk.core.ResponseBytes;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.core.pagination.sync.SdkIterable;
+import software.amazon.awssdk.services.cloudwatchevents.CloudWatchEventsClient;
+import software.amazon.awssdk.services.cloudwatchevents.model.DeleteRuleRequest;
+import software.amazon.awssdk.services.cloudwatchevents.model.DescribeRuleRequest;
+import software.amazon.awssdk.services.cloudwatchevents.model.DescribeRuleResponse;
+import software.amazon.awssdk.services.cloudwatchevents.model.PutRuleRequest;
+import software.amazon.cloudformation.proxy.ProxyClient;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Lets the requests of one handler invocation share DescribeRule calls for the same rule. While a DescribeRule call is
+ * in flight, identical requests wait for its response instead of sending their own. A successful response is then
+ * reused for TTL_MILLIS, unless PutRule or DeleteRule is sent for the rule in the meantime. Responses are never shared
+ * between invocations, since each invocation calls with the credentials of its own caller.
+ *
+ * TTL_MILLIS is shorter than the shortest callback delay, so a handler that polls for a change never reads a response
+ * from before its previous poll. Every write to a rule is stamped with a write sequence number, and a response whose
+ * call started before the latest write to its rule is neither reused nor kept, even if it completes after the write. Failed calls, e.g. ResourceNotFoundException while a new rule propagates, are shared
+ * with the requests that waited for them, but are not reused afterwards.
+ */
+class DescribeRuleCoalescer {
+    static final long TTL_MILLIS = 500;
+
+    // Expired entries are only swept once there are this many, so that the map does not grow with every rule described
+    static final int SWEEP_THRESHOLD = 1000;
+
+    private static final String DEFAULT_EVENT_BUS_NAME = "default";
+
+    private static final ConcurrentMap<Key, Entry> ENTRIES = new ConcurrentHashMap<>();
+
+    private static final AtomicLong INVOCATIONS = new AtomicLong();
+
+    // The sequence number of the latest write, and of the latest write to each rule written since the last sweep
+    private static final AtomicLong WRITES = new AtomicLong();
+    private static final ConcurrentMap<Key, Long> LAST_WRITES = new ConcurrentHashMap<>();
+
+    // At least the sequence number of any write that was swept from LAST_WRITES
+    private static final AtomicLong SWEPT_WRITES = new AtomicLong();
+
+    /**
+     * Generates the scope of one handler invocation, which no other invocation shares.
+     * @param awsAccountId The account the invocation sends requests to
+     * @param region The region the invocation sends requests to
+     * @return A scope for coalesce
+     */
+    static String invocationScope(String awsAccountId, String region) {
+        return String.format("%s/%s/%s", awsAccountId, region, INVOCATIONS.incrementAndGet());
+    }
+
+    /**
+     * Wraps a ProxyClient so that its DescribeRule calls are shared, and its PutRule and DeleteRule calls invalidate
+     * what is shared.
+     * @param proxyClient The ProxyClient to wrap
+     * @param scope The scope of the invocation, from invocationScope. Responses are only shared within a scope.
+     * @return A ProxyClient that behaves like the given one
+     */
+    static ProxyClient<CloudWatchEventsClient> coalesce(ProxyClient<CloudWatchEventsClient> proxyClient, String scope) {
+        return new CoalescingProxyClient(proxyClient, scope);
+    }
+
+    /**
+     * Returns the response of an identical DescribeRule call that is in flight or was made less than TTL_MILLIS ago,
+     * or makes the call.
+     * @param key The scope and the rule
+     * @param call Makes the DescribeRule call
+     * @return The DescribeRuleResponse
+     */
+    static DescribeRuleResponse describe(Key key, Supplier<DescribeRuleResponse> call) {
+        while (true) {
+            Entry entry = ENTRIES.get(key);
+
+            if (entry != null) {
+                if ((!entry.response.isDone() && !isStale(key, entry)) || isFresh(key, entry)) {
+                    return RequestExecutor.join(entry.response);
+                }
+                ENTRIES.remove(key, entry);
+            }
+
+            Entry ownEntry = new Entry(WRITES.get());
+            if (ENTRIES.putIfAbsent(key, ownEntry) != null) {
+                // Another request started the same call first; share it
+                continue;
+            }
+
+            if (ENTRIES.size() > SWEEP_THRESHOLD) {
+                ENTRIES.entrySet().removeIf(swept -> swept.getValue().response.isDone() && !isFresh(swept.getKey(), swept.getValue()));
+            }
+            if (LAST_WRITES.size() > SWEEP_THRESHOLD) {
+                // Set first, so that the rules that are swept count as written after every entry that exists now
+                long swept = WRITES.get();
+                SWEPT_WRITES.accumulateAndGet(swept, Math::max);
+                LAST_WRITES.values().removeIf(lastWrite -> lastWrite <= swept);
+            }
+
+            DescribeRuleResponse awsResponse;
+            try {
+                awsResponse = call.get();
+            } catch (Throwable e) {
+                // Errors too, or every later request for the rule would wait forever for the entry to complete
+                ENTRIES.remove(key, ownEntry);
+                ownEntry.response.completeExceptionally(e);
+                throw e;
+            }
+
+            ownEntry.expiresAtNanos = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(TTL_MILLIS);
+            ownEntry.response.complete(awsResponse);
+
+            // The rule was written while the call was in flight, so the response may be from before the write
+            if (isStale(key, ownEntry)) {
+                ENTRIES.remove(key, ownEntry);
+            }
+            return awsResponse;
+        }
+    }
+
+    /**
+     * Forgets the response shared for a rule, e.g. because the rule has just been written, and refuses every response
+     * whose call started before now.
+     * @param key The scope and the rule
+     */
+    static void invalidate(Key key) {
+        LAST_WRITES.merge(key, WRITES.incrementAndGet(), Math::max);
+        ENTRIES.remove(key);
+    }
+
+    private static boolean isStale(Key key, Entry entry) {
+        Long lastWrite = LAST_WRITES.get(key);
+        return (lastWrite == null ? SWEPT_WRITES.get() : lastWrite) > entry.startWrites;
+    }
+
+    private static boolean isFresh(Key key, Entry entry) {
+        return entry.isFresh() && !isStale(key, entry);
+    }
+
+    /**
+     * A rule, as identified by its CompositeId, within a scope.
+     */
+    static final class Key {
+        private final String scope;
+        private final CompositeId compositeId;
+
+        Key(String scope, String ruleName, String eventBusName) {
+            this.scope = scope;
+            this.compositeId = new CompositeId(ruleName, eventBusName == null ? DEFAULT_EVENT_BUS_NAME : eventBusName);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return Objects.equals(scope, key.scope) && compositeId.equals(key.compositeId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(scope, compositeId);
+        }
+    }
+
+    private static final class Entry {
+        private final CompletableFuture<DescribeRuleResponse> response = new CompletableFuture<>();
+
+        // The sequence number of the latest write when the call was started
+        private final long startWrites;
+
+        // Written before the response completes, so it is visible to every thread that sees the response
+        private volatile long expiresAtNanos;
+
+        private Entry(long startWrites) {
+            this.startWrites = startWrites;
+        }
+
+        private boolean isFresh() {
+            return response.isDone() && !response.isCompletedExceptionally() && System.nanoTime() - expiresAtNanos < 0;
+        }
+    }
+
+    private static final class CoalescingProxyClient implements ProxyClient<CloudWatchEventsClient> {
+        private final ProxyClient<CloudWatchEventsClient> proxyClient;
+        private final String scope;
+
+        private CoalescingProxyClient(ProxyClient<CloudWatchEventsClient> proxyClient, String scope) {
+            this.proxyClient = proxyClient;
+            this.scope = scope;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <RequestT extends AwsRequest, ResponseT extends AwsResponse> ResponseT
+        injectCredentialsAndInvokeV2(RequestT request, Function<RequestT, ResponseT> requestFunction) {
+            if (request instanceof DescribeRuleRequest) {
+                DescribeRuleRequest describeRuleRequest = (DescribeRuleRequest) request;
+                return (ResponseT) describe(new Key(scope, describeRuleRequest.name(), describeRuleRequest.eventBusName()),
+                        () -> (DescribeRuleResponse) proxyClient.injectCredentialsAndInvokeV2(request, requestFunction));
+            }
+
+            Key writtenRule = null;
+            if (request instanceof PutRuleRequest) {
+                writtenRule = new Key(scope, ((PutRuleRequest) request).name(), ((PutRuleRequest) request).eventBusName());
+            } else if (request instanceof DeleteRuleRequest) {
+                writtenRule = new Key(scope, ((DeleteRuleRequest) request).name(), ((DeleteRuleRequest) request).eventBusName());
+            }
+
+            try {
+                return proxyClient.injectCredentialsAndInvokeV2(request, requestFunction);
+            } finally {
+                // Also after a failed write, which may have been applied anyway
+                if (writtenRule != null) {
+                    invalidate(writtenRule);
+                }
+            }
+        }
+
+        @Override
+        public <RequestT extends AwsRequest, ResponseT extends AwsResponse> CompletableFuture<ResponseT>
+        injectCredentialsAndInvokeV2Async(RequestT request, Function<RequestT, CompletableFuture<ResponseT>> requestFunction) {
+            return proxyClient.injectCredentialsAndInvokeV2Async(request, requestFunction);
+        }
+
+        @Override
+        public <RequestT extends AwsRequest, ResponseT extends AwsResponse, IterableT extends SdkIterable<ResponseT>> IterableT
+        injectCredentialsAndInvokeIterableV2(RequestT request, Function<RequestT, IterableT> requestFunction) {
+            return proxyClient.injectCredentialsAndInvokeIterableV2(request, requestFunction);
+        }
+
+        @Override
+        public <RequestT extends AwsRequest, ResponseT extends AwsResponse> ResponseInputStream<ResponseT>
+        injectCredentialsAndInvokeV2InputStream(RequestT request, Function<RequestT, ResponseInputStream<ResponseT>> requestFunction) {
+            return proxyClient.injectCredentialsAndInvokeV2InputStream(request, requestFunction);
+        }
+
+        @Override
+        public <RequestT extends AwsRequest, ResponseT extends AwsResponse> ResponseBytes<ResponseT>
+        injectCredentialsAndInvokeV2Bytes(RequestT request, Function<RequestT, ResponseBytes<ResponseT>> requestFunction) {
+            return proxyClient.injectCredentialsAndInvokeV2Bytes(request, requestFunction);
+        }
+
+        @Override
+        public CloudWatchEventsClient client() {
+            return proxyClient.client();
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package software.amazon.events.rule;
+
+import software.amazon.awssdk.awscore.exception.AwsServiceException;
+import software.amazon.awssdk.services.cloudwatchevents.model.ConcurrentModificationException;
+import software.amazon.awssdk.services.cloudwatchevents.model.InternalException;
+import software.amazon.awssdk.services.cloudwatchevents.model.InvalidEventPatternException;
+import software.amazon.awssdk.services.cloudwatchevents.model.LimitExceededException;
+import software.amazon.awssdk.services.cloudwatchevents.model.ResourceNotFoundException;
+import software.amazon.cloudformation.exceptions.BaseHandlerException;
+import software.amazon.cloudformation.exceptions.CfnAlreadyExistsException;
+import software.amazon.cloudformation.exceptions.CfnGeneralServiceException;
+import software.amazon.cloudformation.exceptions.CfnInternalFailureException;
+import software.amazon.cloudformation.exceptions.CfnInvalidRequestException;
+import software.amazon.cloudformation.exceptions.CfnNotFoundException;
+import software.amazon.cloudformation.exceptions.CfnResourceConflictException;
+import software.amazon.cloudformation.exceptions.CfnServiceLimitExceededException;
+import software.amazon.cloudformation.proxy.HandlerErrorCode;
+import software.amazon.cloudformation.proxy.ProgressEvent;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * Maps the exceptions that reach handleError to a HandlerErrorCode through a table keyed by exception class, and tells
+ * expected failures, e.g. ResourceNotFoundException or throttling, from unexpected ones. Only unexpected failures are
+ * worth a stack trace, and the container renders at most STACK_TRACES_PER_SECOND of them, so that a storm of failures
+ * does not turn into a storm of log lines.
+ */
+class ErrorClassifier {
+    static final int STACK_TRACES_PER_SECOND = 1;
+    static final int STACK_TRACE_BURST = 10;
+
+    // Keyed by the exact class; the classes below are looked up through their nearest superclass in the table
+    private static final Map<Class<?>, Classification> TABLE = new HashMap<>();
+
+    static {
+        TABLE.put(ConcurrentModificationException.class, new Classification(HandlerErrorCode.ResourceConflict, true, CfnResourceConflictException::new));
+        TABLE.put(LimitExceededException.class, new Classification(HandlerErrorCode.ServiceLimitExceeded, true, CfnServiceLimitExceededException::new));
+        TABLE.put(InvalidEventPatternException.class, new Classification(HandlerErrorCode.InvalidRequest, true, CfnInvalidRequestException::new));
+        TABLE.put(InternalException.class, new Classification(HandlerErrorCode.InternalFailure, false, CfnInternalFailureException::new));
+        // READ with an invalid or missing rule throws ResourceNotFoundException
+        TABLE.put(ResourceNotFoundException.class, new Classification(HandlerErrorCode.NotFound, true, CfnNotFoundException::new));
+        TABLE.put(CfnAlreadyExistsException.class, new Classification(HandlerErrorCode.AlreadyExists, true, null));
+        TABLE.put(AwsServiceException.class, new Classification(HandlerErrorCode.GeneralServiceException, false, CfnGeneralServiceException::new));
+        TABLE.put(Exception.class, new Classification(HandlerErrorCode.GeneralServiceException, false, CfnGeneralServiceException::new));
+    }
+
+    // The resolved classification of every exception class seen in the container
+    private static final ConcurrentMap<Class<?>, Classification> BY_CLASS = new ConcurrentHashMap<>();
+
+    private static final RateLimiter STACK_TRACE_BUDGET = new RateLimiter(STACK_TRACES_PER_SECOND, STACK_TRACE_BURST, System::nanoTime);
+
+    /**
+     * Looks up the classification of an exception by its class.
+     * @param e The exception
+     * @return The Classification of its nearest class in the table
+     */
+    static Classification classify(Exception e) {
+        return BY_CLASS.computeIfAbsent(e.getClass(), ErrorClassifier::resolve);
+    }
+
+    /**
+     * Determines whether an exception is an expected outcome of a service call, which is logged without its stack
+     * trace. Service exceptions that signal throttling are expected whatever their class.
+     * @param e The exception
+     * @return Whether the exception is expected
+     */
+    static boolean isExpected(Exception e) {
+        return classify(e).expected || e instanceof AwsServiceException && ((AwsServiceException) e).isThrottlingException();
+    }
+
+    /**
+     * Takes one stack trace from the budget of the container.
+     * @return Whether a stack trace may be rendered
+     */
+    static boolean tryRenderStackTrace() {
+        return STACK_TRACE_BUDGET.tryAcquire();
+    }
+
+    private static Classification resolve(Class<?> exceptionClass) {
+        for (Class<?> superclass = exceptionClass; superclass != null; superclass = superclass.getSuperclass()) {
+            Classification classification = TABLE.get(superclass);
+            if (classification != null) {
+                return classification;
+            }
+        }
+
+        // Not reached, since every exception passed to classify extends Exception
+        return TABLE.get(Exception.class);
+    }
+
+    /**
+     * The HandlerErrorCode of an exception class, and whether it is expected.
+     */
+    static final class Classification {
+        private final HandlerErrorCode errorCode;
+        private final boolean expected;
+        private final Function<Throwable, BaseHandlerException> toHandlerException;
+
+        private Classification(HandlerErrorCode errorCode, boolean expected, Function<Throwable, BaseHandlerException> toHandlerException) {
+            this.errorCode = errorCode;
+            this.expected = expected;
+            this.toHandlerException = toHandlerException;
+        }
+
+        HandlerErrorCode getErrorCode() {
+            return errorCode;
+        }
+
+        /**
+         * Builds the failed ProgressEvent for an exception of this classification.
+         * @param e The exception
+         * @param model The resource model
+         * @param callbackContext The callback context
+         * @return The failed ProgressEvent
+         */
+        ProgressEvent<ResourceModel, CallbackContext> failed(Exception e, ResourceModel model, CallbackContext callbackContext) {
+            if (toHandlerException == null) {
+                // e.g. a CREATE with an existing name
+                return ProgressEvent.defaultFailureHandler(e, errorCode);
+            }
+
+            BaseHandlerException ex = toHandlerException.apply(e);
+            return ProgressEvent.failed(model, callbackContext, ex.getErrorCode(), ex.getMessage());
+        }
+    }
+}
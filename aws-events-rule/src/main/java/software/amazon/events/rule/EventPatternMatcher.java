@@ -0,0 +1,472 @@
+package software.amazon.events.rule;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Evaluates JSON events against the event patterns of many rules at once, e.g. to check locally which rules would
+ * match sample events before deploying.
+ *
+ * Each pattern is compiled into branches: one per combination of its $or alternatives, each a conjunction of
+ * conditions on a field. A branch with a condition that only matches exact values is indexed by the values of its
+ * most selective such condition, its anchor, so an event only visits the branches whose anchor it satisfies. Branches
+ * without an anchor, e.g. ones made of prefix or numeric filters only, are checked against every event.
+ *
+ * A compiled EventPatternMatcher is immutable and can be shared between threads.
+ */
+public final class EventPatternMatcher {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final String[] ruleNames;
+    private final Branch[] branches;
+    private final PathNode paths;
+    private final int pathCount;
+
+    // The anchored branches by path and value
+    private final List<Map<Object, int[]>> anchors;
+    private final int[] unanchoredBranches;
+
+    private final ThreadLocal<Scratch> scratch;
+
+    private EventPatternMatcher(final Builder builder) {
+        this.ruleNames = builder.ruleNames.toArray(new String[0]);
+        this.branches = builder.branches.toArray(new Branch[0]);
+        this.paths = builder.paths;
+        this.pathCount = builder.pathIds.size();
+
+        // How many branches each exact value would pull in, so that every branch is anchored on its rarest values
+        List<Map<Object, Integer>> valueCounts = new ArrayList<>();
+        List<Map<Object, List<Integer>>> anchorLists = new ArrayList<>();
+        for (int path = 0; path < pathCount; path++) {
+            valueCounts.add(new HashMap<>());
+            anchorLists.add(new HashMap<>());
+        }
+
+        for (Branch branch : branches) {
+            for (Condition condition : branch.conditions) {
+                if (condition.isExactOnly()) {
+                    for (Object value : condition.exactValues) {
+                        valueCounts.get(condition.path).merge(value, 1, Integer::sum);
+                    }
+                }
+            }
+        }
+
+        List<Integer> unanchored = new ArrayList<>();
+
+        for (int id = 0; id < branches.length; id++) {
+            Condition anchor = null;
+            int anchorCost = Integer.MAX_VALUE;
+
+            for (Condition condition : branches[id].conditions) {
+                if (condition.isExactOnly()) {
+                    int cost = 0;
+                    for (Object value : condition.exactValues) {
+                        cost += valueCounts.get(condition.path).get(value);
+                    }
+                    if (cost < anchorCost) {
+                        anchor = condition;
+                        anchorCost = cost;
+                    }
+                }
+            }
+
+            if (anchor == null) {
+                unanchored.add(id);
+                continue;
+            }
+
+            for (Object value : anchor.exactValues) {
+                anchorLists.get(anchor.path).computeIfAbsent(value, key -> new ArrayList<>()).add(id);
+            }
+        }
+
+        this.anchors = new ArrayList<>();
+        for (Map<Object, List<Integer>> anchorList : anchorLists) {
+            Map<Object, int[]> values = new HashMap<>();
+            for (Map.Entry<Object, List<Integer>> value : anchorList.entrySet()) {
+                values.put(value.getKey(), toArray(value.getValue()));
+            }
+            anchors.add(values);
+        }
+        this.unanchoredBranches = toArray(unanchored);
+
+        final int branchCount = branches.length;
+        final int ruleCount = ruleNames.length;
+        this.scratch = ThreadLocal.withInitial(() -> new Scratch(pathCount, branchCount, ruleCount));
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Determines which rules match an event.
+     * @param event The event as JSON text
+     * @return The names of the matching rules, in the order they were added
+     * @throws IllegalArgumentException If the event is not valid JSON
+     */
+    public Set<String> matchingRules(final String event) {
+        try {
+            return matchingRules(MAPPER.readTree(event));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Event is not valid JSON", e);
+        }
+    }
+
+    /**
+     * Determines which rules match an event.
+     * @param event The event as a JSON tree
+     * @return The names of the matching rules, in the order they were added
+     */
+    public Set<String> matchingRules(final JsonNode event) {
+        Scratch state = scratch.get();
+        state.nextEpoch();
+
+        if (event != null && event.isObject()) {
+            flatten(event, paths, state);
+        }
+
+        for (int i = 0; i < state.presentPathCount; i++) {
+            int path = state.presentPaths[i];
+            Map<Object, int[]> anchoredBranches = anchors.get(path);
+            if (anchoredBranches.isEmpty()) {
+                continue;
+            }
+
+            for (Object value : state.pathValues[path]) {
+                int[] candidates = anchoredBranches.get(value);
+                if (candidates != null) {
+                    for (int branch : candidates) {
+                        evaluate(branch, state);
+                    }
+                }
+            }
+        }
+
+        for (int branch : unanchoredBranches) {
+            evaluate(branch, state);
+        }
+
+        if (state.matchedRuleCount == 0) {
+            return Collections.emptySet();
+        }
+
+        Arrays.sort(state.matchedRules, 0, state.matchedRuleCount);
+        Set<String> names = new LinkedHashSet<>();
+        for (int i = 0; i < state.matchedRuleCount; i++) {
+            names.add(ruleNames[state.matchedRules[i]]);
+        }
+        return names;
+    }
+
+    private void evaluate(final int id, final Scratch state) {
+        Branch branch = branches[id];
+
+        // A branch can be reached through several anchor values, and its rule may already have matched
+        if (state.branchStamps[id] == state.epoch || state.ruleStamps[branch.rule] == state.epoch) {
+            return;
+        }
+        state.branchStamps[id] = state.epoch;
+
+        for (Condition condition : branch.conditions) {
+            if (!condition.matches(state.values(condition.path))) {
+                return;
+            }
+        }
+
+        state.ruleStamps[branch.rule] = state.epoch;
+        state.matchedRules[state.matchedRuleCount++] = branch.rule;
+    }
+
+    private static void flatten(final JsonNode node, final PathNode path, final Scratch state) {
+        if (node.isObject()) {
+            Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+
+                // Skip every part of the event that no pattern refers to
+                PathNode child = path.children.get(field.getKey());
+                if (child != null) {
+                    flatten(field.getValue(), child, state);
+                }
+            }
+        } else if (node.isArray()) {
+            for (JsonNode element : node) {
+                flatten(element, path, state);
+            }
+        } else if (path.id >= 0) {
+            state.addValue(path.id, leafValue(node));
+        }
+    }
+
+    private static Object leafValue(final JsonNode node) {
+        if (node.isNumber()) {
+            return node.doubleValue();
+        }
+        if (node.isBoolean()) {
+            return node.booleanValue();
+        }
+        if (node.isNull()) {
+            return ValueMatcher.NULL;
+        }
+        return node.asText();
+    }
+
+    private static int[] toArray(final List<Integer> list) {
+        int[] array = new int[list.size()];
+        for (int i = 0; i < array.length; i++) {
+            array[i] = list.get(i);
+        }
+        return array;
+    }
+
+    /**
+     * Collects the rules to compile into an EventPatternMatcher.
+     */
+    public static final class Builder {
+        private final List<String> ruleNames = new ArrayList<>();
+        private final List<Branch> branches = new ArrayList<>();
+        private final Map<List<String>, Integer> pathIds = new HashMap<>();
+        private final PathNode paths = new PathNode();
+
+        private Builder() {
+        }
+
+        /**
+         * Adds the rule of a ResourceModel. Rules without an event pattern, e.g. scheduled rules, never match.
+         * @param model A ResourceModel with a Name
+         * @return This Builder
+         */
+        public Builder rule(final ResourceModel model) {
+            return rule(model.getName(), model.getEventPattern());
+        }
+
+        /**
+         * Adds a rule.
+         * @param name The name that matchingRules reports when the rule matches
+         * @param eventPattern The event pattern of the rule, or null if the rule never matches an event
+         * @return This Builder
+         * @throws software.amazon.cloudformation.exceptions.CfnInvalidRequestException If the pattern is not valid
+         */
+        public Builder rule(final String name, final Map<String, Object> eventPattern) {
+            EventPatternValidator.validate(eventPattern);
+
+            int rule = ruleNames.size();
+            ruleNames.add(name);
+
+            if (eventPattern == null) {
+                return this;
+            }
+
+            for (List<Condition> conditions : expand(eventPattern, Collections.emptyList())) {
+                branches.add(new Branch(rule, conditions.toArray(new Condition[0])));
+            }
+
+            return this;
+        }
+
+        public EventPatternMatcher build() {
+            return new EventPatternMatcher(this);
+        }
+
+        /**
+         * Expands a pattern into its branches, i.e. one list of conditions for every combination of $or alternatives.
+         */
+        private List<List<Condition>> expand(final Map<?, ?> pattern, final List<String> path) {
+            List<List<Condition>> branches = Collections.singletonList(Collections.emptyList());
+
+            for (Map.Entry<?, ?> field : pattern.entrySet()) {
+                List<List<Condition>> alternatives = new ArrayList<>();
+
+                if ("$or".equals(field.getKey())) {
+                    for (Object alternative : (List<?>) field.getValue()) {
+                        alternatives.addAll(expand((Map<?, ?>) alternative, path));
+                    }
+                } else {
+                    List<String> fieldPath = new ArrayList<>(path);
+                    fieldPath.add(String.valueOf(field.getKey()));
+
+                    if (field.getValue() instanceof Map) {
+                        alternatives.addAll(expand((Map<?, ?>) field.getValue(), fieldPath));
+                    } else {
+                        alternatives.add(Collections.singletonList(new Condition(pathId(fieldPath), (List<?>) field.getValue())));
+                    }
+                }
+
+                List<List<Condition>> combined = new ArrayList<>();
+                for (List<Condition> branch : branches) {
+                    for (List<Condition> alternative : alternatives) {
+                        List<Condition> conditions = new ArrayList<>(branch);
+                        conditions.addAll(alternative);
+                        combined.add(conditions);
+                    }
+                }
+                branches = combined;
+            }
+
+            return branches;
+        }
+
+        private int pathId(final List<String> fieldNames) {
+            Integer id = pathIds.get(fieldNames);
+            if (id != null) {
+                return id;
+            }
+
+            PathNode node = paths;
+            for (String fieldName : fieldNames) {
+                node = node.children.computeIfAbsent(fieldName, name -> new PathNode());
+            }
+            node.id = pathIds.size();
+            pathIds.put(fieldNames, node.id);
+            return node.id;
+        }
+    }
+
+    /**
+     * One combination of $or alternatives of a rule's pattern. It matches if all of its conditions do.
+     */
+    private static final class Branch {
+        private final int rule;
+        private final Condition[] conditions;
+
+        private Branch(final int rule, final Condition[] conditions) {
+            this.rule = rule;
+            this.conditions = conditions;
+        }
+    }
+
+    /**
+     * The matchers of one field of a pattern. It is satisfied if any matcher matches any value of the field, or if the
+     * field is missing and one of the matchers is {"exists": false}.
+     */
+    private static final class Condition {
+        private final int path;
+        private final Set<Object> exactValues = new HashSet<>();
+        private final List<ValueMatcher> valueMatchers = new ArrayList<>();
+        private final boolean matchesAbsent;
+
+        private Condition(final int path, final List<?> matchers) {
+            this.path = path;
+
+            boolean absent = false;
+            for (Object matcher : matchers) {
+                if (matcher instanceof Map) {
+                    if (Boolean.FALSE.equals(((Map<?, ?>) matcher).get("exists"))) {
+                        absent = true;
+                    } else {
+                        valueMatchers.add(ValueMatcher.compile((Map<?, ?>) matcher));
+                    }
+                } else {
+                    exactValues.add(ValueMatcher.normalize(matcher));
+                }
+            }
+            this.matchesAbsent = absent;
+        }
+
+        private boolean isExactOnly() {
+            return valueMatchers.isEmpty() && !matchesAbsent;
+        }
+
+        private boolean matches(final List<Object> values) {
+            if (values == null) {
+                return matchesAbsent;
+            }
+
+            for (Object value : values) {
+                if (exactValues.contains(value)) {
+                    return true;
+                }
+                for (ValueMatcher valueMatcher : valueMatchers) {
+                    if (valueMatcher.matches(value)) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+    }
+
+    /**
+     * A node of the tree of field names that the patterns refer to, used to walk an event without building paths.
+     */
+    private static final class PathNode {
+        private final Map<String, PathNode> children = new HashMap<>();
+
+        // The id of the path ending here, or -1 if no pattern has a leaf here
+        private int id = -1;
+    }
+
+    /**
+     * Per-thread state. Stamps record the epoch an entry was last written in, so nothing has to be cleared between
+     * events.
+     */
+    private static final class Scratch {
+        private final List<Object>[] pathValues;
+        private final int[] pathStamps;
+        private final int[] presentPaths;
+        private final int[] branchStamps;
+        private final int[] ruleStamps;
+        private final int[] matchedRules;
+        private int presentPathCount;
+        private int matchedRuleCount;
+        private int epoch;
+
+        @SuppressWarnings("unchecked")
+        private Scratch(final int pathCount, final int branchCount, final int ruleCount) {
+            this.pathValues = new List[pathCount];
+            for (int path = 0; path < pathCount; path++) {
+                pathValues[path] = new ArrayList<>();
+            }
+            this.pathStamps = new int[pathCount];
+            this.presentPaths = new int[pathCount];
+            this.branchStamps = new int[branchCount];
+            this.ruleStamps = new int[ruleCount];
+            this.matchedRules = new int[ruleCount];
+        }
+
+        private void nextEpoch() {
+            presentPathCount = 0;
+            matchedRuleCount = 0;
+            epoch++;
+
+            // After a wrap-around, old stamps could collide with new epochs
+            if (epoch == 0) {
+                Arrays.fill(pathStamps, 0);
+                Arrays.fill(branchStamps, 0);
+                Arrays.fill(ruleStamps, 0);
+                epoch = 1;
+            }
+        }
+
+        private void addValue(final int path, final Object value) {
+            if (pathStamps[path] != epoch) {
+                pathStamps[path] = epoch;
+                pathValues[path].clear();
+                presentPaths[presentPathCount++] = path;
+            }
+            pathValues[path].add(value);
+        }
+
+        /**
+         * @return The values of a path in the current event, or null if the event does not have the path
+         */
+        private List<Object> values(final int path) {
+            return pathStamps[path] == epoch ? pathValues[path] : null;
+        }
+    }
+}
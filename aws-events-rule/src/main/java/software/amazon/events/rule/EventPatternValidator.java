@@ -0,0 +1,351 @@
+package software.amazon.events.rule;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import software.amazon.cloudformation.exceptions.CfnInvalidRequestException;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Checks an event pattern against the EventBridge pattern grammar before it is sent to PutRule, so that an invalid
+ * pattern fails without any service call. Only patterns that the service is known to reject are reported; anything
+ * the grammar allows is passed on to PutRule unchanged.
+ */
+class EventPatternValidator {
+
+    // PutRule accepts event patterns of at most 4096 characters. This also bounds how deeply a pattern can nest.
+    static final int MAX_EVENT_PATTERN_LENGTH = 4096;
+
+    // Like the service, at most this many combinations of $or alternatives. The length limit alone does not bound
+    // them: each $or multiplies the combinations of every other $or, so about 100 short ones make 2^100.
+    static final int MAX_EVENT_PATTERN_COMBINATIONS = 1000;
+
+    private static final Set<String> LOWER_BOUND_OPERATORS = new HashSet<>(Arrays.asList(">", ">="));
+    private static final Set<String> UPPER_BOUND_OPERATORS = new HashSet<>(Arrays.asList("<", "<="));
+
+    /**
+     * Validates an event pattern.
+     * @param eventPattern The event pattern of a ResourceModel, or null if the rule has none
+     * @throws CfnInvalidRequestException If the pattern is not valid
+     */
+    static void validate(final Map<String, Object> eventPattern) {
+        if (eventPattern == null) {
+            return;
+        }
+
+        String serialized;
+        try {
+            serialized = EventPatterns.serialize(eventPattern);
+        } catch (JsonProcessingException e) {
+            throw new CfnInvalidRequestException(e);
+        }
+
+        if (serialized.length() > MAX_EVENT_PATTERN_LENGTH) {
+            throw invalid(String.format("Event pattern is %s characters long, the maximum is %s", serialized.length(), MAX_EVENT_PATTERN_LENGTH));
+        }
+
+        validateObject("EventPattern", eventPattern);
+
+        long combinations = countCombinations(eventPattern);
+        if (combinations > MAX_EVENT_PATTERN_COMBINATIONS) {
+            throw invalid(String.format("Event pattern has more than %s combinations of $or alternatives", MAX_EVENT_PATTERN_COMBINATIONS));
+        }
+    }
+
+    /**
+     * Counts the combinations of $or alternatives of a valid pattern, i.e. the branches EventPatternMatcher expands it
+     * into. Counting stops at one more than MAX_EVENT_PATTERN_COMBINATIONS, so that it never overflows.
+     */
+    private static long countCombinations(final Map<?, ?> object) {
+        long combinations = 1;
+
+        for (Map.Entry<?, ?> field : object.entrySet()) {
+            long alternatives = 1;
+
+            if ("$or".equals(field.getKey())) {
+                alternatives = 0;
+                for (Object alternative : (List<?>) field.getValue()) {
+                    alternatives = Math.min(alternatives + countCombinations((Map<?, ?>) alternative), MAX_EVENT_PATTERN_COMBINATIONS + 1);
+                }
+            } else if (field.getValue() instanceof Map) {
+                alternatives = countCombinations((Map<?, ?>) field.getValue());
+            }
+
+            combinations = Math.min(combinations * alternatives, MAX_EVENT_PATTERN_COMBINATIONS + 1);
+        }
+
+        return combinations;
+    }
+
+    private static void validateObject(final String path, final Map<?, ?> object) {
+        if (object.isEmpty()) {
+            throw invalid(String.format("%s must not be an empty object", path));
+        }
+
+        for (Map.Entry<?, ?> field : object.entrySet()) {
+            String fieldPath = path + "." + field.getKey();
+            Object value = field.getValue();
+
+            if ("$or".equals(field.getKey())) {
+                validateOr(fieldPath, value);
+            } else if (value instanceof Map) {
+                validateObject(fieldPath, (Map<?, ?>) value);
+            } else if (value instanceof List) {
+                validateMatchers(fieldPath, (List<?>) value);
+            } else {
+                throw invalid(String.format("%s must be an object or an array", fieldPath));
+            }
+        }
+    }
+
+    private static void validateOr(final String path, final Object value) {
+        if (!(value instanceof List) || ((List<?>) value).isEmpty()) {
+            throw invalid(String.format("%s must be a non-empty array of objects", path));
+        }
+
+        for (Object element : (List<?>) value) {
+            if (!(element instanceof Map)) {
+                throw invalid(String.format("%s must be a non-empty array of objects", path));
+            }
+            validateObject(path, (Map<?, ?>) element);
+        }
+    }
+
+    private static void validateMatchers(final String path, final List<?> matchers) {
+        if (matchers.isEmpty()) {
+            throw invalid(String.format("%s must not be an empty array", path));
+        }
+
+        for (Object matcher : matchers) {
+            if (matcher instanceof Map) {
+                validateContentFilter(path, (Map<?, ?>) matcher);
+            } else if (matcher instanceof List) {
+                throw invalid(String.format("%s must not contain nested arrays", path));
+            } else if (matcher != null && !(matcher instanceof String) && !(matcher instanceof Number) && !(matcher instanceof Boolean)) {
+                throw invalid(String.format("%s contains an unsupported value", path));
+            }
+        }
+    }
+
+    private static void validateContentFilter(final String path, final Map<?, ?> filter) {
+        if (filter.size() != 1) {
+            throw invalid(String.format("%s: a content filter must have exactly one key", path));
+        }
+
+        Map.Entry<?, ?> entry = filter.entrySet().iterator().next();
+        String filterPath = path + "." + entry.getKey();
+        Object value = entry.getValue();
+
+        switch (String.valueOf(entry.getKey())) {
+            case "prefix":
+            case "suffix":
+                if (!(value instanceof String) && !isEqualsIgnoreCase(value)) {
+                    throw invalid(String.format("%s must be a string", filterPath));
+                }
+                break;
+            case "equals-ignore-case":
+                requireString(filterPath, value);
+                break;
+            case "wildcard":
+                requireString(filterPath, value);
+                validateWildcard(filterPath, (String) value);
+                break;
+            case "anything-but":
+                validateAnythingBut(filterPath, value);
+                break;
+            case "numeric":
+                validateNumeric(filterPath, value);
+                break;
+            case "exists":
+                if (!(value instanceof Boolean)) {
+                    throw invalid(String.format("%s must be true or false", filterPath));
+                }
+                break;
+            case "cidr":
+                requireString(filterPath, value);
+                validateCidr(filterPath, (String) value);
+                break;
+            default:
+                throw invalid(String.format("%s is not a supported content filter", filterPath));
+        }
+    }
+
+    private static boolean isEqualsIgnoreCase(final Object value) {
+        if (!(value instanceof Map) || ((Map<?, ?>) value).size() != 1) {
+            return false;
+        }
+
+        Map<?, ?> object = (Map<?, ?>) value;
+        return object.get("equals-ignore-case") instanceof String;
+    }
+
+    private static void validateAnythingBut(final String path, final Object value) {
+        if (value instanceof String || value instanceof Number) {
+            return;
+        }
+
+        if (value instanceof List) {
+            List<?> values = (List<?>) value;
+            if (values.isEmpty()) {
+                throw invalid(String.format("%s must not be an empty array", path));
+            }
+            for (Object element : values) {
+                if (!(element instanceof String) && !(element instanceof Number)) {
+                    throw invalid(String.format("%s must only contain strings or numbers", path));
+                }
+            }
+            return;
+        }
+
+        if (value instanceof Map && ((Map<?, ?>) value).size() == 1) {
+            Map.Entry<?, ?> entry = ((Map<?, ?>) value).entrySet().iterator().next();
+            String key = String.valueOf(entry.getKey());
+
+            if (key.equals("prefix") || key.equals("suffix") || key.equals("equals-ignore-case") || key.equals("wildcard")) {
+                if (entry.getValue() instanceof String || isNonEmptyStringList(entry.getValue())) {
+                    return;
+                }
+                throw invalid(String.format("%s.%s must be a string or an array of strings", path, key));
+            }
+        }
+
+        throw invalid(String.format("%s must be a string, a number, an array, or a prefix, suffix, equals-ignore-case or wildcard filter", path));
+    }
+
+    private static boolean isNonEmptyStringList(final Object value) {
+        if (!(value instanceof List) || ((List<?>) value).isEmpty()) {
+            return false;
+        }
+
+        for (Object element : (List<?>) value) {
+            if (!(element instanceof String)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void validateNumeric(final String path, final Object value) {
+        if (!(value instanceof List)) {
+            throw invalid(String.format("%s must be an array", path));
+        }
+
+        List<?> range = (List<?>) value;
+        if (range.size() != 2 && range.size() != 4) {
+            throw invalid(String.format("%s must have one or two comparisons", path));
+        }
+
+        for (int i = 0; i < range.size(); i += 2) {
+            if (!(range.get(i) instanceof String) || !(range.get(i + 1) instanceof Number)) {
+                throw invalid(String.format("%s must alternate operators and numbers", path));
+            }
+        }
+
+        String firstOperator = (String) range.get(0);
+
+        if (range.size() == 2) {
+            if (!firstOperator.equals("=") && !LOWER_BOUND_OPERATORS.contains(firstOperator) && !UPPER_BOUND_OPERATORS.contains(firstOperator)) {
+                throw invalid(String.format("%s has an unsupported operator: %s", path, firstOperator));
+            }
+        } else {
+            String secondOperator = (String) range.get(2);
+
+            // A range needs one lower and one upper bound
+            boolean isRange = (LOWER_BOUND_OPERATORS.contains(firstOperator) && UPPER_BOUND_OPERATORS.contains(secondOperator))
+                    || (UPPER_BOUND_OPERATORS.contains(firstOperator) && LOWER_BOUND_OPERATORS.contains(secondOperator));
+
+            if (!isRange) {
+                throw invalid(String.format("%s must combine a lower and an upper bound", path));
+            }
+        }
+    }
+
+    private static void validateWildcard(final String path, final String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+
+            if (c == '\\') {
+                // Skip the escaped character
+                i++;
+            } else if (c == '*' && i + 1 < value.length() && value.charAt(i + 1) == '*') {
+                throw invalid(String.format("%s must not contain consecutive wildcard characters", path));
+            }
+        }
+    }
+
+    private static void validateCidr(final String path, final String value) {
+        String address = value;
+        boolean isIpv6 = value.indexOf(':') >= 0;
+        int maxPrefixLength = isIpv6 ? 128 : 32;
+
+        int slash = value.indexOf('/');
+        if (slash >= 0) {
+            address = value.substring(0, slash);
+
+            if (!isInteger(value.substring(slash + 1), 0, maxPrefixLength)) {
+                throw invalid(String.format("%s has an invalid prefix length: %s", path, value));
+            }
+        }
+
+        if (isIpv6 ? !isIpv6Address(address) : !isIpv4Address(address)) {
+            throw invalid(String.format("%s is not a valid CIDR block: %s", path, value));
+        }
+    }
+
+    private static boolean isIpv4Address(final String address) {
+        String[] octets = address.split("\\.", -1);
+
+        if (octets.length != 4) {
+            return false;
+        }
+
+        for (String octet : octets) {
+            if (!isInteger(octet, 0, 255)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isIpv6Address(final String address) {
+        if (address.isEmpty()) {
+            return false;
+        }
+
+        for (char c : address.toCharArray()) {
+            if (Character.digit(c, 16) < 0 && c != ':' && c != '.') {
+                return false;
+            }
+        }
+        // Eight groups, plus one empty group when the address starts or ends with ::
+        return address.split(":", -1).length <= 9;
+    }
+
+    private static boolean isInteger(final String value, final int min, final int max) {
+        if (value.isEmpty() || value.length() > 3) {
+            return false;
+        }
+
+        for (char c : value.toCharArray()) {
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+
+        int number = Integer.parseInt(value);
+        return number >= min && number <= max;
+    }
+
+    private static void requireString(final String path, final Object value) {
+        if (!(value instanceof String)) {
+            throw invalid(String.format("%s must be a string", path));
+        }
+    }
+
+    private static CfnInvalidRequestException invalid(final String reason) {
+        return new CfnInvalidRequestException(String.format("Event pattern is not valid. Reason: %s", reason));
+    }
+}
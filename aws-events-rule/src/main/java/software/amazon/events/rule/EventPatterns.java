@@ -0,0 +1,133 @@
+package software.amazon.events.rule;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Serializes and parses event patterns through small LRU caches keyed by the pattern content. Create, Update and
+ * stabilization translate the same pattern several times in one handler run, so each pattern is only serialized or
+ * parsed once per container. Cached patterns are immutable copies, so callers cannot change a cached entry.
+ */
+class EventPatterns {
+
+    static final int MAX_CACHED_PATTERNS = 64;
+
+    // Map entries are written in key order, so equal patterns always serialize to the same canonical string
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+
+    private static final TypeReference<HashMap<String, Object>> TYPE_REFERENCE = new TypeReference<HashMap<String, Object>>() {};
+
+    static final LruCache<Map<String, Object>, String> SERIALIZED_PATTERNS = new LruCache<>(MAX_CACHED_PATTERNS);
+    static final LruCache<String, Map<String, Object>> PARSED_PATTERNS = new LruCache<>(MAX_CACHED_PATTERNS);
+
+    /**
+     * Serializes an event pattern into its canonical JSON string.
+     * @param eventPattern An event pattern, e.g. from a ResourceModel
+     * @return The canonical JSON string
+     * @throws JsonProcessingException If the pattern cannot be serialized
+     */
+    static String serialize(final Map<String, Object> eventPattern) throws JsonProcessingException {
+        String serialized = SERIALIZED_PATTERNS.get(eventPattern);
+
+        if (serialized == null) {
+            serialized = MAPPER.writeValueAsString(eventPattern);
+            SERIALIZED_PATTERNS.put(immutableCopy(eventPattern), serialized);
+        }
+
+        return serialized;
+    }
+
+    /**
+     * Parses an event pattern.
+     * @param eventPattern A JSON string, e.g. from a DescribeRuleResponse
+     * @return An immutable Map of the pattern
+     * @throws JsonProcessingException If the string is not a JSON object
+     */
+    static Map<String, Object> parse(final String eventPattern) throws JsonProcessingException {
+        Map<String, Object> parsed = PARSED_PATTERNS.get(eventPattern);
+
+        if (parsed == null) {
+            parsed = immutableCopy(MAPPER.readValue(eventPattern, TYPE_REFERENCE));
+            PARSED_PATTERNS.put(eventPattern, parsed);
+        }
+
+        return parsed;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T immutableCopy(final T value) {
+        if (value instanceof Map) {
+            Map<Object, Object> copy = new LinkedHashMap<>();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                copy.put(entry.getKey(), immutableCopy(entry.getValue()));
+            }
+            return (T) Collections.unmodifiableMap(copy);
+        }
+
+        if (value instanceof List) {
+            List<Object> copy = new ArrayList<>();
+            for (Object element : (List<?>) value) {
+                copy.add(immutableCopy(element));
+            }
+            return (T) Collections.unmodifiableList(copy);
+        }
+
+        return value;
+    }
+
+    /**
+     * A thread-safe map that evicts its least recently used entry once it is full, and counts hits and misses.
+     */
+    static class LruCache<K, V> {
+        private final Map<K, V> entries;
+        private long hitCount;
+        private long missCount;
+
+        LruCache(final int maxSize) {
+            this.entries = new LinkedHashMap<K, V>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(final Map.Entry<K, V> eldest) {
+                    return size() > maxSize;
+                }
+            };
+        }
+
+        synchronized V get(final K key) {
+            V value = entries.get(key);
+
+            if (value == null) {
+                missCount++;
+            } else {
+                hitCount++;
+            }
+
+            return value;
+        }
+
+        synchronized void put(final K key, final V value) {
+            entries.put(key, value);
+        }
+
+        synchronized int size() {
+            return entries.size();
+        }
+
+        synchronized long hitCount() {
+            return hitCount;
+        }
+
+        synchronized long missCount() {
+            return missCount;
+        }
+    }
+}
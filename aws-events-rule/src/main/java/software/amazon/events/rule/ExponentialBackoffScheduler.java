@@ -0,0 +1,54 @@
+package software.amazon.events.rule;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Doubles the delay after every failed check, up to maxDelaySeconds, and randomizes the second half of each delay so
+ * that the handlers of many rules in one stack do not poll in lockstep. Stops waiting once ceilingSeconds have passed.
+ */
+class ExponentialBackoffScheduler implements StabilizationScheduler {
+    static final int DEFAULT_BASE_DELAY_SECONDS = 2;
+    static final int DEFAULT_MAX_DELAY_SECONDS = 16;
+
+    // Longest total wait for one change before the handler moves on regardless
+    static final int DEFAULT_CEILING_SECONDS = 30;
+
+    private final int baseDelaySeconds;
+    private final int maxDelaySeconds;
+    private final int ceilingSeconds;
+
+    ExponentialBackoffScheduler() {
+        this(DEFAULT_BASE_DELAY_SECONDS, DEFAULT_MAX_DELAY_SECONDS, DEFAULT_CEILING_SECONDS);
+    }
+
+    /**
+     * @param baseDelaySeconds The delay after the first failed check
+     * @param maxDelaySeconds The longest single delay
+     * @param ceilingSeconds The longest total delay spent waiting for one change
+     */
+    ExponentialBackoffScheduler(int baseDelaySeconds, int maxDelaySeconds, int ceilingSeconds) {
+        if (baseDelaySeconds < 1 || maxDelaySeconds < baseDelaySeconds || ceilingSeconds < 0) {
+            throw new IllegalArgumentException(String.format("Invalid backoff: base %s, max %s, ceiling %s",
+                    baseDelaySeconds, maxDelaySeconds, ceilingSeconds));
+        }
+
+        this.baseDelaySeconds = baseDelaySeconds;
+        this.maxDelaySeconds = maxDelaySeconds;
+        this.ceilingSeconds = ceilingSeconds;
+    }
+
+    @Override
+    public int nextDelaySeconds(int attempt, int secondsWaited) {
+        int remainingSeconds = ceilingSeconds - secondsWaited;
+
+        if (remainingSeconds <= 0) {
+            return 0;
+        }
+
+        // Shifting by 30 or more would overflow, and is far beyond any sensible maxDelaySeconds
+        long backoff = Math.min(maxDelaySeconds, (long) baseDelaySeconds << Math.min(attempt, 30));
+        int delay = (int) (backoff / 2 + ThreadLocalRandom.current().nextLong(backoff - backoff / 2 + 1));
+
+        return Math.max(1, Math.min(delay, remainingSeconds));
+    }
+}
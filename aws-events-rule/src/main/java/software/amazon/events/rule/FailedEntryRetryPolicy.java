@@ -0,0 +1,86 @@
+package software.amazon.events.rule;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Decides whether and when the entries that PutTargets or RemoveTargets failed are sent again.
+ *
+ * Entries that failed with a terminal error code fail again however often they are sent, so they are not retried.
+ * Every other entry, e.g. one that was throttled, is retried after a delay that doubles with every attempt up to
+ * maxDelaySeconds. The delay is drawn at random from 1 second up to that bound, so that the handlers of many rules
+ * that were throttled together do not retry together.
+ */
+class FailedEntryRetryPolicy {
+    static final int DEFAULT_MAX_RETRIES = 5;
+    static final int DEFAULT_BASE_DELAY_SECONDS = 1;
+    static final int DEFAULT_MAX_DELAY_SECONDS = 16;
+
+    // Error codes of entries that cannot succeed without a change to the template or the account
+    static final Set<String> TERMINAL_ERROR_CODES = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            "AccessDeniedException",
+            "LimitExceededException",
+            "ManagedRuleException",
+            "ValidationException")));
+
+    private final int maxRetries;
+    private final int baseDelaySeconds;
+    private final int maxDelaySeconds;
+
+    FailedEntryRetryPolicy() {
+        this(DEFAULT_MAX_RETRIES, DEFAULT_BASE_DELAY_SECONDS, DEFAULT_MAX_DELAY_SECONDS);
+    }
+
+    /**
+     * @param maxRetries How often the failed entries of one request are sent again before the handler fails
+     * @param baseDelaySeconds The bound of the delay before the first retry
+     * @param maxDelaySeconds The bound of the delay before any retry
+     */
+    FailedEntryRetryPolicy(int maxRetries, int baseDelaySeconds, int maxDelaySeconds) {
+        if (maxRetries < 0 || baseDelaySeconds < 1 || maxDelaySeconds < baseDelaySeconds) {
+            throw new IllegalArgumentException(String.format("Invalid retry policy: max retries %s, base %s, max %s",
+                    maxRetries, baseDelaySeconds, maxDelaySeconds));
+        }
+
+        this.maxRetries = maxRetries;
+        this.baseDelaySeconds = baseDelaySeconds;
+        this.maxDelaySeconds = maxDelaySeconds;
+    }
+
+    int getMaxRetries() {
+        return maxRetries;
+    }
+
+    int getBaseDelaySeconds() {
+        return baseDelaySeconds;
+    }
+
+    int getMaxDelaySeconds() {
+        return maxDelaySeconds;
+    }
+
+    /**
+     * Returns whether an entry that failed with the given error code may succeed if it is sent again.
+     * Unknown error codes are retried, as are entries without one.
+     * @param errorCode The error code of the failed entry
+     * @return Whether the entry should be retried
+     */
+    boolean isRetryable(String errorCode) {
+        return errorCode == null || !TERMINAL_ERROR_CODES.contains(errorCode);
+    }
+
+    /**
+     * Returns the delay before the next retry.
+     * @param attempt The number of retries that have already been made, starting at 0
+     * @return The callback delay in seconds, at least 1
+     */
+    int nextDelaySeconds(int attempt) {
+        // Shifting by 30 or more would overflow, and is far beyond any sensible maxDelaySeconds
+        long backoff = Math.min(maxDelaySeconds, (long) baseDelaySeconds << Math.min(attempt, 30));
+
+        return (int) ThreadLocalRandom.current().nextLong(1, backoff + 1);
+    }
+}
@@ -0,0 +1,195 @@
+package software.amazon.events.rule;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.TextNode;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Computes fingerprints of model objects from a canonical JSON encoding: object keys are sorted, null and empty values
+ * are dropped, and the elements of the arrays that the schema declares unordered are sorted. Arrays within free-form
+ * JSON, such as an EventPattern, keep their order, since e.g. a numeric range depends on it. Two objects that only
+ * differ in the order of their unordered collections, or in null versus empty values, have the same fingerprint.
+ */
+class Fingerprints {
+
+    // The array properties of the schema with uniqueItems, which the model holds as Sets
+    private static final Set<String> UNORDERED_PROPERTIES = new HashSet<>(Arrays.asList(
+            "Targets",
+            "PathParameterValues",
+            "RunCommandTargets",
+            "Values",
+            "SecurityGroups",
+            "Subnets",
+            "PlacementConstraints",
+            "PlacementStrategies",
+            "CapacityProviderStrategy",
+            "TagList",
+            "PipelineParameterList"));
+
+    // Properties whose value is free-form JSON, in which every array is ordered
+    private static final Set<String> FREE_FORM_PROPERTIES = Collections.singleton("EventPattern");
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    // 128 bits of the SHA-256 digest
+    private static final int FINGERPRINT_BYTES = 16;
+
+    /**
+     * Generates the fingerprint of a model object.
+     * @param value A model object, e.g. a Target
+     * @return A 32 character hex string
+     */
+    static String of(final Object value) {
+        return ofTree(MAPPER.valueToTree(value));
+    }
+
+    /**
+     * Converts a model object into the JSON tree that its fingerprints are computed from, so that a caller who needs
+     * several fingerprints of one object converts it only once.
+     * @param value A model object, e.g. a ResourceModel
+     * @return The JSON tree
+     */
+    static JsonNode toTree(final Object value) {
+        return MAPPER.valueToTree(value);
+    }
+
+    /**
+     * Generates the fingerprint of a JSON tree, which equals the fingerprint of the model object it was converted from.
+     * @param node The JSON tree, e.g. a Target within the tree of a ResourceModel
+     * @return A 32 character hex string
+     */
+    static String ofTree(final JsonNode node) {
+        String canonical = canonicalize(node);
+        return hash(canonical == null ? "" : canonical);
+    }
+
+    /**
+     * Generates the fingerprint of every property of a JSON object, e.g. to tell which properties differ once the
+     * fingerprints of two model objects do not match.
+     * @param node The JSON tree of a model object
+     * @param excludedProperties The names of properties to leave out, e.g. read-only ones
+     * @return The fingerprint of every property that is set, by name
+     */
+    static Map<String, String> ofProperties(final JsonNode node, final Set<String> excludedProperties) {
+        Map<String, String> fingerprints = new TreeMap<>();
+        Iterator<Map.Entry<String, JsonNode>> iterator = node.fields();
+
+        while (iterator.hasNext()) {
+            Map.Entry<String, JsonNode> property = iterator.next();
+
+            if (!excludedProperties.contains(property.getKey())) {
+                String canonical = canonicalize(property.getValue(), property.getKey(), FREE_FORM_PROPERTIES.contains(property.getKey()));
+
+                if (canonical != null) {
+                    fingerprints.put(property.getKey(), hash(canonical));
+                }
+            }
+        }
+
+        return fingerprints;
+    }
+
+    /**
+     * Generates the canonical encoding of a JSON tree. An array at the root is sorted, as it is one of the Sets of the
+     * model, e.g. its Targets.
+     * @param node The JSON tree
+     * @return The canonical encoding, or null if the node is null or only contains empty values
+     */
+    static String canonicalize(final JsonNode node) {
+        return canonicalize(node, null, false);
+    }
+
+    /**
+     * @param node The JSON tree
+     * @param property The name of the property whose value node is, or null at the root
+     * @param freeForm Whether node is within free-form JSON, where no array is sorted
+     * @return The canonical encoding, or null if the node is null or only contains empty values
+     */
+    private static String canonicalize(final JsonNode node, final String property, final boolean freeForm) {
+        if (node == null || node.isNull() || node.isMissingNode()) {
+            return null;
+        }
+
+        if (node.isObject()) {
+            TreeMap<String, String> fields = new TreeMap<>();
+            Iterator<Map.Entry<String, JsonNode>> iterator = node.fields();
+
+            while (iterator.hasNext()) {
+                Map.Entry<String, JsonNode> field = iterator.next();
+                String value = canonicalize(field.getValue(), field.getKey(), freeForm || FREE_FORM_PROPERTIES.contains(field.getKey()));
+
+                if (value != null) {
+                    fields.put(field.getKey(), value);
+                }
+            }
+
+            if (fields.isEmpty()) {
+                return null;
+            }
+
+            StringBuilder canonical = new StringBuilder("{");
+            for (Map.Entry<String, String> field : fields.entrySet()) {
+                if (canonical.length() > 1) {
+                    canonical.append(',');
+                }
+                canonical.append(TextNode.valueOf(field.getKey())).append(':').append(field.getValue());
+            }
+            return canonical.append('}').toString();
+        }
+
+        if (node.isArray()) {
+            List<String> elements = new ArrayList<>();
+
+            for (JsonNode element : node) {
+                String value = canonicalize(element, property, freeForm);
+
+                if (value != null) {
+                    elements.add(value);
+                }
+            }
+
+            if (elements.isEmpty()) {
+                return null;
+            }
+
+            if (!freeForm && (property == null || UNORDERED_PROPERTIES.contains(property))) {
+                Collections.sort(elements);
+            }
+            return "[" + String.join(",", elements) + "]";
+        }
+
+        return node.toString();
+    }
+
+    private static String hash(final String canonical) {
+        byte[] digest;
+
+        try {
+            digest = MessageDigest.getInstance("SHA-256").digest(canonical.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+
+        char[] fingerprint = new char[FINGERPRINT_BYTES * 2];
+        for (int i = 0; i < FINGERPRINT_BYTES; i++) {
+            fingerprint[i * 2] = HEX[(digest[i] >> 4) & 0xF];
+            fingerprint[i * 2 + 1] = HEX[digest[i] & 0xF];
+        }
+
+        return new String(fingerprint);
+    }
+}
@@ -0,0 +1,257 @@
+package software.amazon.events.rule;
+
+import software.amazon.cloudformation.proxy.Logger;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Wraps the Logger of an invocation so that the helpers only pay for the lines that are written. Lines are formatted
+ * only if their level is enabled, lines repeated under the same key, e.g. every poll of a stabilization check, are
+ * sampled, and the failed entries of a PutTargets or RemoveTargets response are summarized in one line per response.
+ *
+ * A stabilization check is polled once per invocation, so the handlers sample within a scope, i.e. one resource
+ * operation of a stack: its invocations share their line counts through a bounded map in the container. Without a
+ * scope, e.g. for the in-process RuleReconciler, lines are counted per HandlerLogger.
+ *
+ * The level is read from the LOG_LEVEL environment variable and defaults to INFO. Lines passed to log are written as
+ * they are, like with any other Logger.
+ */
+class HandlerLogger implements Logger {
+    enum Level { DEBUG, INFO, WARN, ERROR }
+
+    static final String LOG_LEVEL_ENVIRONMENT_VARIABLE = "LOG_LEVEL";
+    static final Level DEFAULT_LEVEL = Level.INFO;
+
+    // Of the lines logged under one key, the first and then every DEFAULT_SAMPLE_EVERY-th is written
+    static final int DEFAULT_SAMPLE_EVERY = 10;
+
+    // A failed entry summary names at most this many targets per error code
+    static final int MAX_TARGET_IDS_PER_ERROR_CODE = 10;
+
+    // The scopes and keys whose line counts are kept across invocations; the least recently used are forgotten
+    static final int MAX_SCOPED_KEYS = 1024;
+
+    // How many lines have been logged under each scope and key, by every invocation in the container; guarded by itself
+    private static final Map<String, Integer> SCOPED_LINE_COUNTS = new LinkedHashMap<String, Integer>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<String, Integer> eldest) {
+            return size() > MAX_SCOPED_KEYS;
+        }
+    };
+
+    private final Logger logger;
+    private final String scope;
+    private final Level level;
+    private final int sampleEvery;
+
+    // How many lines have been logged under each key, if there is no scope; guarded by itself
+    private final Map<String, Integer> sampledLineCounts = new LinkedHashMap<>();
+
+    // The keys under which a line has been written since the last flush; guarded by itself
+    private final Set<String> writtenKeys = new LinkedHashSet<>();
+
+    HandlerLogger(Logger logger) {
+        this(logger, null);
+    }
+
+    /**
+     * @param logger The logger of the invocation
+     * @param scope What the invocations that share their line counts have in common, e.g. the stack id and logical
+     *              resource id, or null to count lines per HandlerLogger
+     */
+    HandlerLogger(Logger logger, String scope) {
+        this(logger, scope, levelFromEnvironment(), DEFAULT_SAMPLE_EVERY);
+    }
+
+    HandlerLogger(Logger logger, Level level, int sampleEvery) {
+        this(logger, null, level, sampleEvery);
+    }
+
+    HandlerLogger(Logger logger, String scope, Level level, int sampleEvery) {
+        if (sampleEvery < 1) {
+            throw new IllegalArgumentException(String.format("Invalid sampling: 1 in %s", sampleEvery));
+        }
+
+        this.logger = logger;
+        this.scope = scope;
+        this.level = level;
+        this.sampleEvery = sampleEvery;
+    }
+
+    /**
+     * Returns the logger itself if it already is a HandlerLogger, as in every invocation through the public
+     * handleRequest, and wraps it otherwise.
+     * @param logger The logger the helpers were given
+     * @return A HandlerLogger that writes to the logger
+     */
+    static HandlerLogger of(Logger logger) {
+        return logger instanceof HandlerLogger ? (HandlerLogger) logger : new HandlerLogger(logger);
+    }
+
+    @Override
+    public void log(String message) {
+        logger.log(message);
+    }
+
+    boolean isEnabled(Level level) {
+        return level.compareTo(this.level) >= 0;
+    }
+
+    void debug(String format, Object... args) {
+        log(Level.DEBUG, format, args);
+    }
+
+    void info(String format, Object... args) {
+        log(Level.INFO, format, args);
+    }
+
+    void warn(String format, Object... args) {
+        log(Level.WARN, format, args);
+    }
+
+    /**
+     * Formats and writes a line if its level is enabled.
+     * @param level The level of the line
+     * @param format The format of the line, as for String.format
+     * @param args The arguments of the format
+     */
+    void log(Level level, String format, Object... args) {
+        if (isEnabled(level)) {
+            logger.log(String.format(format, args));
+        }
+    }
+
+    /**
+     * Formats and writes a line if its level is enabled and it is the first, or a multiple of sampleEvery, of the
+     * lines logged under its key, in this scope if there is one. flush reports how many lines were left out.
+     * @param key What the line is about, e.g. the stabilization check that logs it
+     * @param level The level of the line
+     * @param format The format of the line, as for String.format
+     * @param args The arguments of the format
+     */
+    void sampled(String key, Level level, String format, Object... args) {
+        if (!isEnabled(level)) {
+            return;
+        }
+
+        int lineCount = scope == null ? increment(sampledLineCounts, key) : increment(SCOPED_LINE_COUNTS, scopedKey(key));
+
+        if ((lineCount - 1) % sampleEvery == 0) {
+            synchronized (writtenKeys) {
+                writtenKeys.add(key);
+            }
+            logger.log(String.format(format, args));
+        }
+    }
+
+    /**
+     * Writes one line for the failed entries of a response, grouped by error code. Each group names up to
+     * MAX_TARGET_IDS_PER_ERROR_CODE targets and the error message of the first of them.
+     * @param stackId The stack id (used for logging)
+     * @param operation The API that returned the failed entries, e.g. PutTargets
+     * @param failedEntries The failed entries
+     * @param targetId Reads the target id of an entry
+     * @param errorCode Reads the error code of an entry
+     * @param errorMessage Reads the error message of an entry
+     */
+    <EntryT> void failedEntries(String stackId, String operation, Collection<EntryT> failedEntries,
+                                Function<EntryT, String> targetId, Function<EntryT, String> errorCode, Function<EntryT, String> errorMessage) {
+        if (failedEntries.isEmpty() || !isEnabled(Level.WARN)) {
+            return;
+        }
+
+        Map<String, List<EntryT>> failedEntriesByErrorCode = new LinkedHashMap<>();
+        for (EntryT failedEntry : failedEntries) {
+            failedEntriesByErrorCode.computeIfAbsent(String.valueOf(errorCode.apply(failedEntry)), key -> new ArrayList<>()).add(failedEntry);
+        }
+
+        StringBuilder line = new StringBuilder(String.format("StackId: %s: %s has %s failed entries:", stackId, operation, failedEntries.size()));
+
+        for (Map.Entry<String, List<EntryT>> group : failedEntriesByErrorCode.entrySet()) {
+            List<EntryT> entries = group.getValue();
+
+            List<String> targetIds = new ArrayList<>();
+            for (EntryT entry : entries.subList(0, Math.min(entries.size(), MAX_TARGET_IDS_PER_ERROR_CODE))) {
+                targetIds.add(targetId.apply(entry));
+            }
+
+            line.append(' ').append(group.getKey()).append(" x").append(entries.size()).append(' ').append(targetIds);
+            if (entries.size() > MAX_TARGET_IDS_PER_ERROR_CODE) {
+                line.append(" and ").append(entries.size() - MAX_TARGET_IDS_PER_ERROR_CODE).append(" more");
+            }
+            line.append(" (").append(errorMessage.apply(entries.get(0))).append(");");
+        }
+
+        logger.log(line.toString());
+    }
+
+    /**
+     * Writes how many lines sampling has left out so far under each key a line was written under since the last flush,
+     * so that the report comes with the sampled lines rather than with every invocation. Without a scope, counting then
+     * starts anew; within a scope, it goes on in the next invocation.
+     * @param stackId The stack id (used for logging)
+     */
+    void flush(String stackId) {
+        List<String> keys;
+        synchronized (writtenKeys) {
+            keys = new ArrayList<>(writtenKeys);
+            writtenKeys.clear();
+        }
+
+        for (String key : keys) {
+            Integer lineCount;
+            if (scope == null) {
+                synchronized (sampledLineCounts) {
+                    lineCount = sampledLineCounts.remove(key);
+                }
+            } else {
+                synchronized (SCOPED_LINE_COUNTS) {
+                    lineCount = SCOPED_LINE_COUNTS.get(scopedKey(key));
+                }
+            }
+
+            if (lineCount == null) {
+                // Forgotten in the meantime
+                continue;
+            }
+
+            int writtenLineCount = (lineCount + sampleEvery - 1) / sampleEvery;
+            if (writtenLineCount < lineCount) {
+                logger.log(String.format("StackId: %s: %s: %s of %s lines were sampled out.", stackId, key,
+                        lineCount - writtenLineCount, lineCount));
+            }
+        }
+    }
+
+    private String scopedKey(String key) {
+        return scope + " " + key;
+    }
+
+    private static int increment(Map<String, Integer> lineCounts, String key) {
+        synchronized (lineCounts) {
+            return lineCounts.merge(key, 1, Integer::sum);
+        }
+    }
+
+    private static Level levelFromEnvironment() {
+        String level = System.getenv(LOG_LEVEL_ENVIRONMENT_VARIABLE);
+
+        if (level != null) {
+            try {
+                return Level.valueOf(level.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                // Fall back to the default for unknown levels rather than failing every invocation
+            }
+        }
+
+        return DEFAULT_LEVEL;
+    }
+}
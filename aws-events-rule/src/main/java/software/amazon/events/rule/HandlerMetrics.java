@@ -0,0 +1,290 @@
+package software.amazon.events.rule;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import software.amazon.awssdk.awscore.AwsRequest;
+import software.amazon.awssdk.awscore.AwsResponse;
+import software.amazon.awssdk.core.ResponseBytes;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.core.pagination.sync.SdkIterable;
+import software.amazon.awssdk.services.cloudwatchevents.CloudWatchEventsClient;
+import software.amazon.awssdk.services.cloudwatchevents.model.PutTargetsResponse;
+import software.amazon.awssdk.services.cloudwatchevents.model.RemoveTargetsResponse;
+import software.amazon.cloudformation.proxy.Logger;
+import software.amazon.cloudformation.proxy.ProxyClient;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Records what every step of a handler invocation spends its time on, keyed by call graph name and operation, and
+ * writes it to the Logger in CloudWatch Embedded Metric Format, so that CloudWatch extracts the metrics from the logs.
+ *
+ * Service calls are recorded by the ProxyClient returned from instrument, under the name of the API, e.g. PutTargets.
+ * Stabilization checks are recorded by stabilize, under the operation "Stabilize"; every check that finds the step not
+ * yet stable counts as a retry. The failed entries of PutTargets and RemoveTargets responses are counted as well.
+ */
+class HandlerMetrics {
+    static final String NAMESPACE = ResourceModel.TYPE_NAME;
+    static final String STABILIZE = "Stabilize";
+
+    static final String LATENCY = "Latency";
+    static final String CALLS = "Calls";
+    static final String ERRORS = "Errors";
+    static final String FAILED_ENTRIES = "FailedEntries";
+    static final String RETRIES = "Retries";
+
+    // Embedded Metric Format accepts at most 100 values per metric in one record
+    static final int MAX_VALUES_PER_RECORD = 100;
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    // Keyed by call graph name and operation, in the order the steps ran; guarded by this
+    private final Map<String, Map<String, Step>> steps = new LinkedHashMap<>();
+
+    /**
+     * Wraps a ProxyClient so that every call made through it is timed and counted under the call graph.
+     * @param callGraph The call graph name of the step, e.g. AWS-Events-Rule::CreateRule
+     * @param proxyClient The ProxyClient to wrap
+     * @return A ProxyClient that behaves like the given one
+     */
+    ProxyClient<CloudWatchEventsClient> instrument(String callGraph, ProxyClient<CloudWatchEventsClient> proxyClient) {
+        return new InstrumentedProxyClient(callGraph, proxyClient);
+    }
+
+    /**
+     * Times a stabilization check of a step, and counts a retry if the step is not stable yet.
+     * @param callGraph The call graph name of the step
+     * @param check The stabilization check
+     * @return The result of the check
+     */
+    boolean stabilize(String callGraph, BooleanSupplier check) {
+        long start = System.nanoTime();
+
+        boolean stabilized;
+        try {
+            stabilized = check.getAsBoolean();
+        } catch (RuntimeException e) {
+            record(callGraph, STABILIZE, start, true);
+            throw e;
+        }
+
+        Step step = record(callGraph, STABILIZE, start, false);
+        if (!stabilized) {
+            synchronized (this) {
+                step.retries++;
+            }
+        }
+
+        return stabilized;
+    }
+
+    /**
+     * Writes one Embedded Metric Format record per call graph and operation, and forgets what was recorded.
+     * Operations with more than MAX_VALUES_PER_RECORD calls are split across several records.
+     * @param logger The logger the records are written to
+     * @param stackId The stack id, which is added to every record as a property
+     */
+    void emit(Logger logger, String stackId) {
+        List<Map<String, Object>> records = new ArrayList<>();
+        long timestamp = System.currentTimeMillis();
+
+        synchronized (this) {
+            for (Map.Entry<String, Map<String, Step>> callGraph : steps.entrySet()) {
+                for (Map.Entry<String, Step> operation : callGraph.getValue().entrySet()) {
+                    records.addAll(toRecords(callGraph.getKey(), operation.getKey(), operation.getValue(), stackId, timestamp));
+                }
+            }
+            steps.clear();
+        }
+
+        for (Map<String, Object> record : records) {
+            try {
+                logger.log(MAPPER.writeValueAsString(record));
+            } catch (JsonProcessingException e) {
+                logger.log(String.format("StackId: %s: Failed to write metrics: %s", stackId, e.getMessage()));
+            }
+        }
+    }
+
+    private static List<Map<String, Object>> toRecords(String callGraph, String operation, Step step, String stackId, long timestamp) {
+        List<Map<String, Object>> records = new ArrayList<>();
+
+        for (int from = 0; from == 0 || from < step.latencies.size(); from += MAX_VALUES_PER_RECORD) {
+            List<Long> latencies = new ArrayList<>(step.latencies.subList(from, Math.min(step.latencies.size(), from + MAX_VALUES_PER_RECORD)));
+
+            Map<String, Object> metrics = new LinkedHashMap<>();
+            metrics.put(LATENCY, latencies);
+            if (from == 0) {
+                metrics.put(CALLS, step.calls);
+                metrics.put(ERRORS, step.errors);
+                metrics.put(FAILED_ENTRIES, step.failedEntries);
+                metrics.put(RETRIES, step.retries);
+            }
+
+            List<Map<String, String>> definitions = new ArrayList<>();
+            for (String name : metrics.keySet()) {
+                Map<String, String> definition = new LinkedHashMap<>();
+                definition.put("Name", name);
+                definition.put("Unit", LATENCY.equals(name) ? "Milliseconds" : "Count");
+                definitions.add(definition);
+            }
+
+            Map<String, Object> directive = new LinkedHashMap<>();
+            directive.put("Namespace", NAMESPACE);
+            directive.put("Dimensions", Arrays.asList(
+                    Collections.singletonList("CallGraph"),
+                    Arrays.asList("CallGraph", "Operation")));
+            directive.put("Metrics", definitions);
+
+            Map<String, Object> metadata = new LinkedHashMap<>();
+            metadata.put("Timestamp", timestamp);
+            metadata.put("CloudWatchMetrics", Collections.singletonList(directive));
+
+            Map<String, Object> record = new LinkedHashMap<>();
+            record.put("_aws", metadata);
+            record.put("CallGraph", callGraph);
+            record.put("Operation", operation);
+            record.put("StackId", stackId);
+            record.putAll(metrics);
+
+            records.add(record);
+        }
+
+        return records;
+    }
+
+    private Step record(String callGraph, String operation, long start, boolean failed) {
+        long latencyMillis = (System.nanoTime() - start) / 1_000_000;
+
+        synchronized (this) {
+            Step step = steps.computeIfAbsent(callGraph, key -> new LinkedHashMap<>())
+                    .computeIfAbsent(operation, key -> new Step());
+
+            step.calls++;
+            step.latencies.add(latencyMillis);
+            if (failed) {
+                step.errors++;
+            }
+            return step;
+        }
+    }
+
+    private <ResponseT> ResponseT call(String callGraph, Object request, Supplier<ResponseT> call) {
+        long start = System.nanoTime();
+        String operation = operationName(request);
+
+        ResponseT response;
+        try {
+            response = call.get();
+        } catch (RuntimeException e) {
+            record(callGraph, operation, start, true);
+            throw e;
+        }
+
+        Step step = record(callGraph, operation, start, false);
+        int failedEntries = failedEntryCount(response);
+        if (failedEntries > 0) {
+            synchronized (this) {
+                step.failedEntries += failedEntries;
+            }
+        }
+
+        return response;
+    }
+
+    /**
+     * Returns the name of the API a request is sent to, e.g. PutTargets for a PutTargetsRequest.
+     */
+    static String operationName(Object request) {
+        String name = request.getClass().getSimpleName();
+        return name.endsWith("Request") ? name.substring(0, name.length() - "Request".length()) : name;
+    }
+
+    private static int failedEntryCount(Object response) {
+        Integer failedEntryCount = null;
+
+        if (response instanceof PutTargetsResponse) {
+            failedEntryCount = ((PutTargetsResponse) response).failedEntryCount();
+        } else if (response instanceof RemoveTargetsResponse) {
+            failedEntryCount = ((RemoveTargetsResponse) response).failedEntryCount();
+        }
+
+        return failedEntryCount == null ? 0 : failedEntryCount;
+    }
+
+    /**
+     * What one operation of one step has done so far.
+     */
+    private static final class Step {
+        private final List<Long> latencies = new ArrayList<>();
+        private int calls;
+        private int errors;
+        private int failedEntries;
+        private int retries;
+    }
+
+    private final class InstrumentedProxyClient implements ProxyClient<CloudWatchEventsClient> {
+        private final String callGraph;
+        private final ProxyClient<CloudWatchEventsClient> proxyClient;
+
+        private InstrumentedProxyClient(String callGraph, ProxyClient<CloudWatchEventsClient> proxyClient) {
+            this.callGraph = callGraph;
+            this.proxyClient = proxyClient;
+        }
+
+        @Override
+        public <RequestT extends AwsRequest, ResponseT extends AwsResponse> ResponseT
+        injectCredentialsAndInvokeV2(RequestT request, Function<RequestT, ResponseT> requestFunction) {
+            return call(callGraph, request, () -> proxyClient.injectCredentialsAndInvokeV2(request, requestFunction));
+        }
+
+        @Override
+        public <RequestT extends AwsRequest, ResponseT extends AwsResponse> CompletableFuture<ResponseT>
+        injectCredentialsAndInvokeV2Async(RequestT request, Function<RequestT, CompletableFuture<ResponseT>> requestFunction) {
+            long start = System.nanoTime();
+            String operation = operationName(request);
+
+            CompletableFuture<ResponseT> future;
+            try {
+                future = proxyClient.injectCredentialsAndInvokeV2Async(request, requestFunction);
+            } catch (RuntimeException e) {
+                record(callGraph, operation, start, true);
+                throw e;
+            }
+
+            return future.whenComplete((response, e) -> record(callGraph, operation, start, e != null));
+        }
+
+        @Override
+        public <RequestT extends AwsRequest, ResponseT extends AwsResponse, IterableT extends SdkIterable<ResponseT>> IterableT
+        injectCredentialsAndInvokeIterableV2(RequestT request, Function<RequestT, IterableT> requestFunction) {
+            return call(callGraph, request, () -> proxyClient.injectCredentialsAndInvokeIterableV2(request, requestFunction));
+        }
+
+        @Override
+        public <RequestT extends AwsRequest, ResponseT extends AwsResponse> ResponseInputStream<ResponseT>
+        injectCredentialsAndInvokeV2InputStream(RequestT request, Function<RequestT, ResponseInputStream<ResponseT>> requestFunction) {
+            return call(callGraph, request, () -> proxyClient.injectCredentialsAndInvokeV2InputStream(request, requestFunction));
+        }
+
+        @Override
+        public <RequestT extends AwsRequest, ResponseT extends AwsResponse> ResponseBytes<ResponseT>
+        injectCredentialsAndInvokeV2Bytes(RequestT request, Function<RequestT, ResponseBytes<ResponseT>> requestFunction) {
+            return call(callGraph, request, () -> proxyClient.injectCredentialsAndInvokeV2Bytes(request, requestFunction));
+        }
+
+        @Override
+        public CloudWatchEventsClient client() {
+            return proxyClient.client();
+        }
+    }
+}
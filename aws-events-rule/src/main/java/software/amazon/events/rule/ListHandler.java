@@ -1,32 +1,166 @@
 package software.amazon.events.rule;
 
+import software.amazon.awssdk.services.cloudwatchevents.CloudWatchEventsClient;
+import software.amazon.awssdk.services.cloudwatchevents.model.ListEventBusesRequest;
+import software.amazon.awssdk.services.cloudwatchevents.model.ListEventBusesResponse;
 import software.amazon.awssdk.services.cloudwatchevents.model.ListRulesRequest;
 import software.amazon.awssdk.services.cloudwatchevents.model.ListRulesResponse;
+import software.amazon.cloudformation.exceptions.CfnInvalidRequestException;
 import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
 import software.amazon.cloudformation.proxy.Logger;
 import software.amazon.cloudformation.proxy.ProgressEvent;
 import software.amazon.cloudformation.proxy.OperationStatus;
+import software.amazon.cloudformation.proxy.ProxyClient;
 import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
 
-public class ListHandler extends BaseHandler<CallbackContext> {
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
-    @Override
-    public ProgressEvent<ResourceModel, CallbackContext> handleRequest(
+public class ListHandler extends BaseHandlerStd {
+
+    public ListHandler() {
+        super();
+    }
+
+    protected ProgressEvent<ResourceModel, CallbackContext> handleRequest(
         final AmazonWebServicesClientProxy proxy,
         final ResourceHandlerRequest<ResourceModel> request,
         final CallbackContext callbackContext,
+        final ProxyClient<CloudWatchEventsClient> proxyClient,
+        final HandlerMetrics metrics,
         final Logger logger) {
 
-        final ListRulesRequest awsRequest = Translator.translateToListRulesRequest(request.getNextToken());
+        this.logger = logger;
+
+        final ResourceModel model = request.getDesiredResourceState();
+        final String eventBusName = model == null ? null : model.getEventBusName();
+
+        // A single event bus is paged with nextToken, one page per call
+        if (eventBusName != null) {
+            final ListRulesRequest awsRequest = Translator.translateToListRulesRequest(eventBusName, request.getNextToken());
+
+            ListRulesResponse awsResponse = proxyClient.injectCredentialsAndInvokeV2(awsRequest, proxyClient.client()::listRules);
+
+            String nextToken = awsResponse.nextToken();
+
+            return ProgressEvent.<ResourceModel, CallbackContext>builder()
+                .resourceModels(Translator.translateFromListRulesResponse(awsResponse))
+                .nextToken(nextToken)
+                .status(OperationStatus.SUCCESS)
+                .build();
+        }
+
+        // Otherwise every event bus is paged in name order, with one page of Rules of up to MAX_CONCURRENT_REQUESTS event
+        // buses per call
+        final EventBusesToken token = EventBusesToken.parse(request.getNextToken());
+        final List<String> eventBusNames = listEventBusNames(proxyClient);
+        Collections.sort(eventBusNames);
+
+        // The page starts at the event bus of the token, or at the one after it if it has been deleted since
+        final int tokenIndex = token == null ? -1 : Collections.binarySearch(eventBusNames, token.eventBusName);
+        final boolean resumed = tokenIndex >= 0;
+        final int firstIndex = token == null ? 0 : resumed ? tokenIndex : -tokenIndex - 1;
+
+        final List<String> pageEventBusNames = eventBusNames.subList(
+            firstIndex,
+            Math.min(firstIndex + RequestExecutor.MAX_CONCURRENT_REQUESTS, eventBusNames.size()));
+
+        final List<ListRulesResponse> awsResponses = RequestExecutor.invokeAll(pageEventBusNames, name -> {
+            // Only the event bus of the token can be part way through its Rules
+            final String listRulesToken = resumed && name.equals(token.eventBusName) ? token.listRulesToken : null;
+            final ListRulesRequest awsRequest = Translator.translateToListRulesRequest(name, listRulesToken);
+            return proxyClient.injectCredentialsAndInvokeV2(awsRequest, proxyClient.client()::listRules);
+        });
+
+        final List<ResourceModel> resourceModels = new ArrayList<>();
+        String nextToken = null;
+
+        for (int i = 0; i < awsResponses.size(); i++) {
+            final ListRulesResponse awsResponse = awsResponses.get(i);
+            resourceModels.addAll(Translator.translateFromListRulesResponse(awsResponse));
+
+            // The page ends at the first event bus with more Rules, and the event buses after it are listed again
+            if (awsResponse.nextToken() != null && !awsResponse.nextToken().isEmpty()) {
+                nextToken = new EventBusesToken(pageEventBusNames.get(i), awsResponse.nextToken()).toString();
+                break;
+            }
+        }
 
-        ListRulesResponse awsResponse = proxy.injectCredentialsAndInvokeV2(awsRequest, ClientBuilder.getClient()::listRules);
+        if (nextToken == null && firstIndex + pageEventBusNames.size() < eventBusNames.size()) {
+            nextToken = new EventBusesToken(eventBusNames.get(firstIndex + pageEventBusNames.size()), null).toString();
+        }
 
-        String nextToken = awsResponse.nextToken();
+        logger.log(String.format("%s [%s] listed on %s of %s event buses.", ResourceModel.TYPE_NAME, resourceModels.size(), pageEventBusNames.size(), eventBusNames.size()));
 
         return ProgressEvent.<ResourceModel, CallbackContext>builder()
-            .resourceModels(Translator.translateFromListRulesResponse(awsResponse))
+            .resourceModels(resourceModels)
             .nextToken(nextToken)
             .status(OperationStatus.SUCCESS)
             .build();
     }
+
+    /**
+     * Calls ListEventBuses for every page of event buses.
+     * @param proxyClient The client used to make the requests
+     * @return The names of all event buses
+     */
+    static List<String> listEventBusNames(ProxyClient<CloudWatchEventsClient> proxyClient) {
+        List<String> eventBusNames = new ArrayList<>();
+        String nextToken = null;
+
+        do {
+            ListEventBusesRequest awsRequest = Translator.translateToListEventBusesRequest(nextToken);
+            ListEventBusesResponse awsResponse = proxyClient.injectCredentialsAndInvokeV2(awsRequest, proxyClient.client()::listEventBuses);
+
+            eventBusNames.addAll(Translator.translateFromListEventBusesResponse(awsResponse));
+            nextToken = awsResponse.nextToken();
+        } while (nextToken != null && !nextToken.isEmpty());
+
+        return eventBusNames;
+    }
+
+    /**
+     * The position of a List across every event bus: the name of the event bus to list next, and the ListRules nextToken
+     * within that event bus, if any. Event bus names cannot contain the separator. The name rather than the position of
+     * the event bus is kept, so that event buses created or deleted between pages do not shift the position.
+     */
+    static final class EventBusesToken {
+
+        private static final String SEPARATOR = ":";
+
+        final String eventBusName;
+        final String listRulesToken;
+
+        EventBusesToken(final String eventBusName, final String listRulesToken) {
+            this.eventBusName = eventBusName;
+            this.listRulesToken = listRulesToken;
+        }
+
+        /**
+         * Parses a nextToken returned by an earlier List.
+         * @param nextToken The nextToken, or null for the first page
+         * @return The position to list from, or null for the first page
+         */
+        static EventBusesToken parse(final String nextToken) {
+            if (nextToken == null) {
+                return null;
+            }
+
+            final int separator = nextToken.indexOf(SEPARATOR);
+            final String eventBusName = separator < 0 ? nextToken : nextToken.substring(0, separator);
+            final String listRulesToken = separator < 0 || separator == nextToken.length() - 1 ? null : nextToken.substring(separator + 1);
+
+            if (eventBusName.isEmpty()) {
+                throw new CfnInvalidRequestException(String.format("%s is not a valid nextToken", nextToken));
+            }
+
+            return new EventBusesToken(eventBusName, listRulesToken);
+        }
+
+        @Override
+        public String toString() {
+            return listRulesToken == null ? eventBusName : eventBusName + SEPARATOR + listRulesToken;
+        }
+    }
 }
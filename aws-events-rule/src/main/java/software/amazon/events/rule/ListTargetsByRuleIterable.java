@@ -0,0 +1,59 @@
+package software.amazon.events.rule;
+
+import software.amazon.awssdk.core.pagination.sync.SdkIterable;
+import software.amazon.awssdk.services.cloudwatchevents.model.ListTargetsByRuleRequest;
+import software.amazon.awssdk.services.cloudwatchevents.model.ListTargetsByRuleResponse;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+
+/**
+ * Lazily pages through ListTargetsByRule. Each page is only requested once the previous one has been consumed, so
+ * callers never hold more than one page of targets at a time.
+ */
+class ListTargetsByRuleIterable implements SdkIterable<ListTargetsByRuleResponse> {
+
+    private final ListTargetsByRuleRequest firstRequest;
+    private final Function<ListTargetsByRuleRequest, ListTargetsByRuleResponse> listTargetsByRule;
+
+    /**
+     * @param firstRequest The request for the first page. Subsequent requests are copies of it with the nextToken set.
+     * @param listTargetsByRule The function used to request a single page
+     */
+    ListTargetsByRuleIterable(ListTargetsByRuleRequest firstRequest, Function<ListTargetsByRuleRequest, ListTargetsByRuleResponse> listTargetsByRule) {
+        this.firstRequest = firstRequest;
+        this.listTargetsByRule = listTargetsByRule;
+    }
+
+    @Override
+    public Iterator<ListTargetsByRuleResponse> iterator() {
+        return new Iterator<ListTargetsByRuleResponse>() {
+            private ListTargetsByRuleRequest nextRequest = firstRequest;
+
+            @Override
+            public boolean hasNext() {
+                return nextRequest != null;
+            }
+
+            @Override
+            public ListTargetsByRuleResponse next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+
+                ListTargetsByRuleResponse page = listTargetsByRule.apply(nextRequest);
+
+                if (page.nextToken() == null || page.nextToken().isEmpty()) {
+                    nextRequest = null;
+                } else {
+                    nextRequest = nextRequest.toBuilder()
+                            .nextToken(page.nextToken())
+                            .build();
+                }
+
+                return page;
+            }
+        };
+    }
+}
@@ -0,0 +1,171 @@
+package software.amazon.events.rule;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * The fingerprints of a ResourceModel: one of each rule property, one of each Target by id, and one over all of them.
+ * Whether a rule has drifted is told by comparing the overall fingerprints, e.g. of the desired model and the model
+ * read by ReadHandler, and only models whose fingerprints differ are diffed property by property and Target by Target.
+ * Like the fingerprints of Translator, they do not depend on the order of unordered properties or on null versus empty
+ * values.
+ *
+ * A ModelFingerprint does not hold on to the model, so the fingerprints of a whole fleet can be kept to compare later
+ * sweeps against.
+ */
+public final class ModelFingerprint {
+
+    private final String fingerprint;
+    private final Map<String, String> propertyFingerprints;
+    private final Map<String, String> targetFingerprints;
+
+    /**
+     * @param propertyFingerprints The fingerprint of every rule property that is set, by JSON property name
+     * @param targetFingerprints The fingerprint of every Target, by id
+     */
+    ModelFingerprint(final Map<String, String> propertyFingerprints, final Map<String, String> targetFingerprints) {
+        this.propertyFingerprints = Collections.unmodifiableMap(propertyFingerprints);
+        this.targetFingerprints = Collections.unmodifiableMap(targetFingerprints);
+
+        Map<String, Object> fingerprints = new HashMap<>();
+        fingerprints.put("Properties", propertyFingerprints);
+        fingerprints.put("Targets", targetFingerprints);
+        this.fingerprint = Fingerprints.of(fingerprints);
+    }
+
+    /**
+     * @param model A ResourceModel, e.g. the desired one or one read by ReadHandler
+     * @return The ModelFingerprint of model
+     */
+    public static ModelFingerprint of(final ResourceModel model) {
+        return Translator.translateToModelFingerprint(model);
+    }
+
+    /**
+     * @return The fingerprint over every rule property and Target, a 32 character hex string
+     */
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * Compares the overall fingerprints. Matching models have not drifted; models that do not match may still not have
+     * drifted if the expected model leaves properties to service defaults, which diff tells apart.
+     * @param other Another ModelFingerprint
+     * @return Whether both models have the same rule properties and Targets
+     */
+    public boolean matches(final ModelFingerprint other) {
+        return fingerprint.equals(other.fingerprint);
+    }
+
+    /**
+     * Reports how the actual model differs from this, the expected one. Rule properties that are not set in the
+     * expected model are not compared, since the service fills in its own defaults for them, as are read-only ones.
+     * @param actual The ModelFingerprint of the actual model, e.g. one read by ReadHandler
+     * @return The Drift of the actual model
+     */
+    public Drift diff(final ModelFingerprint actual) {
+        if (matches(actual)) {
+            return Drift.NONE;
+        }
+
+        Set<String> changedProperties = new TreeSet<>();
+        for (Map.Entry<String, String> property : propertyFingerprints.entrySet()) {
+            if (!property.getValue().equals(actual.propertyFingerprints.get(property.getKey()))) {
+                changedProperties.add(property.getKey());
+            }
+        }
+
+        Set<String> missingTargetIds = new TreeSet<>();
+        Set<String> changedTargetIds = new TreeSet<>();
+        for (Map.Entry<String, String> target : targetFingerprints.entrySet()) {
+            String actualFingerprint = actual.targetFingerprints.get(target.getKey());
+
+            if (actualFingerprint == null) {
+                missingTargetIds.add(target.getKey());
+            } else if (!actualFingerprint.equals(target.getValue())) {
+                changedTargetIds.add(target.getKey());
+            }
+        }
+
+        Set<String> unexpectedTargetIds = new TreeSet<>(actual.targetFingerprints.keySet());
+        unexpectedTargetIds.removeAll(targetFingerprints.keySet());
+
+        return new Drift(changedProperties, missingTargetIds, changedTargetIds, unexpectedTargetIds);
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        return o instanceof ModelFingerprint && matches((ModelFingerprint) o);
+    }
+
+    @Override
+    public int hashCode() {
+        return fingerprint.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return fingerprint;
+    }
+
+    /**
+     * How an actual model differs from the expected one.
+     */
+    public static final class Drift {
+        static final Drift NONE = new Drift(Collections.emptySet(), Collections.emptySet(), Collections.emptySet(), Collections.emptySet());
+
+        private final Set<String> changedProperties;
+        private final Set<String> missingTargetIds;
+        private final Set<String> changedTargetIds;
+        private final Set<String> unexpectedTargetIds;
+
+        private Drift(final Set<String> changedProperties, final Set<String> missingTargetIds, final Set<String> changedTargetIds, final Set<String> unexpectedTargetIds) {
+            this.changedProperties = Collections.unmodifiableSet(changedProperties);
+            this.missingTargetIds = Collections.unmodifiableSet(missingTargetIds);
+            this.changedTargetIds = Collections.unmodifiableSet(changedTargetIds);
+            this.unexpectedTargetIds = Collections.unmodifiableSet(unexpectedTargetIds);
+        }
+
+        public boolean isDrifted() {
+            return !changedProperties.isEmpty() || !missingTargetIds.isEmpty() || !changedTargetIds.isEmpty() || !unexpectedTargetIds.isEmpty();
+        }
+
+        /**
+         * @return The JSON names of the expected rule properties that differ or are missing, e.g. Description
+         */
+        public Set<String> getChangedProperties() {
+            return changedProperties;
+        }
+
+        /**
+         * @return The ids of the expected Targets that do not exist
+         */
+        public Set<String> getMissingTargetIds() {
+            return missingTargetIds;
+        }
+
+        /**
+         * @return The ids of the Targets that exist with a different configuration
+         */
+        public Set<String> getChangedTargetIds() {
+            return changedTargetIds;
+        }
+
+        /**
+         * @return The ids of the Targets that exist but are not expected
+         */
+        public Set<String> getUnexpectedTargetIds() {
+            return unexpectedTargetIds;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("changed properties: %s, missing targets: %s, changed targets: %s, unexpected targets: %s",
+                    changedProperties, missingTargetIds, changedTargetIds, unexpectedTargetIds);
+        }
+    }
+}
@@ -0,0 +1,358 @@
+package software.amazon.events.rule;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.http.AbortableInputStream;
+import software.amazon.awssdk.http.ExecutableHttpRequest;
+import software.amazon.awssdk.http.HttpExecuteRequest;
+import software.amazon.awssdk.http.HttpExecuteResponse;
+import software.amazon.awssdk.http.SdkHttpClient;
+import software.amazon.awssdk.http.SdkHttpResponse;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.cloudwatchevents.CloudWatchEventsClient;
+import software.amazon.awssdk.services.cloudwatchevents.model.DescribeRuleResponse;
+import software.amazon.awssdk.services.cloudwatchevents.model.ListTargetsByRuleResponse;
+import software.amazon.awssdk.services.cloudwatchevents.model.PutRuleRequest;
+import software.amazon.awssdk.services.cloudwatchevents.model.PutTargetsRequest;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Loads and links what the first request of a container would otherwise load lazily: the SDK marshallers and
+ * unmarshallers of every operation, the Translator paths in both directions, and Jackson. Priming runs once, when
+ * BaseHandlerStd is initialized, i.e. during the init phase of the container rather than within the first request,
+ * and again before a snapshot is taken when the runtime supports snapshot and restore through org.crac.
+ *
+ * Every request is sent through a client of its own whose HTTP client answers in-process, so priming never leaves the
+ * container, needs no credentials, and leaves the shared client, the RateLimiter budgets and the metrics untouched.
+ * Priming on init is best effort: whatever fails to load is loaded by the first request instead.
+ */
+final class Priming {
+
+    // Set to false, as a system property or as the PRIMING environment variable, to leave everything to the first request
+    static final String PRIMING_PROPERTY = "software.amazon.events.priming";
+    static final String PRIMING_VARIABLE = "PRIMING";
+
+    private static final byte[] EMPTY_RESPONSE = "{}".getBytes(StandardCharsets.UTF_8);
+
+    private static boolean primed;
+
+    private static final AtomicInteger PRIME_STEPS_COMPLETED = new AtomicInteger();
+
+    // The runtime only holds on to registered resources weakly
+    private static Object checkpointHook;
+
+    private Priming() {
+    }
+
+    /**
+     * Primes the container and registers the snapshot hook, unless priming is turned off. Failures are left to the first
+     * request, which loads whatever priming could not.
+     */
+    static void primeOnInit() {
+        if (!isEnabled()) {
+            return;
+        }
+
+        if (checkpointHook == null) {
+            registerCheckpointHook();
+        }
+
+        try {
+            prime();
+        } catch (RuntimeException | LinkageError e) {
+            // Left to the first request
+        }
+    }
+
+    /**
+     * Primes the container. Only the first call that succeeds does any work.
+     */
+    static synchronized void prime() {
+        if (primed) {
+            return;
+        }
+
+        primeSteps();
+        primed = true;
+    }
+
+    /**
+     * Primes the container again before a snapshot is taken, whether or not it was primed on init, so that the snapshot
+     * holds everything priming loads. Failures are left to the first request after restore.
+     */
+    static synchronized void primeBeforeCheckpoint() {
+        try {
+            primeSteps();
+            primed = true;
+        } catch (RuntimeException | LinkageError e) {
+            // Left to the first request
+        }
+    }
+
+    /**
+     * Runs every priming step. Unlike primeOnInit, it throws the failure of any step.
+     */
+    static void primeSteps() {
+        final ResourceModel model = buildModel();
+
+        final PutRuleRequest putRuleRequest = Translator.translateToPutRuleRequest(model, Collections.emptyMap());
+        final PutTargetsRequest putTargetsRequest = Translator.translateToPutTargetsRequest(model);
+
+        primeTranslator(model, putRuleRequest, putTargetsRequest);
+        primeObjectMapper(model);
+        primeClient(model, putRuleRequest, putTargetsRequest);
+
+        PRIME_STEPS_COMPLETED.incrementAndGet();
+    }
+
+    /**
+     * @return The number of times every priming step has completed
+     */
+    static int primeStepsCompleted() {
+        return PRIME_STEPS_COMPLETED.get();
+    }
+
+    /**
+     * Builds a client that marshals, signs and unmarshals like the real one, but whose requests never leave the
+     * container: every operation succeeds with an empty response.
+     * @return A new CloudWatchEventsClient, to be closed by the caller
+     */
+    static CloudWatchEventsClient buildOfflineClient() {
+        return CloudWatchEventsClient.builder()
+                .httpClient(new EmptyResponseHttpClient())
+                .region(Region.US_EAST_1)
+                .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create("priming", "priming")))
+                .build();
+    }
+
+    private static boolean isEnabled() {
+        String enabled = System.getProperty(PRIMING_PROPERTY, System.getenv(PRIMING_VARIABLE));
+        return !"false".equalsIgnoreCase(enabled);
+    }
+
+    private static void primeTranslator(final ResourceModel model, final PutRuleRequest putRuleRequest, final PutTargetsRequest putTargetsRequest) {
+        EventPatternValidator.validate(model.getEventPattern());
+
+        Translator.translateToPutTargetsRequests(putTargetsRequest);
+        Translator.translateToRemoveTargetsRequests(Translator.translateToRemoveTargetsRequest(model, Collections.singletonList("PrimingTargetId")));
+
+        final DescribeRuleResponse describeRuleResponse = DescribeRuleResponse.builder()
+                .arn("arn:aws:events:us-east-1:123456789012:rule/PrimingEventBus/PrimingRule")
+                .name(putRuleRequest.name())
+                .eventBusName(putRuleRequest.eventBusName())
+                .description(putRuleRequest.description())
+                .eventPattern(putRuleRequest.eventPattern())
+                .state(putRuleRequest.stateAsString())
+                .build();
+
+        final ResourceModel readModel = Translator.translateFromDescribeRuleResponse(describeRuleResponse)
+                .targets(Translator.translateFromListTargetsByRuleResponse(ListTargetsByRuleResponse.builder()
+                        .targets(putTargetsRequest.targets())
+                        .build()))
+                .build();
+
+        CompositeId.of(readModel);
+        Translator.translateToRuleFingerprint(readModel, model);
+        ModelFingerprint.of(model).diff(ModelFingerprint.of(readModel));
+    }
+
+    private static void primeObjectMapper(final ResourceModel model) {
+        // The model as it arrives in, and leaves with, every request
+        final ObjectMapper mapper = new ObjectMapper();
+
+        try {
+            mapper.readValue(mapper.writeValueAsString(model), ResourceModel.class);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void primeClient(final ResourceModel model, final PutRuleRequest putRuleRequest, final PutTargetsRequest putTargetsRequest) {
+        try (CloudWatchEventsClient client = buildOfflineClient()) {
+            client.putRule(putRuleRequest);
+            client.describeRule(Translator.translateToDescribeRuleRequest(model));
+            client.putTargets(putTargetsRequest);
+            client.listTargetsByRule(Translator.translateToListTargetsByRuleRequest(model));
+            client.removeTargets(Translator.translateToRemoveTargetsRequest(model, Collections.singletonList("PrimingTargetId")));
+            Translator.translateFromListRulesResponse(client.listRules(Translator.translateToListRulesRequest(model.getEventBusName(), null)));
+            Translator.translateFromListEventBusesResponse(client.listEventBuses(Translator.translateToListEventBusesRequest(null)));
+            client.deleteRule(Translator.translateToDeleteRuleRequest(model));
+        }
+    }
+
+    /**
+     * Registers the snapshot hook with the runtime, if it supports snapshot and restore through org.crac.
+     * @return Whether the hook is registered
+     */
+    static boolean registerCheckpointHook() {
+        try {
+            final Class<?> resourceClass = Class.forName("org.crac.Resource");
+            final Object context = Class.forName("org.crac.Core").getMethod("getGlobalContext").invoke(null);
+            final Object hook = newCheckpointHook(resourceClass);
+
+            Class.forName("org.crac.Context").getMethod("register", resourceClass).invoke(context, hook);
+            checkpointHook = hook;
+            return true;
+        } catch (ReflectiveOperationException | LinkageError e) {
+            // The runtime does not support snapshot and restore
+            return false;
+        }
+    }
+
+    /**
+     * Builds the snapshot hook, which primes the container before a snapshot is taken.
+     * @param resourceClass The interface the runtime calls the hook through, org.crac.Resource
+     * @return A new hook implementing resourceClass
+     */
+    static Object newCheckpointHook(final Class<?> resourceClass) {
+        return Proxy.newProxyInstance(Priming.class.getClassLoader(), new Class<?>[] {resourceClass}, Priming::onCheckpointEvent);
+    }
+
+    private static Object onCheckpointEvent(final Object hook, final Method method, final Object[] args) {
+        switch (method.getName()) {
+            case "beforeCheckpoint":
+                primeBeforeCheckpoint();
+                return null;
+            case "hashCode":
+                return System.identityHashCode(hook);
+            case "equals":
+                return hook == args[0];
+            case "toString":
+                return Priming.class.getName();
+            default:
+                // afterRestore: nothing primed depends on the container it was primed in
+                return null;
+        }
+    }
+
+    private static ResourceModel buildModel() {
+        final Map<String, Object> bucket = new HashMap<>();
+        bucket.put("name", Collections.singletonList("priming-bucket"));
+
+        final Map<String, Object> eventPattern = new HashMap<>();
+        eventPattern.put("source", Collections.singletonList("aws.s3"));
+        eventPattern.put("detail-type", Collections.singletonList("Object Created"));
+        eventPattern.put("detail", Collections.singletonMap("bucket", bucket));
+
+        return ResourceModel.builder()
+                .name("PrimingRule")
+                .eventBusName("PrimingEventBus")
+                .description("PrimingDescription")
+                .eventPattern(eventPattern)
+                .state("ENABLED")
+                .targets(Collections.singleton(buildTarget()))
+                .build();
+    }
+
+    // Every parameter type is set, so that every Translator and marshaller path is taken
+    private static Target buildTarget() {
+        return Target.builder()
+                .id("PrimingTargetId")
+                .arn("arn:aws:lambda:us-east-1:123456789012:function:PrimingFunction")
+                .roleArn("arn:aws:iam::123456789012:role/PrimingRole")
+                .batchParameters(BatchParameters.builder()
+                        .jobDefinition("JOB_DEFINITION")
+                        .jobName("JOB_NAME")
+                        .arrayProperties(BatchArrayProperties.builder().size(1).build())
+                        .retryStrategy(BatchRetryStrategy.builder().attempts(1).build())
+                        .build())
+                .deadLetterConfig(DeadLetterConfig.builder()
+                        .arn("ARN")
+                        .build())
+                .ecsParameters(EcsParameters.builder()
+                        .networkConfiguration(NetworkConfiguration.builder()
+                                .awsVpcConfiguration(AwsVpcConfiguration.builder()
+                                        .assignPublicIp("ENABLED")
+                                        .securityGroups(Collections.singleton("SECURITY_GROUP"))
+                                        .subnets(Collections.singleton("SUBNET"))
+                                        .build())
+                                .build())
+                        .launchType("FARGATE")
+                        .taskCount(1)
+                        .taskDefinitionArn("TASK_DEFINITION_ARN")
+                        .tagList(Collections.singleton(Tag.builder().key("TAG_KEY").value("TAG_VALUE").build()))
+                        .placementStrategies(Collections.singleton(PlacementStrategy.builder().field("instanceId").type("spread").build()))
+                        .placementConstraints(Collections.singleton(PlacementConstraint.builder().expression("EXPRESSION").type("memberOf").build()))
+                        .capacityProviderStrategy(Collections.singleton(CapacityProviderStrategyItem.builder().base(1).capacityProvider("CAPACITY_PROVIDER").weight(1).build()))
+                        .build())
+                .httpParameters(HttpParameters.builder()
+                        .headerParameters(Collections.singletonMap("HEADER_KEY", "HEADER_VALUE"))
+                        .pathParameterValues(Collections.singleton("PATH_PARAMETER_VALUE"))
+                        .queryStringParameters(Collections.singletonMap("QUERY_STRING_KEY", "QUERY_STRING_VALUE"))
+                        .build())
+                .inputTransformer(InputTransformer.builder()
+                        .inputPathsMap(Collections.singletonMap("INPUT_PATH_KEY", "$.detail"))
+                        .inputTemplate("<INPUT_PATH_KEY>")
+                        .build())
+                .kinesisParameters(KinesisParameters.builder()
+                        .partitionKeyPath("$.id")
+                        .build())
+                .redshiftDataParameters(RedshiftDataParameters.builder()
+                        .database("DATABASE")
+                        .sql("SQL")
+                        .build())
+                .retryPolicy(RetryPolicy.builder()
+                        .maximumEventAgeInSeconds(60)
+                        .maximumRetryAttempts(1)
+                        .build())
+                .runCommandParameters(RunCommandParameters.builder()
+                        .runCommandTargets(Collections.singleton(RunCommandTarget.builder()
+                                .key("tag:KEY")
+                                .values(Collections.singleton("VALUE"))
+                                .build()))
+                        .build())
+                .sqsParameters(SqsParameters.builder()
+                        .messageGroupId("MESSAGE_GROUP_ID")
+                        .build())
+                .sageMakerPipelineParameters(SageMakerPipelineParameters.builder()
+                        .pipelineParameterList(Collections.singleton(SageMakerPipelineParameter.builder()
+                                .name("NAME")
+                                .value("VALUE")
+                                .build()))
+                        .build())
+                .build();
+    }
+
+    /**
+     * Answers every request with an empty JSON object and status 200, without any I/O.
+     */
+    private static final class EmptyResponseHttpClient implements SdkHttpClient {
+
+        @Override
+        public ExecutableHttpRequest prepareRequest(final HttpExecuteRequest request) {
+            return new ExecutableHttpRequest() {
+                @Override
+                public HttpExecuteResponse call() {
+                    return HttpExecuteResponse.builder()
+                            .response(SdkHttpResponse.builder().statusCode(200).build())
+                            .responseBody(AbortableInputStream.create(new ByteArrayInputStream(EMPTY_RESPONSE)))
+                            .build();
+                }
+
+                @Override
+                public void abort() {
+                }
+            };
+        }
+
+        @Override
+        public String clientName() {
+            return "Priming";
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package software.amazon.events.rule;
+
+import software.amazon.awssdk.awscore.AwsRequest;
+import software.amazon.awssdk.awscore.AwsResponse;
+import software.amazon.awssdk.core.ResponseBytes;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.core.pagination.sync.SdkIterable;
+import software.amazon.cloudformation.proxy.ProxyClient;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Paces the service calls of every handler in the container with one token bucket per API, so that a burst of
+ * invocations, e.g. a stack that creates many rules at once, is spread out instead of being throttled. A call waits
+ * until the bucket of its API has a token. Buckets refill at permitsPerSecond and hold at most one second's worth of
+ * tokens, so calls after a quiet period are not delayed.
+ *
+ * The service quotas apply to the whole account and region, which several containers share, so the budgets of one
+ * container are well below them.
+ */
+class RateLimiter {
+    static final double DEFAULT_PERMITS_PER_SECOND = 10;
+
+    // Calls per second of one container, by API
+    static final Map<String, Double> PERMITS_PER_SECOND = new HashMap<>();
+
+    static {
+        PERMITS_PER_SECOND.put("DescribeRule", 20.0);
+        PERMITS_PER_SECOND.put("ListTargetsByRule", 20.0);
+        PERMITS_PER_SECOND.put("ListRules", 20.0);
+        PERMITS_PER_SECOND.put("ListEventBuses", 20.0);
+        PERMITS_PER_SECOND.put("PutRule", 10.0);
+        PERMITS_PER_SECOND.put("PutTargets", 10.0);
+        PERMITS_PER_SECOND.put("RemoveTargets", 10.0);
+        PERMITS_PER_SECOND.put("DeleteRule", 10.0);
+    }
+
+    // One limiter per API, shared by every invocation in the container
+    private static final ConcurrentMap<String, RateLimiter> LIMITERS = new ConcurrentHashMap<>();
+
+    private final double permitsPerSecond;
+    private final double burst;
+    private final LongSupplier nanoClock;
+
+    // Guarded by this. Negative while calls are waiting for tokens that have not been refilled yet
+    private double tokens;
+    private long refilledAtNanos;
+
+    /**
+     * @param permitsPerSecond The rate at which the bucket refills
+     * @param burst The most tokens the bucket holds, i.e. how many calls may be made at once after a quiet period
+     * @param nanoClock The clock, e.g. System::nanoTime
+     */
+    RateLimiter(double permitsPerSecond, double burst, LongSupplier nanoClock) {
+        if (permitsPerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException(String.format("Invalid rate limit: %s per second, burst %s", permitsPerSecond, burst));
+        }
+
+        this.permitsPerSecond = permitsPerSecond;
+        this.burst = burst;
+        this.nanoClock = nanoClock;
+        this.tokens = burst;
+        this.refilledAtNanos = nanoClock.getAsLong();
+    }
+
+    /**
+     * Returns the limiter shared by every call to an API.
+     * @param operation The name of the API, e.g. PutTargets
+     * @return The limiter of the API
+     */
+    static RateLimiter forOperation(String operation) {
+        return LIMITERS.computeIfAbsent(operation, key -> {
+            double permitsPerSecond = PERMITS_PER_SECOND.getOrDefault(key, DEFAULT_PERMITS_PER_SECOND);
+            return new RateLimiter(permitsPerSecond, permitsPerSecond, System::nanoTime);
+        });
+    }
+
+    /**
+     * Wraps a ProxyClient so that every call made through it waits for the limiter of its API.
+     * @param proxyClient The ProxyClient to wrap
+     * @return A ProxyClient that behaves like the given one
+     */
+    static <ClientT> ProxyClient<ClientT> limit(ProxyClient<ClientT> proxyClient) {
+        return new RateLimitedProxyClient<>(proxyClient);
+    }
+
+    /**
+     * Takes a token, and returns how long the caller has to wait before the token is really available.
+     * @return The wait in nanoseconds, or 0 if the call may be made right away
+     */
+    synchronized long reserve() {
+        refill();
+        tokens -= 1;
+
+        return tokens >= 0 ? 0 : (long) Math.ceil(-tokens / permitsPerSecond * TimeUnit.SECONDS.toNanos(1));
+    }
+
+    /**
+     * Takes a token if one is available right away, without going into debt for later callers.
+     * @return Whether a token was taken
+     */
+    synchronized boolean tryAcquire() {
+        refill();
+
+        if (tokens < 1) {
+            return false;
+        }
+
+        tokens -= 1;
+        return true;
+    }
+
+    /**
+     * Waits until a call may be made.
+     */
+    void acquire() {
+        long waitNanos = reserve();
+
+        if (waitNanos > 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            } catch (InterruptedException e) {
+                // Make the call anyway; the caller decides what to do about the interrupt
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    // Guarded by this
+    private void refill() {
+        long now = nanoClock.getAsLong();
+
+        tokens = Math.min(burst, tokens + (now - refilledAtNanos) * permitsPerSecond / TimeUnit.SECONDS.toNanos(1));
+        refilledAtNanos = now;
+    }
+
+    private static final class RateLimitedProxyClient<ClientT> implements ProxyClient<ClientT> {
+        private final ProxyClient<ClientT> proxyClient;
+
+        private RateLimitedProxyClient(ProxyClient<ClientT> proxyClient) {
+            this.proxyClient = proxyClient;
+        }
+
+        @Override
+        public <RequestT extends AwsRequest, ResponseT extends AwsResponse> ResponseT
+        injectCredentialsAndInvokeV2(RequestT request, Function<RequestT, ResponseT> requestFunction) {
+            forOperation(HandlerMetrics.operationName(request)).acquire();
+            return proxyClient.injectCredentialsAndInvokeV2(request, requestFunction);
+        }
+
+        @Override
+        public <RequestT extends AwsRequest, ResponseT extends AwsResponse> CompletableFuture<ResponseT>
+        injectCredentialsAndInvokeV2Async(RequestT request, Function<RequestT, CompletableFuture<ResponseT>> requestFunction) {
+            forOperation(HandlerMetrics.operationName(request)).acquire();
+            return proxyClient.injectCredentialsAndInvokeV2Async(request, requestFunction);
+        }
+
+        // Only the first page is paced; the iterable requests the others itself
+        @Override
+        public <RequestT extends AwsRequest, ResponseT extends AwsResponse, IterableT extends SdkIterable<ResponseT>> IterableT
+        injectCredentialsAndInvokeIterableV2(RequestT request, Function<RequestT, IterableT> requestFunction) {
+            forOperation(HandlerMetrics.operationName(request)).acquire();
+            return proxyClient.injectCredentialsAndInvokeIterableV2(request, requestFunction);
+        }
+
+        @Override
+        public <RequestT extends AwsRequest, ResponseT extends AwsResponse> ResponseInputStream<ResponseT>
+        injectCredentialsAndInvokeV2InputStream(RequestT request, Function<RequestT, ResponseInputStream<ResponseT>> requestFunction) {
+            forOperation(HandlerMetrics.operationName(request)).acquire();
+            return proxyClient.injectCredentialsAndInvokeV2InputStream(request, requestFunction);
+        }
+
+        @Override
+        public <RequestT extends AwsRequest, ResponseT extends AwsResponse> ResponseBytes<ResponseT>
+        injectCredentialsAndInvokeV2Bytes(RequestT request, Function<RequestT, ResponseBytes<ResponseT>> requestFunction) {
+            forOperation(HandlerMetrics.operationName(request)).acquire();
+            return proxyClient.injectCredentialsAndInvokeV2Bytes(request, requestFunction);
+        }
+
+        @Override
+        public ClientT client() {
+            return proxyClient.client();
+        }
+    }
+}
@@ -1,50 +1,69 @@
 package software.amazon.events.rule;
 
 import software.amazon.awssdk.services.cloudwatchevents.CloudWatchEventsClient;
+import software.amazon.awssdk.services.cloudwatchevents.model.DescribeRuleResponse;
 import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
 import software.amazon.cloudformation.proxy.Logger;
 import software.amazon.cloudformation.proxy.ProgressEvent;
 import software.amazon.cloudformation.proxy.ProxyClient;
 import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 public class ReadHandler extends BaseHandlerStd {
 
+    public ReadHandler() {
+        super();
+    }
+
+    ReadHandler(CloudWatchEventsClient cloudWatchEventsClient) {
+        super(cloudWatchEventsClient);
+    }
+
     protected ProgressEvent<ResourceModel, CallbackContext> handleRequest(
             final AmazonWebServicesClientProxy proxy,
             final ResourceHandlerRequest<ResourceModel> request,
             final CallbackContext callbackContext,
             final ProxyClient<CloudWatchEventsClient> proxyClient,
+            final HandlerMetrics metrics,
             final Logger logger) {
 
         this.logger = logger;
 
+        final Set<Target> targets = new HashSet<>();
+
         return ProgressEvent.progress(request.getDesiredResourceState(), callbackContext)
 
-            // STEP 1 [read rule]
-            .then(progress -> proxy.initiate("AWS-Events-Rule::ReadRule", proxyClient, request.getDesiredResourceState(), callbackContext)
+            // STEP 1 [read rule and list targets concurrently]
+            .then(progress -> proxy.initiate("AWS-Events-Rule::ReadRule", metrics.instrument("AWS-Events-Rule::ReadRule", proxyClient), request.getDesiredResourceState(), callbackContext)
                 .translateToServiceRequest(Translator::translateToDescribeRuleRequest)
-                .makeServiceCall((awsRequest, client) -> describeRule(awsRequest, client, logger, request.getStackId()))
-                .handleError(this::handleError)
-                .done(awsResponse -> {
-                    // Build the Rule part of the response
-                    callbackContext.setResourceModelBuilder(Translator.translateFromDescribeRuleResponse(awsResponse));
-                    return ProgressEvent.progress(request.getDesiredResourceState(), callbackContext);
-                })
-            )
+                .makeServiceCall((awsRequest, client) -> {
+                    // Neither call depends on the other, so the Targets are listed while the Rule is described
+                    CompletableFuture<Set<Target>> targetsFuture = listTargetsAsync(
+                            Translator.translateToListTargetsByRuleRequest(request.getDesiredResourceState()), client, logger, request.getStackId());
+
+                    DescribeRuleResponse awsResponse;
+                    try {
+                        awsResponse = describeRule(awsRequest, client, logger, request.getStackId());
+                    } catch (RuntimeException e) {
+                        RequestExecutor.await(targetsFuture);
+                        throw e;
+                    }
 
-            // STEP 2 [list targets]
-            .then(progress -> proxy.initiate("AWS-Events-Rule::ListTargets", proxyClient, request.getDesiredResourceState(), callbackContext)
-                .translateToServiceRequest(Translator::translateToListTargetsByRuleRequest)
-                .makeServiceCall((awsRequest, client) -> listTargets(awsRequest, client, logger, request.getStackId()))
+                    targets.addAll(RequestExecutor.join(targetsFuture));
+                    return awsResponse;
+                })
                 .handleError(this::handleError)
                 .done(awsResponse -> {
-                    // Add the list of Targets to the response
-                    if (awsResponse.hasTargets()) {
-                        callbackContext.getResourceModelBuilder().targets(Translator.translateFromListTargetsByRuleResponse(awsResponse));
+                    // Join the Rule and its Targets into the response
+                    ResourceModel model = Translator.translateFromDescribeRuleResponse(awsResponse).build();
+
+                    if (!targets.isEmpty()) {
+                        model.setTargets(targets);
                     }
-                    return ProgressEvent.defaultSuccessHandler(callbackContext.getResourceModelBuilder().build());
+                    return ProgressEvent.defaultSuccessHandler(model);
                 })
             );
     }
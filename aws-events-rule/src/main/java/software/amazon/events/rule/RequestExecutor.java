@@ -0,0 +1,81 @@
+package software.amazon.events.rule;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Issues independent service calls concurrently on a small pool shared by every handler in the container.
+ */
+class RequestExecutor {
+    static final int MAX_CONCURRENT_REQUESTS = 4;
+
+    private static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(MAX_CONCURRENT_REQUESTS, runnable -> {
+        Thread thread = new Thread(runnable, "aws-events-rule-request");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Applies the call to every request, at most MAX_CONCURRENT_REQUESTS at a time.
+     * @param requests The requests to send
+     * @param call The function that sends a single request
+     * @return The responses, in the same order as the requests
+     */
+    static <RequestT, ResponseT> List<ResponseT> invokeAll(List<RequestT> requests, Function<RequestT, ResponseT> call) {
+        if (requests.size() == 1) {
+            return Collections.singletonList(call.apply(requests.get(0)));
+        }
+
+        List<CompletableFuture<ResponseT>> futures = new ArrayList<>();
+        for (RequestT request : requests) {
+            futures.add(CompletableFuture.supplyAsync(() -> call.apply(request), EXECUTOR));
+        }
+
+        List<ResponseT> responses = new ArrayList<>();
+        for (CompletableFuture<ResponseT> future : futures) {
+            responses.add(join(future));
+        }
+
+        return responses;
+    }
+
+    /**
+     * Runs a single call on the pool.
+     * @param call The function that sends the request
+     * @return A future that completes with the response
+     */
+    static <ResponseT> CompletableFuture<ResponseT> supplyAsync(Supplier<ResponseT> call) {
+        return CompletableFuture.supplyAsync(call, EXECUTOR);
+    }
+
+    /**
+     * Waits for a future without rethrowing its exception, so that no call is left running once a handler returns.
+     * @param future The future to wait for
+     */
+    static void await(CompletableFuture<?> future) {
+        future.handle((result, e) -> null).join();
+    }
+
+    /**
+     * Waits for a future and rethrows the original exception so that handleError sees the service exception.
+     * @param future The future to wait for
+     * @return The result of the future
+     */
+    static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,453 @@
+package software.amazon.events.rule;
+
+import static java.util.Objects.requireNonNull;
+
+import software.amazon.awssdk.awscore.AwsRequest;
+import software.amazon.awssdk.awscore.AwsResponse;
+import software.amazon.awssdk.core.ResponseBytes;
+import software.amazon.awssdk.core.ResponseInputStream;
+import software.amazon.awssdk.core.pagination.sync.SdkIterable;
+import software.amazon.awssdk.services.cloudwatchevents.CloudWatchEventsClient;
+import software.amazon.awssdk.services.cloudwatchevents.model.ListRulesResponse;
+import software.amazon.awssdk.services.cloudwatchevents.model.PutRuleResponse;
+import software.amazon.awssdk.services.cloudwatchevents.model.PutTargetsResponse;
+import software.amazon.awssdk.services.cloudwatchevents.model.RemoveTargetsResponse;
+import software.amazon.awssdk.services.cloudwatchevents.model.Rule;
+import software.amazon.cloudformation.proxy.HandlerErrorCode;
+import software.amazon.cloudformation.proxy.Logger;
+import software.amazon.cloudformation.proxy.ProgressEvent;
+import software.amazon.cloudformation.proxy.ProxyClient;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Creates or updates many rules at once, e.g. a fleet of rules generated from templates, instead of running the
+ * handlers of every rule one after the other.
+ *
+ * The rules are grouped by event bus, and the existing rules of each event bus are listed once with ListRules rather
+ * than described one by one. A rule whose properties already match is not put again, and only the targets that were
+ * added, changed or dropped are sent. Up to maxConcurrentRules rules are reconciled at a time with the same helpers as
+ * the handlers; the delays that the handlers would return as callbacks, while failed entries are retried or changes
+ * propagate, are slept off on the reconciling thread instead. Every call waits for the RateLimiter of its API, so a
+ * fleet shares the budgets of the container with any handler running in it.
+ *
+ * ListRules may lag behind recent writes. A rule created moments before is then put again, and its targets are put
+ * without removing any that are not in the model. Rules that are not passed in are left alone.
+ */
+public final class RuleReconciler {
+    static final int DEFAULT_MAX_CONCURRENT_RULES = 16;
+
+    // Stands in for the stack id in log lines
+    private static final String RECONCILER_ID = "RuleReconciler";
+
+    /**
+     * What reconciling a rule did.
+     */
+    public enum Outcome { CREATED, UPDATED, UNCHANGED, FAILED }
+
+    private final ProxyClient<CloudWatchEventsClient> proxyClient;
+    private final HandlerLogger logger;
+    private final int maxConcurrentRules;
+    private final StabilizationScheduler stabilizationScheduler;
+    private final FailedEntryRetryPolicy failedEntryRetryPolicy;
+
+    private RuleReconciler(final Builder builder) {
+        this.proxyClient = RateLimiter.limit(new DirectProxyClient(builder.client));
+        this.logger = HandlerLogger.of(builder.logger);
+        this.maxConcurrentRules = builder.maxConcurrentRules;
+        this.stabilizationScheduler = builder.stabilizationScheduler;
+        this.failedEntryRetryPolicy = builder.failedEntryRetryPolicy;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Creates or updates every rule and its targets so that they match the models, and sets the ARN of every rule that
+     * was reconciled on its model.
+     * @param models The desired rules, each with a Name
+     * @return One Result per model, in the same order
+     */
+    public List<Result> reconcile(final Collection<ResourceModel> models) {
+        final List<ResourceModel> modelList = new ArrayList<>(models);
+        final Result[] results = new Result[modelList.size()];
+
+        // Rules that cannot be put are failed before any service call, and the rest are grouped by event bus
+        Map<String, List<Integer>> indexesByEventBus = new LinkedHashMap<>();
+        Map<String, Set<String>> namesByEventBus = new HashMap<>();
+
+        for (int i = 0; i < modelList.size(); i++) {
+            ResourceModel model = modelList.get(i);
+
+            if (model.getName() == null) {
+                results[i] = Result.failed(model, HandlerErrorCode.InvalidRequest, "Rule Name must be specified");
+                continue;
+            }
+
+            ProgressEvent<ResourceModel, CallbackContext> validated = BaseHandlerStd.validateEventPattern(ProgressEvent.progress(model, new CallbackContext()), logger, RECONCILER_ID);
+            if (validated.isFailed()) {
+                results[i] = Result.failed(model, validated.getErrorCode(), validated.getMessage());
+                continue;
+            }
+
+            if (!namesByEventBus.computeIfAbsent(model.getEventBusName(), key -> new HashSet<>()).add(model.getName())) {
+                results[i] = Result.failed(model, HandlerErrorCode.InvalidRequest,
+                        String.format("%s appears more than once on event bus %s", model.getName(), model.getEventBusName()));
+                continue;
+            }
+
+            indexesByEventBus.computeIfAbsent(model.getEventBusName(), key -> new ArrayList<>()).add(i);
+        }
+
+        final ExecutorService executor = Executors.newFixedThreadPool(maxConcurrentRules, runnable -> {
+            Thread thread = new Thread(runnable, "aws-events-rule-reconciler");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        try {
+            // STEP 1 [list the existing rules of every event bus]
+            Map<String, CompletableFuture<Map<String, ResourceModel>>> existingRulesByEventBus = new LinkedHashMap<>();
+            for (String eventBusName : indexesByEventBus.keySet()) {
+                existingRulesByEventBus.put(eventBusName, CompletableFuture.supplyAsync(() -> listExistingRules(eventBusName), executor));
+            }
+
+            // STEP 2 [reconcile the rules of each event bus as soon as it has been listed]
+            List<CompletableFuture<Void>> futures = new ArrayList<>();
+
+            for (Map.Entry<String, List<Integer>> eventBus : indexesByEventBus.entrySet()) {
+                Map<String, ResourceModel> existingRules;
+                try {
+                    existingRules = RequestExecutor.join(existingRulesByEventBus.get(eventBus.getKey()));
+                } catch (RuntimeException e) {
+                    // e.g. the event bus does not exist
+                    logger.warn("StackId: %s: Event bus %s could not be listed: %s", RECONCILER_ID, eventBus.getKey(), e);
+                    for (int i : eventBus.getValue()) {
+                        results[i] = Result.failed(modelList.get(i), ErrorClassifier.classify(e).getErrorCode(), e.getMessage());
+                    }
+                    continue;
+                }
+
+                for (int i : eventBus.getValue()) {
+                    ResourceModel model = modelList.get(i);
+                    futures.add(CompletableFuture.runAsync(() -> results[i] = reconcileRule(model, existingRules.get(model.getName())), executor));
+                }
+            }
+
+            for (CompletableFuture<Void> future : futures) {
+                RequestExecutor.join(future);
+            }
+        } finally {
+            executor.shutdownNow();
+            logger.flush(RECONCILER_ID);
+        }
+
+        Map<Outcome, Integer> outcomeCounts = new EnumMap<>(Outcome.class);
+        for (Result result : results) {
+            outcomeCounts.merge(result.getOutcome(), 1, Integer::sum);
+        }
+        logger.info("StackId: %s: %s [%s] reconciled on %s event buses: %s", RECONCILER_ID, ResourceModel.TYPE_NAME,
+                results.length, indexesByEventBus.size(), outcomeCounts);
+
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Calls ListRules for every page of Rules on one event bus.
+     * @param eventBusName The name of the event bus, or null for the default event bus
+     * @return The rule properties of every Rule on the event bus, by name
+     */
+    private Map<String, ResourceModel> listExistingRules(final String eventBusName) {
+        Map<String, ResourceModel> existingRules = new HashMap<>();
+        String nextToken = null;
+
+        do {
+            ListRulesResponse awsResponse = proxyClient.injectCredentialsAndInvokeV2(
+                    Translator.translateToListRulesRequest(eventBusName, nextToken), proxyClient.client()::listRules);
+
+            for (Rule rule : awsResponse.rules()) {
+                existingRules.put(rule.name(), Translator.translateFromRule(rule).build());
+            }
+            nextToken = awsResponse.nextToken();
+        } while (nextToken != null && !nextToken.isEmpty());
+
+        logger.debug("StackId: %s: %s [%s] listed on event bus %s.", RECONCILER_ID, ResourceModel.TYPE_NAME, existingRules.size(), eventBusName);
+        return existingRules;
+    }
+
+    /**
+     * Puts a rule if it is missing or differs from the model, brings its targets in line with the model, and waits
+     * for the changes to propagate.
+     * @param model The desired rule
+     * @param existingRule The rule as listed, or null if it was not listed
+     * @return The Result of the rule
+     */
+    private Result reconcileRule(final ResourceModel model, final ResourceModel existingRule) {
+        final ProgressEvent<ResourceModel, CallbackContext> progress = ProgressEvent.progress(model, new CallbackContext());
+
+        try {
+            // STEP 1 [put the rule if it is missing or has changed]
+            boolean ruleChanged = existingRule == null
+                    || !Translator.translateToRuleFingerprint(existingRule, model).equals(Translator.translateToRuleFingerprint(model, model));
+
+            if (ruleChanged) {
+                PutRuleResponse awsResponse = BaseHandlerStd.putRule(Translator.translateToPutRuleRequest(model, Collections.emptyMap()), proxyClient, logger, RECONCILER_ID);
+                model.setArn(awsResponse.ruleArn());
+
+                ProgressEvent<ResourceModel, CallbackContext> propagated = runToCompletion(() -> BaseHandlerStd.awaitPropagation(progress, stabilizationScheduler, 1,
+                        () -> BaseHandlerStd.stabilizeRulePropagation(proxyClient, model, logger, RECONCILER_ID), logger, RECONCILER_ID));
+                if (propagated.isFailed()) {
+                    return Result.failed(model, propagated.getErrorCode(), propagated.getMessage());
+                }
+            } else {
+                model.setArn(existingRule.getArn());
+            }
+
+            // STEP 2 [diff the targets; a rule that was not listed has none yet]
+            final ArrayList<String> targetIdsToPut = new ArrayList<>();
+            final ArrayList<String> targetIdsToDelete = new ArrayList<>();
+
+            if (existingRule == null) {
+                if (model.getTargets() != null) {
+                    for (software.amazon.events.rule.Target target : model.getTargets()) {
+                        targetIdsToPut.add(target.getId());
+                    }
+                }
+            } else {
+                BaseHandlerStd.diffTargets(Translator.translateToListTargetsByRuleRequest(model), proxyClient, model, targetIdsToPut, targetIdsToDelete, logger, RECONCILER_ID);
+            }
+
+            // STEP 3 [delete extra targets]
+            if (!targetIdsToDelete.isEmpty()) {
+                RemoveTargetsResponse awsResponse = BaseHandlerStd.removeTargets(Translator.translateToRemoveTargetsRequest(model, targetIdsToDelete), proxyClient, logger, RECONCILER_ID, targetIdsToDelete);
+
+                ProgressEvent<ResourceModel, CallbackContext> retried = runToCompletion(() -> BaseHandlerStd.retryFailedRemoveTargets(progress, awsResponse, proxyClient, failedEntryRetryPolicy, logger, RECONCILER_ID));
+                if (retried.isFailed()) {
+                    return Result.failed(model, retried.getErrorCode(), retried.getMessage());
+                }
+            }
+
+            // STEP 4 [put added or changed targets]
+            if (!targetIdsToPut.isEmpty()) {
+                PutTargetsResponse awsResponse = BaseHandlerStd.putTargets(Translator.translateToPutTargetsRequest(model, targetIdsToPut), proxyClient, logger, RECONCILER_ID);
+
+                ProgressEvent<ResourceModel, CallbackContext> retried = runToCompletion(() -> BaseHandlerStd.retryFailedPutTargets(progress, awsResponse, proxyClient, failedEntryRetryPolicy, logger, RECONCILER_ID));
+                if (retried.isFailed()) {
+                    return Result.failed(model, retried.getErrorCode(), retried.getMessage());
+                }
+            }
+
+            // STEP 5 [await propagation of both target changes at once]
+            if (!targetIdsToPut.isEmpty() || !targetIdsToDelete.isEmpty()) {
+                ProgressEvent<ResourceModel, CallbackContext> propagated = runToCompletion(() -> BaseHandlerStd.awaitPropagation(progress, stabilizationScheduler, 2,
+                        () -> BaseHandlerStd.stabilizeTargetsPropagation(proxyClient, model, targetIdsToPut, targetIdsToDelete, logger, RECONCILER_ID), logger, RECONCILER_ID));
+                if (propagated.isFailed()) {
+                    return Result.failed(model, propagated.getErrorCode(), propagated.getMessage());
+                }
+            }
+
+            if (existingRule == null) {
+                return Result.of(model, Outcome.CREATED);
+            }
+            return Result.of(model, ruleChanged || !targetIdsToPut.isEmpty() || !targetIdsToDelete.isEmpty() ? Outcome.UPDATED : Outcome.UNCHANGED);
+        } catch (RuntimeException e) {
+            logger.warn("StackId: %s: %s [%s] failed to reconcile: %s", RECONCILER_ID, ResourceModel.TYPE_NAME, model.getName(), e);
+            return Result.failed(model, ErrorClassifier.classify(e).getErrorCode(), e.getMessage());
+        }
+    }
+
+    /**
+     * Calls a step until it no longer asks to be called back, sleeping for each callback delay it returns.
+     * @param step A helper that returns an in-progress ProgressEvent with a callback delay while it is not done
+     * @return The last ProgressEvent of the step
+     */
+    private static ProgressEvent<ResourceModel, CallbackContext> runToCompletion(final Supplier<ProgressEvent<ResourceModel, CallbackContext>> step) {
+        ProgressEvent<ResourceModel, CallbackContext> event = step.get();
+
+        while (event.isInProgress() && event.getCallbackDelaySeconds() > 0) {
+            try {
+                TimeUnit.SECONDS.sleep(event.getCallbackDelaySeconds());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CancellationException("Interrupted while waiting to reconcile");
+            }
+            event = step.get();
+        }
+
+        return event;
+    }
+
+    /**
+     * The outcome of reconciling one rule.
+     */
+    public static final class Result {
+        private final ResourceModel model;
+        private final Outcome outcome;
+        private final HandlerErrorCode errorCode;
+        private final String message;
+
+        private Result(final ResourceModel model, final Outcome outcome, final HandlerErrorCode errorCode, final String message) {
+            this.model = model;
+            this.outcome = outcome;
+            this.errorCode = errorCode;
+            this.message = message;
+        }
+
+        static Result of(final ResourceModel model, final Outcome outcome) {
+            return new Result(model, outcome, null, null);
+        }
+
+        static Result failed(final ResourceModel model, final HandlerErrorCode errorCode, final String message) {
+            return new Result(model, Outcome.FAILED, errorCode, message);
+        }
+
+        public ResourceModel getModel() {
+            return model;
+        }
+
+        public Outcome getOutcome() {
+            return outcome;
+        }
+
+        /**
+         * @return The error code if the rule failed, and null otherwise
+         */
+        public HandlerErrorCode getErrorCode() {
+            return errorCode;
+        }
+
+        /**
+         * @return Why the rule failed, and null otherwise
+         */
+        public String getMessage() {
+            return message;
+        }
+
+        @Override
+        public String toString() {
+            return outcome == Outcome.FAILED ?
+                    String.format("%s: %s (%s: %s)", model.getName(), outcome, errorCode, message) :
+                    String.format("%s: %s", model.getName(), outcome);
+        }
+    }
+
+    public static final class Builder {
+        private CloudWatchEventsClient client;
+        private Logger logger = message -> { };
+        private int maxConcurrentRules = DEFAULT_MAX_CONCURRENT_RULES;
+        private StabilizationScheduler stabilizationScheduler = new ExponentialBackoffScheduler();
+        private FailedEntryRetryPolicy failedEntryRetryPolicy = new FailedEntryRetryPolicy();
+
+        private Builder() {
+        }
+
+        /**
+         * @param client The client used for every call, with the credentials and region of the rules
+         * @return This Builder
+         */
+        public Builder client(final CloudWatchEventsClient client) {
+            this.client = client;
+            return this;
+        }
+
+        /**
+         * @param logger Receives the log lines, which are dropped by default
+         * @return This Builder
+         */
+        public Builder logger(final Logger logger) {
+            this.logger = logger;
+            return this;
+        }
+
+        /**
+         * @param maxConcurrentRules How many rules are reconciled at a time
+         * @return This Builder
+         */
+        public Builder maxConcurrentRules(final int maxConcurrentRules) {
+            this.maxConcurrentRules = maxConcurrentRules;
+            return this;
+        }
+
+        Builder stabilizationScheduler(final StabilizationScheduler stabilizationScheduler) {
+            this.stabilizationScheduler = stabilizationScheduler;
+            return this;
+        }
+
+        Builder failedEntryRetryPolicy(final FailedEntryRetryPolicy failedEntryRetryPolicy) {
+            this.failedEntryRetryPolicy = failedEntryRetryPolicy;
+            return this;
+        }
+
+        public RuleReconciler build() {
+            requireNonNull(client, "client");
+            requireNonNull(logger, "logger");
+            if (maxConcurrentRules < 1) {
+                throw new IllegalArgumentException(String.format("Invalid concurrency: %s rules at a time", maxConcurrentRules));
+            }
+
+            return new RuleReconciler(this);
+        }
+    }
+
+    // Calls the client as it is configured, since outside of a handler there are no request credentials to inject
+    private static final class DirectProxyClient implements ProxyClient<CloudWatchEventsClient> {
+        private final CloudWatchEventsClient client;
+
+        private DirectProxyClient(final CloudWatchEventsClient client) {
+            this.client = client;
+        }
+
+        @Override
+        public <RequestT extends AwsRequest, ResponseT extends AwsResponse> ResponseT
+        injectCredentialsAndInvokeV2(RequestT request, Function<RequestT, ResponseT> requestFunction) {
+            return requestFunction.apply(request);
+        }
+
+        @Override
+        public <RequestT extends AwsRequest, ResponseT extends AwsResponse> CompletableFuture<ResponseT>
+        injectCredentialsAndInvokeV2Async(RequestT request, Function<RequestT, CompletableFuture<ResponseT>> requestFunction) {
+            return requestFunction.apply(request);
+        }
+
+        @Override
+        public <RequestT extends AwsRequest, ResponseT extends AwsResponse, IterableT extends SdkIterable<ResponseT>> IterableT
+        injectCredentialsAndInvokeIterableV2(RequestT request, Function<RequestT, IterableT> requestFunction) {
+            return requestFunction.apply(request);
+        }
+
+        @Override
+        public <RequestT extends AwsRequest, ResponseT extends AwsResponse> ResponseInputStream<ResponseT>
+        injectCredentialsAndInvokeV2InputStream(RequestT request, Function<RequestT, ResponseInputStream<ResponseT>> requestFunction) {
+            return requestFunction.apply(request);
+        }
+
+        @Override
+        public <RequestT extends AwsRequest, ResponseT extends AwsResponse> ResponseBytes<ResponseT>
+        injectCredentialsAndInvokeV2Bytes(RequestT request, Function<RequestT, ResponseBytes<ResponseT>> requestFunction) {
+            return requestFunction.apply(request);
+        }
+
+        @Override
+        public CloudWatchEventsClient client() {
+            return client;
+        }
+    }
+}
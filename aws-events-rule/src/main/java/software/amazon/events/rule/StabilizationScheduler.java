@@ -0,0 +1,15 @@
+package software.amazon.events.rule;
+
+/**
+ * Decides how long a handler waits before it checks again whether a change has propagated.
+ */
+interface StabilizationScheduler {
+
+    /**
+     * Returns the delay before the next propagation check.
+     * @param attempt The number of checks that have already failed while waiting for this change, starting at 0
+     * @param secondsWaited The total delay that has already been spent waiting for this change
+     * @return The callback delay in seconds, or 0 if the handler should stop waiting and move on
+     */
+    int nextDelaySeconds(int attempt, int secondsWaited);
+}
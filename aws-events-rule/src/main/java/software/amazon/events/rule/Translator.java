@@ -1,9 +1,8 @@
 package software.amazon.events.rule;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.core.type.TypeReference;
 import software.amazon.awssdk.services.cloudwatchevents.model.AwsVpcConfiguration;
 import software.amazon.awssdk.services.cloudwatchevents.model.BatchParameters;
 import software.amazon.awssdk.services.cloudwatchevents.model.BatchRetryStrategy;
@@ -29,9 +28,13 @@ import software.amazon.awssdk.services.cloudwatchevents.model.DescribeRuleReques
 import software.amazon.awssdk.services.cloudwatchevents.model.ListTargetsByRuleResponse;
 import software.amazon.awssdk.services.cloudwatchevents.model.DeleteRuleRequest;
 import software.amazon.awssdk.services.cloudwatchevents.model.RemoveTargetsRequest;
+import software.amazon.awssdk.services.cloudwatchevents.model.ListEventBusesRequest;
+import software.amazon.awssdk.services.cloudwatchevents.model.ListEventBusesResponse;
+import software.amazon.awssdk.services.cloudwatchevents.model.EventBus;
 import software.amazon.awssdk.services.cloudwatchevents.model.ListRulesRequest;
 import software.amazon.awssdk.services.cloudwatchevents.model.ListTargetsByRuleRequest;
 import software.amazon.awssdk.services.cloudwatchevents.model.ListRulesResponse;
+import software.amazon.awssdk.services.cloudwatchevents.model.Rule;
 import software.amazon.awssdk.services.cloudwatchevents.model.CapacityProviderStrategyItem;
 import software.amazon.awssdk.services.cloudwatchevents.model.PlacementConstraint;
 import software.amazon.awssdk.services.cloudwatchevents.model.Tag;
@@ -44,7 +47,17 @@ import java.util.stream.Stream;
 
 public class Translator {
 
-  private static final ObjectMapper MAPPER = new ObjectMapper();
+  // PutTargets accepts at most 10 targets per call
+  static final int MAX_TARGETS_PER_PUT_TARGETS_REQUEST = 10;
+
+  // RemoveTargets accepts at most 100 target ids per call
+  static final int MAX_TARGET_IDS_PER_REMOVE_TARGETS_REQUEST = 100;
+
+  // ListTargetsByRule returns at most 100 targets per page
+  static final int MAX_TARGETS_PER_LIST_TARGETS_BY_RULE_PAGE = 100;
+
+  // The read-only Arn does not make a rule drift, and Targets are fingerprinted one by one
+  private static final Set<String> MODEL_FINGERPRINT_EXCLUDED_PROPERTIES = Collections.unmodifiableSet(new HashSet<>(Arrays.asList("Arn", "Targets")));
 
   // CREATE/UPDATE
 
@@ -58,14 +71,10 @@ public class Translator {
     // e.g. https://github.com/aws-cloudformation/aws-cloudformation-resource-providers-logs/blob/2077c92299aeb9a68ae8f4418b5e932b12a8b186/aws-logs-loggroup/src/main/java/com/aws/logs/loggroup/Translator.java#L39-L43
     String eventPattern = null;
     PutRuleRequest.Builder putRuleRequestBuilder = PutRuleRequest.builder();
-    CompositeId compositeId = new CompositeId(model);
+    CompositeId compositeId = CompositeId.of(model);
 
     if (model.getEventPattern() != null) {
-      try {
-        eventPattern = MAPPER.writeValueAsString(model.getEventPattern());
-      } catch (final JsonProcessingException e) {
-        throw new TerminalException(e);
-      }
+      eventPattern = translateToEventPatternString(model.getEventPattern());
     }
 
     return putRuleRequestBuilder
@@ -79,52 +88,161 @@ public class Translator {
             .build();
   }
 
+  /**
+   * Generates the canonical JSON string of an event pattern: keys are sorted and arrays keep their order.
+   * @param eventPattern The event pattern of a ResourceModel
+   * @return The canonical JSON string, as sent to PutRule
+   */
+  static String translateToEventPatternString(final Map<String, Object> eventPattern) {
+    try {
+      return EventPatterns.serialize(eventPattern);
+    } catch (final JsonProcessingException e) {
+      throw new TerminalException(e);
+    }
+  }
+
   /**
    * Generates a PutTargetsRequest based on a ResourceModel.
    * @param model A ResourceModel containing data to make a PutTargetsRequest
    * @return A PutTargetsRequest
    */
   static PutTargetsRequest translateToPutTargetsRequest(final ResourceModel model) {
-    PutTargetsRequest putTargetsRequest = null;
+    return model.getTargets() == null ? null : buildPutTargetsRequest(model, model.getTargets());
+  }
 
-    if (model.getTargets() != null) {
-      CompositeId compositeId = new CompositeId(model);
+  /**
+   * Generates a PutTargetsRequest containing only the Targets of a ResourceModel with the given ids.
+   * @param model A ResourceModel containing data to make a PutTargetsRequest
+   * @param targetIds The ids of the Targets to include
+   * @return A PutTargetsRequest
+   */
+  static PutTargetsRequest translateToPutTargetsRequest(final ResourceModel model, final Collection<String> targetIds) {
+    Set<String> targetIdSet = new HashSet<>(targetIds);
+
+    return buildPutTargetsRequest(model, model.getTargets().stream()
+            .filter(target -> targetIdSet.contains(target.getId()))
+            .collect(Collectors.toList()));
+  }
+
+  private static PutTargetsRequest buildPutTargetsRequest(final ResourceModel model, final Collection<software.amazon.events.rule.Target> modelTargets) {
+    CompositeId compositeId = CompositeId.of(model);
+
+    ArrayList<Target> targets = new ArrayList<>();
+
+    for (software.amazon.events.rule.Target target : modelTargets) {
+      Target.Builder targetBuilder = Target.builder();
+
+      addBatchParameters(targetBuilder, target.getBatchParameters());
+      addDeadLetterConfig(targetBuilder, target.getDeadLetterConfig());
+      addEcsParameters(targetBuilder, target.getEcsParameters());
+      addHttpParameters(targetBuilder, target.getHttpParameters());
+      addInputTransformer(targetBuilder, target.getInputTransformer());
+      addKinesisParameters(targetBuilder, target.getKinesisParameters());
+      addRedshiftDataParameters(targetBuilder, target.getRedshiftDataParameters());
+      addRetryPolicy(targetBuilder, target.getRetryPolicy());
+      addRunCommandParameters(targetBuilder, target.getRunCommandParameters());
+      addSqsParameters(targetBuilder, target.getSqsParameters());
+      addSageMakerPipelineParameters(targetBuilder, target.getSageMakerPipelineParameters());
+
+      targets.add(targetBuilder
+              .arn(target.getArn())
+              .id(target.getId())
+              .input(target.getInput())
+              .inputPath(target.getInputPath())
+              .roleArn(target.getRoleArn())
+              .build()
+      );
+    }
 
-      ArrayList<Target> targets = new ArrayList<>();
+    return PutTargetsRequest.builder()
+            .eventBusName(compositeId.eventBusName)
+            .rule(compositeId.ruleName)
+            .targets(targets)
+            .build();
+  }
 
-      for (software.amazon.events.rule.Target target : model.getTargets()) {
-        Target.Builder targetBuilder = Target.builder();
+  /**
+   * Generates a fingerprint of a Target. Targets that only differ in the order of their unordered properties, or in
+   * null versus empty values, have the same fingerprint.
+   * @param target A Target
+   * @return The fingerprint of the Target
+   */
+  static String translateToFingerprint(final software.amazon.events.rule.Target target) {
+    return Fingerprints.of(target);
+  }
 
-        addBatchParameters(targetBuilder, target.getBatchParameters());
-        addDeadLetterConfig(targetBuilder, target.getDeadLetterConfig());
-        addEcsParameters(targetBuilder, target.getEcsParameters());
-        addHttpParameters(targetBuilder, target.getHttpParameters());
-        addInputTransformer(targetBuilder, target.getInputTransformer());
-        addKinesisParameters(targetBuilder, target.getKinesisParameters());
-        addRedshiftDataParameters(targetBuilder, target.getRedshiftDataParameters());
-        addRetryPolicy(targetBuilder, target.getRetryPolicy());
-        addRunCommandParameters(targetBuilder, target.getRunCommandParameters());
-        addSqsParameters(targetBuilder, target.getSqsParameters());
-        addSageMakerPipelineParameters(targetBuilder, target.getSageMakerPipelineParameters());
+  /**
+   * Generates a fingerprint of the whole set of Targets of a ResourceModel, independent of their order.
+   * @param model A ResourceModel
+   * @return The fingerprint of the Targets of model
+   */
+  static String translateToTargetsFingerprint(final ResourceModel model) {
+    return Fingerprints.of(model.getTargets());
+  }
 
-        targets.add(targetBuilder
-                .arn(target.getArn())
-                .id(target.getId())
-                .input(target.getInput())
-                .inputPath(target.getInputPath())
-                .roleArn(target.getRoleArn())
-                .build()
-        );
-      }
+  /**
+   * Generates the fingerprints of every rule property and Target of a ResourceModel, to tell whether a rule has drifted
+   * by comparing hashes. The model is converted to JSON once, and each Target is fingerprinted from its part of the
+   * tree, which gives the same fingerprint as translateToFingerprint.
+   * @param model A ResourceModel
+   * @return The ModelFingerprint of model
+   */
+  static ModelFingerprint translateToModelFingerprint(final ResourceModel model) {
+    JsonNode tree = Fingerprints.toTree(model);
+
+    Map<String, String> targetFingerprints = new TreeMap<>();
+    for (JsonNode target : tree.path("Targets")) {
+      targetFingerprints.put(target.path("Id").asText(), Fingerprints.ofTree(target));
+    }
+
+    return new ModelFingerprint(Fingerprints.ofProperties(tree, MODEL_FINGERPRINT_EXCLUDED_PROPERTIES), targetFingerprints);
+  }
+
+  /**
+   * Generates a fingerprint of the rule properties that PutRule sets. Properties that are not set in the desired model
+   * are left out, since the service fills in its own defaults for them.
+   * @param model A ResourceModel, e.g. one read back from DescribeRule
+   * @param desiredModel The ResourceModel that was sent to PutRule
+   * @return The fingerprint of the rule properties of model
+   */
+  static String translateToRuleFingerprint(final ResourceModel model, final ResourceModel desiredModel) {
+    Map<String, Object> rule = new HashMap<>();
 
-      putTargetsRequest = PutTargetsRequest.builder()
-              .eventBusName(compositeId.eventBusName)
-              .rule(compositeId.ruleName)
-              .targets(targets)
-              .build();
+    if (desiredModel.getDescription() != null) {
+      rule.put("Description", model.getDescription());
+    }
+    if (desiredModel.getEventPattern() != null) {
+      // The canonical string keeps the order of every array, e.g. of a numeric range, which the fingerprint must not sort
+      rule.put("EventPattern", model.getEventPattern() == null ? null : translateToEventPatternString(model.getEventPattern()));
+    }
+    if (desiredModel.getRoleArn() != null) {
+      rule.put("RoleArn", model.getRoleArn());
+    }
+    if (desiredModel.getScheduleExpression() != null) {
+      rule.put("ScheduleExpression", model.getScheduleExpression());
+    }
+    if (desiredModel.getState() != null) {
+      rule.put("State", model.getState());
     }
 
-    return putTargetsRequest;
+    return Fingerprints.of(rule);
+  }
+
+  /**
+   * Splits a PutTargetsRequest into requests that each stay within the PutTargets limit.
+   * @param putTargetsRequest A PutTargetsRequest with any number of targets
+   * @return A List of PutTargetsRequests for the same rule, in target order
+   */
+  static List<PutTargetsRequest> translateToPutTargetsRequests(final PutTargetsRequest putTargetsRequest) {
+    if (putTargetsRequest.targets().size() <= MAX_TARGETS_PER_PUT_TARGETS_REQUEST) {
+      return Collections.singletonList(putTargetsRequest);
+    }
+
+    return partition(putTargetsRequest.targets(), MAX_TARGETS_PER_PUT_TARGETS_REQUEST).stream()
+            .map(targets -> putTargetsRequest.toBuilder()
+                    .targets(targets)
+                    .build())
+            .collect(Collectors.toList());
   }
 
   // READ
@@ -135,7 +253,7 @@ public class Translator {
    * @return A DescribeRuleRequest
    */
   static DescribeRuleRequest translateToDescribeRuleRequest(final ResourceModel model) {
-    CompositeId compositeId = new CompositeId(model);
+    CompositeId compositeId = CompositeId.of(model);
 
     // e.g. https://github.com/aws-cloudformation/aws-cloudformation-resource-providers-logs/blob/2077c92299aeb9a68ae8f4418b5e932b12a8b186/aws-logs-loggroup/src/main/java/com/aws/logs/loggroup/Translator.java#L20-L24
     return DescribeRuleRequest.builder()
@@ -153,15 +271,11 @@ public class Translator {
    */
   static ResourceModel.ResourceModelBuilder translateFromDescribeRuleResponse(final DescribeRuleResponse awsResponse) {
     // e.g. https://github.com/aws-cloudformation/aws-cloudformation-resource-providers-logs/blob/2077c92299aeb9a68ae8f4418b5e932b12a8b186/aws-logs-loggroup/src/main/java/com/aws/logs/loggroup/Translator.java#L58-L73
-    TypeReference<HashMap<String, Object>> typeRef = new TypeReference<HashMap<String, Object>>() {};
-    HashMap<String, Object> eventPattern = null;
+    Map<String, Object> eventPattern = null;
 
     if (awsResponse.eventPattern() != null) {
       try {
-        eventPattern = MAPPER.readValue(
-                awsResponse.eventPattern(),
-                typeRef
-        );
+        eventPattern = EventPatterns.parse(awsResponse.eventPattern());
       } catch (JsonProcessingException e) {
         throw new RuntimeException(e);
       }
@@ -225,7 +339,7 @@ public class Translator {
    * @return A DeleteRuleRequest
    */
   static DeleteRuleRequest translateToDeleteRuleRequest(final ResourceModel model) {
-    CompositeId compositeId = new CompositeId(model);
+    CompositeId compositeId = CompositeId.of(model);
 
     // e.g. https://github.com/aws-cloudformation/aws-cloudformation-resource-providers-logs/blob/2077c92299aeb9a68ae8f4418b5e932b12a8b186/aws-logs-loggroup/src/main/java/com/aws/logs/loggroup/Translator.java#L33-L37
 
@@ -242,7 +356,7 @@ public class Translator {
    * @return A RemoveTargetsRequest
    */
   static RemoveTargetsRequest translateToRemoveTargetsRequest(final ResourceModel model, Collection<String> targetIds) {
-    CompositeId compositeId = new CompositeId(model);
+    CompositeId compositeId = CompositeId.of(model);
 
     // e.g. https://github.com/aws-cloudformation/aws-cloudformation-resource-providers-logs/blob/2077c92299aeb9a68ae8f4418b5e932b12a8b186/aws-logs-loggroup/src/main/java/com/aws/logs/loggroup/Translator.java#L33-L37
 
@@ -254,20 +368,20 @@ public class Translator {
   }
 
   /**
-   * Generates a RemoveTargetsRequest based on a ResourceModel and a ListTargetsByRuleResponse.
-   * @param model A ResourceModel with data on the Rule with targets that are to be removed
-   * @param listTargetsByRuleResponse A ListTargetsByRuleResponse containing the Targets to be removed
-   * @return A RemoveTargetsRequest
+   * Splits a RemoveTargetsRequest into requests that each stay within the RemoveTargets limit.
+   * @param removeTargetsRequest A RemoveTargetsRequest with any number of target ids
+   * @return A List of RemoveTargetsRequests for the same rule, in target id order
    */
-  static RemoveTargetsRequest translateToRemoveTargetsRequest(final ResourceModel model, ListTargetsByRuleResponse listTargetsByRuleResponse) {
-    // e.g. https://github.com/aws-cloudformation/aws-cloudformation-resource-providers-logs/blob/2077c92299aeb9a68ae8f4418b5e932b12a8b186/aws-logs-loggroup/src/main/java/com/aws/logs/loggroup/Translator.java#L33-L37
-
-    ArrayList<String> targetIds = new ArrayList<>();
-    for (Target target : listTargetsByRuleResponse.targets()) {
-      targetIds.add(target.id());
+  static List<RemoveTargetsRequest> translateToRemoveTargetsRequests(final RemoveTargetsRequest removeTargetsRequest) {
+    if (removeTargetsRequest.ids().size() <= MAX_TARGET_IDS_PER_REMOVE_TARGETS_REQUEST) {
+      return Collections.singletonList(removeTargetsRequest);
     }
 
-    return translateToRemoveTargetsRequest(model, targetIds);
+    return partition(removeTargetsRequest.ids(), MAX_TARGET_IDS_PER_REMOVE_TARGETS_REQUEST).stream()
+            .map(ids -> removeTargetsRequest.toBuilder()
+                    .ids(ids)
+                    .build())
+            .collect(Collectors.toList());
   }
 
   // LIST
@@ -278,29 +392,64 @@ public class Translator {
    * @return A ListRulesRequest
    */
   static ListRulesRequest translateToListRulesRequest(final String nextToken) {
+    return translateToListRulesRequest(null, nextToken);
+  }
+
+  /**
+   * Generates a ListRulesRequest for the Rules of one event bus.
+   * @param eventBusName The name of the event bus, or null for the default event bus
+   * @param nextToken The nextToken in case there are too many Rules to be sent in one SDK call
+   * @return A ListRulesRequest
+   */
+  static ListRulesRequest translateToListRulesRequest(final String eventBusName, final String nextToken) {
     // e.g. https://github.com/aws-cloudformation/aws-cloudformation-resource-providers-logs/blob/2077c92299aeb9a68ae8f4418b5e932b12a8b186/aws-logs-loggroup/src/main/java/com/aws/logs/loggroup/Translator.java#L26-L31
     return ListRulesRequest.builder()
+            .eventBusName(eventBusName)
             .nextToken(nextToken)
             .build();
   }
 
   /**
-   * Generates a ListTargetsByRuleRequest based on a ResourceModel.
+   * Generates a ListEventBusesRequest.
+   * @param nextToken The nextToken in case there are too many event buses to be sent in one SDK call
+   * @return A ListEventBusesRequest
+   */
+  static ListEventBusesRequest translateToListEventBusesRequest(final String nextToken) {
+    return ListEventBusesRequest.builder()
+            .nextToken(nextToken)
+            .build();
+  }
+
+  /**
+   * Generates a list of event bus names based on a ListEventBusesResponse.
+   * @param awsResponse A ListEventBusesResponse
+   * @return A List of event bus names
+   */
+  static List<String> translateFromListEventBusesResponse(final ListEventBusesResponse awsResponse) {
+    return streamOfOrEmpty(awsResponse.eventBuses())
+        .map(EventBus::name)
+        .collect(Collectors.toList());
+  }
+
+  /**
+   * Generates a ListTargetsByRuleRequest for the first page of targets based on a ResourceModel.
    * @param model A ResourceModel with data on the Rule whose targets are to be read.
    * @return A ListTargetsByRuleRequest
    */
   static ListTargetsByRuleRequest translateToListTargetsByRuleRequest(final ResourceModel model) {
-    CompositeId compositeId = new CompositeId(model);
+    CompositeId compositeId = CompositeId.of(model);
 
     // e.g. https://github.com/aws-cloudformation/aws-cloudformation-resource-providers-logs/blob/2077c92299aeb9a68ae8f4418b5e932b12a8b186/aws-logs-loggroup/src/main/java/com/aws/logs/loggroup/Translator.java#L20-L24
     return ListTargetsByRuleRequest.builder()
             .rule(compositeId.ruleName)
             .eventBusName(compositeId.eventBusName)
+            .limit(MAX_TARGETS_PER_LIST_TARGETS_BY_RULE_PAGE)
             .build();
   }
 
   /**
-   * Generates a list of ResourceModels each containing a RuleId based on a ListRulesResponse.
+   * Generates a list of ResourceModels each containing the primary identifier, Name, EventBusName and State of a Rule
+   * based on a ListRulesResponse.
    * @param awsResponse A ListRulesResponse
    * @return A List of ResourceModels
    */
@@ -309,11 +458,33 @@ public class Translator {
     return streamOfOrEmpty(awsResponse.rules())
         .map(resource -> ResourceModel.builder()
                 .arn(resource.arn())
-            // include only primary identifier
+                // ListRules already returns these, so callers do not need to read every Rule
+                .name(resource.name())
+                .eventBusName(resource.eventBusName())
+                .state(resource.stateAsString())
             .build())
         .collect(Collectors.toList());
   }
 
+  /**
+   * Generates a ResourceModel builder with the rule properties of a Rule returned by ListRules, which are the ones
+   * DescribeRule returns, so that a listed rule can be compared with translateToRuleFingerprint without reading it.
+   * @param rule A Rule from a ListRulesResponse
+   * @return A ResourceModel builder without targets
+   */
+  static ResourceModel.ResourceModelBuilder translateFromRule(final Rule rule) {
+    return translateFromDescribeRuleResponse(DescribeRuleResponse.builder()
+        .arn(rule.arn())
+        .description(rule.description())
+        .eventBusName(rule.eventBusName())
+        .eventPattern(rule.eventPattern())
+        .name(rule.name())
+        .roleArn(rule.roleArn())
+        .scheduleExpression(rule.scheduleExpression())
+        .state(rule.stateAsString())
+        .build());
+  }
+
   // STATIC HELPER FUNCTIONS
 
   private static void addSageMakerPipelineParameters(Target.Builder targetBuilder, software.amazon.events.rule.SageMakerPipelineParameters sageMakerPipelineParameters) {
@@ -787,6 +958,16 @@ public class Translator {
 
   // OTHER
 
+  private static <T> List<List<T>> partition(final List<T> list, final int size) {
+    List<List<T>> partitions = new ArrayList<>();
+
+    for (int i = 0; i < list.size(); i += size) {
+      partitions.add(list.subList(i, Math.min(i + size, list.size())));
+    }
+
+    return partitions;
+  }
+
   private static <T> Stream<T> streamOfOrEmpty(final Collection<T> collection) {
     return Optional.ofNullable(collection)
         .map(Collection::stream)
@@ -1,8 +1,7 @@
 package software.amazon.events.rule;
 
-import org.apache.commons.collections4.CollectionUtils;
 import software.amazon.awssdk.services.cloudwatchevents.CloudWatchEventsClient;
-import software.amazon.awssdk.services.cloudwatchevents.model.Target;
+import software.amazon.awssdk.services.cloudwatchevents.model.ListTargetsByRuleResponse;
 import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
 import software.amazon.cloudformation.proxy.Logger;
 import software.amazon.cloudformation.proxy.ProgressEvent;
@@ -10,23 +9,40 @@ import software.amazon.cloudformation.proxy.ProxyClient;
 import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
 
 import java.util.ArrayList;
+import java.util.Collections;
 
 public class UpdateHandler extends BaseHandlerStd {
 
+    public UpdateHandler() {
+        super();
+    }
+
+    UpdateHandler(StabilizationScheduler stabilizationScheduler) {
+        super(stabilizationScheduler);
+    }
+
+    UpdateHandler(StabilizationScheduler stabilizationScheduler, FailedEntryRetryPolicy failedEntryRetryPolicy) {
+        super(stabilizationScheduler, failedEntryRetryPolicy);
+    }
+
     protected ProgressEvent<ResourceModel, CallbackContext> handleRequest(
         final AmazonWebServicesClientProxy proxy,
         final ResourceHandlerRequest<ResourceModel> request,
         final CallbackContext callbackContext,
         final ProxyClient<CloudWatchEventsClient> proxyClient,
+        final HandlerMetrics metrics,
         final Logger logger) {
 
         this.logger = logger;
 
         return ProgressEvent.progress(request.getDesiredResourceState(), callbackContext)
 
+            // STEP 0 [validate the event pattern before any service call]
+            .then(progress -> validateEventPattern(progress, logger, request.getStackId()))
+
             // STEP 1 [check if resource already exists]
             .then(progress ->
-                proxy.initiate("AWS-Events-Rule::Update::PreUpdateCheck", proxyClient, progress.getResourceModel(), progress.getCallbackContext())
+                proxy.initiate("AWS-Events-Rule::Update::PreUpdateCheck", metrics.instrument("AWS-Events-Rule::Update::PreUpdateCheck", proxyClient), progress.getResourceModel(), progress.getCallbackContext())
                     .translateToServiceRequest(Translator::translateToDescribeRuleRequest)
                     .makeServiceCall((awsRequest, client) -> describeRule(awsRequest, client, logger, request.getStackId()))
                     .handleError(this::handleError)
@@ -38,69 +54,67 @@ public class UpdateHandler extends BaseHandlerStd {
 
             // STEP 2 [update the rule]
             .then(progress ->
-                proxy.initiate("AWS-Events-Rule::Update::Rule", proxyClient, progress.getResourceModel(), progress.getCallbackContext())
+                proxy.initiate("AWS-Events-Rule::Update::Rule", metrics.instrument("AWS-Events-Rule::Update::Rule", proxyClient), progress.getResourceModel(), progress.getCallbackContext())
                     .translateToServiceRequest(model -> Translator.translateToPutRuleRequest(model, request.getDesiredResourceTags()))
                     .makeServiceCall((awsRequest, client) -> putRule(awsRequest, client, logger, request.getStackId()))
-                    .stabilize((awsRequest, awsResponse, client, model, context) -> stabilizePutRule(client, model, logger, request.getStackId()))
+                    .stabilize((awsRequest, awsResponse, client, model, context) -> metrics.stabilize("AWS-Events-Rule::Update::Rule", () -> stabilizePutRule(client, model, logger, request.getStackId())))
                     .handleError(this::handleError)
                     .progress()
             )
 
             // STEP 3 [get list of existing targets]
             .then(progress ->
-                proxy.initiate("AWS-Events-Rule::Update::ListTargets", proxyClient, progress.getResourceModel(), progress.getCallbackContext())
+                proxy.initiate("AWS-Events-Rule::Update::ListTargets", metrics.instrument("AWS-Events-Rule::Update::ListTargets", proxyClient), progress.getResourceModel(), progress.getCallbackContext())
                     .translateToServiceRequest(Translator::translateToListTargetsByRuleRequest)
-                    .makeServiceCall((awsRequest, client) -> listTargets(awsRequest, client, logger, request.getStackId()))
-                    .handleError(this::handleError)
-                    .done(awsResponse -> {
-                        // Record the list of targets to be deleted.
-
-                        // Create lists of ids
-                        ArrayList<String> existingTargetIds = new ArrayList<>();
-                        ArrayList<String> modelTargetIds = new ArrayList<>();
-
-                        // Build the list of Targets ids that already exist
-                        if (awsResponse.hasTargets()) {
-                            for (Target target : awsResponse.targets()) {
-                                existingTargetIds.add(target.id());
-                            }
-                        }
-
-                        // Build the list of Targets ids that should exist after update
-                        if (progress.getResourceModel().getTargets() != null) {
-                            for (Target target : Translator.translateToPutTargetsRequest(progress.getResourceModel()).targets()) {
-                                modelTargetIds.add(target.id());
-                            }
-                        }
-
-                        // Subtract model target ids from existing target ids to get the list of Targets to delete
-                        callbackContext.setTargetIdsToDelete(new ArrayList<>());
-                        callbackContext.getTargetIdsToDelete().addAll(CollectionUtils.subtract(existingTargetIds, modelTargetIds));
+                    .makeServiceCall((awsRequest, client) -> {
+                        ArrayList<String> targetIdsToPut = new ArrayList<>();
+                        ArrayList<String> targetIdsToDelete = new ArrayList<>();
 
-                        return ProgressEvent.progress(request.getDesiredResourceState(), callbackContext);
+                        ListTargetsByRuleResponse awsResponse = diffTargets(awsRequest, client, progress.getResourceModel(), targetIdsToPut, targetIdsToDelete, logger, request.getStackId());
+
+                        callbackContext.setTargetIdsToDelete(targetIdsToDelete);
+                        callbackContext.setTargetIdsToPut(targetIdsToPut);
+
+                        return awsResponse;
                     })
+                    .handleError(this::handleError)
+                    .progress()
             )
 
             // STEP 4 [delete extra targets]
             .then(progress -> callbackContext.getTargetIdsToDelete() == null || callbackContext.getTargetIdsToDelete().size() == 0 ?
                         progress :
-                        proxy.initiate("AWS-Events-Rule::Update::DeleteTargets", proxyClient, progress.getResourceModel(), progress.getCallbackContext())
+                        proxy.initiate("AWS-Events-Rule::Update::DeleteTargets", metrics.instrument("AWS-Events-Rule::Update::DeleteTargets", proxyClient), progress.getResourceModel(), progress.getCallbackContext())
                     .translateToServiceRequest(model -> Translator.translateToRemoveTargetsRequest(model, callbackContext.getTargetIdsToDelete()))
                     .makeServiceCall((awsRequest, client) -> removeTargets(awsRequest, client, logger, request.getStackId(), callbackContext.getTargetIdsToDelete()))
-                    .stabilize((awsRequest, awsResponse, client, model, context) -> stabilizeRemoveTargets(awsResponse, client, model, callbackContext, logger, request.getStackId(), callbackContext.getTargetIdsToDelete()))
                     .handleError(this::handleError)
-                    .done(awsResponse -> delayedProgress(progress, 30, 1))
+                    .done(awsResponse -> {
+                        evictRequest(callbackContext, "AWS-Events-Rule::Update::DeleteTargets");
+
+                        return retryFailedRemoveTargets(progress, awsResponse, metrics.instrument("AWS-Events-Rule::Update::DeleteTargets", proxyClient), failedEntryRetryPolicy, logger, request.getStackId())
+                                .then(retried -> awaitPropagation(progress, stabilizationScheduler, 1,
+                                        () -> metrics.stabilize("AWS-Events-Rule::Update::DeleteTargets", () -> stabilizeTargetsPropagation(metrics.instrument("AWS-Events-Rule::Update::DeleteTargets", proxyClient), progress.getResourceModel(),
+                                                Collections.emptySet(), callbackContext.getTargetIdsToDelete(), logger, request.getStackId())),
+                                        logger, request.getStackId()));
+                    })
             )
 
             // STEP 5 [put targets]
-            .then(progress -> progress.getResourceModel().getTargets() == null || progress.getResourceModel().getTargets().size() == 0 ?
+            .then(progress -> callbackContext.getTargetIdsToPut() == null || callbackContext.getTargetIdsToPut().size() == 0 ?
                         progress :
-                        proxy.initiate("AWS-Events-Rule::Update::Targets", proxyClient, progress.getResourceModel(), progress.getCallbackContext())
-                    .translateToServiceRequest(Translator::translateToPutTargetsRequest)
+                        proxy.initiate("AWS-Events-Rule::Update::Targets", metrics.instrument("AWS-Events-Rule::Update::Targets", proxyClient), progress.getResourceModel(), progress.getCallbackContext())
+                    .translateToServiceRequest(model -> Translator.translateToPutTargetsRequest(model, callbackContext.getTargetIdsToPut()))
                     .makeServiceCall((awsRequest, client) -> putTargets(awsRequest, client, logger, request.getStackId()))
-                    .stabilize((awsRequest, awsResponse, client, model, context) -> stabilizePutTargets(awsResponse, client, model, context, logger, request.getStackId()))
                     .handleError(this::handleError)
-                    .done(awsResponse -> delayedProgress(progress, 30, 2))
+                    .done(awsResponse -> {
+                        evictRequest(callbackContext, "AWS-Events-Rule::Update::Targets");
+
+                        return retryFailedPutTargets(progress, awsResponse, metrics.instrument("AWS-Events-Rule::Update::Targets", proxyClient), failedEntryRetryPolicy, logger, request.getStackId())
+                                .then(retried -> awaitPropagation(progress, stabilizationScheduler, 2,
+                                        () -> metrics.stabilize("AWS-Events-Rule::Update::Targets", () -> stabilizeTargetsPropagation(metrics.instrument("AWS-Events-Rule::Update::Targets", proxyClient), progress.getResourceModel(),
+                                                callbackContext.getTargetIdsToPut(), Collections.emptySet(), logger, request.getStackId())),
+                                        logger, request.getStackId()));
+                    })
             )
 
             // STEP 6 [describe call/chain to return the resource model]
@@ -0,0 +1,279 @@
+package software.amazon.events.rule;
+
+import java.math.BigInteger;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Matches a single leaf value of an event against one content filter of an event pattern. Leaf values are Strings,
+ * Doubles, Booleans or ValueMatcher.NULL, as produced by EventPatternMatcher.
+ */
+interface ValueMatcher {
+
+    // Stands in for a JSON null, so that null can be used as a key
+    Object NULL = new Object() {
+        @Override
+        public String toString() {
+            return "null";
+        }
+    };
+
+    boolean matches(Object value);
+
+    /**
+     * Normalizes a literal of an event pattern or a leaf value of an event, so that equal values have equal keys.
+     * @param value A String, Number, Boolean or null
+     * @return The normalized value
+     */
+    static Object normalize(final Object value) {
+        if (value == null) {
+            return NULL;
+        }
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue();
+        }
+        return value;
+    }
+
+    /**
+     * Compiles a content filter, e.g. {"prefix": "aws."}, into a ValueMatcher.
+     * @param filter A content filter that EventPatternValidator has accepted
+     * @return The ValueMatcher
+     */
+    static ValueMatcher compile(final Map<?, ?> filter) {
+        Map.Entry<?, ?> entry = filter.entrySet().iterator().next();
+        Object value = entry.getValue();
+
+        switch (String.valueOf(entry.getKey())) {
+            case "prefix":
+                return value instanceof String ? prefix((String) value, false) : prefix(equalsIgnoreCaseValue(value), true);
+            case "suffix":
+                return value instanceof String ? suffix((String) value, false) : suffix(equalsIgnoreCaseValue(value), true);
+            case "equals-ignore-case":
+                return equalsIgnoreCase((String) value);
+            case "wildcard":
+                return wildcard((String) value);
+            case "anything-but":
+                return anythingBut(value);
+            case "numeric":
+                return numeric((List<?>) value);
+            case "exists":
+                // Presence is handled by EventPatternMatcher; every present value satisfies "exists": true
+                return candidate -> (Boolean) value;
+            case "cidr":
+                return cidr((String) value);
+            default:
+                throw new IllegalArgumentException("Unsupported content filter: " + entry.getKey());
+        }
+    }
+
+    static ValueMatcher prefix(final String prefix, final boolean ignoreCase) {
+        return candidate -> candidate instanceof String && ((String) candidate).regionMatches(ignoreCase, 0, prefix, 0, prefix.length());
+    }
+
+    static ValueMatcher suffix(final String suffix, final boolean ignoreCase) {
+        return candidate -> {
+            if (!(candidate instanceof String)) {
+                return false;
+            }
+            String string = (String) candidate;
+            return string.regionMatches(ignoreCase, string.length() - suffix.length(), suffix, 0, suffix.length());
+        };
+    }
+
+    static ValueMatcher equalsIgnoreCase(final String expected) {
+        return candidate -> candidate instanceof String && ((String) candidate).equalsIgnoreCase(expected);
+    }
+
+    static ValueMatcher wildcard(final String pattern) {
+        // Resolve escapes once: every position is either a literal character or a wildcard
+        StringBuilder literals = new StringBuilder();
+        StringBuilder stars = new StringBuilder();
+        for (int i = 0; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            if (c == '\\' && i + 1 < pattern.length()) {
+                literals.append(pattern.charAt(++i));
+                stars.append('0');
+            } else {
+                literals.append(c);
+                stars.append(c == '*' ? '1' : '0');
+            }
+        }
+
+        final char[] chars = literals.toString().toCharArray();
+        final boolean[] isStar = new boolean[chars.length];
+        for (int i = 0; i < chars.length; i++) {
+            isStar[i] = stars.charAt(i) == '1';
+        }
+
+        return candidate -> candidate instanceof String && matchesWildcard((String) candidate, chars, isStar);
+    }
+
+    static boolean matchesWildcard(final String value, final char[] chars, final boolean[] isStar) {
+        int v = 0;
+        int p = 0;
+        int starP = -1;
+        int starV = 0;
+
+        while (v < value.length()) {
+            if (p < chars.length && !isStar[p] && chars[p] == value.charAt(v)) {
+                v++;
+                p++;
+            } else if (p < chars.length && isStar[p]) {
+                starP = p++;
+                starV = v;
+            } else if (starP >= 0) {
+                p = starP + 1;
+                v = ++starV;
+            } else {
+                return false;
+            }
+        }
+
+        while (p < chars.length && isStar[p]) {
+            p++;
+        }
+        return p == chars.length;
+    }
+
+    static ValueMatcher anythingBut(final Object value) {
+        if (value instanceof Map) {
+            Map.Entry<?, ?> entry = ((Map<?, ?>) value).entrySet().iterator().next();
+            List<?> operands = entry.getValue() instanceof List ? (List<?>) entry.getValue() : Collections.singletonList(entry.getValue());
+
+            ValueMatcher matcher = candidate -> false;
+            for (Object operand : operands) {
+                ValueMatcher operandMatcher = compile(Collections.singletonMap(entry.getKey(), operand));
+                ValueMatcher previous = matcher;
+                matcher = candidate -> previous.matches(candidate) || operandMatcher.matches(candidate);
+            }
+
+            ValueMatcher excluded = matcher;
+            return candidate -> candidate instanceof String && !excluded.matches(candidate);
+        }
+
+        Set<Object> excluded = new HashSet<>();
+        if (value instanceof List) {
+            for (Object element : (List<?>) value) {
+                excluded.add(normalize(element));
+            }
+        } else {
+            excluded.add(normalize(value));
+        }
+        return candidate -> candidate != NULL && !excluded.contains(candidate);
+    }
+
+    static ValueMatcher numeric(final List<?> range) {
+        double lower = Double.NEGATIVE_INFINITY;
+        double upper = Double.POSITIVE_INFINITY;
+        boolean lowerInclusive = false;
+        boolean upperInclusive = false;
+
+        for (int i = 0; i < range.size(); i += 2) {
+            String operator = (String) range.get(i);
+            double operand = ((Number) range.get(i + 1)).doubleValue();
+
+            switch (operator) {
+                case "=":
+                    lower = upper = operand;
+                    lowerInclusive = upperInclusive = true;
+                    break;
+                case ">":
+                case ">=":
+                    lower = operand;
+                    lowerInclusive = operator.equals(">=");
+                    break;
+                default:
+                    upper = operand;
+                    upperInclusive = operator.equals("<=");
+            }
+        }
+
+        final double min = lower;
+        final double max = upper;
+        final boolean minInclusive = lowerInclusive;
+        final boolean maxInclusive = upperInclusive;
+
+        return candidate -> {
+            if (!(candidate instanceof Double)) {
+                return false;
+            }
+            double number = (Double) candidate;
+            return (minInclusive ? number >= min : number > min) && (maxInclusive ? number <= max : number < max);
+        };
+    }
+
+    static ValueMatcher cidr(final String block) {
+        int slash = block.indexOf('/');
+        byte[] network = parseIpAddress(slash >= 0 ? block.substring(0, slash) : block);
+        if (network == null) {
+            throw new IllegalArgumentException("Invalid CIDR block: " + block);
+        }
+
+        final int prefixLength = slash >= 0 ? Integer.parseInt(block.substring(slash + 1)) : network.length * 8;
+        final BigInteger mask = BigInteger.ONE.shiftLeft(network.length * 8).subtract(BigInteger.ONE)
+                .shiftRight(prefixLength).not();
+        final BigInteger maskedNetwork = new BigInteger(1, network).and(mask);
+        final int addressLength = network.length;
+
+        return candidate -> {
+            if (!(candidate instanceof String)) {
+                return false;
+            }
+            byte[] address = parseIpAddress((String) candidate);
+            return address != null && address.length == addressLength && new BigInteger(1, address).and(mask).equals(maskedNetwork);
+        };
+    }
+
+    /**
+     * Parses an IPv4 or IPv6 literal without any name lookup.
+     * @param address The address
+     * @return The address bytes, or null if the string is not an IP address literal
+     */
+    static byte[] parseIpAddress(final String address) {
+        if (address.isEmpty()) {
+            return null;
+        }
+
+        if (address.indexOf(':') < 0) {
+            String[] octets = address.split("\\.", -1);
+            if (octets.length != 4) {
+                return null;
+            }
+            byte[] bytes = new byte[4];
+            for (int i = 0; i < 4; i++) {
+                if (octets[i].isEmpty() || octets[i].length() > 3 || !octets[i].chars().allMatch(Character::isDigit)) {
+                    return null;
+                }
+                int octet = Integer.parseInt(octets[i]);
+                if (octet > 255) {
+                    return null;
+                }
+                bytes[i] = (byte) octet;
+            }
+            return bytes;
+        }
+
+        // Only hex digits, colons and dots, so InetAddress treats it as a literal and never resolves a name
+        for (char c : address.toCharArray()) {
+            if (Character.digit(c, 16) < 0 && c != ':' && c != '.') {
+                return null;
+            }
+        }
+        try {
+            return InetAddress.getByName(address.toLowerCase(Locale.ROOT)).getAddress();
+        } catch (UnknownHostException e) {
+            return null;
+        }
+    }
+
+    static String equalsIgnoreCaseValue(final Object value) {
+        return (String) ((Map<?, ?>) value).get("equals-ignore-case");
+    }
+}
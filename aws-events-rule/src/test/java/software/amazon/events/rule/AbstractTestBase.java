@@ -35,7 +35,7 @@ public class AbstractTestBase {
       public <RequestT extends AwsRequest, ResponseT extends AwsResponse>
       CompletableFuture<ResponseT>
       injectCredentialsAndInvokeV2Async(RequestT request, Function<RequestT, CompletableFuture<ResponseT>> requestFunction) {
-        throw new UnsupportedOperationException();
+        return proxy.injectCredentialsAndInvokeV2Async(request, requestFunction);
       }
 
       @Override
@@ -0,0 +1,78 @@
+package software.amazon.events.rule;
+
+import software.amazon.cloudformation.exceptions.CfnInvalidRequestException;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class CompositeIdTest {
+
+    @Test
+    public void of_Name() {
+        final CompositeId compositeId = CompositeId.of(ResourceModel.builder()
+                .name("TestRule")
+                .eventBusName("TestEventBus")
+                .arn("arn:aws:events:us-west-2:123456789123:rule/OtherEventBus/OtherRule")
+                .build());
+
+        assertThat(compositeId.ruleName).isEqualTo("TestRule");
+        assertThat(compositeId.eventBusName).isEqualTo("TestEventBus");
+    }
+
+    @Test
+    public void of_DefaultEventBusArn() {
+        final CompositeId compositeId = CompositeId.of(ResourceModel.builder()
+                .arn("arn:aws:events:us-west-2:123456789123:rule/TestRule")
+                .build());
+
+        assertThat(compositeId.ruleName).isEqualTo("TestRule");
+        assertThat(compositeId.eventBusName).isNull();
+    }
+
+    @Test
+    public void of_CustomEventBusArn() {
+        final CompositeId compositeId = CompositeId.of(ResourceModel.builder()
+                .arn("arn:aws:events:us-west-2:123456789123:rule/TestEventBus/TestRule")
+                .build());
+
+        assertThat(compositeId.ruleName).isEqualTo("TestRule");
+        assertThat(compositeId.eventBusName).isEqualTo("TestEventBus");
+    }
+
+    @Test
+    public void of_PartnerEventBusArn() {
+        final CompositeId compositeId = CompositeId.of(ResourceModel.builder()
+                .arn("arn:aws:events:us-west-2:123456789123:rule/aws.partner/example.com/123/TestEventBus/TestRule")
+                .build());
+
+        assertThat(compositeId.ruleName).isEqualTo("TestRule");
+        assertThat(compositeId.eventBusName).isEqualTo("aws.partner/example.com/123/TestEventBus");
+    }
+
+    @Test
+    public void of_OtherPartitions() {
+        assertThat(CompositeId.fromArn("arn:aws-cn:events:cn-north-1:123456789123:rule/TestEventBus/TestRule"))
+                .isEqualTo(new CompositeId("TestRule", "TestEventBus"));
+        assertThat(CompositeId.fromArn("arn:aws-us-gov:events:us-gov-west-1:123456789123:rule/TestRule"))
+                .isEqualTo(new CompositeId("TestRule", null));
+    }
+
+    @Test
+    public void fromArn_ParsedOnce() {
+        final String arn = "arn:aws:events:us-west-2:123456789123:rule/TestEventBus/ParsedOnce";
+
+        assertThat(CompositeId.fromArn(arn)).isSameAs(CompositeId.fromArn(arn));
+        assertThat(CompositeId.fromArn(new String(arn.toCharArray()))).isSameAs(CompositeId.fromArn(arn));
+    }
+
+    @Test
+    public void fromArn_InvalidArn() {
+        assertThatThrownBy(() -> CompositeId.fromArn(null)).isInstanceOf(CfnInvalidRequestException.class);
+        assertThatThrownBy(() -> CompositeId.fromArn("TestRule")).isInstanceOf(CfnInvalidRequestException.class);
+        assertThatThrownBy(() -> CompositeId.fromArn("arn:aws:events:us-west-2:123456789123")).isInstanceOf(CfnInvalidRequestException.class);
+        assertThatThrownBy(() -> CompositeId.fromArn("arn:aws:events:us-west-2:123456789123:event-bus/TestEventBus")).isInstanceOf(CfnInvalidRequestException.class);
+        assertThatThrownBy(() -> CompositeId.fromArn("arn:aws:events:us-west-2:123456789123:rule/")).isInstanceOf(CfnInvalidRequestException.class);
+        assertThatThrownBy(() -> CompositeId.fromArn("arn:aws:events:us-west-2:123456789123:rule//TestRule")).isInstanceOf(CfnInvalidRequestException.class);
+    }
+}
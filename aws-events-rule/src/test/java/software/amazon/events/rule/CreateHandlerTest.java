@@ -2,12 +2,15 @@ package software.amazon.events.rule;
 
 import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.stream.Collectors;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
@@ -34,6 +37,7 @@ import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
@@ -117,6 +121,7 @@ public class CreateHandlerTest extends AbstractTestBase {
         putRule
         describeRule
         putTargets
+        listTargetsByRule
          */
 
         Collection<Target> responseTargets = new ArrayList<>();
@@ -143,7 +148,6 @@ public class CreateHandlerTest extends AbstractTestBase {
                 .build();
 
         when(proxyClient.client().describeRule(any(DescribeRuleRequest.class)))
-                .thenThrow(ResourceNotFoundException.class)
                 .thenThrow(ResourceNotFoundException.class)
                 .thenReturn(describeRuleResponse);
 
@@ -153,6 +157,11 @@ public class CreateHandlerTest extends AbstractTestBase {
         when(proxyClient.client().putTargets(any(PutTargetsRequest.class)))
                 .thenReturn(putTargetsResponse);
 
+        when(proxyClient.client().listTargetsByRule(any(ListTargetsByRuleRequest.class)))
+                .thenReturn(ListTargetsByRuleResponse.builder()
+                        .targets(responseTargets)
+                        .build());
+
         // RUN
 
         final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
@@ -163,10 +172,6 @@ public class CreateHandlerTest extends AbstractTestBase {
         CallbackContext context = new CallbackContext();
         ProgressEvent<ResourceModel, CallbackContext> response;
 
-        response = handler.handleRequest(proxy, request, context, proxyClient, logger);
-        assertThat(response.getStatus()).isEqualTo(OperationStatus.IN_PROGRESS);
-        response = handler.handleRequest(proxy, request, context, proxyClient, logger);
-        assertThat(response.getStatus()).isEqualTo(OperationStatus.IN_PROGRESS);
         response = handler.handleRequest(proxy, request, context, proxyClient, logger);
 
         // ASSERT
@@ -178,6 +183,10 @@ public class CreateHandlerTest extends AbstractTestBase {
         assertThat(response.getResourceModels()).isNull();
         assertThat(response.getMessage()).isNull();
         assertThat(response.getErrorCode()).isNull();
+
+        // One read before PutRule tells that the rule does not exist, the one after it that it has propagated
+        verify(proxyClient.client(), times(2)).describeRule(any(DescribeRuleRequest.class));
+        assertThat(context.getRuleExists()).isFalse();
     }
 
     @Test
@@ -208,6 +217,7 @@ public class CreateHandlerTest extends AbstractTestBase {
         putRule
         describeRule
         putTargets
+        listTargetsByRule
          */
 
         Collection<Target> responseTargets = new ArrayList<>();
@@ -234,7 +244,6 @@ public class CreateHandlerTest extends AbstractTestBase {
                 .build();
 
         when(proxyClient.client().describeRule(any(DescribeRuleRequest.class)))
-                .thenThrow(ResourceNotFoundException.class)
                 .thenThrow(ResourceNotFoundException.class)
                 .thenReturn(describeRuleResponse);
 
@@ -244,6 +253,11 @@ public class CreateHandlerTest extends AbstractTestBase {
         when(proxyClient.client().putTargets(any(PutTargetsRequest.class)))
                 .thenReturn(putTargetsResponse);
 
+        when(proxyClient.client().listTargetsByRule(any(ListTargetsByRuleRequest.class)))
+                .thenReturn(ListTargetsByRuleResponse.builder()
+                        .targets(responseTargets)
+                        .build());
+
         // RUN
 
         final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
@@ -254,6 +268,182 @@ public class CreateHandlerTest extends AbstractTestBase {
         CallbackContext context = new CallbackContext();
         ProgressEvent<ResourceModel, CallbackContext> response;
 
+        response = handler.handleRequest(proxy, request, context, proxyClient, logger);
+
+        // ASSERT
+
+        assertThat(response).isNotNull();
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(response.getCallbackDelaySeconds()).isEqualTo(0);
+        assertThat(response.getResourceModel()).isEqualTo(request.getDesiredResourceState());
+        assertThat(response.getResourceModels()).isNull();
+        assertThat(response.getMessage()).isNull();
+        assertThat(response.getErrorCode()).isNull();
+    }
+
+    @Test
+    public void handleRequest_AwaitTargetPropagation() {
+        final CreateHandler handler = new CreateHandler(new ExponentialBackoffScheduler(1, 1, 30));
+
+        // MODEL
+
+        Set<software.amazon.events.rule.Target> targets = new HashSet<>();
+
+        targets.add(software.amazon.events.rule.Target.builder()
+                .id("TestLambdaFunctionId")
+                .arn("arn:aws:lambda:us-west-2:123456789123:function:TestLambdaFunctionId")
+                .build());
+
+        final ResourceModel model = ResourceModel.builder()
+                .name("TestRule")
+                .scheduleExpression("rate(1 day)")
+                .targets(targets)
+                .build();
+
+        // MOCK
+
+        /*
+        describeRule
+        putRule
+        describeRule
+        putTargets
+        listTargetsByRule (target not yet visible)
+
+        listTargetsByRule
+         */
+
+        final DescribeRuleResponse describeRuleResponse = DescribeRuleResponse.builder()
+                .name(model.getName())
+                .scheduleExpression(model.getScheduleExpression())
+                .state("ENABLED")
+                .arn("arn")
+                .build();
+
+        final PutRuleResponse putRuleResponse = PutRuleResponse.builder()
+                .ruleArn("arn")
+                .build();
+
+        final PutTargetsResponse putTargetsResponse = PutTargetsResponse.builder()
+                .build();
+
+        final ListTargetsByRuleResponse listTargetsByRuleResponse1 = ListTargetsByRuleResponse.builder()
+                .build();
+
+        final ListTargetsByRuleResponse listTargetsByRuleResponse2 = ListTargetsByRuleResponse.builder()
+                .targets(Target.builder()
+                        .id("TestLambdaFunctionId")
+                        .arn("arn:aws:lambda:us-west-2:123456789123:function:TestLambdaFunctionId")
+                        .build())
+                .build();
+
+        when(proxyClient.client().describeRule(any(DescribeRuleRequest.class)))
+                .thenThrow(ResourceNotFoundException.class)
+                .thenReturn(describeRuleResponse);
+
+        when(proxyClient.client().putRule(any(PutRuleRequest.class)))
+                .thenReturn(putRuleResponse);
+
+        when(proxyClient.client().putTargets(any(PutTargetsRequest.class)))
+                .thenReturn(putTargetsResponse);
+
+        when(proxyClient.client().listTargetsByRule(any(ListTargetsByRuleRequest.class)))
+                .thenReturn(listTargetsByRuleResponse1)
+                .thenReturn(listTargetsByRuleResponse2);
+
+        // RUN
+
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(model)
+                .build();
+
+        CallbackContext context = new CallbackContext();
+        ProgressEvent<ResourceModel, CallbackContext> response;
+
+        response = handler.handleRequest(proxy, request, context, proxyClient, logger);
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.IN_PROGRESS);
+        assertThat(response.getCallbackDelaySeconds()).isEqualTo(1);
+        response = handler.handleRequest(proxy, request, context, proxyClient, logger);
+
+        // ASSERT
+
+        verify(sdkClient, times(2)).listTargetsByRule(any(ListTargetsByRuleRequest.class));
+
+        assertThat(response).isNotNull();
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(response.getCallbackDelaySeconds()).isEqualTo(0);
+        assertThat(context.getCompletedPropagationDelays()).isEqualTo(2);
+        assertThat(context.getPropagationSecondsWaited()).isEqualTo(0);
+    }
+
+    @Test
+    public void handleRequest_PropagationCeiling() {
+        final CreateHandler handler = new CreateHandler(new ExponentialBackoffScheduler(1, 1, 2));
+
+        // MODEL
+
+        Set<software.amazon.events.rule.Target> targets = new HashSet<>();
+
+        targets.add(software.amazon.events.rule.Target.builder()
+                .id("TestLambdaFunctionId")
+                .arn("arn:aws:lambda:us-west-2:123456789123:function:TestLambdaFunctionId")
+                .build());
+
+        final ResourceModel model = ResourceModel.builder()
+                .name("TestRule")
+                .scheduleExpression("rate(1 day)")
+                .targets(targets)
+                .build();
+
+        // MOCK
+
+        /*
+        describeRule
+        putRule
+        describeRule
+        putTargets
+        listTargetsByRule (target never visible)
+
+        listTargetsByRule
+
+        listTargetsByRule
+         */
+
+        final DescribeRuleResponse describeRuleResponse = DescribeRuleResponse.builder()
+                .name(model.getName())
+                .scheduleExpression(model.getScheduleExpression())
+                .state("ENABLED")
+                .arn("arn")
+                .build();
+
+        final PutRuleResponse putRuleResponse = PutRuleResponse.builder()
+                .ruleArn("arn")
+                .build();
+
+        final PutTargetsResponse putTargetsResponse = PutTargetsResponse.builder()
+                .build();
+
+        when(proxyClient.client().describeRule(any(DescribeRuleRequest.class)))
+                .thenThrow(ResourceNotFoundException.class)
+                .thenReturn(describeRuleResponse);
+
+        when(proxyClient.client().putRule(any(PutRuleRequest.class)))
+                .thenReturn(putRuleResponse);
+
+        when(proxyClient.client().putTargets(any(PutTargetsRequest.class)))
+                .thenReturn(putTargetsResponse);
+
+        when(proxyClient.client().listTargetsByRule(any(ListTargetsByRuleRequest.class)))
+                .thenReturn(ListTargetsByRuleResponse.builder().build());
+
+        // RUN
+
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(model)
+                .build();
+
+        CallbackContext context = new CallbackContext();
+        ProgressEvent<ResourceModel, CallbackContext> response;
+
         response = handler.handleRequest(proxy, request, context, proxyClient, logger);
         assertThat(response.getStatus()).isEqualTo(OperationStatus.IN_PROGRESS);
         response = handler.handleRequest(proxy, request, context, proxyClient, logger);
@@ -262,13 +452,124 @@ public class CreateHandlerTest extends AbstractTestBase {
 
         // ASSERT
 
+        verify(sdkClient, times(3)).listTargetsByRule(any(ListTargetsByRuleRequest.class));
+
+        assertThat(response).isNotNull();
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(response.getCallbackDelaySeconds()).isEqualTo(0);
+    }
+
+    @Test
+    public void handleRequest_ManyTargets() {
+        final CreateHandler handler = new CreateHandler();
+
+        // MODEL
+
+        Set<software.amazon.events.rule.Target> targets = new HashSet<>();
+
+        for (int i = 0; i < 25; i++) {
+            targets.add(software.amazon.events.rule.Target.builder()
+                    .id("TestLambdaFunctionId" + i)
+                    .arn("arn:aws:lambda:us-west-2:123456789123:function:TestLambdaFunctionId" + i)
+                    .build());
+        }
+
+        final ResourceModel model = ResourceModel.builder()
+                .name("TestRule")
+                .description("TestDescription")
+                .scheduleExpression("rate(1 day)")
+                .state("ENABLED")
+                .targets(targets)
+                .build();
+
+        // MOCK
+
+        /*
+        describeRule
+        putRule
+        describeRule
+        putTargets (3 batches)
+
+        putTargets (retry of the failed entry)
+        listTargetsByRule
+         */
+
+        final DescribeRuleResponse describeRuleResponse = DescribeRuleResponse.builder()
+                .name(model.getName())
+                .description(model.getDescription())
+                .scheduleExpression(model.getScheduleExpression())
+                .state(model.getState())
+                .arn("arn")
+                .build();
+
+        final PutRuleResponse putRuleResponse = PutRuleResponse.builder()
+                .ruleArn("arn")
+                .build();
+
+        final PutTargetsResponse failedPutTargetsResponse = PutTargetsResponse.builder()
+                .failedEntryCount(1)
+                .failedEntries(PutTargetsResultEntry.builder()
+                        .targetId("TestLambdaFunctionId7")
+                        .errorCode("ThrottlingException")
+                        .build())
+                .build();
+
+        final PutTargetsResponse putTargetsResponse = PutTargetsResponse.builder()
+                .failedEntryCount(0)
+                .build();
+
+        when(proxyClient.client().describeRule(any(DescribeRuleRequest.class)))
+                .thenThrow(ResourceNotFoundException.class)
+                .thenReturn(describeRuleResponse);
+
+        when(proxyClient.client().putRule(any(PutRuleRequest.class)))
+                .thenReturn(putRuleResponse);
+
+        when(proxyClient.client().putTargets(any(PutTargetsRequest.class)))
+                .thenAnswer(invocation -> {
+                    PutTargetsRequest putTargetsRequest = invocation.getArgument(0);
+                    assertThat(putTargetsRequest.rule()).isEqualTo("TestRule");
+                    assertThat(putTargetsRequest.targets().size()).isLessThanOrEqualTo(10);
+
+                    boolean firstAttempt = putTargetsRequest.targets().size() > 1;
+                    boolean containsFailedTarget = putTargetsRequest.targets().stream()
+                            .anyMatch(target -> target.id().equals("TestLambdaFunctionId7"));
+
+                    return firstAttempt && containsFailedTarget ? failedPutTargetsResponse : putTargetsResponse;
+                });
+
+        when(proxyClient.client().listTargetsByRule(any(ListTargetsByRuleRequest.class)))
+                .thenReturn(ListTargetsByRuleResponse.builder()
+                        .targets(targets.stream()
+                                .map(target -> Target.builder().id(target.getId()).arn(target.getArn()).build())
+                                .collect(Collectors.toList()))
+                        .build());
+
+        // RUN
+
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(model)
+                .build();
+
+        CallbackContext context = new CallbackContext();
+        ProgressEvent<ResourceModel, CallbackContext> response;
+
+        response = handler.handleRequest(proxy, request, context, proxyClient, logger);
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.IN_PROGRESS);
+        assertThat(response.getCallbackDelaySeconds()).isEqualTo(FailedEntryRetryPolicy.DEFAULT_BASE_DELAY_SECONDS);
+        verify(sdkClient, times(3)).putTargets(any(PutTargetsRequest.class));
+
+        response = handler.handleRequest(proxy, request, context, proxyClient, logger);
+
+        // ASSERT
+
+        verify(sdkClient, times(4)).putTargets(any(PutTargetsRequest.class));
+
         assertThat(response).isNotNull();
         assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
         assertThat(response.getCallbackDelaySeconds()).isEqualTo(0);
         assertThat(response.getResourceModel()).isEqualTo(request.getDesiredResourceState());
-        assertThat(response.getResourceModels()).isNull();
-        assertThat(response.getMessage()).isNull();
-        assertThat(response.getErrorCode()).isNull();
+        assertThat(context.getRetryAttemptsForPutTargets()).isEqualTo(1);
     }
 
     @Test
@@ -355,4 +656,38 @@ public class CreateHandlerTest extends AbstractTestBase {
         assertThat(response.getErrorCode()).isEqualTo(HandlerErrorCode.AlreadyExists);
     }
 
+    @Test
+    public void stabilizeRulePropagation_EventPatternArrayOrder() {
+        // MODEL
+
+        final ResourceModel model = ResourceModel.builder()
+                .name("TestRule")
+                .eventPattern(Collections.singletonMap("detail", Collections.singletonMap("price",
+                        Collections.singletonList(Collections.singletonMap("numeric", Arrays.asList(">", 10, "<", 5))))))
+                .build();
+
+        // MOCK
+
+        /*
+        describeRule (the pattern before PutRule)
+        describeRule (the pattern after PutRule)
+         */
+
+        when(proxyClient.client().describeRule(any(DescribeRuleRequest.class)))
+                .thenReturn(DescribeRuleResponse.builder()
+                        .name("TestRule")
+                        .eventPattern("{\"detail\":{\"price\":[{\"numeric\":[\">\",5,\"<\",10]}]}}")
+                        .build())
+                .thenReturn(DescribeRuleResponse.builder()
+                        .name("TestRule")
+                        .eventPattern("{\"detail\":{\"price\":[{\"numeric\":[\">\",10,\"<\",5]}]}}")
+                        .build());
+
+        // RUN + ASSERT
+
+        assertThat(BaseHandlerStd.stabilizeRulePropagation(proxyClient, model, logger, "TestStackId")).isFalse();
+        assertThat(BaseHandlerStd.stabilizeRulePropagation(proxyClient, model, logger, "TestStackId")).isTrue();
+
+        verify(sdkClient, times(2)).describeRule(any(DescribeRuleRequest.class));
+    }
 }
@@ -3,6 +3,8 @@ package software.amazon.events.rule;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
@@ -26,6 +28,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
@@ -73,6 +76,7 @@ public class DeleteHandlerTest extends AbstractTestBase {
         /*
         listTargetsByRule
         removeTargets
+        listTargetsByRule
         deleteRule
          */
 
@@ -94,7 +98,8 @@ public class DeleteHandlerTest extends AbstractTestBase {
 
 
         when(proxyClient.client().listTargetsByRule(any(ListTargetsByRuleRequest.class)))
-                .thenReturn(listTargetsByRuleResponse);
+                .thenReturn(listTargetsByRuleResponse)
+                .thenReturn(ListTargetsByRuleResponse.builder().build());
 
         when(proxyClient.client().removeTargets(any(RemoveTargetsRequest.class)))
                 .thenReturn(removeTargetsResponse);
@@ -121,6 +126,269 @@ public class DeleteHandlerTest extends AbstractTestBase {
         assertThat(response.getErrorCode()).isNull();
     }
 
+    @Test
+    public void handleRequest_MultiplePagesOfTargets() {
+        final DeleteHandler handler = new DeleteHandler();
+
+        // MODEL
+
+        final ResourceModel model = ResourceModel.builder()
+                .name("TestRule")
+                .build();
+
+        // MOCK
+
+        /*
+        listTargetsByRule (page 1)
+        listTargetsByRule (page 2)
+        removeTargets
+        listTargetsByRule
+        deleteRule
+         */
+
+        final ListTargetsByRuleResponse firstPage = ListTargetsByRuleResponse.builder()
+                .targets(software.amazon.awssdk.services.cloudwatchevents.model.Target.builder()
+                        .id("TargetId1")
+                        .arn("TargetArn1")
+                        .build())
+                .nextToken("NextToken")
+                .build();
+
+        final ListTargetsByRuleResponse secondPage = ListTargetsByRuleResponse.builder()
+                .targets(software.amazon.awssdk.services.cloudwatchevents.model.Target.builder()
+                        .id("TargetId2")
+                        .arn("TargetArn2")
+                        .build())
+                .build();
+
+        when(proxyClient.client().listTargetsByRule(any(ListTargetsByRuleRequest.class)))
+                .thenReturn(firstPage)
+                .thenReturn(secondPage)
+                .thenReturn(ListTargetsByRuleResponse.builder().build());
+
+        when(proxyClient.client().removeTargets(any(RemoveTargetsRequest.class)))
+                .thenAnswer(invocation -> {
+                    RemoveTargetsRequest removeTargetsRequest = invocation.getArgument(0);
+                    assertThat(removeTargetsRequest.ids()).containsExactly("TargetId1", "TargetId2");
+                    return RemoveTargetsResponse.builder().build();
+                });
+
+        when(proxyClient.client().deleteRule(any(DeleteRuleRequest.class)))
+                .thenReturn(DeleteRuleResponse.builder().build());
+
+        // RUN
+
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(model)
+                .build();
+
+        final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, request, new CallbackContext(), proxyClient, logger);
+
+        // ASSERT
+
+        verify(sdkClient, times(3)).listTargetsByRule(any(ListTargetsByRuleRequest.class));
+        verify(sdkClient).removeTargets(any(RemoveTargetsRequest.class));
+
+        assertThat(response).isNotNull();
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(response.getErrorCode()).isNull();
+    }
+
+    @Test
+    public void handleRequest_ManyTargets() {
+        final DeleteHandler handler = new DeleteHandler();
+
+        // MODEL
+
+        final ResourceModel model = ResourceModel.builder()
+                .name("TestRule")
+                .build();
+
+        // MOCK
+
+        /*
+        listTargetsByRule (page 1..3)
+        removeTargets (batch 1..3)
+        listTargetsByRule
+        deleteRule
+         */
+
+        final List<ListTargetsByRuleResponse> pages = new ArrayList<>();
+        for (int page = 0; page < 3; page++) {
+            Collection<software.amazon.awssdk.services.cloudwatchevents.model.Target> responseTargets = new ArrayList<>();
+            for (int i = page * 100; i < Math.min(250, (page + 1) * 100); i++) {
+                responseTargets.add(software.amazon.awssdk.services.cloudwatchevents.model.Target.builder()
+                        .id("TargetId" + i)
+                        .arn("TargetArn" + i)
+                        .build());
+            }
+
+            pages.add(ListTargetsByRuleResponse.builder()
+                    .targets(responseTargets)
+                    .nextToken(page < 2 ? "NextToken" + page : null)
+                    .build());
+        }
+
+        when(proxyClient.client().listTargetsByRule(any(ListTargetsByRuleRequest.class)))
+                .thenReturn(pages.get(0))
+                .thenReturn(pages.get(1))
+                .thenReturn(pages.get(2))
+                .thenReturn(ListTargetsByRuleResponse.builder().build());
+
+        // Batches are removed concurrently
+        final List<String> removedTargetIds = Collections.synchronizedList(new ArrayList<>());
+        when(proxyClient.client().removeTargets(any(RemoveTargetsRequest.class)))
+                .thenAnswer(invocation -> {
+                    RemoveTargetsRequest removeTargetsRequest = invocation.getArgument(0);
+                    assertThat(removeTargetsRequest.ids()).hasSizeLessThanOrEqualTo(Translator.MAX_TARGET_IDS_PER_REMOVE_TARGETS_REQUEST);
+                    removedTargetIds.addAll(removeTargetsRequest.ids());
+                    return RemoveTargetsResponse.builder().failedEntryCount(0).build();
+                });
+
+        when(proxyClient.client().deleteRule(any(DeleteRuleRequest.class)))
+                .thenReturn(DeleteRuleResponse.builder().build());
+
+        // RUN
+
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(model)
+                .build();
+
+        final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, request, new CallbackContext(), proxyClient, logger);
+
+        // ASSERT
+
+        verify(sdkClient, times(4)).listTargetsByRule(any(ListTargetsByRuleRequest.class));
+        verify(sdkClient, times(3)).removeTargets(any(RemoveTargetsRequest.class));
+        verify(sdkClient).deleteRule(any(DeleteRuleRequest.class));
+
+        assertThat(removedTargetIds).hasSize(250).doesNotHaveDuplicates();
+
+        assertThat(response).isNotNull();
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(response.getErrorCode()).isNull();
+    }
+
+    @Test
+    public void handleRequest_AwaitTargetRemoval() {
+        final DeleteHandler handler = new DeleteHandler();
+
+        // MODEL
+
+        final ResourceModel model = ResourceModel.builder()
+                .name("TestRule")
+                .build();
+
+        // MOCK
+
+        /*
+        listTargetsByRule
+        removeTargets
+        listTargetsByRule (target still listed)
+        -- callback --
+        listTargetsByRule
+        deleteRule
+         */
+
+        final ListTargetsByRuleResponse listTargetsByRuleResponse = ListTargetsByRuleResponse.builder()
+                .targets(software.amazon.awssdk.services.cloudwatchevents.model.Target.builder()
+                        .id("TargetId")
+                        .arn("TargetArn")
+                        .build())
+                .build();
+
+        when(proxyClient.client().listTargetsByRule(any(ListTargetsByRuleRequest.class)))
+                .thenReturn(listTargetsByRuleResponse)
+                .thenReturn(listTargetsByRuleResponse)
+                .thenReturn(ListTargetsByRuleResponse.builder().build());
+
+        when(proxyClient.client().removeTargets(any(RemoveTargetsRequest.class)))
+                .thenReturn(RemoveTargetsResponse.builder().build());
+
+        when(proxyClient.client().deleteRule(any(DeleteRuleRequest.class)))
+                .thenReturn(DeleteRuleResponse.builder().build());
+
+        // RUN
+
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(model)
+                .build();
+
+        final CallbackContext context = new CallbackContext();
+        ProgressEvent<ResourceModel, CallbackContext> response;
+
+        response = handler.handleRequest(proxy, request, context, proxyClient, logger);
+
+        // ASSERT
+
+        // DeleteRule is not sent while the rule still lists a target
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.IN_PROGRESS);
+        assertThat(response.getCallbackDelaySeconds()).isGreaterThan(0);
+        verify(sdkClient, times(0)).deleteRule(any(DeleteRuleRequest.class));
+
+        // RUN
+
+        response = handler.handleRequest(proxy, request, context, proxyClient, logger);
+
+        // ASSERT
+
+        verify(sdkClient, times(3)).listTargetsByRule(any(ListTargetsByRuleRequest.class));
+        verify(sdkClient).removeTargets(any(RemoveTargetsRequest.class));
+        verify(sdkClient).deleteRule(any(DeleteRuleRequest.class));
+
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(response.getErrorCode()).isNull();
+    }
+
+    @Test
+    public void handleRequest_TargetsNeverRemoved() {
+        // Stops waiting after the first check
+        final DeleteHandler handler = new DeleteHandler((attempt, secondsWaited) -> 0);
+
+        // MODEL
+
+        final ResourceModel model = ResourceModel.builder()
+                .name("TestRule")
+                .build();
+
+        // MOCK
+
+        /*
+        listTargetsByRule
+        removeTargets
+        listTargetsByRule (target still listed)
+         */
+
+        when(proxyClient.client().listTargetsByRule(any(ListTargetsByRuleRequest.class)))
+                .thenReturn(ListTargetsByRuleResponse.builder()
+                        .targets(software.amazon.awssdk.services.cloudwatchevents.model.Target.builder()
+                                .id("TargetId")
+                                .arn("TargetArn")
+                                .build())
+                        .build());
+
+        when(proxyClient.client().removeTargets(any(RemoveTargetsRequest.class)))
+                .thenReturn(RemoveTargetsResponse.builder().build());
+
+        // RUN
+
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(model)
+                .build();
+
+        final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, request, new CallbackContext(), proxyClient, logger);
+
+        // ASSERT
+
+        verify(sdkClient, times(2)).listTargetsByRule(any(ListTargetsByRuleRequest.class));
+        verify(sdkClient).removeTargets(any(RemoveTargetsRequest.class));
+        verify(sdkClient, times(0)).deleteRule(any(DeleteRuleRequest.class));
+
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.FAILED);
+        assertThat(response.getErrorCode()).isEqualTo(HandlerErrorCode.NotStabilized);
+        assertThat(response.getMessage()).contains("TargetId");
+    }
+
     @Test
     public void handleRequest_DoesNotExist() {
         final DeleteHandler handler = new DeleteHandler();
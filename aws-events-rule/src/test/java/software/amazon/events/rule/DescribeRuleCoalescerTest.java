@@ -0,0 +1,221 @@
+package software.amazon.events.rule;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import software.amazon.awssdk.services.cloudwatchevents.CloudWatchEventsClient;
+import software.amazon.awssdk.services.cloudwatchevents.model.DescribeRuleRequest;
+import software.amazon.awssdk.services.cloudwatchevents.model.DescribeRuleResponse;
+import software.amazon.awssdk.services.cloudwatchevents.model.PutRuleRequest;
+import software.amazon.awssdk.services.cloudwatchevents.model.ResourceNotFoundException;
+import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
+import software.amazon.cloudformation.proxy.ProxyClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class DescribeRuleCoalescerTest extends AbstractTestBase {
+
+    private static final int THREAD_COUNT = 16;
+
+    private FakeCloudWatchEventsClient sdkClient;
+    private ProxyClient<CloudWatchEventsClient> proxyClient;
+    private ExecutorService executor;
+
+    @BeforeEach
+    public void setup() {
+        final AmazonWebServicesClientProxy proxy = new AmazonWebServicesClientProxy(logger, MOCK_CREDENTIALS, () -> Duration.ofSeconds(600).toMillis());
+        sdkClient = FakeCloudWatchEventsClient.builder()
+                .latency(Duration.ofMillis(200))
+                .build();
+        proxyClient = MOCK_PROXY(proxy, sdkClient);
+        executor = Executors.newFixedThreadPool(THREAD_COUNT);
+    }
+
+    @AfterEach
+    public void tear_down() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void describe_ConcurrentCallsShareOneResponse() throws Exception {
+        // Every test uses its own scope, since what is shared outlives the test
+        final ProxyClient<CloudWatchEventsClient> client = DescribeRuleCoalescer.coalesce(proxyClient, "ConcurrentCallsShareOneResponse");
+        putRule(client, "TestRule");
+
+        // RUN
+
+        final List<Callable<DescribeRuleResponse>> calls = new ArrayList<>();
+        for (int i = 0; i < THREAD_COUNT; i++) {
+            calls.add(() -> describeRule(client, "TestRule"));
+        }
+
+        final List<DescribeRuleResponse> responses = new ArrayList<>();
+        for (Future<DescribeRuleResponse> future : executor.invokeAll(calls)) {
+            responses.add(future.get());
+        }
+
+        // ASSERT
+
+        assertThat(responses).extracting(DescribeRuleResponse::name).containsOnly("TestRule");
+        assertThat(sdkClient.callCount("DescribeRule")).isEqualTo(1);
+    }
+
+    @Test
+    public void describe_WritesInvalidate() {
+        final ProxyClient<CloudWatchEventsClient> client = DescribeRuleCoalescer.coalesce(proxyClient, "WritesInvalidate");
+        putRule(client, "TestRule");
+
+        // RUN + ASSERT
+
+        describeRule(client, "TestRule");
+        describeRule(client, "TestRule");
+        assertThat(sdkClient.callCount("DescribeRule")).isEqualTo(1);
+
+        client.injectCredentialsAndInvokeV2(PutRuleRequest.builder()
+                .name("TestRule")
+                .eventBusName("default")
+                .description("Changed")
+                .scheduleExpression("rate(1 day)")
+                .build(), client.client()::putRule);
+
+        assertThat(describeRule(client, "TestRule").description()).isEqualTo("Changed");
+        assertThat(sdkClient.callCount("DescribeRule")).isEqualTo(2);
+    }
+
+    @Test
+    public void describe_Expires() throws Exception {
+        final ProxyClient<CloudWatchEventsClient> client = DescribeRuleCoalescer.coalesce(proxyClient, "Expires");
+        putRule(client, "TestRule");
+
+        // RUN
+
+        describeRule(client, "TestRule");
+        Thread.sleep(DescribeRuleCoalescer.TTL_MILLIS);
+        describeRule(client, "TestRule");
+
+        // ASSERT
+
+        assertThat(sdkClient.callCount("DescribeRule")).isEqualTo(2);
+    }
+
+    @Test
+    public void describe_NotFoundIsNotReused() {
+        final ProxyClient<CloudWatchEventsClient> client = DescribeRuleCoalescer.coalesce(proxyClient, "NotFoundIsNotReused");
+
+        // RUN + ASSERT
+
+        assertThatThrownBy(() -> describeRule(client, "MissingRule")).isInstanceOf(ResourceNotFoundException.class);
+        assertThatThrownBy(() -> describeRule(client, "MissingRule")).isInstanceOf(ResourceNotFoundException.class);
+        assertThat(sdkClient.callCount("DescribeRule")).isEqualTo(2);
+    }
+
+    @Test
+    public void describe_ErrorIsNotShared() {
+        final DescribeRuleCoalescer.Key key = new DescribeRuleCoalescer.Key("ErrorIsNotShared", "TestRule", null);
+        final DescribeRuleResponse response = DescribeRuleResponse.builder().name("TestRule").build();
+
+        // RUN + ASSERT
+
+        assertThatThrownBy(() -> DescribeRuleCoalescer.describe(key, () -> {
+            throw new StackOverflowError();
+        })).isInstanceOf(StackOverflowError.class);
+
+        // The next request makes its own call instead of waiting for the failed one
+        assertThat(DescribeRuleCoalescer.describe(key, () -> response)).isSameAs(response);
+    }
+
+    @Test
+    public void describe_StartedBeforeWriteIsNotKept() throws Exception {
+        final DescribeRuleCoalescer.Key key = new DescribeRuleCoalescer.Key("StartedBeforeWriteIsNotKept", "TestRule", null);
+        final DescribeRuleResponse beforeWrite = DescribeRuleResponse.builder().name("TestRule").description("BeforeWrite").build();
+        final DescribeRuleResponse afterWrite = DescribeRuleResponse.builder().name("TestRule").description("AfterWrite").build();
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch written = new CountDownLatch(1);
+
+        // RUN
+
+        final Future<DescribeRuleResponse> inFlight = executor.submit(() -> DescribeRuleCoalescer.describe(key, () -> {
+            started.countDown();
+            awaitUninterruptibly(written);
+            return beforeWrite;
+        }));
+
+        started.await();
+        DescribeRuleCoalescer.invalidate(key);
+        written.countDown();
+
+        // ASSERT
+
+        assertThat(inFlight.get()).isSameAs(beforeWrite);
+        // The response completed after the write, but its call started before it
+        assertThat(DescribeRuleCoalescer.describe(key, () -> afterWrite)).isSameAs(afterWrite);
+        assertThat(DescribeRuleCoalescer.describe(key, () -> beforeWrite)).isSameAs(afterWrite);
+    }
+
+    @Test
+    public void describe_ScopesAreSeparate() {
+        final ProxyClient<CloudWatchEventsClient> client1 = DescribeRuleCoalescer.coalesce(proxyClient, "ScopesAreSeparate1");
+        final ProxyClient<CloudWatchEventsClient> client2 = DescribeRuleCoalescer.coalesce(proxyClient, "ScopesAreSeparate2");
+        putRule(client1, "TestRule");
+
+        // RUN
+
+        describeRule(client1, "TestRule");
+        describeRule(client2, "TestRule");
+
+        // ASSERT
+
+        assertThat(sdkClient.callCount("DescribeRule")).isEqualTo(2);
+    }
+
+    @Test
+    public void invocationScope_NotSharedBetweenInvocations() {
+        final ProxyClient<CloudWatchEventsClient> setupClient = DescribeRuleCoalescer.coalesce(proxyClient, "NotSharedBetweenInvocations");
+        putRule(setupClient, "TestRule");
+
+        // Two invocations for the same account and region, e.g. of different roles
+        final ProxyClient<CloudWatchEventsClient> client1 = DescribeRuleCoalescer.coalesce(proxyClient,
+                DescribeRuleCoalescer.invocationScope("123456789012", "us-west-2"));
+        final ProxyClient<CloudWatchEventsClient> client2 = DescribeRuleCoalescer.coalesce(proxyClient,
+                DescribeRuleCoalescer.invocationScope("123456789012", "us-west-2"));
+
+        // RUN
+
+        describeRule(client1, "TestRule");
+        describeRule(client1, "TestRule");
+        describeRule(client2, "TestRule");
+
+        // ASSERT
+
+        assertThat(sdkClient.callCount("DescribeRule")).isEqualTo(2);
+    }
+
+    private static void awaitUninterruptibly(final CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void putRule(final ProxyClient<CloudWatchEventsClient> client, final String name) {
+        client.injectCredentialsAndInvokeV2(PutRuleRequest.builder()
+                .name(name)
+                .scheduleExpression("rate(1 day)")
+                .build(), client.client()::putRule);
+    }
+
+    private static DescribeRuleResponse describeRule(final ProxyClient<CloudWatchEventsClient> client, final String name) {
+        return client.injectCredentialsAndInvokeV2(DescribeRuleRequest.builder().name(name).build(), client.client()::describeRule);
+    }
+}
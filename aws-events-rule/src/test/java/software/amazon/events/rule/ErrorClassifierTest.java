@@ -0,0 +1,93 @@
+package software.amazon.events.rule;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import software.amazon.awssdk.awscore.exception.AwsErrorDetails;
+import software.amazon.awssdk.awscore.exception.AwsServiceException;
+import software.amazon.awssdk.services.cloudwatchevents.model.CloudWatchEventsException;
+import software.amazon.awssdk.services.cloudwatchevents.model.ConcurrentModificationException;
+import software.amazon.awssdk.services.cloudwatchevents.model.InternalException;
+import software.amazon.awssdk.services.cloudwatchevents.model.InvalidEventPatternException;
+import software.amazon.awssdk.services.cloudwatchevents.model.LimitExceededException;
+import software.amazon.awssdk.services.cloudwatchevents.model.ResourceNotFoundException;
+import software.amazon.cloudformation.exceptions.CfnAlreadyExistsException;
+import software.amazon.cloudformation.proxy.HandlerErrorCode;
+import software.amazon.cloudformation.proxy.OperationStatus;
+import software.amazon.cloudformation.proxy.ProgressEvent;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ErrorClassifierTest {
+
+    @Test
+    public void classify_Table() {
+        assertThat(errorCode(serviceException(ConcurrentModificationException.builder(), "ConcurrentModificationException", 400))).isEqualTo(HandlerErrorCode.ResourceConflict);
+        assertThat(errorCode(serviceException(LimitExceededException.builder(), "LimitExceededException", 400))).isEqualTo(HandlerErrorCode.ServiceLimitExceeded);
+        assertThat(errorCode(serviceException(InvalidEventPatternException.builder(), "InvalidEventPatternException", 400))).isEqualTo(HandlerErrorCode.InvalidRequest);
+        assertThat(errorCode(serviceException(InternalException.builder(), "InternalException", 500))).isEqualTo(HandlerErrorCode.InternalFailure);
+        assertThat(errorCode(serviceException(ResourceNotFoundException.builder(), "ResourceNotFoundException", 400))).isEqualTo(HandlerErrorCode.NotFound);
+        assertThat(errorCode(new CfnAlreadyExistsException(ResourceModel.TYPE_NAME, "TestRule"))).isEqualTo(HandlerErrorCode.AlreadyExists);
+        assertThat(errorCode(new IllegalStateException())).isEqualTo(HandlerErrorCode.GeneralServiceException);
+    }
+
+    @Test
+    public void classify_NearestSuperclass() {
+        // CloudWatchEventsException is not in the table, but AwsServiceException is
+        assertThat(errorCode(serviceException(CloudWatchEventsException.builder(), "ValidationException", 400))).isEqualTo(HandlerErrorCode.GeneralServiceException);
+    }
+
+    @Test
+    public void isExpected() {
+        assertThat(ErrorClassifier.isExpected(serviceException(ResourceNotFoundException.builder(), "ResourceNotFoundException", 400))).isTrue();
+        assertThat(ErrorClassifier.isExpected(serviceException(ConcurrentModificationException.builder(), "ConcurrentModificationException", 400))).isTrue();
+        assertThat(ErrorClassifier.isExpected(serviceException(CloudWatchEventsException.builder(), "ThrottlingException", 400))).isTrue();
+
+        assertThat(ErrorClassifier.isExpected(serviceException(InternalException.builder(), "InternalException", 500))).isFalse();
+        assertThat(ErrorClassifier.isExpected(serviceException(CloudWatchEventsException.builder(), "ValidationException", 400))).isFalse();
+        assertThat(ErrorClassifier.isExpected(new IllegalStateException())).isFalse();
+    }
+
+    @Test
+    public void failed_AlreadyExists() {
+        final ProgressEvent<ResourceModel, CallbackContext> event = ErrorClassifier.classify(new CfnAlreadyExistsException(ResourceModel.TYPE_NAME, "TestRule"))
+                .failed(new CfnAlreadyExistsException(ResourceModel.TYPE_NAME, "TestRule"), ResourceModel.builder().name("TestRule").build(), new CallbackContext());
+
+        assertThat(event.getStatus()).isEqualTo(OperationStatus.FAILED);
+        assertThat(event.getErrorCode()).isEqualTo(HandlerErrorCode.AlreadyExists);
+        assertThat(event.getResourceModel()).isNull();
+    }
+
+    @Test
+    public void handleError_ExpectedWithoutStackTrace() {
+        final List<String> messages = new ArrayList<>();
+        final ReadHandler handler = new ReadHandler();
+        handler.logger = messages::add;
+
+        final ResourceModel model = ResourceModel.builder().name("TestRule").build();
+        final ProgressEvent<ResourceModel, CallbackContext> event = handler.handleError(null,
+                serviceException(CloudWatchEventsException.builder(), "ThrottlingException", 400), null, model, new CallbackContext());
+
+        assertThat(event.getStatus()).isEqualTo(OperationStatus.FAILED);
+        assertThat(event.getErrorCode()).isEqualTo(HandlerErrorCode.GeneralServiceException);
+        assertThat(messages).hasSize(1);
+        assertThat(messages.get(0)).startsWith("handleError for: ");
+    }
+
+    private static HandlerErrorCode errorCode(final Exception e) {
+        return ErrorClassifier.classify(e).getErrorCode();
+    }
+
+    private static AwsServiceException serviceException(final AwsServiceException.Builder builder, final String errorCode, final int statusCode) {
+        return builder
+                .message(errorCode)
+                .statusCode(statusCode)
+                .awsErrorDetails(AwsErrorDetails.builder()
+                        .errorCode(errorCode)
+                        .errorMessage(errorCode)
+                        .serviceName("CloudWatchEvents")
+                        .build())
+                .build();
+    }
+}
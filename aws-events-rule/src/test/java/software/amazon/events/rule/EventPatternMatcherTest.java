@@ -0,0 +1,147 @@
+package software.amazon.events.rule;
+
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import software.amazon.cloudformation.exceptions.CfnInvalidRequestException;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class EventPatternMatcherTest {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static final String EVENT = "{"
+            + "\"source\":\"aws.s3\","
+            + "\"detail-type\":\"Object Created\","
+            + "\"resources\":[\"arn:aws:s3:::my-bucket\"],"
+            + "\"detail\":{"
+            + "\"bucket\":{\"name\":\"my-bucket\"},"
+            + "\"object\":{\"key\":\"photos/cat.png\",\"size\":1024},"
+            + "\"requester\":\"123456789123\","
+            + "\"source-ip-address\":\"10.0.0.7\","
+            + "\"tags\":[\"red\",\"green\"],"
+            + "\"version\":null"
+            + "}}";
+
+    @Test
+    public void matchingRules_ExactValues() {
+        assertMatches("{\"source\":[\"aws.s3\"]}", true);
+        assertMatches("{\"source\":[\"aws.ec2\",\"aws.s3\"]}", true);
+        assertMatches("{\"source\":[\"aws.ec2\"]}", false);
+        assertMatches("{\"source\":[\"aws.s3\"],\"detail\":{\"bucket\":{\"name\":[\"my-bucket\"]}}}", true);
+        assertMatches("{\"source\":[\"aws.s3\"],\"detail\":{\"bucket\":{\"name\":[\"other-bucket\"]}}}", false);
+        assertMatches("{\"detail\":{\"object\":{\"size\":[1024]}}}", true);
+        assertMatches("{\"detail\":{\"object\":{\"size\":[\"1024\"]}}}", false);
+        assertMatches("{\"detail\":{\"version\":[null]}}", true);
+    }
+
+    @Test
+    public void matchingRules_ArrayValues() {
+        assertMatches("{\"detail\":{\"tags\":[\"green\"]}}", true);
+        assertMatches("{\"detail\":{\"tags\":[\"blue\",\"red\"]}}", true);
+        assertMatches("{\"detail\":{\"tags\":[\"blue\"]}}", false);
+        assertMatches("{\"resources\":[{\"prefix\":\"arn:aws:s3:::\"}]}", true);
+    }
+
+    @Test
+    public void matchingRules_ContentFilters() {
+        assertMatches("{\"source\":[{\"prefix\":\"aws.\"}]}", true);
+        assertMatches("{\"source\":[{\"prefix\":{\"equals-ignore-case\":\"AWS.\"}}]}", true);
+        assertMatches("{\"detail-type\":[{\"suffix\":\"Created\"}]}", true);
+        assertMatches("{\"detail-type\":[{\"equals-ignore-case\":\"object created\"}]}", true);
+        assertMatches("{\"detail\":{\"object\":{\"key\":[{\"wildcard\":\"photos/*.png\"}]}}}", true);
+        assertMatches("{\"detail\":{\"object\":{\"key\":[{\"wildcard\":\"photos/*.jpg\"}]}}}", false);
+        assertMatches("{\"detail\":{\"object\":{\"size\":[{\"numeric\":[\">\",1000,\"<=\",1024]}]}}}", true);
+        assertMatches("{\"detail\":{\"object\":{\"size\":[{\"numeric\":[\"<\",1024]}]}}}", false);
+        assertMatches("{\"detail\":{\"source-ip-address\":[{\"cidr\":\"10.0.0.0/24\"}]}}", true);
+        assertMatches("{\"detail\":{\"source-ip-address\":[{\"cidr\":\"10.0.1.0/24\"}]}}", false);
+    }
+
+    @Test
+    public void matchingRules_AnythingBut() {
+        assertMatches("{\"source\":[{\"anything-but\":\"aws.ec2\"}]}", true);
+        assertMatches("{\"source\":[{\"anything-but\":[\"aws.ec2\",\"aws.s3\"]}]}", false);
+        assertMatches("{\"source\":[{\"anything-but\":{\"prefix\":\"aws.\"}}]}", false);
+        assertMatches("{\"detail\":{\"missing\":[{\"anything-but\":\"value\"}]}}", false);
+    }
+
+    @Test
+    public void matchingRules_Exists() {
+        assertMatches("{\"detail\":{\"requester\":[{\"exists\":true}]}}", true);
+        assertMatches("{\"detail\":{\"missing\":[{\"exists\":true}]}}", false);
+        assertMatches("{\"detail\":{\"missing\":[{\"exists\":false}]}}", true);
+        assertMatches("{\"detail\":{\"requester\":[{\"exists\":false}]}}", false);
+        assertMatches("{\"source\":[\"aws.s3\"],\"detail\":{\"missing\":[{\"exists\":false}]}}", true);
+    }
+
+    @Test
+    public void matchingRules_Or() {
+        assertMatches("{\"source\":[\"aws.s3\"],\"$or\":[{\"detail-type\":[\"Object Deleted\"]},{\"detail\":{\"tags\":[\"red\"]}}]}", true);
+        assertMatches("{\"source\":[\"aws.s3\"],\"$or\":[{\"detail-type\":[\"Object Deleted\"]},{\"detail\":{\"tags\":[\"blue\"]}}]}", false);
+        assertMatches("{\"$or\":[{\"source\":[\"aws.ec2\"]},{\"detail\":{\"$or\":[{\"missing\":[\"x\"]},{\"requester\":[{\"prefix\":\"123\"}]}]}}]}", true);
+    }
+
+    @Test
+    public void matchingRules_ManyRules() {
+        final EventPatternMatcher matcher = EventPatternMatcher.builder()
+                .rule("S3Rule", parse("{\"source\":[\"aws.s3\"]}"))
+                .rule("Ec2Rule", parse("{\"source\":[\"aws.ec2\"]}"))
+                .rule("BucketRule", parse("{\"detail\":{\"bucket\":{\"name\":[\"my-bucket\"]}}}"))
+                .rule("ScheduledRule", null)
+                .rule("PrefixRule", parse("{\"source\":[{\"prefix\":\"aws.\"}]}"))
+                .build();
+
+        assertThat(matcher.matchingRules(EVENT)).containsExactly("S3Rule", "BucketRule", "PrefixRule");
+        assertThat(matcher.matchingRules("{\"source\":\"aws.ec2\"}")).containsExactly("Ec2Rule", "PrefixRule");
+        assertThat(matcher.matchingRules("{\"source\":\"custom\"}")).isEmpty();
+    }
+
+    @Test
+    public void matchingRules_ResourceModel() {
+        final ResourceModel model = ResourceModel.builder()
+                .name("TestRule")
+                .eventPattern(parse("{\"source\":[\"aws.s3\"]}"))
+                .build();
+
+        final EventPatternMatcher matcher = EventPatternMatcher.builder()
+                .rule(model)
+                .build();
+
+        assertThat(matcher.matchingRules(EVENT)).containsExactly("TestRule");
+    }
+
+    @Test
+    public void matchingRules_InvalidInput() {
+        final EventPatternMatcher.Builder builder = EventPatternMatcher.builder();
+
+        assertThatThrownBy(() -> builder.rule("InvalidRule", parse("{\"source\":\"aws.s3\"}")))
+                .isInstanceOf(CfnInvalidRequestException.class);
+
+        final EventPatternMatcher matcher = builder.rule("S3Rule", parse("{\"source\":[\"aws.s3\"]}")).build();
+
+        assertThatThrownBy(() -> matcher.matchingRules("{\"source\":"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(matcher.matchingRules("[\"aws.s3\"]")).isEmpty();
+    }
+
+    private static void assertMatches(final String pattern, final boolean expected) {
+        final EventPatternMatcher matcher = EventPatternMatcher.builder()
+                .rule("TestRule", parse(pattern))
+                .build();
+
+        assertThat(matcher.matchingRules(EVENT).contains("TestRule")).as(pattern).isEqualTo(expected);
+    }
+
+    private static Map<String, Object> parse(final String pattern) {
+        try {
+            return MAPPER.readValue(pattern, new TypeReference<Map<String, Object>>(){});
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package software.amazon.events.rule;
+
+import java.time.Duration;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import software.amazon.awssdk.services.cloudwatchevents.CloudWatchEventsClient;
+import software.amazon.cloudformation.exceptions.CfnInvalidRequestException;
+import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
+import software.amazon.cloudformation.proxy.HandlerErrorCode;
+import software.amazon.cloudformation.proxy.OperationStatus;
+import software.amazon.cloudformation.proxy.ProgressEvent;
+import software.amazon.cloudformation.proxy.ProxyClient;
+import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+public class EventPatternValidatorTest extends AbstractTestBase {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @Test
+    public void validate_ValidPatterns() {
+        String[] patterns = {
+                "{\"source\":[\"aws.s3\"],\"detail\":{\"bucket\":{\"name\":[\"my-bucket\"]}}}",
+                "{\"source\":[{\"prefix\":\"aws.\"}],\"detail-type\":[{\"suffix\":\"created\"}]}",
+                "{\"source\":[{\"prefix\":{\"equals-ignore-case\":\"AWS.\"}}]}",
+                "{\"detail\":{\"state\":[{\"anything-but\":[\"stopped\",\"terminated\"]}]}}",
+                "{\"detail\":{\"state\":[{\"anything-but\":{\"prefix\":\"init\"}}]}}",
+                "{\"detail\":{\"count\":[{\"numeric\":[\">\",0,\"<=\",5]}],\"size\":[{\"numeric\":[\"=\",3.5]}]}}",
+                "{\"detail\":{\"error\":[{\"exists\":false}]}}",
+                "{\"detail\":{\"sourceIP\":[{\"cidr\":\"10.0.0.0/24\"}],\"sourceIPv6\":[{\"cidr\":\"2001:db8::/32\"}]}}",
+                "{\"detail\":{\"key\":[{\"wildcard\":\"dir/*.png\"}]}}",
+                "{\"source\":[\"aws.ec2\"],\"$or\":[{\"detail\":{\"state\":[\"running\"]}},{\"detail\":{\"count\":[null,1,true]}}]}"
+        };
+
+        for (String pattern : patterns) {
+            assertThatCode(() -> EventPatternValidator.validate(parse(pattern))).as(pattern).doesNotThrowAnyException();
+        }
+        assertThatCode(() -> EventPatternValidator.validate(null)).doesNotThrowAnyException();
+    }
+
+    @Test
+    public void validate_InvalidPatterns() {
+        String[] patterns = {
+                "{}",
+                "{\"source\":\"aws.s3\"}",
+                "{\"source\":[]}",
+                "{\"detail\":{}}",
+                "{\"source\":[[\"aws.s3\"]]}",
+                "{\"source\":[{\"prefix\":\"aws.\",\"suffix\":\"s3\"}]}",
+                "{\"source\":[{\"contains\":\"s3\"}]}",
+                "{\"source\":[{\"prefix\":1}]}",
+                "{\"detail\":{\"state\":[{\"anything-but\":[]}]}}",
+                "{\"detail\":{\"state\":[{\"anything-but\":{\"numeric\":[\">\",1]}}]}}",
+                "{\"detail\":{\"count\":[{\"numeric\":[\">\",0,\">\",5]}]}}",
+                "{\"detail\":{\"count\":[{\"numeric\":[\"!=\",0]}]}}",
+                "{\"detail\":{\"count\":[{\"numeric\":[0,\">\"]}]}}",
+                "{\"detail\":{\"error\":[{\"exists\":\"true\"}]}}",
+                "{\"detail\":{\"sourceIP\":[{\"cidr\":\"10.0.0.256/24\"}]}}",
+                "{\"detail\":{\"sourceIP\":[{\"cidr\":\"10.0.0.0/33\"}]}}",
+                "{\"detail\":{\"key\":[{\"wildcard\":\"dir/**.png\"}]}}",
+                "{\"$or\":[]}",
+                "{\"$or\":[\"aws.s3\"]}"
+        };
+
+        for (String pattern : patterns) {
+            assertThatThrownBy(() -> EventPatternValidator.validate(parse(pattern))).as(pattern)
+                    .isInstanceOf(CfnInvalidRequestException.class)
+                    .hasMessageContaining("Event pattern is not valid");
+        }
+    }
+
+    @Test
+    public void validate_TooLong() {
+        StringBuilder names = new StringBuilder();
+        for (int i = 0; i < 500; i++) {
+            names.append(i == 0 ? "" : ",").append("\"bucket-").append(i).append("\"");
+        }
+
+        assertThatThrownBy(() -> EventPatternValidator.validate(parse("{\"detail\":{\"name\":[" + names + "]}}")))
+                .isInstanceOf(CfnInvalidRequestException.class)
+                .hasMessageContaining("the maximum is 4096");
+    }
+
+    @Test
+    public void validate_TooManyCombinations() {
+        // 100 two-way $or under different fields are short enough, but would expand into 2^100 branches
+        StringBuilder fields = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            fields.append(i == 0 ? "" : ",").append("\"f").append(i).append("\":{\"$or\":[{\"a\":[1]},{\"b\":[1]}]}");
+        }
+        final Map<String, Object> pattern = parse("{" + fields + "}");
+
+        assertThatThrownBy(() -> EventPatternValidator.validate(pattern))
+                .isInstanceOf(CfnInvalidRequestException.class)
+                .hasMessageContaining("more than 1000 combinations");
+        assertThatThrownBy(() -> EventPatternMatcher.builder().rule("TestRule", pattern))
+                .isInstanceOf(CfnInvalidRequestException.class);
+
+        // Exactly at the limit: 10 * 10 * 10 combinations
+        StringBuilder alternatives = new StringBuilder();
+        for (int i = 0; i < 10; i++) {
+            alternatives.append(i == 0 ? "" : ",").append("{\"a\":[").append(i).append("]}");
+        }
+        final String or = "{\"$or\":[" + alternatives + "]}";
+
+        assertThatCode(() -> EventPatternValidator.validate(parse("{\"x\":" + or + ",\"y\":" + or + ",\"z\":" + or + "}")))
+                .doesNotThrowAnyException();
+    }
+
+    @Test
+    public void handleRequest_InvalidPatternFailsBeforeAnyCall() {
+        final AmazonWebServicesClientProxy proxy = new AmazonWebServicesClientProxy(logger, MOCK_CREDENTIALS, () -> Duration.ofSeconds(600).toMillis());
+        final CloudWatchEventsClient sdkClient = mock(CloudWatchEventsClient.class);
+        final ProxyClient<CloudWatchEventsClient> proxyClient = MOCK_PROXY(proxy, sdkClient);
+
+        final ResourceModel model = ResourceModel.builder()
+                .name("TestRule")
+                .eventPattern(parse("{\"source\":\"aws.s3\"}"))
+                .build();
+
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(model)
+                .build();
+
+        final ProgressEvent<ResourceModel, CallbackContext> createResponse = new CreateHandler().handleRequest(proxy, request, new CallbackContext(), proxyClient, logger);
+        final ProgressEvent<ResourceModel, CallbackContext> updateResponse = new UpdateHandler().handleRequest(proxy, request, new CallbackContext(), proxyClient, logger);
+
+        verifyNoInteractions(sdkClient);
+
+        assertThat(createResponse.getStatus()).isEqualTo(OperationStatus.FAILED);
+        assertThat(createResponse.getErrorCode()).isEqualTo(HandlerErrorCode.InvalidRequest);
+        assertThat(updateResponse.getStatus()).isEqualTo(OperationStatus.FAILED);
+        assertThat(updateResponse.getErrorCode()).isEqualTo(HandlerErrorCode.InvalidRequest);
+    }
+
+    private static Map<String, Object> parse(final String pattern) {
+        try {
+            return MAPPER.readValue(pattern, new TypeReference<Map<String, Object>>(){});
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException(e);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package software.amazon.events.rule;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class EventPatternsTest {
+
+    @Test
+    public void serialize_KeyOrderIsCanonical() throws JsonProcessingException {
+        // MODEL
+
+        final Map<String, Object> detail = new LinkedHashMap<>();
+        detail.put("state", Collections.singletonList("running"));
+        detail.put("instance-id", Collections.singletonList("i-1234"));
+
+        final Map<String, Object> eventPattern = new LinkedHashMap<>();
+        eventPattern.put("source", Collections.singletonList("aws.ec2"));
+        eventPattern.put("detail", detail);
+
+        final Map<String, Object> reorderedDetail = new LinkedHashMap<>();
+        reorderedDetail.put("instance-id", Collections.singletonList("i-1234"));
+        reorderedDetail.put("state", Collections.singletonList("running"));
+
+        final Map<String, Object> reorderedEventPattern = new LinkedHashMap<>();
+        reorderedEventPattern.put("detail", reorderedDetail);
+        reorderedEventPattern.put("source", Collections.singletonList("aws.ec2"));
+
+        // RUN + ASSERT
+
+        assertThat(EventPatterns.serialize(eventPattern))
+                .isEqualTo("{\"detail\":{\"instance-id\":[\"i-1234\"],\"state\":[\"running\"]},\"source\":[\"aws.ec2\"]}")
+                .isEqualTo(EventPatterns.serialize(reorderedEventPattern));
+    }
+
+    @Test
+    public void serialize_CallerChangesDoNotReachCache() throws JsonProcessingException {
+        // MODEL
+
+        final List<Object> sources = new ArrayList<>();
+        sources.add("aws.s3");
+
+        final Map<String, Object> eventPattern = new LinkedHashMap<>();
+        eventPattern.put("source", sources);
+
+        // RUN
+
+        final String serialized = EventPatterns.serialize(eventPattern);
+        sources.add("aws.ec2");
+
+        // ASSERT
+
+        assertThat(serialized).isEqualTo("{\"source\":[\"aws.s3\"]}");
+        assertThat(EventPatterns.serialize(eventPattern)).isEqualTo("{\"source\":[\"aws.s3\",\"aws.ec2\"]}");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void parse_ReturnsUnmodifiableMaps() throws JsonProcessingException {
+        // RUN
+
+        final Map<String, Object> parsed = EventPatterns.parse("{\"source\":[\"aws.s3\"],\"detail\":{\"bucket\":{\"name\":[\"bucket\"]}}}");
+
+        // ASSERT
+
+        assertThat(EventPatterns.parse("{\"source\":[\"aws.s3\"],\"detail\":{\"bucket\":{\"name\":[\"bucket\"]}}}")).isSameAs(parsed);
+
+        assertThatThrownBy(() -> parsed.put("account", Collections.singletonList("123456789012")))
+                .isInstanceOf(UnsupportedOperationException.class);
+        assertThatThrownBy(() -> ((List<Object>) parsed.get("source")).add("aws.ec2"))
+                .isInstanceOf(UnsupportedOperationException.class);
+        assertThatThrownBy(() -> ((Map<String, Object>) parsed.get("detail")).remove("bucket"))
+                .isInstanceOf(UnsupportedOperationException.class);
+        assertThatThrownBy(() -> ((Map<String, Object>) ((Map<String, Object>) parsed.get("detail")).get("bucket")).clear())
+                .isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    public void serializeAndParse_IntegersAndDoublesAreDistinct() throws JsonProcessingException {
+        // MODEL
+
+        final Map<String, Object> integerPattern = Collections.singletonMap("count", Collections.singletonList(1));
+        final Map<String, Object> doublePattern = Collections.singletonMap("count", Collections.singletonList(1.0));
+
+        // RUN + ASSERT
+
+        assertThat(EventPatterns.serialize(integerPattern)).isEqualTo("{\"count\":[1]}");
+        assertThat(EventPatterns.serialize(doublePattern)).isEqualTo("{\"count\":[1.0]}");
+
+        assertThat((List<?>) EventPatterns.parse("{\"count\":[1]}").get("count")).containsExactly(1);
+        assertThat((List<?>) EventPatterns.parse("{\"count\":[1.0]}").get("count")).containsExactly(1.0);
+    }
+
+    @Test
+    public void parse_CacheIsBounded() throws JsonProcessingException {
+        // RUN
+
+        for (int i = 0; i < EventPatterns.MAX_CACHED_PATTERNS * 2; i++) {
+            EventPatterns.parse("{\"source\":[\"CacheIsBounded" + i + "\"]}");
+        }
+
+        // ASSERT
+
+        assertThat(EventPatterns.PARSED_PATTERNS.size()).isEqualTo(EventPatterns.MAX_CACHED_PATTERNS);
+    }
+
+    @Test
+    public void lruCache_EvictsLeastRecentlyUsed() {
+        // MODEL
+
+        final EventPatterns.LruCache<Integer, String> cache = new EventPatterns.LruCache<>(EventPatterns.MAX_CACHED_PATTERNS);
+
+        for (int i = 0; i < EventPatterns.MAX_CACHED_PATTERNS; i++) {
+            cache.put(i, "pattern" + i);
+        }
+
+        // RUN
+
+        assertThat(cache.get(0)).isEqualTo("pattern0");
+        cache.put(EventPatterns.MAX_CACHED_PATTERNS, "pattern" + EventPatterns.MAX_CACHED_PATTERNS);
+
+        // ASSERT
+
+        assertThat(cache.size()).isEqualTo(EventPatterns.MAX_CACHED_PATTERNS);
+        assertThat(cache.get(0)).isEqualTo("pattern0");
+        assertThat(cache.get(1)).isNull();
+        assertThat(cache.get(EventPatterns.MAX_CACHED_PATTERNS)).isEqualTo("pattern" + EventPatterns.MAX_CACHED_PATTERNS);
+        assertThat(cache.hitCount()).isEqualTo(3);
+        assertThat(cache.missCount()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,509 @@
+package software.amazon.events.rule;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import software.amazon.awssdk.awscore.exception.AwsErrorDetails;
+import software.amazon.awssdk.awscore.exception.AwsServiceException;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.services.cloudwatchevents.CloudWatchEventsClient;
+import software.amazon.awssdk.services.cloudwatchevents.model.*;
+import software.amazon.awssdk.services.cloudwatchevents.model.Target;
+
+/**
+ * A stateful, in-memory stand-in for the CloudWatch Events rule and target APIs, so that the handlers can be run end
+ * to end, at high concurrency, without a network.
+ *
+ * The fake enforces the limits the handlers have to respect: at most 10 targets per PutTargets call, at most
+ * maxTargetsPerRule targets per rule, paginated List calls, and no DeleteRule while a rule still has targets. Every
+ * call can be slowed down by a fixed latency and throttled at a given rate. Writes are only visible to reads once the
+ * consistency window has passed; until then, reads see the rule as it was before the write.
+ */
+class FakeCloudWatchEventsClient implements CloudWatchEventsClient {
+    static final String DEFAULT_EVENT_BUS_NAME = "default";
+    static final int MAX_TARGETS_PER_PUT_TARGETS = 10;
+    static final int MAX_IDS_PER_REMOVE_TARGETS = 100;
+    static final int MAX_PAGE_SIZE = 100;
+
+    // The default quota of targets per rule
+    static final int DEFAULT_MAX_TARGETS_PER_RULE = 5;
+
+    private static final String ARN_PREFIX = "arn:aws:events:us-west-2:123456789123:";
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final Duration latency;
+    private final double throttleRate;
+    private final int maxTargetsPerRule;
+    private volatile Duration consistencyWindow;
+
+    private final TreeSet<String> eventBusNames = new TreeSet<>();
+
+    // Keyed by event bus name and rule name; guarded by this
+    private final Map<String, Map<String, VersionedRule>> rules = new HashMap<>();
+
+    private final Map<String, AtomicInteger> callCounts = new ConcurrentHashMap<>();
+
+    private FakeCloudWatchEventsClient(final Builder builder) {
+        this.latency = builder.latency;
+        this.throttleRate = builder.throttleRate;
+        this.maxTargetsPerRule = builder.maxTargetsPerRule;
+        this.consistencyWindow = builder.consistencyWindow;
+
+        eventBusNames.add(DEFAULT_EVENT_BUS_NAME);
+        eventBusNames.addAll(builder.eventBusNames);
+        for (String eventBusName : eventBusNames) {
+            rules.put(eventBusName, new TreeMap<>());
+        }
+    }
+
+    static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Changes how long writes take to become visible, e.g. to create rules quickly and then update them with stale reads.
+     * @param consistencyWindow The new window, which applies to writes made from now on
+     */
+    void setConsistencyWindow(final Duration consistencyWindow) {
+        this.consistencyWindow = consistencyWindow;
+    }
+
+    /**
+     * @param operation The name of an operation, e.g. "PutTargets"
+     * @return How often the operation has been called, including throttled calls
+     */
+    int callCount(final String operation) {
+        AtomicInteger count = callCounts.get(operation);
+        return count == null ? 0 : count.get();
+    }
+
+    /**
+     * @return The number of rules that exist, whether or not they are visible yet
+     */
+    synchronized int ruleCount() {
+        int count = 0;
+        for (Map<String, VersionedRule> eventBusRules : rules.values()) {
+            for (VersionedRule rule : eventBusRules.values()) {
+                if (rule.current != null) {
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public String serviceName() {
+        return SERVICE_NAME;
+    }
+
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public PutRuleResponse putRule(final PutRuleRequest request) {
+        beforeCall("PutRule");
+
+        if (request.eventPattern() == null && request.scheduleExpression() == null) {
+            throw validationException("Parameter(s) ScheduleExpression or EventPattern must be specified.");
+        }
+        if (request.eventPattern() != null) {
+            try {
+                MAPPER.readTree(request.eventPattern());
+            } catch (IOException e) {
+                throw (InvalidEventPatternException) serviceException(InvalidEventPatternException.builder(),
+                        "InvalidEventPatternException", "Event pattern is not valid.");
+            }
+        }
+
+        synchronized (this) {
+            String eventBusName = eventBusName(request.eventBusName());
+            VersionedRule rule = eventBusRules(eventBusName).computeIfAbsent(request.name(), name -> new VersionedRule());
+
+            Rule previous = rule.current;
+            String arn = ARN_PREFIX + "rule/" + (DEFAULT_EVENT_BUS_NAME.equals(eventBusName) ? "" : eventBusName + "/") + request.name();
+
+            rule.write(new Rule(arn, eventBusName, request, previous == null ? Collections.emptyMap() : previous.targets), consistencyWindow);
+
+            return PutRuleResponse.builder()
+                    .ruleArn(arn)
+                    .build();
+        }
+    }
+
+    @Override
+    public DescribeRuleResponse describeRule(final DescribeRuleRequest request) {
+        beforeCall("DescribeRule");
+
+        synchronized (this) {
+            Rule rule = visibleRule(request.eventBusName(), request.name());
+
+            return DescribeRuleResponse.builder()
+                    .arn(rule.arn)
+                    .name(rule.request.name())
+                    .eventBusName(rule.eventBusName)
+                    .description(rule.request.description())
+                    .eventPattern(rule.request.eventPattern())
+                    .roleArn(rule.request.roleArn())
+                    .scheduleExpression(rule.request.scheduleExpression())
+                    .state(rule.request.state() == null ? RuleState.ENABLED : rule.request.state())
+                    .build();
+        }
+    }
+
+    @Override
+    public DeleteRuleResponse deleteRule(final DeleteRuleRequest request) {
+        beforeCall("DeleteRule");
+
+        synchronized (this) {
+            VersionedRule rule = eventBusRules(eventBusName(request.eventBusName())).get(request.name());
+
+            // Deleting a rule that does not exist succeeds
+            if (rule != null && rule.current != null) {
+                if (!rule.current.targets.isEmpty()) {
+                    throw validationException("Rule can't be deleted since it has targets.");
+                }
+                rule.write(null, consistencyWindow);
+            }
+
+            return DeleteRuleResponse.builder().build();
+        }
+    }
+
+    @Override
+    public ListRulesResponse listRules(final ListRulesRequest request) {
+        beforeCall("ListRules");
+
+        synchronized (this) {
+            List<Rule> visibleRules = new ArrayList<>();
+            for (VersionedRule rule : eventBusRules(eventBusName(request.eventBusName())).values()) {
+                Rule visible = rule.visible();
+                if (visible != null && (request.namePrefix() == null || visible.request.name().startsWith(request.namePrefix()))) {
+                    visibleRules.add(visible);
+                }
+            }
+
+            Page<Rule> page = page(visibleRules, request.limit(), request.nextToken());
+
+            return ListRulesResponse.builder()
+                    .rules(page.items.stream()
+                            .map(rule -> software.amazon.awssdk.services.cloudwatchevents.model.Rule.builder()
+                                    .arn(rule.arn)
+                                    .name(rule.request.name())
+                                    .eventBusName(rule.eventBusName)
+                                    .description(rule.request.description())
+                                    .eventPattern(rule.request.eventPattern())
+                                    .scheduleExpression(rule.request.scheduleExpression())
+                                    .state(rule.request.state() == null ? RuleState.ENABLED : rule.request.state())
+                                    .build())
+                            .collect(Collectors.toList()))
+                    .nextToken(page.nextToken)
+                    .build();
+        }
+    }
+
+    @Override
+    public ListEventBusesResponse listEventBuses(final ListEventBusesRequest request) {
+        beforeCall("ListEventBuses");
+
+        synchronized (this) {
+            List<String> names = eventBusNames.stream()
+                    .filter(name -> request.namePrefix() == null || name.startsWith(request.namePrefix()))
+                    .collect(Collectors.toList());
+
+            Page<String> page = page(names, request.limit(), request.nextToken());
+
+            return ListEventBusesResponse.builder()
+                    .eventBuses(page.items.stream()
+                            .map(name -> EventBus.builder()
+                                    .name(name)
+                                    .arn(ARN_PREFIX + "event-bus/" + name)
+                                    .build())
+                            .collect(Collectors.toList()))
+                    .nextToken(page.nextToken)
+                    .build();
+        }
+    }
+
+    @Override
+    public ListTargetsByRuleResponse listTargetsByRule(final ListTargetsByRuleRequest request) {
+        beforeCall("ListTargetsByRule");
+
+        synchronized (this) {
+            Rule rule = visibleRule(request.eventBusName(), request.rule());
+            Page<Target> page = page(new ArrayList<>(rule.targets.values()), request.limit(), request.nextToken());
+
+            return ListTargetsByRuleResponse.builder()
+                    .targets(page.items)
+                    .nextToken(page.nextToken)
+                    .build();
+        }
+    }
+
+    @Override
+    public PutTargetsResponse putTargets(final PutTargetsRequest request) {
+        beforeCall("PutTargets");
+
+        if (request.targets().size() > MAX_TARGETS_PER_PUT_TARGETS) {
+            throw validationException(String.format("Value at 'targets' failed to satisfy constraint: Member must have length less than or equal to %s",
+                    MAX_TARGETS_PER_PUT_TARGETS));
+        }
+
+        synchronized (this) {
+            VersionedRule rule = existingRule(request.eventBusName(), request.rule());
+
+            Map<String, Target> targets = new LinkedHashMap<>(rule.current.targets);
+            for (Target target : request.targets()) {
+                targets.put(target.id(), target);
+            }
+
+            if (targets.size() > maxTargetsPerRule) {
+                throw (LimitExceededException) serviceException(LimitExceededException.builder(), "LimitExceededException",
+                        String.format("The requested resource exceeds the maximum number allowed. A rule can have at most %s targets.", maxTargetsPerRule));
+            }
+
+            rule.write(rule.current.withTargets(targets), consistencyWindow);
+
+            return PutTargetsResponse.builder()
+                    .failedEntryCount(0)
+                    .failedEntries(Collections.emptyList())
+                    .build();
+        }
+    }
+
+    @Override
+    public RemoveTargetsResponse removeTargets(final RemoveTargetsRequest request) {
+        beforeCall("RemoveTargets");
+
+        if (request.ids().size() > MAX_IDS_PER_REMOVE_TARGETS) {
+            throw validationException(String.format("Value at 'ids' failed to satisfy constraint: Member must have length less than or equal to %s",
+                    MAX_IDS_PER_REMOVE_TARGETS));
+        }
+
+        synchronized (this) {
+            VersionedRule rule = existingRule(request.eventBusName(), request.rule());
+
+            Map<String, Target> targets = new LinkedHashMap<>(rule.current.targets);
+            targets.keySet().removeAll(request.ids());
+
+            rule.write(rule.current.withTargets(targets), consistencyWindow);
+
+            return RemoveTargetsResponse.builder()
+                    .failedEntryCount(0)
+                    .failedEntries(Collections.emptyList())
+                    .build();
+        }
+    }
+
+    /**
+     * Counts the call, waits for the configured latency and throttles the call at the configured rate. The latency is
+     * spent outside of the lock, so that concurrent calls overlap as they would against the service.
+     */
+    private void beforeCall(final String operation) {
+        callCounts.computeIfAbsent(operation, key -> new AtomicInteger()).incrementAndGet();
+
+        if (!latency.isZero()) {
+            try {
+                Thread.sleep(latency.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw SdkClientException.builder().message("Interrupted while calling " + operation).cause(e).build();
+            }
+        }
+
+        if (throttleRate > 0 && ThreadLocalRandom.current().nextDouble() < throttleRate) {
+            throw serviceException(CloudWatchEventsException.builder(), "ThrottlingException", "Rate exceeded");
+        }
+    }
+
+    private String eventBusName(final String eventBusName) {
+        String name = eventBusName == null ? DEFAULT_EVENT_BUS_NAME : eventBusName;
+
+        if (!eventBusNames.contains(name)) {
+            throw resourceNotFoundException(String.format("Event bus %s does not exist.", name));
+        }
+        return name;
+    }
+
+    private Map<String, VersionedRule> eventBusRules(final String eventBusName) {
+        return rules.get(eventBusName);
+    }
+
+    private Rule visibleRule(final String eventBusName, final String name) {
+        String busName = eventBusName(eventBusName);
+        VersionedRule rule = eventBusRules(busName).get(name);
+        Rule visible = rule == null ? null : rule.visible();
+
+        if (visible == null) {
+            throw resourceNotFoundException(String.format("Rule %s does not exist on EventBus %s.", name, busName));
+        }
+        return visible;
+    }
+
+    private VersionedRule existingRule(final String eventBusName, final String name) {
+        String busName = eventBusName(eventBusName);
+        VersionedRule rule = eventBusRules(busName).get(name);
+
+        if (rule == null || rule.current == null) {
+            throw resourceNotFoundException(String.format("Rule %s does not exist on EventBus %s.", name, busName));
+        }
+        return rule;
+    }
+
+    /**
+     * Returns one page of items. The next token is the offset of the next page.
+     */
+    private static <T> Page<T> page(final List<T> items, final Integer limit, final String nextToken) {
+        int pageSize = limit == null ? MAX_PAGE_SIZE : Math.min(limit, MAX_PAGE_SIZE);
+        int offset;
+
+        try {
+            offset = nextToken == null ? 0 : Integer.parseInt(nextToken);
+        } catch (NumberFormatException e) {
+            throw validationException("The nextToken is not valid.");
+        }
+
+        int end = Math.min(items.size(), offset + pageSize);
+        return new Page<>(new ArrayList<>(items.subList(Math.min(offset, end), end)), end < items.size() ? String.valueOf(end) : null);
+    }
+
+    private static ResourceNotFoundException resourceNotFoundException(final String message) {
+        return (ResourceNotFoundException) serviceException(ResourceNotFoundException.builder(), "ResourceNotFoundException", message);
+    }
+
+    private static CloudWatchEventsException validationException(final String message) {
+        return (CloudWatchEventsException) serviceException(CloudWatchEventsException.builder(), "ValidationException", message);
+    }
+
+    private static AwsServiceException serviceException(final AwsServiceException.Builder builder, final String errorCode, final String message) {
+        return builder
+                .message(message)
+                .statusCode(400)
+                .awsErrorDetails(AwsErrorDetails.builder()
+                        .errorCode(errorCode)
+                        .errorMessage(message)
+                        .serviceName("CloudWatchEvents")
+                        .build())
+                .build();
+    }
+
+    /**
+     * A rule as it is stored by the service, i.e. the PutRule request that created or last updated it, and its targets.
+     */
+    private static final class Rule {
+        private final String arn;
+        private final String eventBusName;
+        private final PutRuleRequest request;
+        private final Map<String, Target> targets;
+
+        private Rule(final String arn, final String eventBusName, final PutRuleRequest request, final Map<String, Target> targets) {
+            this.arn = arn;
+            this.eventBusName = eventBusName;
+            this.request = request;
+            this.targets = Collections.unmodifiableMap(new LinkedHashMap<>(targets));
+        }
+
+        private Rule withTargets(final Map<String, Target> targets) {
+            return new Rule(arn, eventBusName, request, targets);
+        }
+    }
+
+    /**
+     * The current version of a rule, and the version that reads see until the consistency window of the last write has
+     * passed. A null version means that the rule does not exist.
+     */
+    private static final class VersionedRule {
+        private Rule current;
+        private Rule previous;
+        private long visibleAtNanos;
+
+        private void write(final Rule rule, final Duration consistencyWindow) {
+            previous = visible();
+            current = rule;
+            visibleAtNanos = System.nanoTime() + consistencyWindow.toNanos();
+        }
+
+        private Rule visible() {
+            return System.nanoTime() - visibleAtNanos >= 0 ? current : previous;
+        }
+    }
+
+    private static final class Page<T> {
+        private final List<T> items;
+        private final String nextToken;
+
+        private Page(final List<T> items, final String nextToken) {
+            this.items = items;
+            this.nextToken = nextToken;
+        }
+    }
+
+    static final class Builder {
+        private Duration latency = Duration.ZERO;
+        private double throttleRate;
+        private int maxTargetsPerRule = DEFAULT_MAX_TARGETS_PER_RULE;
+        private Duration consistencyWindow = Duration.ZERO;
+        private final List<String> eventBusNames = new ArrayList<>();
+
+        private Builder() {
+        }
+
+        /**
+         * @param latency How long every call takes
+         */
+        Builder latency(final Duration latency) {
+            this.latency = latency;
+            return this;
+        }
+
+        /**
+         * @param throttleRate The fraction of calls, from 0 to 1, that fail with a ThrottlingException
+         */
+        Builder throttleRate(final double throttleRate) {
+            this.throttleRate = throttleRate;
+            return this;
+        }
+
+        /**
+         * @param maxTargetsPerRule How many targets a rule can have, e.g. to model a raised quota
+         */
+        Builder maxTargetsPerRule(final int maxTargetsPerRule) {
+            this.maxTargetsPerRule = maxTargetsPerRule;
+            return this;
+        }
+
+        /**
+         * @param consistencyWindow How long a write takes to become visible to reads
+         */
+        Builder consistencyWindow(final Duration consistencyWindow) {
+            this.consistencyWindow = consistencyWindow;
+            return this;
+        }
+
+        /**
+         * @param eventBusName An event bus that exists besides the default event bus
+         */
+        Builder eventBus(final String eventBusName) {
+            this.eventBusNames.add(eventBusName);
+            return this;
+        }
+
+        FakeCloudWatchEventsClient build() {
+            return new FakeCloudWatchEventsClient(this);
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package software.amazon.events.rule;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import software.amazon.awssdk.services.cloudwatchevents.CloudWatchEventsClient;
+import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
+import software.amazon.cloudformation.proxy.HandlerErrorCode;
+import software.amazon.cloudformation.proxy.OperationStatus;
+import software.amazon.cloudformation.proxy.ProgressEvent;
+import software.amazon.cloudformation.proxy.ProxyClient;
+import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs the handlers end to end against FakeCloudWatchEventsClient, many rules at a time. In-progress events are
+ * invoked again, as CloudFormation would, with every second of callback delay shortened to CALLBACK_DELAY_MILLIS.
+ */
+public class HandlerConcurrencyTest extends AbstractTestBase {
+
+    private static final int RULE_COUNT = 200;
+    private static final int THREAD_COUNT = 32;
+    private static final int MAX_INVOCATIONS = 50;
+    private static final long CALLBACK_DELAY_MILLIS = 10;
+    private static final String EVENT_BUS_NAME = "TestEventBus";
+
+    private ExecutorService executor;
+
+    @BeforeEach
+    public void setup() {
+        executor = Executors.newFixedThreadPool(THREAD_COUNT);
+    }
+
+    @AfterEach
+    public void tear_down() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void handleRequest_ConcurrentLifecycle() throws Exception {
+        final FakeCloudWatchEventsClient sdkClient = FakeCloudWatchEventsClient.builder()
+                .latency(Duration.ofMillis(1))
+                .eventBus(EVENT_BUS_NAME)
+                .build();
+
+        // MODEL
+
+        final List<ResourceModel> models = new ArrayList<>();
+        final List<ResourceModel> updatedModels = new ArrayList<>();
+        for (int i = 0; i < RULE_COUNT; i++) {
+            models.add(buildModel(i, "TestDescription", "0", "1", "2"));
+            updatedModels.add(buildModel(i, "UpdatedDescription", "0", "1-updated", "3"));
+        }
+
+        // RUN + ASSERT [create]
+
+        assertAllSucceed(runAll(models, () -> new CreateHandler(new ExponentialBackoffScheduler(1, 1, 30)), sdkClient));
+        assertThat(sdkClient.ruleCount()).isEqualTo(RULE_COUNT);
+
+        // RUN + ASSERT [update, with reads lagging behind writes]
+
+        sdkClient.setConsistencyWindow(Duration.ofMillis(30));
+
+        assertAllSucceed(runAll(updatedModels, () -> new UpdateHandler(new ExponentialBackoffScheduler(1, 1, 30)), sdkClient));
+
+        // RUN + ASSERT [read]
+
+        final List<ProgressEvent<ResourceModel, CallbackContext>> readResponses = runAll(updatedModels, ReadHandler::new, sdkClient);
+        assertAllSucceed(readResponses);
+
+        for (ProgressEvent<ResourceModel, CallbackContext> response : readResponses) {
+            assertThat(response.getResourceModel().getDescription()).isEqualTo("UpdatedDescription");
+            assertThat(response.getResourceModel().getTargets())
+                    .extracting(Target::getId)
+                    .containsExactlyInAnyOrder("TestTargetId0", "TestTargetId1", "TestTargetId3");
+            assertThat(response.getResourceModel().getTargets())
+                    .extracting(Target::getArn)
+                    .contains("arn:aws:lambda:us-west-2:123456789123:function:TestFunction1-updated");
+        }
+
+        // RUN + ASSERT [list every event bus]
+
+        final ProgressEvent<ResourceModel, CallbackContext> listResponse = run(new ListHandler(), ResourceModel.builder().build(), sdkClient);
+        assertThat(listResponse.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(listResponse.getResourceModels()).hasSize(RULE_COUNT);
+
+        // RUN + ASSERT [delete]
+
+        assertAllSucceed(runAll(updatedModels, DeleteHandler::new, sdkClient));
+        assertThat(sdkClient.ruleCount()).isZero();
+    }
+
+    @Test
+    public void handleRequest_TargetsBeyondOnePage() {
+        final FakeCloudWatchEventsClient sdkClient = FakeCloudWatchEventsClient.builder()
+                .maxTargetsPerRule(250)
+                .build();
+
+        // MODEL
+
+        final Set<Target> targets = new HashSet<>();
+        for (int i = 0; i < 250; i++) {
+            targets.add(buildTarget(String.valueOf(i)));
+        }
+
+        final ResourceModel model = ResourceModel.builder()
+                .name("TestRule")
+                .eventPattern(Collections.singletonMap("source", Collections.singletonList("aws.s3")))
+                .targets(targets)
+                .build();
+
+        // RUN
+
+        final ProgressEvent<ResourceModel, CallbackContext> createResponse = run(new CreateHandler(new ExponentialBackoffScheduler(1, 1, 30)), model, sdkClient);
+        final ProgressEvent<ResourceModel, CallbackContext> readResponse = run(new ReadHandler(), model, sdkClient);
+
+        // ASSERT
+
+        assertThat(createResponse.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(sdkClient.callCount("PutTargets")).isEqualTo(25);
+
+        assertThat(readResponse.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(readResponse.getResourceModel().getTargets())
+                .extracting(Target::getId)
+                .containsExactlyInAnyOrderElementsOf(targets.stream().map(Target::getId).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void handleRequest_TargetLimitExceeded() {
+        final FakeCloudWatchEventsClient sdkClient = FakeCloudWatchEventsClient.builder().build();
+
+        // MODEL
+
+        final ResourceModel model = buildModel(0, "TestDescription", "0", "1", "2", "3", "4", "5");
+
+        // RUN
+
+        final ProgressEvent<ResourceModel, CallbackContext> response = run(new CreateHandler(new ExponentialBackoffScheduler(1, 1, 30)), model, sdkClient);
+
+        // ASSERT
+
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.FAILED);
+        assertThat(response.getErrorCode()).isEqualTo(HandlerErrorCode.ServiceLimitExceeded);
+    }
+
+    @Test
+    public void handleRequest_Throttled() {
+        final FakeCloudWatchEventsClient sdkClient = FakeCloudWatchEventsClient.builder()
+                .throttleRate(1)
+                .build();
+
+        // RUN
+
+        final ProgressEvent<ResourceModel, CallbackContext> response = run(new ReadHandler(), buildModel(0, "TestDescription"), sdkClient);
+
+        // ASSERT
+
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.FAILED);
+        assertThat(response.getErrorCode()).isEqualTo(HandlerErrorCode.GeneralServiceException);
+    }
+
+    private List<ProgressEvent<ResourceModel, CallbackContext>> runAll(final List<ResourceModel> models, final Supplier<BaseHandlerStd> handlers, final CloudWatchEventsClient sdkClient) throws Exception {
+        final List<Callable<ProgressEvent<ResourceModel, CallbackContext>>> calls = models.stream()
+                .map(model -> (Callable<ProgressEvent<ResourceModel, CallbackContext>>) () -> run(handlers.get(), model, sdkClient))
+                .collect(Collectors.toList());
+
+        final List<ProgressEvent<ResourceModel, CallbackContext>> responses = new ArrayList<>();
+        for (Future<ProgressEvent<ResourceModel, CallbackContext>> future : executor.invokeAll(calls)) {
+            responses.add(future.get());
+        }
+        return responses;
+    }
+
+    /**
+     * Invokes a handler until it is no longer in progress, with a new proxy for every request as in a Lambda container.
+     */
+    private static ProgressEvent<ResourceModel, CallbackContext> run(final BaseHandlerStd handler, final ResourceModel model, final CloudWatchEventsClient sdkClient) {
+        final AmazonWebServicesClientProxy proxy = new AmazonWebServicesClientProxy(logger, MOCK_CREDENTIALS, () -> Duration.ofSeconds(600).toMillis());
+        final ProxyClient<CloudWatchEventsClient> proxyClient = MOCK_PROXY(proxy, sdkClient);
+
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(model)
+                .desiredResourceTags(new HashMap<>())
+                .build();
+
+        CallbackContext callbackContext = new CallbackContext();
+
+        for (int invocation = 0; invocation < MAX_INVOCATIONS; invocation++) {
+            final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, request, callbackContext, proxyClient, logger);
+
+            if (response.getStatus() != OperationStatus.IN_PROGRESS) {
+                return response;
+            }
+
+            try {
+                Thread.sleep(response.getCallbackDelaySeconds() * CALLBACK_DELAY_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(e);
+            }
+            callbackContext = response.getCallbackContext();
+        }
+
+        throw new AssertionError(String.format("Handler did not finish after %s invocations", MAX_INVOCATIONS));
+    }
+
+    private static void assertAllSucceed(final List<ProgressEvent<ResourceModel, CallbackContext>> responses) {
+        assertThat(responses)
+                .extracting(ProgressEvent::getStatus)
+                .containsOnly(OperationStatus.SUCCESS);
+    }
+
+    private static ResourceModel buildModel(final int i, final String description, final String... targetSuffixes) {
+        final Map<String, Object> eventPattern = new HashMap<>();
+        eventPattern.put("source", Collections.singletonList("aws.s3"));
+        eventPattern.put("detail", Collections.singletonMap("bucket", Collections.singletonMap("name", Collections.singletonList("test-bucket-" + i))));
+
+        final Set<Target> targets = new HashSet<>();
+        for (String targetSuffix : targetSuffixes) {
+            targets.add(buildTarget(targetSuffix));
+        }
+
+        return ResourceModel.builder()
+                .name("TestRule" + i)
+                .eventBusName(i % 2 == 0 ? null : EVENT_BUS_NAME)
+                .description(description)
+                .eventPattern(eventPattern)
+                .state("ENABLED")
+                .targets(targets.isEmpty() ? null : targets)
+                .build();
+    }
+
+    /**
+     * Builds a target whose id only depends on the first part of the suffix, so that "1" and "1-updated" are the same
+     * target with a different function.
+     */
+    private static Target buildTarget(final String suffix) {
+        return Target.builder()
+                .id("TestTargetId" + suffix.split("-")[0])
+                .arn("arn:aws:lambda:us-west-2:123456789123:function:TestFunction" + suffix)
+                .build();
+    }
+}
@@ -0,0 +1,142 @@
+package software.amazon.events.rule;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import software.amazon.awssdk.services.cloudwatchevents.model.PutTargetsResponse;
+import software.amazon.awssdk.services.cloudwatchevents.model.PutTargetsResultEntry;
+import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class HandlerLoggerTest {
+
+    private static final String STACK_ID = "TestStackId";
+
+    private List<String> messages;
+    private HandlerLogger handlerLogger;
+
+    @BeforeEach
+    public void setup() {
+        messages = new ArrayList<>();
+        handlerLogger = new HandlerLogger(messages::add, HandlerLogger.Level.INFO, 10);
+    }
+
+    @Test
+    public void log_Levels() {
+        handlerLogger.debug("debug %s", "line");
+        handlerLogger.info("info %s", "line");
+        handlerLogger.warn("warn %s", "line");
+        handlerLogger.log("plain line");
+
+        assertThat(messages).containsExactly("info line", "warn line", "plain line");
+    }
+
+    @Test
+    public void log_DisabledLinesAreNotFormatted() {
+        final Object unformattable = new Object() {
+            @Override
+            public String toString() {
+                throw new AssertionError("formatted");
+            }
+        };
+
+        handlerLogger.debug("%s", unformattable);
+
+        assertThat(messages).isEmpty();
+    }
+
+    @Test
+    public void sampled_FirstOfEverySampleAndFlush() {
+        for (int i = 0; i < 25; i++) {
+            handlerLogger.sampled("StabilizeRulePropagation", HandlerLogger.Level.INFO, "check %s", i);
+        }
+        handlerLogger.sampled("StabilizeTargetsPropagation", HandlerLogger.Level.INFO, "targets");
+
+        assertThat(messages).containsExactly("check 0", "check 10", "check 20", "targets");
+
+        messages.clear();
+        handlerLogger.flush(STACK_ID);
+
+        // Only keys with lines left out are reported, and counting starts anew
+        assertThat(messages).containsExactly("StackId: TestStackId: StabilizeRulePropagation: 22 of 25 lines were sampled out.");
+
+        messages.clear();
+        handlerLogger.sampled("StabilizeRulePropagation", HandlerLogger.Level.INFO, "check %s", 25);
+        assertThat(messages).containsExactly("check 25");
+    }
+
+    @Test
+    public void sampled_ScopedAcrossInvocations() {
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                .stackId(STACK_ID)
+                .logicalResourceIdentifier("SampledAcrossInvocations")
+                .build();
+
+        // Every invocation polls once, as after each callback
+        for (int i = 0; i < 25; i++) {
+            final HandlerLogger invocationLogger = new HandlerLogger(messages::add, BaseHandlerStd.samplingScope(request), HandlerLogger.Level.INFO, 10);
+            invocationLogger.sampled("StabilizeRulePropagation", HandlerLogger.Level.INFO, "check %s", i);
+            invocationLogger.flush(STACK_ID);
+        }
+
+        // Only the invocations that write a line report what was left out so far
+        assertThat(messages).containsExactly(
+                "check 0",
+                "check 10",
+                "StackId: TestStackId: StabilizeRulePropagation: 9 of 11 lines were sampled out.",
+                "check 20",
+                "StackId: TestStackId: StabilizeRulePropagation: 18 of 21 lines were sampled out.");
+
+        // Other resources of the stack are counted on their own
+        messages.clear();
+        final HandlerLogger otherLogger = new HandlerLogger(messages::add, BaseHandlerStd.samplingScope(ResourceHandlerRequest.<ResourceModel>builder()
+                .stackId(STACK_ID)
+                .logicalResourceIdentifier("OtherResource")
+                .build()), HandlerLogger.Level.INFO, 10);
+        otherLogger.sampled("StabilizeRulePropagation", HandlerLogger.Level.INFO, "other check");
+
+        assertThat(messages).containsExactly("other check");
+    }
+
+    @Test
+    public void failedEntries_OneSummaryLine() {
+        final List<PutTargetsResultEntry> failedEntries = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            failedEntries.add(PutTargetsResultEntry.builder()
+                    .targetId("TargetId" + i)
+                    .errorCode("ConcurrentModificationException")
+                    .errorMessage("Retry " + i)
+                    .build());
+        }
+        failedEntries.add(PutTargetsResultEntry.builder()
+                .targetId("TargetId12")
+                .errorCode("ValidationException")
+                .errorMessage("Invalid target")
+                .build());
+
+        final ArrayList<String> failedTargetIds = BaseHandlerStd.failedPutTargetIds(PutTargetsResponse.builder()
+                .failedEntryCount(failedEntries.size())
+                .failedEntries(failedEntries)
+                .build(), handlerLogger, STACK_ID);
+
+        assertThat(failedTargetIds).hasSize(13);
+        assertThat(messages).containsExactly("StackId: TestStackId: PutTargets has 13 failed entries:"
+                + " ConcurrentModificationException x12 [TargetId0, TargetId1, TargetId2, TargetId3, TargetId4, TargetId5, TargetId6, TargetId7, TargetId8, TargetId9] and 2 more (Retry 0);"
+                + " ValidationException x1 [TargetId12] (Invalid target);");
+    }
+
+    @Test
+    public void of_ReusesHandlerLogger() {
+        assertThat(HandlerLogger.of(handlerLogger)).isSameAs(handlerLogger);
+        assertThat(HandlerLogger.of(messages::add)).isNotSameAs(handlerLogger);
+    }
+
+    @Test
+    public void invalidSampling() {
+        assertThatThrownBy(() -> new HandlerLogger(messages::add, HandlerLogger.Level.INFO, 0)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
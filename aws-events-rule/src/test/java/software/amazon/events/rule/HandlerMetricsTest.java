@@ -0,0 +1,120 @@
+package software.amazon.events.rule;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import software.amazon.awssdk.services.cloudwatchevents.CloudWatchEventsClient;
+import software.amazon.awssdk.services.cloudwatchevents.model.DescribeRuleRequest;
+import software.amazon.awssdk.services.cloudwatchevents.model.PutRuleRequest;
+import software.amazon.awssdk.services.cloudwatchevents.model.ResourceNotFoundException;
+import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
+import software.amazon.cloudformation.proxy.ProxyClient;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class HandlerMetricsTest extends AbstractTestBase {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final String CALL_GRAPH = "AWS-Events-Rule::CreateRule";
+    private static final String STACK_ID = "TestStackId";
+
+    private ProxyClient<CloudWatchEventsClient> proxyClient;
+    private HandlerMetrics metrics;
+    private List<String> messages;
+
+    @BeforeEach
+    public void setup() {
+        final AmazonWebServicesClientProxy proxy = new AmazonWebServicesClientProxy(logger, MOCK_CREDENTIALS, () -> Duration.ofSeconds(600).toMillis());
+        proxyClient = MOCK_PROXY(proxy, FakeCloudWatchEventsClient.builder().build());
+        metrics = new HandlerMetrics();
+        messages = new ArrayList<>();
+    }
+
+    @Test
+    public void emit_CallsAndStabilization() {
+        final ProxyClient<CloudWatchEventsClient> client = metrics.instrument(CALL_GRAPH, proxyClient);
+
+        // RUN
+
+        assertThat(metrics.stabilize(CALL_GRAPH, () -> BaseHandlerStd.stabilizePutRule(client, ResourceModel.builder().name("TestRule").build(), logger, STACK_ID))).isFalse();
+
+        client.injectCredentialsAndInvokeV2(PutRuleRequest.builder().name("TestRule").eventPattern("{\"source\":[\"aws.s3\"]}").build(), client.client()::putRule);
+
+        assertThat(metrics.stabilize(CALL_GRAPH, () -> BaseHandlerStd.stabilizePutRule(client, ResourceModel.builder().name("TestRule").build(), logger, STACK_ID))).isTrue();
+
+        assertThatThrownBy(() -> client.injectCredentialsAndInvokeV2(DescribeRuleRequest.builder().name("MissingRule").build(), client.client()::describeRule))
+                .isInstanceOf(ResourceNotFoundException.class);
+
+        metrics.emit(messages::add, STACK_ID);
+
+        // ASSERT
+
+        final List<Map<String, Object>> records = parse(messages);
+        assertThat(records).extracting(record -> record.get("Operation")).containsExactly("DescribeRule", "Stabilize", "PutRule");
+        assertThat(records).extracting(record -> record.get("CallGraph")).containsOnly(CALL_GRAPH);
+        assertThat(records).extracting(record -> record.get("StackId")).containsOnly(STACK_ID);
+
+        final Map<String, Object> stabilize = records.get(1);
+        assertThat(stabilize.get("Calls")).isEqualTo(2);
+        assertThat(stabilize.get("Retries")).isEqualTo(1);
+        assertThat((List<?>) stabilize.get("Latency")).hasSize(2);
+
+        final Map<String, Object> describeRule = records.get(0);
+        assertThat(describeRule.get("Calls")).isEqualTo(3);
+        assertThat(describeRule.get("Errors")).isEqualTo(2);
+
+        final Map<?, ?> metadata = (Map<?, ?>) stabilize.get("_aws");
+        final Map<?, ?> directive = (Map<?, ?>) ((List<?>) metadata.get("CloudWatchMetrics")).get(0);
+        assertThat(directive.get("Namespace")).isEqualTo("AWS::Events::Rule");
+        assertThat(((List<?>) directive.get("Metrics")).stream().map(metric -> ((Map<?, ?>) metric).get("Name")).collect(Collectors.toList()))
+                .containsExactly("Latency", "Calls", "Errors", "FailedEntries", "Retries");
+
+        // Emitting forgets what was recorded
+        messages.clear();
+        metrics.emit(messages::add, STACK_ID);
+        assertThat(messages).isEmpty();
+    }
+
+    @Test
+    public void emit_SplitsLatencies() {
+        final ProxyClient<CloudWatchEventsClient> client = metrics.instrument(CALL_GRAPH, proxyClient);
+
+        // RUN
+
+        for (int i = 0; i < HandlerMetrics.MAX_VALUES_PER_RECORD + 1; i++) {
+            metrics.stabilize(CALL_GRAPH, () -> true);
+        }
+        metrics.emit(messages::add, STACK_ID);
+
+        // ASSERT
+
+        final List<Map<String, Object>> records = parse(messages);
+        assertThat(records).hasSize(2);
+        assertThat((List<?>) records.get(0).get("Latency")).hasSize(HandlerMetrics.MAX_VALUES_PER_RECORD);
+        assertThat(records.get(0).get("Calls")).isEqualTo(HandlerMetrics.MAX_VALUES_PER_RECORD + 1);
+        assertThat((List<?>) records.get(1).get("Latency")).hasSize(1);
+        assertThat(records.get(1)).doesNotContainKey("Calls");
+        assertThat(client.client()).isSameAs(proxyClient.client());
+    }
+
+    private static List<Map<String, Object>> parse(final List<String> messages) {
+        final List<Map<String, Object>> records = new ArrayList<>();
+        for (String message : messages) {
+            try {
+                records.add(MAPPER.readValue(message, new TypeReference<Map<String, Object>>(){}));
+            } catch (JsonProcessingException e) {
+                throw new RuntimeException(e);
+            }
+        }
+        return records;
+    }
+}
@@ -1,13 +1,24 @@
 package software.amazon.events.rule;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import software.amazon.awssdk.services.cloudwatchevents.CloudWatchEventsClient;
+import software.amazon.awssdk.services.cloudwatchevents.model.EventBus;
+import software.amazon.awssdk.services.cloudwatchevents.model.ListEventBusesRequest;
+import software.amazon.awssdk.services.cloudwatchevents.model.ListEventBusesResponse;
 import software.amazon.awssdk.services.cloudwatchevents.model.ListRulesRequest;
 import software.amazon.awssdk.services.cloudwatchevents.model.ListRulesResponse;
 import software.amazon.awssdk.services.cloudwatchevents.model.Rule;
+import software.amazon.awssdk.services.cloudwatchevents.model.RuleState;
+import software.amazon.cloudformation.exceptions.CfnInvalidRequestException;
 import software.amazon.cloudformation.proxy.AmazonWebServicesClientProxy;
-import software.amazon.cloudformation.proxy.Logger;
 import software.amazon.cloudformation.proxy.OperationStatus;
 import software.amazon.cloudformation.proxy.ProgressEvent;
+import software.amazon.cloudformation.proxy.ProxyClient;
 import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -15,23 +26,36 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 import static org.mockito.ArgumentMatchers.any;
 
 @ExtendWith(MockitoExtension.class)
-public class ListHandlerTest {
+public class ListHandlerTest extends AbstractTestBase {
 
     @Mock
     private AmazonWebServicesClientProxy proxy;
 
     @Mock
-    private Logger logger;
+    private ProxyClient<CloudWatchEventsClient> proxyClient;
+
+    @Mock
+    CloudWatchEventsClient sdkClient;
 
     @BeforeEach
     public void setup() {
-        proxy = mock(AmazonWebServicesClientProxy.class);
-        logger = mock(Logger.class);
+        proxy = new AmazonWebServicesClientProxy(logger, MOCK_CREDENTIALS, () -> Duration.ofSeconds(600).toMillis());
+        sdkClient = mock(CloudWatchEventsClient.class);
+        proxyClient = MOCK_PROXY(proxy, sdkClient);
+    }
+
+    @AfterEach
+    public void tear_down() {
+        verifyNoMoreInteractions(sdkClient);
     }
 
     @Test
@@ -44,14 +68,30 @@ public class ListHandlerTest {
 
         // MOCK
 
+        /*
+        listEventBuses
+        listRules
+         */
+
+        final ListEventBusesResponse listEventBusesResponse = ListEventBusesResponse.builder()
+                .eventBuses(EventBus.builder()
+                        .name("EVENT_BUS_NAME")
+                        .build())
+                .build();
+
         final ListRulesResponse listRulesResponse = ListRulesResponse.builder()
                 .rules(Rule.builder()
                         .name("RULE_NAME")
                         .eventBusName("EVENT_BUS_NAME")
+                        .arn("arn:aws:events:us-west-2:123456789123:rule/EVENT_BUS_NAME/RULE_NAME")
+                        .state(RuleState.ENABLED)
                         .build())
                 .build();
 
-        when(proxy.injectCredentialsAndInvokeV2(any(ListRulesRequest.class), any()))
+        when(proxyClient.client().listEventBuses(any(ListEventBusesRequest.class)))
+                .thenReturn(listEventBusesResponse);
+
+        when(proxyClient.client().listRules(any(ListRulesRequest.class)))
                 .thenReturn(listRulesResponse);
 
         // RUN
@@ -61,17 +101,352 @@ public class ListHandlerTest {
             .build();
 
         final ProgressEvent<ResourceModel, CallbackContext> response =
-            handler.handleRequest(proxy, request, null, logger);
+            handler.handleRequest(proxy, request, null, proxyClient, logger);
 
         // ASSERT
 
+        verify(sdkClient).listEventBuses(any(ListEventBusesRequest.class));
+        verify(sdkClient).listRules(any(ListRulesRequest.class));
+
         assertThat(response).isNotNull();
         assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
         assertThat(response.getCallbackContext()).isNull();
         assertThat(response.getCallbackDelaySeconds()).isEqualTo(0);
         assertThat(response.getResourceModel()).isNull();
-        assertThat(response.getResourceModels()).isNotNull();
+        assertThat(response.getResourceModels()).containsExactly(ResourceModel.builder()
+                .arn("arn:aws:events:us-west-2:123456789123:rule/EVENT_BUS_NAME/RULE_NAME")
+                .name("RULE_NAME")
+                .eventBusName("EVENT_BUS_NAME")
+                .state("ENABLED")
+                .build());
+        assertThat(response.getNextToken()).isNull();
         assertThat(response.getMessage()).isNull();
         assertThat(response.getErrorCode()).isNull();
     }
+
+    @Test
+    public void handleRequest_MultiplePagesUseSameClient() {
+        final ListHandler handler = new ListHandler();
+
+        // MOCK
+
+        /*
+        listRules (page 1)
+        listRules (page 2)
+         */
+
+        final ListRulesResponse firstPage = ListRulesResponse.builder()
+                .rules(Rule.builder()
+                        .name("RULE_NAME_1")
+                        .eventBusName("EVENT_BUS_NAME")
+                        .build())
+                .nextToken("NextToken")
+                .build();
+
+        final ListRulesResponse secondPage = ListRulesResponse.builder()
+                .rules(Rule.builder()
+                        .name("RULE_NAME_2")
+                        .eventBusName("EVENT_BUS_NAME")
+                        .build())
+                .build();
+
+        when(proxyClient.client().listRules(any(ListRulesRequest.class)))
+                .thenAnswer(invocation -> {
+                    ListRulesRequest listRulesRequest = invocation.getArgument(0);
+                    assertThat(listRulesRequest.eventBusName()).isEqualTo("EVENT_BUS_NAME");
+                    return listRulesRequest.nextToken() == null ? firstPage : secondPage;
+                });
+
+        // RUN
+
+        final ProgressEvent<ResourceModel, CallbackContext> firstResponse = handler.handleRequest(proxy,
+                ResourceHandlerRequest.<ResourceModel>builder()
+                        .desiredResourceState(ResourceModel.builder().eventBusName("EVENT_BUS_NAME").build())
+                        .build(),
+                null, proxyClient, logger);
+
+        final ProgressEvent<ResourceModel, CallbackContext> secondResponse = handler.handleRequest(proxy,
+                ResourceHandlerRequest.<ResourceModel>builder()
+                        .desiredResourceState(ResourceModel.builder().eventBusName("EVENT_BUS_NAME").build())
+                        .nextToken(firstResponse.getNextToken())
+                        .build(),
+                null, proxyClient, logger);
+
+        // ASSERT
+
+        verify(sdkClient, times(2)).listRules(any(ListRulesRequest.class));
+
+        assertThat(firstResponse.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(firstResponse.getNextToken()).isEqualTo("NextToken");
+        assertThat(firstResponse.getResourceModels()).hasSize(1);
+        assertThat(secondResponse.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(secondResponse.getNextToken()).isNull();
+        assertThat(secondResponse.getResourceModels()).hasSize(1);
+    }
+
+    @Test
+    public void handleRequest_AllEventBuses() {
+        final ListHandler handler = new ListHandler();
+
+        // MOCK
+
+        /*
+        listEventBuses (page 1)
+        listEventBuses (page 2)
+        listRules (custom)
+        listRules (default, page 1)
+        listEventBuses (page 1)
+        listEventBuses (page 2)
+        listRules (default, page 2)
+         */
+
+        when(proxyClient.client().listEventBuses(any(ListEventBusesRequest.class)))
+                .thenAnswer(invocation -> {
+                    ListEventBusesRequest listEventBusesRequest = invocation.getArgument(0);
+                    return listEventBusesRequest.nextToken() == null ?
+                            ListEventBusesResponse.builder()
+                                    .eventBuses(EventBus.builder().name("default").build())
+                                    .nextToken("NextToken")
+                                    .build() :
+                            ListEventBusesResponse.builder()
+                                    .eventBuses(EventBus.builder().name("custom").build())
+                                    .build();
+                });
+
+        when(proxyClient.client().listRules(any(ListRulesRequest.class)))
+                .thenAnswer(invocation -> {
+                    ListRulesRequest listRulesRequest = invocation.getArgument(0);
+
+                    if ("custom".equals(listRulesRequest.eventBusName())) {
+                        return ListRulesResponse.builder()
+                                .rules(Rule.builder().name("RULE_NAME_3").eventBusName("custom").state(RuleState.ENABLED).build())
+                                .build();
+                    }
+
+                    return listRulesRequest.nextToken() == null ?
+                            ListRulesResponse.builder()
+                                    .rules(Rule.builder().name("RULE_NAME_1").eventBusName("default").state(RuleState.ENABLED).build())
+                                    .nextToken("NextToken")
+                                    .build() :
+                            ListRulesResponse.builder()
+                                    .rules(Rule.builder().name("RULE_NAME_2").eventBusName("default").state(RuleState.DISABLED).build())
+                                    .build();
+                });
+
+        // RUN
+
+        final ProgressEvent<ResourceModel, CallbackContext> firstResponse = handler.handleRequest(proxy,
+                ResourceHandlerRequest.<ResourceModel>builder()
+                        .desiredResourceState(ResourceModel.builder().build())
+                        .build(),
+                null, proxyClient, logger);
+
+        final ProgressEvent<ResourceModel, CallbackContext> secondResponse = handler.handleRequest(proxy,
+                ResourceHandlerRequest.<ResourceModel>builder()
+                        .desiredResourceState(ResourceModel.builder().build())
+                        .nextToken(firstResponse.getNextToken())
+                        .build(),
+                null, proxyClient, logger);
+
+        // ASSERT
+
+        // Event buses are listed in name order, so the second page resumes part way through the default event bus
+        verify(sdkClient, times(4)).listEventBuses(any(ListEventBusesRequest.class));
+        verify(sdkClient, times(3)).listRules(any(ListRulesRequest.class));
+
+        assertThat(firstResponse.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(firstResponse.getNextToken()).isEqualTo("default:NextToken");
+        assertThat(firstResponse.getResourceModels()).containsExactly(
+                ResourceModel.builder().name("RULE_NAME_3").eventBusName("custom").state("ENABLED").build(),
+                ResourceModel.builder().name("RULE_NAME_1").eventBusName("default").state("ENABLED").build());
+        assertThat(secondResponse.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(secondResponse.getNextToken()).isNull();
+        assertThat(secondResponse.getResourceModels()).containsExactly(
+                ResourceModel.builder().name("RULE_NAME_2").eventBusName("default").state("DISABLED").build());
+    }
+
+    @Test
+    public void handleRequest_AllEventBusesPaged() {
+        final ListHandler handler = new ListHandler();
+
+        // MOCK
+
+        /*
+        listEventBuses
+        listRules (BUS_0 - BUS_3)
+        listEventBuses
+        listRules (BUS_4 - BUS_5)
+         */
+
+        final int eventBusCount = RequestExecutor.MAX_CONCURRENT_REQUESTS + 2;
+        final ListEventBusesResponse.Builder listEventBusesResponse = ListEventBusesResponse.builder();
+        for (int i = 0; i < eventBusCount; i++) {
+            listEventBusesResponse.eventBuses(EventBus.builder().name("BUS_" + i).build());
+        }
+
+        when(proxyClient.client().listEventBuses(any(ListEventBusesRequest.class)))
+                .thenReturn(listEventBusesResponse.build());
+
+        when(proxyClient.client().listRules(any(ListRulesRequest.class)))
+                .thenAnswer(invocation -> {
+                    ListRulesRequest listRulesRequest = invocation.getArgument(0);
+                    return ListRulesResponse.builder()
+                            .rules(Rule.builder().name("RULE_NAME").eventBusName(listRulesRequest.eventBusName()).build())
+                            .build();
+                });
+
+        // RUN
+
+        final ProgressEvent<ResourceModel, CallbackContext> firstResponse = handler.handleRequest(proxy,
+                ResourceHandlerRequest.<ResourceModel>builder()
+                        .build(),
+                null, proxyClient, logger);
+
+        final ProgressEvent<ResourceModel, CallbackContext> secondResponse = handler.handleRequest(proxy,
+                ResourceHandlerRequest.<ResourceModel>builder()
+                        .nextToken(firstResponse.getNextToken())
+                        .build(),
+                null, proxyClient, logger);
+
+        // ASSERT
+
+        verify(sdkClient, times(2)).listEventBuses(any(ListEventBusesRequest.class));
+        verify(sdkClient, times(eventBusCount)).listRules(any(ListRulesRequest.class));
+
+        assertThat(firstResponse.getNextToken()).isEqualTo("BUS_4");
+        assertThat(firstResponse.getResourceModels()).extracting(ResourceModel::getEventBusName)
+                .containsExactlyInAnyOrder("BUS_0", "BUS_1", "BUS_2", "BUS_3");
+        assertThat(secondResponse.getNextToken()).isNull();
+        assertThat(secondResponse.getResourceModels()).extracting(ResourceModel::getEventBusName)
+                .containsExactlyInAnyOrder("BUS_4", "BUS_5");
+    }
+
+    @Test
+    public void handleRequest_EventBusCreatedBetweenPages() {
+        final ListHandler handler = new ListHandler();
+
+        // MOCK
+
+        /*
+        listEventBuses (BUS_0 - BUS_5)
+        listRules (BUS_0 - BUS_3)
+        listEventBuses (BUS_0 - BUS_5, BUS_1a, BUS_4a)
+        listRules (BUS_4, BUS_4a, BUS_5)
+         */
+
+        final List<EventBus> eventBuses = new ArrayList<>();
+        for (int i = 0; i < RequestExecutor.MAX_CONCURRENT_REQUESTS + 2; i++) {
+            eventBuses.add(EventBus.builder().name("BUS_" + i).build());
+        }
+
+        when(proxyClient.client().listEventBuses(any(ListEventBusesRequest.class)))
+                .thenAnswer(invocation -> ListEventBusesResponse.builder().eventBuses(new ArrayList<>(eventBuses)).build());
+
+        when(proxyClient.client().listRules(any(ListRulesRequest.class)))
+                .thenAnswer(invocation -> {
+                    ListRulesRequest listRulesRequest = invocation.getArgument(0);
+                    return ListRulesResponse.builder()
+                            .rules(Rule.builder().name("RULE_NAME").eventBusName(listRulesRequest.eventBusName()).build())
+                            .build();
+                });
+
+        // RUN
+
+        final ProgressEvent<ResourceModel, CallbackContext> firstResponse = handler.handleRequest(proxy,
+                ResourceHandlerRequest.<ResourceModel>builder()
+                        .build(),
+                null, proxyClient, logger);
+
+        // One event bus is created before the page boundary and one after it
+        eventBuses.add(EventBus.builder().name("BUS_1a").build());
+        eventBuses.add(EventBus.builder().name("BUS_4a").build());
+
+        final ProgressEvent<ResourceModel, CallbackContext> secondResponse = handler.handleRequest(proxy,
+                ResourceHandlerRequest.<ResourceModel>builder()
+                        .nextToken(firstResponse.getNextToken())
+                        .build(),
+                null, proxyClient, logger);
+
+        // ASSERT
+
+        verify(sdkClient, times(2)).listEventBuses(any(ListEventBusesRequest.class));
+        verify(sdkClient, times(RequestExecutor.MAX_CONCURRENT_REQUESTS + 3)).listRules(any(ListRulesRequest.class));
+
+        assertThat(firstResponse.getNextToken()).isEqualTo("BUS_4");
+        assertThat(firstResponse.getResourceModels()).extracting(ResourceModel::getEventBusName)
+                .containsExactly("BUS_0", "BUS_1", "BUS_2", "BUS_3");
+        assertThat(secondResponse.getNextToken()).isNull();
+        assertThat(secondResponse.getResourceModels()).extracting(ResourceModel::getEventBusName)
+                .containsExactly("BUS_4", "BUS_4a", "BUS_5");
+    }
+
+    @Test
+    public void handleRequest_EventBusDeletedBetweenPages() {
+        final ListHandler handler = new ListHandler();
+
+        // MOCK
+
+        /*
+        listEventBuses (BUS_0 - BUS_5)
+        listRules (BUS_0 - BUS_3)
+        listEventBuses (BUS_0 - BUS_3, BUS_5)
+        listRules (BUS_5)
+         */
+
+        final List<EventBus> eventBuses = new ArrayList<>();
+        for (int i = 0; i < RequestExecutor.MAX_CONCURRENT_REQUESTS + 2; i++) {
+            eventBuses.add(EventBus.builder().name("BUS_" + i).build());
+        }
+
+        when(proxyClient.client().listEventBuses(any(ListEventBusesRequest.class)))
+                .thenAnswer(invocation -> ListEventBusesResponse.builder().eventBuses(new ArrayList<>(eventBuses)).build());
+
+        when(proxyClient.client().listRules(any(ListRulesRequest.class)))
+                .thenAnswer(invocation -> {
+                    ListRulesRequest listRulesRequest = invocation.getArgument(0);
+                    return ListRulesResponse.builder()
+                            .rules(Rule.builder().name("RULE_NAME").eventBusName(listRulesRequest.eventBusName()).build())
+                            .build();
+                });
+
+        // RUN
+
+        final ProgressEvent<ResourceModel, CallbackContext> firstResponse = handler.handleRequest(proxy,
+                ResourceHandlerRequest.<ResourceModel>builder()
+                        .build(),
+                null, proxyClient, logger);
+
+        // The event bus of the token is deleted
+        eventBuses.removeIf(eventBus -> "BUS_4".equals(eventBus.name()));
+
+        final ProgressEvent<ResourceModel, CallbackContext> secondResponse = handler.handleRequest(proxy,
+                ResourceHandlerRequest.<ResourceModel>builder()
+                        .nextToken(firstResponse.getNextToken())
+                        .build(),
+                null, proxyClient, logger);
+
+        // ASSERT
+
+        verify(sdkClient, times(2)).listEventBuses(any(ListEventBusesRequest.class));
+        verify(sdkClient, times(RequestExecutor.MAX_CONCURRENT_REQUESTS + 1)).listRules(any(ListRulesRequest.class));
+
+        assertThat(firstResponse.getNextToken()).isEqualTo("BUS_4");
+        assertThat(secondResponse.getNextToken()).isNull();
+        assertThat(secondResponse.getResourceModels()).extracting(ResourceModel::getEventBusName)
+                .containsExactly("BUS_5");
+    }
+
+    @Test
+    public void handleRequest_InvalidNextToken() {
+        final ListHandler handler = new ListHandler();
+
+        // RUN + ASSERT
+
+        assertThatThrownBy(() -> handler.handleRequest(proxy,
+                ResourceHandlerRequest.<ResourceModel>builder()
+                        .nextToken(":NextToken")
+                        .build(),
+                null, proxyClient, logger))
+                .isInstanceOf(CfnInvalidRequestException.class);
+    }
 }
@@ -0,0 +1,137 @@
+package software.amazon.events.rule;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class ModelFingerprintTest {
+
+    @Test
+    public void of_IndependentOfOrderAndArn() {
+        final ResourceModel model = buildModel("TestDescription", new LinkedHashSet<>(Arrays.asList(
+                buildTarget("TestTargetId0", "TestFunction0"),
+                buildTarget("TestTargetId1", "TestFunction1"))));
+
+        final ResourceModel reordered = buildModel("TestDescription", new LinkedHashSet<>(Arrays.asList(
+                buildTarget("TestTargetId1", "TestFunction1"),
+                buildTarget("TestTargetId0", "TestFunction0"))));
+        reordered.setArn("arn:aws:events:us-west-2:123456789123:rule/TestEventBus/TestRule");
+
+        final ModelFingerprint fingerprint = ModelFingerprint.of(model);
+
+        assertThat(fingerprint.getFingerprint()).hasSize(32);
+        assertThat(fingerprint.matches(ModelFingerprint.of(reordered))).isTrue();
+        assertThat(fingerprint.diff(ModelFingerprint.of(reordered)).isDrifted()).isFalse();
+    }
+
+    @Test
+    public void of_TargetFingerprintsMatchTranslator() {
+        final Target target = buildTarget("TestTargetId0", "TestFunction0");
+
+        final ModelFingerprint fromModel = ModelFingerprint.of(buildModel("TestDescription", Collections.singleton(target)));
+        final ModelFingerprint fromTarget = new ModelFingerprint(
+                Fingerprints.ofProperties(Fingerprints.toTree(buildModel("TestDescription", null)), Collections.emptySet()),
+                Collections.singletonMap("TestTargetId0", Translator.translateToFingerprint(target)));
+
+        assertThat(fromModel.matches(fromTarget)).isTrue();
+    }
+
+    @Test
+    public void diff_PropertiesAndTargets() {
+        final ResourceModel expected = buildModel("TestDescription", new LinkedHashSet<>(Arrays.asList(
+                buildTarget("TestTargetId0", "TestFunction0"),
+                buildTarget("TestTargetId1", "TestFunction1"),
+                buildTarget("TestTargetId2", "TestFunction2"))));
+
+        final ResourceModel actual = buildModel("DriftedDescription", new LinkedHashSet<>(Arrays.asList(
+                buildTarget("TestTargetId0", "TestFunction0"),
+                buildTarget("TestTargetId1", "DriftedFunction1"),
+                buildTarget("TestTargetId3", "TestFunction3"))));
+
+        final ModelFingerprint.Drift drift = ModelFingerprint.of(expected).diff(ModelFingerprint.of(actual));
+
+        assertThat(drift.isDrifted()).isTrue();
+        assertThat(drift.getChangedProperties()).containsExactly("Description");
+        assertThat(drift.getMissingTargetIds()).containsExactly("TestTargetId2");
+        assertThat(drift.getChangedTargetIds()).containsExactly("TestTargetId1");
+        assertThat(drift.getUnexpectedTargetIds()).containsExactly("TestTargetId3");
+    }
+
+    @Test
+    public void diff_PropertiesLeftToServiceDefaults() {
+        final ResourceModel expected = buildModel("TestDescription", null);
+        expected.setState(null);
+        expected.setEventBusName(null);
+
+        // As read back by ReadHandler
+        final ResourceModel actual = buildModel("TestDescription", null);
+        actual.setEventBusName("default");
+        actual.setArn("arn:aws:events:us-west-2:123456789123:rule/TestRule");
+
+        final ModelFingerprint expectedFingerprint = ModelFingerprint.of(expected);
+
+        assertThat(expectedFingerprint.matches(ModelFingerprint.of(actual))).isFalse();
+        assertThat(expectedFingerprint.diff(ModelFingerprint.of(actual)).isDrifted()).isFalse();
+
+        // The other way around, the unset properties are missing
+        assertThat(ModelFingerprint.of(actual).diff(expectedFingerprint).getChangedProperties()).containsExactly("EventBusName", "State");
+    }
+
+    @Test
+    public void diff_EventPatternArrayOrder() {
+        final ResourceModel expected = buildModel("TestDescription", null);
+        expected.setEventPattern(buildNumericPattern(">", 5, "<", 10));
+
+        final ResourceModel actual = buildModel("TestDescription", null);
+        actual.setEventPattern(buildNumericPattern(">", 10, "<", 5));
+
+        final ModelFingerprint expectedFingerprint = ModelFingerprint.of(expected);
+
+        assertThat(expectedFingerprint.matches(ModelFingerprint.of(actual))).isFalse();
+        assertThat(expectedFingerprint.diff(ModelFingerprint.of(actual)).getChangedProperties()).containsExactly("EventPattern");
+        assertThat(Translator.translateToRuleFingerprint(actual, expected)).isNotEqualTo(Translator.translateToRuleFingerprint(expected, expected));
+    }
+
+    private static ResourceModel buildModel(final String description, final Set<Target> targets) {
+        final Map<String, Object> eventPattern = new HashMap<>();
+        eventPattern.put("source", Arrays.asList("aws.s3", "aws.ec2"));
+        eventPattern.put("detail-type", Collections.singletonList("Object Created"));
+
+        return ResourceModel.builder()
+                .name("TestRule")
+                .eventBusName("TestEventBus")
+                .description(description)
+                .eventPattern(eventPattern)
+                .state("ENABLED")
+                .targets(targets)
+                .build();
+    }
+
+    private static Target buildTarget(final String id, final String functionName) {
+        return Target.builder()
+                .id(id)
+                .arn("arn:aws:lambda:us-west-2:123456789123:function:" + functionName)
+                .ecsParameters(EcsParameters.builder()
+                        .taskDefinitionArn("TASK_DEFINITION_ARN")
+                        .placementStrategies(new LinkedHashSet<>(Arrays.asList(
+                                PlacementStrategy.builder().field("instanceId").type("spread").build(),
+                                PlacementStrategy.builder().field("memory").type("binpack").build())))
+                        .build())
+                .build();
+    }
+
+    private static Map<String, Object> buildNumericPattern(final Object... numeric) {
+        final Map<String, Object> eventPattern = new HashMap<>();
+        eventPattern.put("source", Collections.singletonList("aws.ec2"));
+        eventPattern.put("detail", Collections.singletonMap("price",
+                Collections.singletonList(Collections.singletonMap("numeric", Arrays.asList(numeric)))));
+        return eventPattern;
+    }
+}
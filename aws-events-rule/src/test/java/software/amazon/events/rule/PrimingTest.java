@@ -0,0 +1,71 @@
+package software.amazon.events.rule;
+
+import software.amazon.awssdk.services.cloudwatchevents.CloudWatchEventsClient;
+import software.amazon.awssdk.services.cloudwatchevents.model.DescribeRuleRequest;
+import software.amazon.awssdk.services.cloudwatchevents.model.ListRulesRequest;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+
+public class PrimingTest {
+
+    @Test
+    public void buildOfflineClient_AnswersInProcess() {
+        // RUN + ASSERT
+
+        try (CloudWatchEventsClient client = Priming.buildOfflineClient()) {
+            assertThat(client.describeRule(DescribeRuleRequest.builder().name("TestRule").build()).name()).isNull();
+            assertThat(client.listRules(ListRulesRequest.builder().build()).rules()).isEmpty();
+        }
+    }
+
+    @Test
+    public void primeSteps_CompleteOffline() {
+        // RUN + ASSERT
+
+        assertThatCode(Priming::primeSteps).doesNotThrowAnyException();
+    }
+
+    @Test
+    public void checkpointHook_PrimesBeforeEveryCheckpoint() throws Exception {
+        // MODEL
+
+        final Resource hook = (Resource) Priming.newCheckpointHook(Resource.class);
+        Priming.prime();
+        final int completed = Priming.primeStepsCompleted();
+
+        // RUN
+
+        hook.beforeCheckpoint(null);
+        hook.afterRestore(null);
+        hook.beforeCheckpoint(null);
+
+        // ASSERT
+
+        assertThat(Priming.primeStepsCompleted()).isEqualTo(completed + 2);
+    }
+
+    @Test
+    public void registerCheckpointHook_OnlyWithCrac() {
+        // RUN + ASSERT
+
+        assertThat(Priming.registerCheckpointHook()).isEqualTo(isPresent("org.crac.Resource"));
+    }
+
+    private static boolean isPresent(final String className) {
+        try {
+            Class.forName(className);
+            return true;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    // Stands in for org.crac.Resource, which the runtime calls the hook through
+    interface Resource {
+        void beforeCheckpoint(Object context) throws Exception;
+
+        void afterRestore(Object context) throws Exception;
+    }
+}
@@ -2,6 +2,8 @@ package software.amazon.events.rule;
 
 import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
@@ -24,6 +26,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
@@ -239,6 +242,196 @@ public class ReadHandlerTest extends AbstractTestBase {
         assertThat(response.getErrorCode()).isNull();
     }
 
+    @Test
+    public void handleRequest_MultiplePagesOfTargets() {
+        final ReadHandler handler = new ReadHandler();
+
+        // MODEL
+
+        final ResourceModel model = ResourceModel.builder()
+                .name("TestRule")
+                .build();
+
+        // MOCK
+
+        /*
+        describeRule
+        listTargetsByRule (page 1)
+        listTargetsByRule (page 2)
+         */
+
+        final DescribeRuleResponse describeRuleResponse = DescribeRuleResponse.builder()
+                .name(model.getName())
+                .scheduleExpression("rate(1 day)")
+                .state("ENABLED")
+                .build();
+
+        final ListTargetsByRuleResponse firstPage = ListTargetsByRuleResponse.builder()
+                .targets(software.amazon.awssdk.services.cloudwatchevents.model.Target.builder()
+                        .id("TargetId1")
+                        .arn("TargetArn1")
+                        .build())
+                .nextToken("NextToken")
+                .build();
+
+        final ListTargetsByRuleResponse secondPage = ListTargetsByRuleResponse.builder()
+                .targets(software.amazon.awssdk.services.cloudwatchevents.model.Target.builder()
+                        .id("TargetId2")
+                        .arn("TargetArn2")
+                        .build())
+                .build();
+
+        when(proxyClient.client().describeRule(any(DescribeRuleRequest.class)))
+                .thenReturn(describeRuleResponse);
+
+        when(proxyClient.client().listTargetsByRule(any(ListTargetsByRuleRequest.class)))
+                .thenAnswer(invocation -> {
+                    ListTargetsByRuleRequest listTargetsByRuleRequest = invocation.getArgument(0);
+                    assertThat(listTargetsByRuleRequest.rule()).isEqualTo("TestRule");
+                    return listTargetsByRuleRequest.nextToken() == null ? firstPage : secondPage;
+                });
+
+        //RUN
+
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(model)
+                .build();
+
+        final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, request, new CallbackContext(), proxyClient, logger);
+
+        // ASSERT
+
+        verify(sdkClient, times(2)).listTargetsByRule(any(ListTargetsByRuleRequest.class));
+
+        assertThat(response).isNotNull();
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(response.getResourceModel().getTargets()).containsExactlyInAnyOrder(
+                Target.builder().id("TargetId1").arn("TargetArn1").build(),
+                Target.builder().id("TargetId2").arn("TargetArn2").build());
+    }
+
+    @Test
+    public void handleRequest_ListsTargetsWhileDescribingRule() {
+        final ReadHandler handler = new ReadHandler();
+
+        // MODEL
+
+        final ResourceModel model = ResourceModel.builder()
+                .name("TestRule")
+                .build();
+
+        // MOCK
+
+        /*
+        describeRule (only returns once listTargetsByRule has been called)
+        listTargetsByRule
+         */
+
+        final CountDownLatch listTargetsStarted = new CountDownLatch(1);
+
+        final DescribeRuleResponse describeRuleResponse = DescribeRuleResponse.builder()
+                .name(model.getName())
+                .scheduleExpression("rate(1 day)")
+                .state("ENABLED")
+                .build();
+
+        final ListTargetsByRuleResponse listTargetsByRuleResponse = ListTargetsByRuleResponse.builder()
+                .targets(software.amazon.awssdk.services.cloudwatchevents.model.Target.builder()
+                        .id("TargetId1")
+                        .arn("TargetArn1")
+                        .build())
+                .build();
+
+        when(proxyClient.client().describeRule(any(DescribeRuleRequest.class)))
+                .thenAnswer(invocation -> {
+                    assertThat(listTargetsStarted.await(5, TimeUnit.SECONDS)).isTrue();
+                    return describeRuleResponse;
+                });
+
+        when(proxyClient.client().listTargetsByRule(any(ListTargetsByRuleRequest.class)))
+                .thenAnswer(invocation -> {
+                    listTargetsStarted.countDown();
+                    return listTargetsByRuleResponse;
+                });
+
+        //RUN
+
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(model)
+                .build();
+
+        final ProgressEvent<ResourceModel, CallbackContext> response = handler.handleRequest(proxy, request, new CallbackContext(), proxyClient, logger);
+
+        // ASSERT
+
+        verify(sdkClient).describeRule(any(DescribeRuleRequest.class));
+        verify(sdkClient).listTargetsByRule(any(ListTargetsByRuleRequest.class));
+
+        assertThat(response).isNotNull();
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(response.getResourceModel().getTargets()).containsExactly(
+                Target.builder().id("TargetId1").arn("TargetArn1").build());
+    }
+
+    @Test
+    public void handleRequest_EventPatternParsedOnce() {
+        final ReadHandler handler = new ReadHandler();
+
+        // A pattern no other test uses, so the first read is a cache miss
+        String eventPatternString = "{\"source\":[\"aws.s3\"],\"detail\":{\"id\":[\"" + UUID.randomUUID() + "\"]}}";
+
+        // MODEL
+
+        final ResourceModel model = ResourceModel.builder()
+                .name("TestRule")
+                .build();
+
+        // MOCK
+
+        /*
+        describeRule
+        listTargetsByRule
+        describeRule
+        listTargetsByRule
+         */
+
+        final DescribeRuleResponse describeRuleResponse = DescribeRuleResponse.builder()
+                .name(model.getName())
+                .eventPattern(eventPatternString)
+                .state("ENABLED")
+                .build();
+
+        when(proxyClient.client().describeRule(any(DescribeRuleRequest.class)))
+                .thenReturn(describeRuleResponse);
+
+        when(proxyClient.client().listTargetsByRule(any(ListTargetsByRuleRequest.class)))
+                .thenReturn(ListTargetsByRuleResponse.builder().build());
+
+        //RUN
+
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(model)
+                .build();
+
+        final long hitCount = EventPatterns.PARSED_PATTERNS.hitCount();
+        final long missCount = EventPatterns.PARSED_PATTERNS.missCount();
+
+        final ProgressEvent<ResourceModel, CallbackContext> firstResponse = handler.handleRequest(proxy, request, new CallbackContext(), proxyClient, logger);
+        final ProgressEvent<ResourceModel, CallbackContext> secondResponse = handler.handleRequest(proxy, request, new CallbackContext(), proxyClient, logger);
+
+        // ASSERT
+
+        verify(sdkClient, times(2)).describeRule(any(DescribeRuleRequest.class));
+        verify(sdkClient, times(2)).listTargetsByRule(any(ListTargetsByRuleRequest.class));
+
+        assertThat(EventPatterns.PARSED_PATTERNS.missCount() - missCount).isEqualTo(1);
+        assertThat(EventPatterns.PARSED_PATTERNS.hitCount() - hitCount).isEqualTo(1);
+        assertThat(firstResponse.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(secondResponse.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(secondResponse.getResourceModel().getEventPattern()).isEqualTo(firstResponse.getResourceModel().getEventPattern());
+        assertThat(secondResponse.getResourceModel().getEventPattern()).containsKeys("source", "detail");
+    }
+
     @Test
     public void handleRequest_NotFound() {
         final ReadHandler handler = new ReadHandler();
@@ -259,6 +452,9 @@ public class ReadHandlerTest extends AbstractTestBase {
         when(proxyClient.client().describeRule(any(DescribeRuleRequest.class)))
                 .thenThrow(ResourceNotFoundException.class);
 
+        when(proxyClient.client().listTargetsByRule(any(ListTargetsByRuleRequest.class)))
+                .thenThrow(ResourceNotFoundException.class);
+
         //RUN
 
         final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
@@ -269,6 +465,8 @@ public class ReadHandlerTest extends AbstractTestBase {
 
         // ASSERT
 
+        verify(sdkClient).listTargetsByRule(any(ListTargetsByRuleRequest.class));
+
         assertThat(response).isNotNull();
         assertThat(response.getStatus()).isEqualTo(OperationStatus.FAILED);
         assertThat(response.getErrorCode()).isEqualTo(HandlerErrorCode.NotFound);
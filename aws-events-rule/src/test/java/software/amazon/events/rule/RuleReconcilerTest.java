@@ -0,0 +1,206 @@
+package software.amazon.events.rule;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import software.amazon.awssdk.services.cloudwatchevents.model.DescribeRuleRequest;
+import software.amazon.awssdk.services.cloudwatchevents.model.ListTargetsByRuleRequest;
+import software.amazon.cloudformation.proxy.HandlerErrorCode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Reconciles fleets of rules against FakeCloudWatchEventsClient. Every call goes through the RateLimiter, so the fleets
+ * are kept small enough to stay within one or two seconds of budget.
+ */
+public class RuleReconcilerTest {
+
+    private static final int RULE_COUNT = 20;
+    private static final String EVENT_BUS_NAME = "TestEventBus";
+
+    private FakeCloudWatchEventsClient sdkClient;
+    private RuleReconciler reconciler;
+
+    @BeforeEach
+    public void setup() {
+        sdkClient = FakeCloudWatchEventsClient.builder()
+                .eventBus(EVENT_BUS_NAME)
+                .build();
+
+        reconciler = RuleReconciler.builder()
+                .client(sdkClient)
+                .maxConcurrentRules(8)
+                .stabilizationScheduler(new ExponentialBackoffScheduler(1, 1, 30))
+                .build();
+    }
+
+    @Test
+    public void reconcile_Fleet() {
+        // MODEL
+
+        final List<ResourceModel> models = new ArrayList<>();
+        final List<ResourceModel> updatedModels = new ArrayList<>();
+        for (int i = 0; i < RULE_COUNT; i++) {
+            models.add(buildModel(i, "TestDescription", "0", "1", "2"));
+            // Only the even rules change: their description, one target, and which targets they have
+            updatedModels.add(i % 4 == 0 ?
+                    buildModel(i, "UpdatedDescription", "0", "1-updated", "3") :
+                    buildModel(i, "TestDescription", "0", "1", "2"));
+        }
+
+        // RUN + ASSERT [create]
+
+        final List<RuleReconciler.Result> created = reconciler.reconcile(models);
+
+        assertThat(created).extracting(RuleReconciler.Result::getOutcome).containsOnly(RuleReconciler.Outcome.CREATED);
+        assertThat(created).extracting(result -> result.getModel().getArn()).doesNotContainNull();
+        assertThat(sdkClient.ruleCount()).isEqualTo(RULE_COUNT);
+        assertThat(sdkClient.callCount("ListRules")).isEqualTo(2);
+        assertThat(sdkClient.callCount("PutRule")).isEqualTo(RULE_COUNT);
+        assertThat(sdkClient.callCount("PutTargets")).isEqualTo(RULE_COUNT);
+
+        // RUN + ASSERT [nothing has changed, so nothing is put]
+
+        final List<RuleReconciler.Result> unchanged = reconciler.reconcile(models);
+
+        assertThat(unchanged).extracting(RuleReconciler.Result::getOutcome).containsOnly(RuleReconciler.Outcome.UNCHANGED);
+        assertThat(sdkClient.callCount("ListRules")).isEqualTo(4);
+        assertThat(sdkClient.callCount("DescribeRule")).isEqualTo(RULE_COUNT);
+        assertThat(sdkClient.callCount("PutRule")).isEqualTo(RULE_COUNT);
+        assertThat(sdkClient.callCount("PutTargets")).isEqualTo(RULE_COUNT);
+
+        // RUN + ASSERT [update every fourth rule]
+
+        final List<RuleReconciler.Result> updated = reconciler.reconcile(updatedModels);
+
+        for (int i = 0; i < RULE_COUNT; i++) {
+            assertThat(updated.get(i).getModel()).isSameAs(updatedModels.get(i));
+            assertThat(updated.get(i).getOutcome()).isEqualTo(i % 4 == 0 ? RuleReconciler.Outcome.UPDATED : RuleReconciler.Outcome.UNCHANGED);
+        }
+        assertThat(sdkClient.callCount("PutRule")).isEqualTo(RULE_COUNT + RULE_COUNT / 4);
+        assertThat(sdkClient.callCount("RemoveTargets")).isEqualTo(RULE_COUNT / 4);
+
+        assertThat(targetIds(updatedModels.get(0))).containsExactlyInAnyOrder("TestTargetId0", "TestTargetId1", "TestTargetId3");
+        assertThat(targetIds(updatedModels.get(1))).containsExactlyInAnyOrder("TestTargetId0", "TestTargetId1", "TestTargetId2");
+    }
+
+    @Test
+    public void reconcile_InvalidModels() {
+        // MODEL
+
+        final ResourceModel unnamed = ResourceModel.builder()
+                .eventPattern(Collections.singletonMap("source", Collections.singletonList("aws.s3")))
+                .build();
+        final ResourceModel invalidPattern = ResourceModel.builder()
+                .name("TestRule")
+                .eventPattern(Collections.singletonMap("source", "aws.s3"))
+                .build();
+        final ResourceModel first = buildModel(0, "TestDescription");
+        final ResourceModel duplicate = buildModel(0, "OtherDescription");
+
+        // RUN
+
+        final List<RuleReconciler.Result> results = reconciler.reconcile(Arrays.asList(unnamed, invalidPattern, first, duplicate));
+
+        // ASSERT
+
+        assertThat(results).extracting(RuleReconciler.Result::getOutcome).containsExactly(
+                RuleReconciler.Outcome.FAILED, RuleReconciler.Outcome.FAILED, RuleReconciler.Outcome.CREATED, RuleReconciler.Outcome.FAILED);
+        assertThat(results.get(0).getErrorCode()).isEqualTo(HandlerErrorCode.InvalidRequest);
+        assertThat(results.get(1).getErrorCode()).isEqualTo(HandlerErrorCode.InvalidRequest);
+        assertThat(results.get(3).getErrorCode()).isEqualTo(HandlerErrorCode.InvalidRequest);
+        assertThat(sdkClient.callCount("PutRule")).isEqualTo(1);
+    }
+
+    @Test
+    public void reconcile_MissingEventBus() {
+        // MODEL
+
+        final ResourceModel missing = ResourceModel.builder()
+                .name("TestRule")
+                .eventBusName("MissingEventBus")
+                .eventPattern(Collections.singletonMap("source", Collections.singletonList("aws.s3")))
+                .build();
+
+        // RUN
+
+        final List<RuleReconciler.Result> results = reconciler.reconcile(Arrays.asList(missing, buildModel(1, "TestDescription", "0")));
+
+        // ASSERT
+
+        assertThat(results.get(0).getOutcome()).isEqualTo(RuleReconciler.Outcome.FAILED);
+        assertThat(results.get(0).getErrorCode()).isEqualTo(HandlerErrorCode.NotFound);
+        assertThat(results.get(1).getOutcome()).isEqualTo(RuleReconciler.Outcome.CREATED);
+        assertThat(sdkClient.ruleCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void reconcile_EventPatternArrayOrder() {
+        // MODEL
+
+        final ResourceModel model = buildModel(0, "TestDescription", "0");
+        model.setEventPattern(Collections.singletonMap("detail", Collections.singletonMap("price",
+                Collections.singletonList(Collections.singletonMap("numeric", Arrays.asList(">", 5, "<", 10))))));
+
+        final ResourceModel reordered = buildModel(0, "TestDescription", "0");
+        reordered.setEventPattern(Collections.singletonMap("detail", Collections.singletonMap("price",
+                Collections.singletonList(Collections.singletonMap("numeric", Arrays.asList(">", 10, "<", 5))))));
+
+        // RUN
+
+        final List<RuleReconciler.Result> created = reconciler.reconcile(Collections.singletonList(model));
+        final List<RuleReconciler.Result> updated = reconciler.reconcile(Collections.singletonList(reordered));
+
+        // ASSERT
+
+        assertThat(created.get(0).getOutcome()).isEqualTo(RuleReconciler.Outcome.CREATED);
+        assertThat(updated.get(0).getOutcome()).isEqualTo(RuleReconciler.Outcome.UPDATED);
+        assertThat(sdkClient.callCount("PutRule")).isEqualTo(2);
+        assertThat(sdkClient.describeRule(DescribeRuleRequest.builder()
+                .name(reordered.getName())
+                .build())
+                .eventPattern()).isEqualTo("{\"detail\":{\"price\":[{\"numeric\":[\">\",10,\"<\",5]}]}}");
+    }
+
+    private Set<String> targetIds(final ResourceModel model) {
+        final Set<String> targetIds = new HashSet<>();
+        sdkClient.listTargetsByRule(ListTargetsByRuleRequest.builder()
+                .rule(model.getName())
+                .eventBusName(model.getEventBusName())
+                .build())
+                .targets()
+                .forEach(target -> targetIds.add(target.id()));
+        return targetIds;
+    }
+
+    private static ResourceModel buildModel(final int i, final String description, final String... targetSuffixes) {
+        final Map<String, Object> eventPattern = new HashMap<>();
+        eventPattern.put("source", Collections.singletonList("aws.s3"));
+        eventPattern.put("detail", Collections.singletonMap("bucket", Collections.singletonMap("name", Collections.singletonList("test-bucket-" + i))));
+
+        final Set<Target> targets = new HashSet<>();
+        for (String targetSuffix : targetSuffixes) {
+            targets.add(Target.builder()
+                    .id("TestTargetId" + targetSuffix.split("-")[0])
+                    .arn("arn:aws:lambda:us-west-2:123456789123:function:TestFunction" + targetSuffix)
+                    .build());
+        }
+
+        return ResourceModel.builder()
+                .name("TestRule" + i)
+                .eventBusName(i % 2 == 0 ? null : EVENT_BUS_NAME)
+                .description(description)
+                .eventPattern(eventPattern)
+                .state("ENABLED")
+                .targets(targets.isEmpty() ? null : targets)
+                .build();
+    }
+}
@@ -4,6 +4,7 @@ import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
@@ -36,6 +37,7 @@ import software.amazon.cloudformation.proxy.OperationStatus;
 import software.amazon.cloudformation.proxy.ProgressEvent;
 import software.amazon.cloudformation.proxy.ProxyClient;
 import software.amazon.cloudformation.proxy.ResourceHandlerRequest;
+import software.amazon.cloudformation.resource.Serializer;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -46,10 +48,12 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 
 @ExtendWith(MockitoExtension.class)
 public class UpdateHandlerTest extends AbstractTestBase {
@@ -65,6 +69,9 @@ public class UpdateHandlerTest extends AbstractTestBase {
 
     private static final ObjectMapper MAPPER = new ObjectMapper();
 
+    // 100 target ids to put and 100 to delete take about 5000 bytes; the rest of the context must stay small
+    private static final int MAX_SERIALIZED_CALLBACK_CONTEXT_BYTES = 8192;
+
     @BeforeEach
     public void setup() {
         proxy = new AmazonWebServicesClientProxy(logger, MOCK_CREDENTIALS, () -> Duration.ofSeconds(600).toMillis());
@@ -137,6 +144,8 @@ public class UpdateHandlerTest extends AbstractTestBase {
         removeTargets
         listTargetsByRule
         putTargets
+        listTargetsByRule (added target not yet visible)
+
         listTargetsByRule
          */
 
@@ -211,8 +220,6 @@ public class UpdateHandlerTest extends AbstractTestBase {
         CallbackContext context = new CallbackContext();
         ProgressEvent<ResourceModel, CallbackContext> response;
 
-        response = handler.handleRequest(proxy, request, context, proxyClient, logger);
-        assertThat(response.getStatus()).isEqualTo(OperationStatus.IN_PROGRESS);
         response = handler.handleRequest(proxy, request, context, proxyClient, logger);
         assertThat(response.getStatus()).isEqualTo(OperationStatus.IN_PROGRESS);
         response = handler.handleRequest(proxy, request, context, proxyClient, logger);
@@ -226,6 +233,11 @@ public class UpdateHandlerTest extends AbstractTestBase {
         assertThat(response.getResourceModels()).isNull();
         assertThat(response.getMessage()).isNull();
         assertThat(response.getErrorCode()).isNull();
+
+        // The existing target is unchanged, so only the added target is put
+        final String existingTargetId = targets.iterator().next().getId();
+        verify(proxyClient.client()).putTargets(argThat((PutTargetsRequest putTargetsRequest) ->
+                putTargetsRequest.targets().size() == 1 && !putTargetsRequest.targets().get(0).id().equals(existingTargetId)));
     }
 
     @Test
@@ -386,7 +398,9 @@ public class UpdateHandlerTest extends AbstractTestBase {
 
         Collection<Target> responseTargets = new ArrayList<>();
         for (software.amazon.events.rule.Target target :targets) {
-            responseTargets.add(convertTarget(target));
+            responseTargets.add(convertTarget(target).toBuilder()
+                    .arn(target.getArn() + "Previous")
+                    .build());
         }
 
         final DescribeRuleResponse describeRuleResponse = DescribeRuleResponse.builder()
@@ -438,8 +452,17 @@ public class UpdateHandlerTest extends AbstractTestBase {
 
         response = handler.handleRequest(proxy, request, context, proxyClient, logger);
 
+        // Every retry is made by the callback after the delay
+        for (int retry = 0; retry < FailedEntryRetryPolicy.DEFAULT_MAX_RETRIES; retry++) {
+            assertThat(response.getStatus()).isEqualTo(OperationStatus.IN_PROGRESS);
+            assertThat(response.getCallbackDelaySeconds()).isBetween(1, FailedEntryRetryPolicy.DEFAULT_MAX_DELAY_SECONDS);
+            response = handler.handleRequest(proxy, request, context, proxyClient, logger);
+        }
+
         // ASSERT
 
+        verify(sdkClient, times(FailedEntryRetryPolicy.DEFAULT_MAX_RETRIES + 1)).putTargets(any(PutTargetsRequest.class));
+
         assertThat(response).isNotNull();
         assertThat(response.getStatus()).isEqualTo(OperationStatus.FAILED);
         assertThat(response.getCallbackDelaySeconds()).isEqualTo(0);
@@ -449,6 +472,81 @@ public class UpdateHandlerTest extends AbstractTestBase {
         assertThat(response.getErrorCode()).isEqualTo(HandlerErrorCode.InternalFailure);
     }
 
+    @Test
+    public void handleRequest_CreateTargetsTerminalFailure() {
+        final UpdateHandler handler = new UpdateHandler(new ExponentialBackoffScheduler(), new FailedEntryRetryPolicy(3, 1, 4));
+
+        // MODEL
+
+        final ResourceModel model = ResourceModel.builder()
+                .name("TestRule")
+                .scheduleExpression("rate(1 day)")
+                .state("ENABLED")
+                .targets(Collections.singleton(software.amazon.events.rule.Target.builder()
+                        .id("TestLambdaFunctionId")
+                        .arn("arn:aws:lambda:us-west-2:123456789123:function:TestLambdaFunctionId")
+                        .build()))
+                .build();
+
+        // MOCK
+
+        /*
+        describeRule
+        putRule
+        describeRule
+        listTargetsByRule
+        putTargets (fails with a terminal error code, so it is not retried)
+         */
+
+        final DescribeRuleResponse describeRuleResponse = DescribeRuleResponse.builder()
+                .name(model.getName())
+                .scheduleExpression(model.getScheduleExpression())
+                .state(model.getState())
+                .build();
+
+        final PutTargetsResponse putTargetsResponse = PutTargetsResponse.builder()
+                .failedEntryCount(1)
+                .failedEntries(PutTargetsResultEntry.builder()
+                        .targetId("TestLambdaFunctionId")
+                        .errorCode("ValidationException")
+                        .errorMessage("Invalid target")
+                        .build())
+                .build();
+
+        when(proxyClient.client().describeRule(any(DescribeRuleRequest.class)))
+                .thenReturn(describeRuleResponse);
+
+        when(proxyClient.client().putRule(any(PutRuleRequest.class)))
+                .thenReturn(PutRuleResponse.builder().ruleArn("arn").build());
+
+        when(proxyClient.client().listTargetsByRule(any(ListTargetsByRuleRequest.class)))
+                .thenReturn(ListTargetsByRuleResponse.builder().build());
+
+        when(proxyClient.client().putTargets(any(PutTargetsRequest.class)))
+                .thenReturn(putTargetsResponse);
+
+        // RUN
+
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(model)
+                .build();
+
+        CallbackContext context = new CallbackContext();
+        ProgressEvent<ResourceModel, CallbackContext> response;
+
+        response = handler.handleRequest(proxy, request, context, proxyClient, logger);
+
+        // ASSERT
+
+        verify(sdkClient, times(1)).putTargets(any(PutTargetsRequest.class));
+
+        assertThat(response).isNotNull();
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.FAILED);
+        assertThat(response.getMessage()).isEqualTo("Target(s) failed to create/update");
+        assertThat(response.getErrorCode()).isEqualTo(HandlerErrorCode.InternalFailure);
+        assertThat(context.getRetryAttemptsForPutTargets()).isEqualTo(0);
+    }
+
     @Test
     public void handleRequest_RemoveTargetsFail() {
         final UpdateHandler handler = new UpdateHandler();
@@ -565,8 +663,17 @@ public class UpdateHandlerTest extends AbstractTestBase {
 
         response = handler.handleRequest(proxy, request, context, proxyClient, logger);
 
+        // Every retry is made by the callback after the delay
+        for (int retry = 0; retry < FailedEntryRetryPolicy.DEFAULT_MAX_RETRIES; retry++) {
+            assertThat(response.getStatus()).isEqualTo(OperationStatus.IN_PROGRESS);
+            assertThat(response.getCallbackDelaySeconds()).isBetween(1, FailedEntryRetryPolicy.DEFAULT_MAX_DELAY_SECONDS);
+            response = handler.handleRequest(proxy, request, context, proxyClient, logger);
+        }
+
         // ASSERT
 
+        verify(sdkClient, times(FailedEntryRetryPolicy.DEFAULT_MAX_RETRIES + 1)).removeTargets(any(RemoveTargetsRequest.class));
+
         assertThat(response).isNotNull();
         assertThat(response.getStatus()).isEqualTo(OperationStatus.FAILED);
         assertThat(response.getCallbackDelaySeconds()).isEqualTo(0);
@@ -781,9 +888,6 @@ public class UpdateHandlerTest extends AbstractTestBase {
         final RemoveTargetsResponse removeTargetsResponse = RemoveTargetsResponse.builder()
                 .build();
 
-        final PutTargetsResponse putTargetsResponse = PutTargetsResponse.builder()
-                .build();
-
         when(proxyClient.client().describeRule(any(DescribeRuleRequest.class)))
                 .thenReturn(describeRuleResponse);
 
@@ -798,9 +902,6 @@ public class UpdateHandlerTest extends AbstractTestBase {
         when(proxyClient.client().removeTargets(any(RemoveTargetsRequest.class)))
                 .thenReturn(removeTargetsResponse);
 
-        when(proxyClient.client().putTargets(any(PutTargetsRequest.class)))
-                .thenReturn(putTargetsResponse);
-
         // RUN
 
         final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
@@ -810,10 +911,6 @@ public class UpdateHandlerTest extends AbstractTestBase {
         CallbackContext context = new CallbackContext();
         ProgressEvent<ResourceModel, CallbackContext> response;
 
-        response = handler.handleRequest(proxy, request, context, proxyClient, logger);
-        assertThat(response.getStatus()).isEqualTo(OperationStatus.IN_PROGRESS);
-        response = handler.handleRequest(proxy, request, context, proxyClient, logger);
-        assertThat(response.getStatus()).isEqualTo(OperationStatus.IN_PROGRESS);
         response = handler.handleRequest(proxy, request, context, proxyClient, logger);
 
         // ASSERT
@@ -940,7 +1037,6 @@ public class UpdateHandlerTest extends AbstractTestBase {
         putRule
         listTargetsByRule
         removeTargets
-        putTargets
 
         describeRule
         listTargetsByRule
@@ -982,9 +1078,6 @@ public class UpdateHandlerTest extends AbstractTestBase {
         final RemoveTargetsResponse removeTargetsResponse = RemoveTargetsResponse.builder()
                 .build();
 
-        final PutTargetsResponse putTargetsResponse = PutTargetsResponse.builder()
-                .build();
-
         when(proxyClient.client().describeRule(any(DescribeRuleRequest.class)))
                 .thenReturn(describeRuleResponse);
 
@@ -999,9 +1092,6 @@ public class UpdateHandlerTest extends AbstractTestBase {
         when(proxyClient.client().removeTargets(any(RemoveTargetsRequest.class)))
                 .thenReturn(removeTargetsResponse);
 
-        when(proxyClient.client().putTargets(any(PutTargetsRequest.class)))
-                .thenReturn(putTargetsResponse);
-
         // RUN
 
         final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
@@ -1011,10 +1101,6 @@ public class UpdateHandlerTest extends AbstractTestBase {
         CallbackContext context = new CallbackContext();
         ProgressEvent<ResourceModel, CallbackContext> response;
 
-        response = handler.handleRequest(proxy, request, context, proxyClient, logger);
-        assertThat(response.getStatus()).isEqualTo(OperationStatus.IN_PROGRESS);
-        response = handler.handleRequest(proxy, request, context, proxyClient, logger);
-        assertThat(response.getStatus()).isEqualTo(OperationStatus.IN_PROGRESS);
         response = handler.handleRequest(proxy, request, context, proxyClient, logger);
 
         // ASSERT
@@ -1119,6 +1205,104 @@ public class UpdateHandlerTest extends AbstractTestBase {
         assertThat(response.getStatus()).isEqualTo(OperationStatus.FAILED);
     }
 
+    @Test
+    public void handleRequest_CallbackContextSize() throws Exception {
+        final UpdateHandler handler = new UpdateHandler();
+
+        // MODEL
+
+        Set<software.amazon.events.rule.Target> targets = new HashSet<>();
+
+        for (int i = 0; i < 100; i++) {
+            targets.add(software.amazon.events.rule.Target.builder()
+                    .id("TestLambdaFunctionId" + i)
+                    .arn("arn:aws:lambda:us-west-2:123456789123:function:TestLambdaFunctionId" + i)
+                    .input("{\"detail\":{\"bucket\":\"testcdkstack-bucket43879c71-r2j3dsw4wp4z\"}}")
+                    .build());
+        }
+
+        final ResourceModel model = ResourceModel.builder()
+                .name("TestRule")
+                .scheduleExpression("rate(1 day)")
+                .state("ENABLED")
+                .targets(targets)
+                .build();
+
+        // MOCK
+
+        /*
+        describeRule
+        putRule
+        describeRule
+        listTargetsByRule (100 changed targets, 100 stale targets)
+        removeTargets
+        listTargetsByRule (100 changed targets)
+        putTargets (10 batches)
+        listTargetsByRule (100 desired targets)
+         */
+
+        Collection<Target> responseTargets1 = new ArrayList<>();
+        Collection<Target> responseTargets2 = new ArrayList<>();
+        Collection<Target> responseTargets3 = new ArrayList<>();
+        for (software.amazon.events.rule.Target target : targets) {
+            Target changedTarget = convertTarget(target).toBuilder()
+                    .arn(target.getArn() + "Previous")
+                    .build();
+
+            responseTargets1.add(changedTarget);
+            responseTargets1.add(changedTarget.toBuilder()
+                    .id(target.getId() + "Stale")
+                    .build());
+            responseTargets2.add(changedTarget);
+            responseTargets3.add(convertTarget(target));
+        }
+
+        final DescribeRuleResponse describeRuleResponse = DescribeRuleResponse.builder()
+                .name(model.getName())
+                .scheduleExpression(model.getScheduleExpression())
+                .state(model.getState())
+                .build();
+
+        when(proxyClient.client().describeRule(any(DescribeRuleRequest.class)))
+                .thenReturn(describeRuleResponse);
+
+        when(proxyClient.client().putRule(any(PutRuleRequest.class)))
+                .thenReturn(PutRuleResponse.builder().ruleArn("arn").build());
+
+        when(proxyClient.client().listTargetsByRule(any(ListTargetsByRuleRequest.class)))
+                .thenReturn(ListTargetsByRuleResponse.builder().targets(responseTargets1).build())
+                .thenReturn(ListTargetsByRuleResponse.builder().targets(responseTargets2).build())
+                .thenReturn(ListTargetsByRuleResponse.builder().targets(responseTargets3).build());
+
+        when(proxyClient.client().removeTargets(any(RemoveTargetsRequest.class)))
+                .thenReturn(RemoveTargetsResponse.builder().build());
+
+        when(proxyClient.client().putTargets(any(PutTargetsRequest.class)))
+                .thenReturn(PutTargetsResponse.builder().build());
+
+        // RUN
+
+        final ResourceHandlerRequest<ResourceModel> request = ResourceHandlerRequest.<ResourceModel>builder()
+                .desiredResourceState(model)
+                .build();
+
+        CallbackContext context = new CallbackContext();
+        ProgressEvent<ResourceModel, CallbackContext> response;
+
+        response = handler.handleRequest(proxy, request, context, proxyClient, logger);
+
+        // ASSERT
+
+        verify(sdkClient, times(10)).putTargets(any(PutTargetsRequest.class));
+
+        assertThat(response.getStatus()).isEqualTo(OperationStatus.SUCCESS);
+        assertThat(context.getTargetIdsToPut()).hasSize(100);
+        assertThat(context.getTargetIdsToDelete()).hasSize(100);
+
+        // The context is sent back with every callback, so it must not grow with the size of the targets
+        final String serializedContext = new Serializer().serialize(context);
+        assertThat(serializedContext.length()).isLessThan(MAX_SERIALIZED_CALLBACK_CONTEXT_BYTES);
+    }
 
     /**
      * A hacky way to avoid rewriting logic to convert ResourceModel Targets to AwsSdk Targets